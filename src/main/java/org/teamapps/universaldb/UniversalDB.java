@@ -27,19 +27,27 @@ import org.slf4j.MarkerFactory;
 import org.teamapps.universaldb.context.UserContext;
 import org.teamapps.universaldb.index.DatabaseIndex;
 import org.teamapps.universaldb.index.FieldIndex;
+import org.teamapps.universaldb.index.FullTextIndexPipeline;
 import org.teamapps.universaldb.index.IndexType;
 import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.bool.BooleanIndex;
+import org.teamapps.universaldb.index.bulk.BulkLoadBatch;
+import org.teamapps.universaldb.index.bulk.BulkLoader;
 import org.teamapps.universaldb.index.counter.ViewCounter;
 import org.teamapps.universaldb.index.counter.ViewCounterImpl;
+import org.teamapps.universaldb.index.file.FileContentExtractor;
+import org.teamapps.universaldb.index.file.FileStoreGarbageCollector;
 import org.teamapps.universaldb.index.file.FileIndex;
 import org.teamapps.universaldb.index.file.FileValue;
 import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
+import org.teamapps.universaldb.index.numeric.*;
 import org.teamapps.universaldb.index.reference.CyclicReferenceUpdate;
 import org.teamapps.universaldb.index.reference.multi.MultiReferenceIndex;
 import org.teamapps.universaldb.index.reference.single.SingleReferenceIndex;
 import org.teamapps.universaldb.index.reference.value.MultiReferenceEditValue;
 import org.teamapps.universaldb.index.reference.value.RecordReference;
 import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceUpdate;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
 import org.teamapps.universaldb.index.text.FullTextIndexValue;
 import org.teamapps.universaldb.index.transaction.TransactionIndex;
 import org.teamapps.universaldb.index.transaction.TransactionType;
@@ -48,6 +56,7 @@ import org.teamapps.universaldb.index.transaction.request.TransactionRequestReco
 import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
 import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordValue;
 import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionDecoder;
 import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionRecord;
 import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionRecordType;
 import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionRecordValue;
@@ -55,9 +64,15 @@ import org.teamapps.universaldb.index.transaction.schema.ModelUpdate;
 import org.teamapps.universaldb.index.translation.TranslatableText;
 import org.teamapps.universaldb.model.DatabaseModel;
 import org.teamapps.universaldb.model.TableModel;
+import org.teamapps.universaldb.query.QueryResultCache;
+import org.teamapps.universaldb.replication.ReplicationConfig;
+import org.teamapps.universaldb.replication.ReplicationFollower;
+import org.teamapps.universaldb.replication.ReplicationLeader;
 import org.teamapps.universaldb.schema.ModelProvider;
 import org.teamapps.universaldb.schema.Table;
 import org.teamapps.universaldb.update.RecordUpdateEvent;
+import org.teamapps.universaldb.update.UpdateEventStream;
+import org.teamapps.universaldb.update.UpdateEventSubscription;
 
 import java.io.File;
 import java.io.IOException;
@@ -67,6 +82,11 @@ import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class UniversalDB {
@@ -74,6 +94,7 @@ public class UniversalDB {
 
 	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 	private static final ThreadLocal<Integer> THREAD_LOCAL_USER_ID = ThreadLocal.withInitial(() -> 0);
+	private static final int MAX_TRANSACTION_BATCH_SIZE = 256;
 	private static final ThreadLocal<UserContext> THREAD_LOCAL_USER_CONTEXT = ThreadLocal.withInitial(() -> UserContext.create(Locale.US));
 
 	private final DatabaseManager databaseManager;
@@ -83,22 +104,46 @@ public class UniversalDB {
 	private final File fullTextIndexPath;
 	private final File transactionLogPath;
 	private final TransactionIndex transactionIndex;
+	private final UpdateEventStream updateEventStream;
+	private final FullTextIndexConfig fullTextIndexConfig;
+	private final FullTextIndexPipeline fullTextIndexPipeline;
+	private final FileContentExtractor fileContentExtractor;
+	private FileStoreGarbageCollector fileStoreGarbageCollector;
+	private ArrayBlockingQueue<RecordUpdateEvent> updateEventQueue;
 
 	private final Map<Integer, TableIndex> tableById = new HashMap<>();
 	private final Map<Integer, FieldIndex> columnById = new HashMap<>();
 	private final Map<TableIndex, Class> entityClassByTableIndex = new HashMap<>();
 	private final Map<TableIndex, Class> queryClassByTableIndex = new HashMap<>();
-	private final ArrayBlockingQueue<RecordUpdateEvent> updateEventQueue = new ArrayBlockingQueue<>(25_000);
 	private final Map<Long, CompletableFuture<ResolvedTransaction>> transactionCompletableFutureMap = new ConcurrentHashMap<>();
 	private final Map<TableIndex, ViewCounter> viewCounterMap = new ConcurrentHashMap<>();
+	private final ResolvedTransactionDecoder transactionDecoder = new ResolvedTransactionDecoder();
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final LinkedBlockingQueue<PendingTransaction> pendingTransactions = new LinkedBlockingQueue<>();
+	private final AtomicBoolean transactionWriterStarted = new AtomicBoolean();
+	private volatile Thread transactionWriter;
+	private ReplicationLeader replicationLeader;
+	private ReplicationFollower replicationFollower;
 
 	protected UniversalDB(ModelProvider modelProvider, DatabaseManager databaseManager, DatabaseFileStore fileStore, File indexPath, File fullTextIndexPath, File transactionLogPath, ClassLoader classLoader, boolean skipTransactionIndexCheck) throws Exception {
+		this(modelProvider, databaseManager, fileStore, indexPath, fullTextIndexPath, transactionLogPath, classLoader, skipTransactionIndexCheck, null);
+	}
+
+	protected UniversalDB(ModelProvider modelProvider, DatabaseManager databaseManager, DatabaseFileStore fileStore, File indexPath, File fullTextIndexPath, File transactionLogPath, ClassLoader classLoader, boolean skipTransactionIndexCheck, ReplicationConfig replicationConfig) throws Exception {
+		this(modelProvider, databaseManager, fileStore, indexPath, fullTextIndexPath, transactionLogPath, classLoader, skipTransactionIndexCheck, replicationConfig, null);
+	}
+
+	protected UniversalDB(ModelProvider modelProvider, DatabaseManager databaseManager, DatabaseFileStore fileStore, File indexPath, File fullTextIndexPath, File transactionLogPath, ClassLoader classLoader, boolean skipTransactionIndexCheck, ReplicationConfig replicationConfig, FullTextIndexConfig fullTextIndexConfig) throws Exception {
 		this.databaseManager = databaseManager;
+		this.fullTextIndexConfig = fullTextIndexConfig != null ? fullTextIndexConfig : FullTextIndexConfig.create();
+		this.fullTextIndexPipeline = this.fullTextIndexConfig.isAsyncIndexing() ? new FullTextIndexPipeline(this.fullTextIndexConfig) : null;
+		this.fileContentExtractor = new FileContentExtractor(this.fullTextIndexConfig);
 		this.fileStore = fileStore;
 		this.indexPath = indexPath;
 		this.fullTextIndexPath = fullTextIndexPath;
 		this.transactionLogPath = transactionLogPath;
 		this.transactionIndex = new TransactionIndex(transactionLogPath, skipTransactionIndexCheck);
+		this.updateEventStream = new UpdateEventStream(transactionIndex);
 		createShutdownHook();
 		DatabaseModel model = modelProvider.getModel();
 		if (!model.isValid()) {
@@ -115,7 +160,9 @@ public class UniversalDB {
 
 		databaseIndex = new DatabaseIndex(this, model.getName(), indexPath, fullTextIndexPath, fileStore);
 
-		if (transactionIndex.isModelUpdate(model)) {
+		if (replicationConfig != null && replicationConfig.isFollower()) {
+			startReplicationFollower(model, replicationConfig);
+		} else if (transactionIndex.isModelUpdate(model)) {
 			executeTransaction(createModelUpdateTransactionRequest(model));
 		} else {
 			DatabaseModel currentModel = transactionIndex.getCurrentModel();
@@ -124,6 +171,31 @@ public class UniversalDB {
 
 		installLocalTableClasses(classLoader);
 		databaseManager.registerDatabase(model.getName(), this, classLoader);
+		if (replicationConfig != null && replicationConfig.isLeader()) {
+			replicationLeader = new ReplicationLeader(this, replicationConfig);
+		}
+	}
+
+	private void startReplicationFollower(DatabaseModel model, ReplicationConfig replicationConfig) throws Exception {
+		if (transactionIndex.getCurrentModel() != null) {
+			mergeDatabaseIndex(transactionIndex.getCurrentModel());
+		}
+		replicationFollower = new ReplicationFollower(this, replicationConfig);
+		if (!replicationFollower.awaitInSync(replicationConfig.getSyncTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+			if (replicationFollower.isFailed()) {
+				replicationFollower.close();
+				throw new RuntimeException("Replication from leader failed: " + replicationConfig.getLeaderHost() + ":" + replicationConfig.getPort(), replicationFollower.getFailure());
+			}
+			if (transactionIndex.getCurrentModel() == null) {
+				replicationFollower.close();
+				throw new RuntimeException("Could not synchronize with replication leader: " + replicationConfig.getLeaderHost() + ":" + replicationConfig.getPort());
+			}
+			logger.warn("Replication leader not reachable, starting follower with local state, last transaction id: {}", transactionIndex.getLastTransactionId());
+		}
+		if (transactionIndex.isModelUpdate(model)) {
+			replicationFollower.close();
+			throw new RuntimeException("Cannot start follower with a model that is not known by the replication leader:" + model.getName());
+		}
 	}
 
 	public static int getUserId() {
@@ -145,6 +217,10 @@ public class UniversalDB {
 
 	private void mergeDatabaseIndex(DatabaseModel currentModel) {
 		databaseIndex.installModel(currentModel, true, this);
+		QueryResultCache queryResultCache = databaseIndex.getQueryResultCache();
+		if (queryResultCache != null) {
+			queryResultCache.clear();
+		}
 		for (TableIndex table : databaseIndex.getTables()) {
 			tableById.put(table.getMappingId(), table);
 			for (FieldIndex fieldIndex : table.getFieldIndices()) {
@@ -179,6 +255,22 @@ public class UniversalDB {
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
 			try {
 				logger.info(SKIP_DB_LOGGING, "SHUTTING DOWN DATABASE");
+				if (replicationLeader != null) {
+					replicationLeader.close();
+				}
+				if (replicationFollower != null) {
+					replicationFollower.close();
+				}
+				updateEventStream.close();
+				stopTransactionWriter();
+				if (fullTextIndexPipeline != null) {
+					fullTextIndexPipeline.close();
+				}
+				fileContentExtractor.close();
+				if (fileStoreGarbageCollector != null) {
+					fileStoreGarbageCollector.stop();
+				}
+				fileStore.close();
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -281,7 +373,16 @@ public class UniversalDB {
 	}
 
 
-	public synchronized void createInitialTableTransactions(TableIndex tableIndex) throws Exception {
+	public void createInitialTableTransactions(TableIndex tableIndex) throws Exception {
+		writeLock.lock();
+		try {
+			writeInitialTableTransactions(tableIndex);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void writeInitialTableTransactions(TableIndex tableIndex) throws Exception {
 		if (!tableIndex.getRecordVersioningIndex().isEmpty()) {
 			return;
 		}
@@ -365,6 +466,9 @@ public class UniversalDB {
 	}
 
 	public ResolvedTransaction executeTransaction(TransactionRequest transaction) {
+		if (isReadOnly()) {
+			throw new RuntimeException("Cannot execute transaction on read-only replication follower:" + getName());
+		}
 		try {
 //			if (clusterClientTopic != null) {
 //				if (!active) {
@@ -383,13 +487,120 @@ public class UniversalDB {
 //			} else {
 //				return handleTransactionRequest(transaction);
 //			}
-			return handleTransactionRequest(transaction);
+			writeLock.lock();
+			try {
+				ResolvedTransaction resolvedTransaction = handleTransactionRequest(transaction);
+				publishTransaction(resolvedTransaction);
+				return resolvedTransaction;
+			} finally {
+				writeLock.unlock();
+			}
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	private synchronized ResolvedTransaction handleTransactionRequest(TransactionRequest transactionRequest) throws Exception {
+	/**
+	 * Queues the transaction for the single writer thread. Queued transactions are applied in batches,
+	 * the transaction log is flushed once per batch before the futures complete.
+	 */
+	public CompletableFuture<ResolvedTransaction> executeTransactionAsync(TransactionRequest transaction) {
+		CompletableFuture<ResolvedTransaction> future = new CompletableFuture<>();
+		if (isReadOnly()) {
+			future.completeExceptionally(new RuntimeException("Cannot execute transaction on read-only replication follower:" + getName()));
+			return future;
+		}
+		startTransactionWriter();
+		pendingTransactions.add(new PendingTransaction(transaction, future));
+		return future;
+	}
+
+	private void startTransactionWriter() {
+		if (transactionWriterStarted.compareAndSet(false, true)) {
+			Thread thread = new Thread(this::writePendingTransactions, "udb-transaction-writer-" + getName());
+			thread.setDaemon(true);
+			transactionWriter = thread;
+			thread.start();
+		}
+	}
+
+	private void stopTransactionWriter() {
+		Thread thread = transactionWriter;
+		if (thread != null) {
+			thread.interrupt();
+		}
+		PendingTransaction pendingTransaction;
+		while ((pendingTransaction = pendingTransactions.poll()) != null) {
+			pendingTransaction.future.completeExceptionally(new RuntimeException("Database shut down:" + getName()));
+		}
+	}
+
+	private void writePendingTransactions() {
+		List<PendingTransaction> batch = new ArrayList<>();
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(pendingTransactions.take());
+				pendingTransactions.drainTo(batch, MAX_TRANSACTION_BATCH_SIZE - 1);
+				writeTransactionBatch(batch);
+			} catch (InterruptedException e) {
+				break;
+			} catch (Throwable e) {
+				logger.error("Error writing transaction batch", e);
+			}
+			batch.clear();
+		}
+	}
+
+	private void writeTransactionBatch(List<PendingTransaction> batch) {
+		writeLock.lock();
+		try {
+			transactionIndex.beginBatch();
+			try {
+				for (PendingTransaction pendingTransaction : batch) {
+					try {
+						pendingTransaction.resolvedTransaction = handleTransactionRequest(pendingTransaction.request);
+					} catch (Throwable e) {
+						pendingTransaction.error = e;
+					}
+				}
+			} finally {
+				transactionIndex.commitBatch();
+			}
+			for (PendingTransaction pendingTransaction : batch) {
+				if (pendingTransaction.resolvedTransaction != null) {
+					publishTransaction(pendingTransaction.resolvedTransaction);
+				}
+			}
+		} catch (Throwable e) {
+			for (PendingTransaction pendingTransaction : batch) {
+				if (pendingTransaction.error == null) {
+					pendingTransaction.error = e;
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		for (PendingTransaction pendingTransaction : batch) {
+			if (pendingTransaction.error != null) {
+				pendingTransaction.future.completeExceptionally(pendingTransaction.error);
+			} else {
+				pendingTransaction.future.complete(pendingTransaction.resolvedTransaction);
+			}
+		}
+	}
+
+	/**
+	 * Publishes a transaction to change data capture subscribers and replication followers once it is in the transaction log,
+	 * for batched transactions after the batch has been flushed.
+	 */
+	private void publishTransaction(ResolvedTransaction resolvedTransaction) throws IOException {
+		updateEventStream.publish(resolvedTransaction);
+		if (replicationLeader != null) {
+			replicationLeader.publishTransaction(resolvedTransaction);
+		}
+	}
+
+	private ResolvedTransaction handleTransactionRequest(TransactionRequest transactionRequest) throws Exception {
 		TransactionType transactionType = transactionRequest.getTransactionType();
 		long transactionId = transactionIndex.getLastTransactionId() + 1;
 		ResolvedTransaction resolvedTransaction = ResolvedTransaction.createFromRequest(transactionId, transactionRequest);
@@ -399,9 +610,6 @@ public class UniversalDB {
 		} else {
 			handleModelUpdateRequest(transactionRequest, resolvedTransaction);
 		}
-//		if (leaderTransactionClusterMessageQueue != null) {
-//			leaderTransactionClusterMessageQueue.sendMessageAsync(resolvedTransaction.getBytes());
-//		}
 		return resolvedTransaction;
 	}
 
@@ -417,6 +625,7 @@ public class UniversalDB {
 	}
 
 	private void handleDataUpdateRequest(TransactionRequest request, ResolvedTransaction resolvedTransaction) throws Exception {
+		Map<TableIndex, Map<Integer, Boolean>> fullTextUpdates = new LinkedHashMap<>();
 		for (TransactionRequestRecord record : request.getRecords()) {
 			if (record.getRecordType() == TransactionRequestRecordType.CREATE || record.getRecordType() == TransactionRequestRecordType.CREATE_WITH_ID) {
 				TableIndex tableIndex = getTableIndexById(record.getTableId());
@@ -456,7 +665,7 @@ public class UniversalDB {
 							})
 							.collect(Collectors.toList());
 					if (!fullTextIndexValues.isEmpty()) {
-						tableIndex.updateFullTextIndex(recordId, fullTextIndexValues, record.getRecordType() == TransactionRequestRecordType.UPDATE);
+						updateFullTextIndex(tableIndex, recordId, fullTextIndexValues, record.getRecordType() == TransactionRequestRecordType.UPDATE, fullTextUpdates);
 					}
 				}
 				case DELETE -> {
@@ -482,9 +691,11 @@ public class UniversalDB {
 					}
 				}
 			}
-			addRecordUpdateEvent(resolvedRecord, resolvedTransaction.getUserId());
 		}
 		transactionIndex.writeTransaction(resolvedTransaction);
+		submitFullTextUpdates(fullTextUpdates, resolvedTransaction.getTransactionId());
+		markModified(resolvedTransaction);
+		markFullTextIndexed(resolvedTransaction.getTransactionId());
 
 		for (ResolvedTransactionRecord transactionRecord : resolvedTransaction.getTransactionRecords()) {
 			TableIndex tableIndex = getTableIndexById(transactionRecord.getTableId());
@@ -495,29 +706,135 @@ public class UniversalDB {
 		resolvedTransaction.setRecordIdByCorrelationId(request.getRecordIdByCorrelationId());
 	}
 
-	public synchronized void handleTransaction(ResolvedTransaction transaction) throws Exception {
-		if (transaction.getTransactionType() == TransactionType.DATA_UPDATE) {
-			handleDataUpdateTransaction(transaction);
-		} else {
-			handleModelUpdateTransaction(transaction);
+	public void handleTransaction(ResolvedTransaction transaction) throws Exception {
+		writeLock.lock();
+		try {
+			if (transaction.getTransactionType() == TransactionType.DATA_UPDATE) {
+				handleDataUpdateTransaction(transaction);
+			} else if (transaction.getTransactionType() == TransactionType.BULK_LOAD) {
+				throw new RuntimeException("Cannot apply bulk load transaction " + transaction.getTransactionId() + ", bulk loaded data is not contained in the transaction log");
+			} else {
+				handleModelUpdateTransaction(transaction);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void handleTransaction(byte[] bytes) throws Exception {
+		writeLock.lock();
+		try {
+			ResolvedTransactionDecoder decoder = transactionDecoder.wrap(bytes);
+			if (decoder.getTransactionType() == TransactionType.DATA_UPDATE && !isVersioningRequired(decoder)) {
+				handleDataUpdateTransaction(decoder, bytes);
+			} else {
+				handleTransaction(ResolvedTransaction.createResolvedTransaction(bytes));
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public ResolvedTransaction bulkLoad(String tableName, Iterator<BulkLoadBatch> batches) {
+		return bulkLoad(databaseIndex.getTable(tableName), batches);
+	}
+
+	/**
+	 * Loads the batches directly into the column stores and writes a single marker into the transaction log.
+	 * If any batch fails, all records loaded so far are removed again. The loaded values are not contained in the log,
+	 * so bulk loads are not available on a replication leader.
+	 */
+	public ResolvedTransaction bulkLoad(TableIndex tableIndex, Iterator<BulkLoadBatch> batches) {
+		if (isReadOnly()) {
+			throw new RuntimeException("Cannot bulk load into read-only replication follower:" + getName());
+		}
+		if (replicationLeader != null) {
+			throw new RuntimeException("Cannot bulk load into replication leader, followers cannot replay bulk loaded data:" + getName());
+		}
+		writeLock.lock();
+		try {
+			BulkLoader bulkLoader = new BulkLoader(tableIndex, getUserId());
+			ResolvedTransaction transaction;
+			try {
+				while (batches.hasNext()) {
+					bulkLoader.load(batches.next());
+				}
+				bulkLoader.finish();
+				long transactionId = transactionIndex.getLastTransactionId() + 1;
+				transaction = new ResolvedTransaction(transactionIndex.getNodeId(), transactionIndex.createTransactionRequestId(), transactionId, getUserId(), System.currentTimeMillis(), bulkLoader.createMarker());
+				transactionIndex.writeTransaction(transaction);
+			} catch (Exception e) {
+				try {
+					bulkLoader.rollback();
+				} catch (Exception rollbackError) {
+					e.addSuppressed(rollbackError);
+				}
+				throw e;
+			}
+			//reverse references of the loaded records change other tables as well
+			databaseIndex.getTables().forEach(table -> table.setModifiedTransactionId(transaction.getTransactionId()));
+			markFullTextIndexed(transaction.getTransactionId());
+			updateEventStream.publish(transaction);
+			return transaction;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
 	private void handleModelUpdateTransaction(ResolvedTransaction transaction) throws Exception {
-		DatabaseModel model = transaction.getModelUpdate().getMergedModel();
-		DatabaseModel currentModel = transactionIndex.getCurrentModel();
-		if (currentModel != null) {
-			currentModel.mergeModel(model);
+		ModelUpdate modelUpdate = transaction.getModelUpdate();
+		transactionIndex.writeTransaction(transaction);
+		transactionIndex.writeModelUpdate(modelUpdate);
+		mergeDatabaseIndex(modelUpdate.getMergedModel());
+	}
+
+	private void updateFullTextIndex(TableIndex tableIndex, int recordId, List<FullTextIndexValue> values, boolean update, Map<TableIndex, Map<Integer, Boolean>> fullTextUpdates) {
+		if (fullTextIndexPipeline != null) {
+			fullTextUpdates.computeIfAbsent(tableIndex, table -> new LinkedHashMap<>()).merge(recordId, update, (update1, update2) -> update1 || update2);
 		} else {
-			currentModel = model;
+			tableIndex.updateFullTextIndex(recordId, values, update);
 		}
-		transactionIndex.writeTransaction(transaction);
+	}
+
+	/**
+	 * Hands the buffered full-text updates to the indexing pipeline once the transaction is written,
+	 * so the indexed watermark never covers a transaction that is only partially submitted.
+	 */
+	private void submitFullTextUpdates(Map<TableIndex, Map<Integer, Boolean>> fullTextUpdates, long transactionId) {
+		fullTextUpdates.forEach((tableIndex, updateByRecordId) -> fullTextIndexPipeline.submit(tableIndex, updateByRecordId, transactionId));
+	}
 
-		transactionIndex.writeModelUpdate(transaction.getModelUpdate());
-		mergeDatabaseIndex(currentModel);
+	/**
+	 * Advances the full-text checkpoint of all tables without pending asynchronous index updates.
+	 */
+	private void markFullTextIndexed(long transactionId) {
+		for (TableIndex tableIndex : databaseIndex.getTables()) {
+			if (fullTextIndexPipeline == null || !fullTextIndexPipeline.isPending(tableIndex)) {
+				tableIndex.setFullTextIndexedTransactionId(transactionId);
+			}
+		}
+	}
+
+	/**
+	 * Marks the tables changed by the transaction, this invalidates the cached query results that read them.
+	 */
+	private void markModified(ResolvedTransaction transaction) {
+		for (ResolvedTransactionRecord record : transaction.getTransactionRecords()) {
+			getTableIndexById(record.getTableId()).setModifiedTransactionId(transaction.getTransactionId());
+		}
+	}
+
+	private void markModified(ResolvedTransactionDecoder decoder) {
+		decoder.rewind();
+		while (decoder.nextRecord()) {
+			getTableIndexById(decoder.getTableId()).setModifiedTransactionId(decoder.getTransactionId());
+		}
 	}
 
 	private void handleDataUpdateTransaction(ResolvedTransaction transaction) throws Exception {
+		Map<TableIndex, Map<Integer, Boolean>> fullTextUpdates = new LinkedHashMap<>();
 		for (ResolvedTransactionRecord record : transaction.getTransactionRecords()) {
 			TableIndex tableIndex = getTableIndexById(record.getTableId());
 
@@ -537,7 +854,7 @@ public class UniversalDB {
 							})
 							.collect(Collectors.toList());
 					if (!fullTextIndexValues.isEmpty()) {
-						tableIndex.updateFullTextIndex(record.getRecordId(), fullTextIndexValues, record.getRecordType() == ResolvedTransactionRecordType.UPDATE);
+						updateFullTextIndex(tableIndex, record.getRecordId(), fullTextIndexValues, record.getRecordType() == ResolvedTransactionRecordType.UPDATE, fullTextUpdates);
 					}
 				}
 				case DELETE -> {
@@ -557,9 +874,12 @@ public class UniversalDB {
 //				case REMOVE_CYCLIC_REFERENCE:
 //					break;
 			}
-			addRecordUpdateEvent(record, transaction.getUserId());
 		}
 		transactionIndex.writeTransaction(transaction);
+		submitFullTextUpdates(fullTextUpdates, transaction.getTransactionId());
+		markModified(transaction);
+		markFullTextIndexed(transaction.getTransactionId());
+		updateEventStream.publish(transaction);
 
 		for (ResolvedTransactionRecord transactionRecord : transaction.getTransactionRecords()) {
 			TableIndex tableIndex = getTableIndexById(transactionRecord.getTableId());
@@ -569,6 +889,62 @@ public class UniversalDB {
 		}
 	}
 
+	private boolean isVersioningRequired(ResolvedTransactionDecoder decoder) {
+		boolean versioning = false;
+		while (!versioning && decoder.nextRecord()) {
+			versioning = getTableIndexById(decoder.getTableId()).getTableModel().isVersioning();
+		}
+		decoder.rewind();
+		return versioning;
+	}
+
+	private void handleDataUpdateTransaction(ResolvedTransactionDecoder decoder, byte[] bytes) throws Exception {
+		Map<TableIndex, Map<Integer, Boolean>> fullTextUpdates = new LinkedHashMap<>();
+		while (decoder.nextRecord()) {
+			TableIndex tableIndex = getTableIndexById(decoder.getTableId());
+			int recordId = decoder.getRecordId();
+			ResolvedTransactionRecordType recordType = decoder.getRecordType();
+			switch (recordType) {
+				case CREATE, CREATE_WITH_ID, UPDATE -> {
+					if (recordType == ResolvedTransactionRecordType.CREATE || recordType == ResolvedTransactionRecordType.CREATE_WITH_ID) {
+						tableIndex.createRecord(recordId);
+					}
+					List<FullTextIndexValue> fullTextIndexValues = null;
+					while (decoder.nextValue()) {
+						persistColumnValueUpdates(recordId, decoder);
+						if (decoder.getIndexType() == IndexType.TEXT || decoder.getIndexType() == IndexType.TRANSLATABLE_TEXT) {
+							if (fullTextIndexValues == null) {
+								fullTextIndexValues = new ArrayList<>();
+							}
+							String columnName = getColumnById(decoder.getColumnId()).getName();
+							fullTextIndexValues.add(decoder.getIndexType() == IndexType.TEXT ? new FullTextIndexValue(columnName, (String) decoder.getValue()) : new FullTextIndexValue(columnName, (TranslatableText) decoder.getValue()));
+						}
+					}
+					if (fullTextIndexValues != null) {
+						updateFullTextIndex(tableIndex, recordId, fullTextIndexValues, recordType == ResolvedTransactionRecordType.UPDATE, fullTextUpdates);
+					}
+				}
+				case DELETE -> {
+					tableIndex.deleteRecord(recordId);
+					while (decoder.nextValue()) {
+						persistColumnValueUpdates(recordId, decoder);
+					}
+				}
+				case RESTORE -> {
+					tableIndex.restoreRecord(recordId);
+					while (decoder.nextValue()) {
+						persistColumnValueUpdates(recordId, decoder);
+					}
+				}
+			}
+		}
+		transactionIndex.writeTransaction(decoder.getTransactionId(), bytes);
+		submitFullTextUpdates(fullTextUpdates, decoder.getTransactionId());
+		markModified(decoder);
+		markFullTextIndexed(decoder.getTransactionId());
+		updateEventStream.publish(decoder);
+	}
+
 	private List<CyclicReferenceUpdate> persistColumnValueUpdates(int recordId, TransactionRequestRecordValue recordValue, Map<Integer, Integer> recordIdByCorrelationId, ResolvedTransactionRecord resolvedRecord) {
 		FieldIndex fieldIndex = getColumnById(recordValue.getColumnId());
 		Object value = recordValue.getValue();
@@ -617,6 +993,43 @@ public class UniversalDB {
 		}
 	}
 
+	private void persistColumnValueUpdates(int recordId, ResolvedTransactionDecoder decoder) {
+		FieldIndex fieldIndex = getColumnById(decoder.getColumnId());
+		if (decoder.hasValue() && fieldIndex.getType() == decoder.getIndexType()) {
+			switch (fieldIndex.getType()) {
+				case BOOLEAN -> {
+					((BooleanIndex) fieldIndex).setValue(recordId, decoder.getBooleanValue());
+					return;
+				}
+				case SHORT -> {
+					((ShortIndex) fieldIndex).setValue(recordId, decoder.getShortValue());
+					return;
+				}
+				case INT -> {
+					((IntegerIndex) fieldIndex).setValue(recordId, decoder.getIntValue());
+					return;
+				}
+				case LONG -> {
+					((LongIndex) fieldIndex).setValue(recordId, decoder.getLongValue());
+					return;
+				}
+				case FLOAT -> {
+					((FloatIndex) fieldIndex).setValue(recordId, decoder.getFloatValue());
+					return;
+				}
+				case DOUBLE -> {
+					((DoubleIndex) fieldIndex).setValue(recordId, decoder.getDoubleValue());
+					return;
+				}
+				case REFERENCE -> {
+					((SingleReferenceIndex) fieldIndex).setValue(recordId, decoder.getIntValue(), false);
+					return;
+				}
+			}
+		}
+		persistColumnValueUpdates(recordId, decoder.toRecordValue());
+	}
+
 	public void createDatabaseDump(File dumpFolder) throws IOException {
 		File dbFolder = new File(dumpFolder, databaseIndex.getName());
 		dbFolder.mkdir();
@@ -631,11 +1044,9 @@ public class UniversalDB {
 		}
 	}
 
-	private void addRecordUpdateEvent(ResolvedTransactionRecord resolvedRecord, int userId) {
-		if (userId > 0) {
-			RecordUpdateEvent updateEvent = new RecordUpdateEvent(resolvedRecord.getTableId(), resolvedRecord.getRecordId(), userId, resolvedRecord.getRecordType().getUpdateType());
-			updateEventQueue.offer(updateEvent);
-		}
+	public UpdateEventSubscription subscribeUpdateEvents(Consumer<List<RecordUpdateEvent>> handler, TableIndex... tables) {
+		int[] tableIds = Arrays.stream(tables).mapToInt(TableIndex::getMappingId).toArray();
+		return updateEventStream.subscribe(handler, tableIds);
 	}
 
 
@@ -659,7 +1070,99 @@ public class UniversalDB {
 		return transactionIndex;
 	}
 
-	public ArrayBlockingQueue<RecordUpdateEvent> getUpdateEventQueue() {
+	public boolean isReadOnly() {
+		return replicationFollower != null;
+	}
+
+	public ReplicationLeader getReplicationLeader() {
+		return replicationLeader;
+	}
+
+	public ReplicationFollower getReplicationFollower() {
+		return replicationFollower;
+	}
+
+	public UpdateEventStream getUpdateEventStream() {
+		return updateEventStream;
+	}
+
+	/**
+	 * Queue of the update events of transactions with a user id, starting with the first call.
+	 * Events are dropped while the queue is full.
+	 *
+	 * @deprecated use {@link #subscribeUpdateEvents(Consumer, TableIndex...)}
+	 */
+	@Deprecated
+	public synchronized ArrayBlockingQueue<RecordUpdateEvent> getUpdateEventQueue() {
+		if (updateEventQueue == null) {
+			ArrayBlockingQueue<RecordUpdateEvent> queue = new ArrayBlockingQueue<>(25_000);
+			updateEventStream.subscribe(events -> {
+				for (RecordUpdateEvent event : events) {
+					if (event.getUserId() > 0) {
+						queue.offer(event);
+					}
+				}
+			});
+			updateEventQueue = queue;
+		}
 		return updateEventQueue;
 	}
+
+	public FullTextIndexConfig getFullTextIndexConfig() {
+		return fullTextIndexConfig;
+	}
+
+	public FullTextIndexPipeline getFullTextIndexPipeline() {
+		return fullTextIndexPipeline;
+	}
+
+	public FileContentExtractor getFileContentExtractor() {
+		return fileContentExtractor;
+	}
+
+	/**
+	 * Creates a garbage collector for files that have not been referenced for the grace period, e.g. for a dry run report.
+	 * Files stored before reference tracking started are only collected if no table with versioning has file fields.
+	 */
+	public FileStoreGarbageCollector createFileStoreGarbageCollector(long gracePeriodMillis) {
+		return new FileStoreGarbageCollector(fileStore, databaseIndex.getFileReferenceIndex(), gracePeriodMillis, !databaseIndex.hasVersionedFileFields());
+	}
+
+	public synchronized FileStoreGarbageCollector startFileGarbageCollection(long gracePeriodMillis, long sweepIntervalMillis) {
+		if (fileStoreGarbageCollector == null) {
+			fileStoreGarbageCollector = createFileStoreGarbageCollector(gracePeriodMillis);
+			fileStoreGarbageCollector.start(sweepIntervalMillis);
+		}
+		return fileStoreGarbageCollector;
+	}
+
+	public FileStoreGarbageCollector getFileStoreGarbageCollector() {
+		return fileStoreGarbageCollector;
+	}
+
+	/**
+	 * Caches the results of queries with cacheable filters until one of the tables they read is changed.
+	 */
+	public synchronized QueryResultCache enableQueryResultCache(long maxBytes) {
+		if (databaseIndex.getQueryResultCache() == null) {
+			databaseIndex.setQueryResultCache(new QueryResultCache(maxBytes));
+		}
+		return databaseIndex.getQueryResultCache();
+	}
+
+	public QueryResultCache getQueryResultCache() {
+		return databaseIndex.getQueryResultCache();
+	}
+
+	private static class PendingTransaction {
+		private final TransactionRequest request;
+		private final CompletableFuture<ResolvedTransaction> future;
+		private ResolvedTransaction resolvedTransaction;
+		private Throwable error;
+
+		private PendingTransaction(TransactionRequest request, CompletableFuture<ResolvedTransaction> future) {
+			this.request = request;
+			this.future = future;
+		}
+	}
 }
@@ -19,8 +19,11 @@
  */
 package org.teamapps.universaldb;
 
+import org.teamapps.universaldb.index.file.store.ChunkingConfig;
 import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
 import org.teamapps.universaldb.index.file.store.LocalDatabaseFileStore;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+import org.teamapps.universaldb.replication.ReplicationConfig;
 import org.teamapps.universaldb.schema.ModelProvider;
 
 import java.io.File;
@@ -34,9 +37,15 @@ public class UniversalDbBuilder {
 	private File transactionLogPath;
 	private File fileStorePath;
 	private DatabaseFileStore fileStore;
+	private ChunkingConfig fileChunkingConfig;
 	private DatabaseManager databaseManager;
 	private ClassLoader classLoader;
 	private boolean skipTransactionIndexCheck = false;
+	private ReplicationConfig replicationConfig;
+	private FullTextIndexConfig fullTextIndexConfig;
+	private long fileGarbageCollectionGracePeriodMillis;
+	private long fileGarbageCollectionIntervalMillis;
+	private long queryResultCacheMaxBytes;
 
 	public static UniversalDbBuilder create() {
 		return new UniversalDbBuilder();
@@ -80,6 +89,14 @@ public class UniversalDbBuilder {
 		return this;
 	}
 
+	/**
+	 * Stores large files of the default local file store as content defined chunks.
+	 */
+	public UniversalDbBuilder fileChunking(ChunkingConfig chunkingConfig) {
+		this.fileChunkingConfig = chunkingConfig;
+		return this;
+	}
+
 	public UniversalDbBuilder modelProvider(ModelProvider modelProvider) {
 		this.modelProvider = modelProvider;
 		return this;
@@ -100,6 +117,41 @@ public class UniversalDbBuilder {
 		return this;
 	}
 
+	public UniversalDbBuilder replication(ReplicationConfig replicationConfig) {
+		this.replicationConfig = replicationConfig;
+		return this;
+	}
+
+	public UniversalDbBuilder replicationLeader(int port) {
+		return replication(ReplicationConfig.leader(port));
+	}
+
+	public UniversalDbBuilder replicationFollower(String leaderHost, int leaderPort) {
+		return replication(ReplicationConfig.follower(leaderHost, leaderPort));
+	}
+
+	public UniversalDbBuilder fullTextIndexConfig(FullTextIndexConfig fullTextIndexConfig) {
+		this.fullTextIndexConfig = fullTextIndexConfig;
+		return this;
+	}
+
+	/**
+	 * Delete stored files that have not been referenced for the grace period, the store is swept one partition per interval.
+	 */
+	public UniversalDbBuilder fileGarbageCollection(long gracePeriodMillis, long sweepIntervalMillis) {
+		this.fileGarbageCollectionGracePeriodMillis = gracePeriodMillis;
+		this.fileGarbageCollectionIntervalMillis = sweepIntervalMillis;
+		return this;
+	}
+
+	/**
+	 * Cache the results of queries until a table they read is changed, using at most the given memory.
+	 */
+	public UniversalDbBuilder queryResultCache(long maxBytes) {
+		this.queryResultCacheMaxBytes = maxBytes;
+		return this;
+	}
+
 	public UniversalDB build() throws Exception {
 		if (basePath != null) {
 			if (indexPath == null) {
@@ -136,7 +188,7 @@ public class UniversalDbBuilder {
 			}
 		}
 		if (fileStore == null) {
-			fileStore = new LocalDatabaseFileStore(fileStorePath);
+			fileStore = new LocalDatabaseFileStore(fileStorePath, fileChunkingConfig);
 		}
 		if (databaseManager == null) {
 			databaseManager = DatabaseManager.getBaseInstance();
@@ -144,6 +196,13 @@ public class UniversalDbBuilder {
 		if (classLoader == null) {
 			classLoader = getClass().getClassLoader();
 		}
-		return new UniversalDB(modelProvider, databaseManager, fileStore, indexPath, fullTextIndexPath, transactionLogPath, classLoader, skipTransactionIndexCheck);
+		UniversalDB universalDB = new UniversalDB(modelProvider, databaseManager, fileStore, indexPath, fullTextIndexPath, transactionLogPath, classLoader, skipTransactionIndexCheck, replicationConfig, fullTextIndexConfig);
+		if (queryResultCacheMaxBytes > 0) {
+			universalDB.enableQueryResultCache(queryResultCacheMaxBytes);
+		}
+		if (fileGarbageCollectionIntervalMillis > 0) {
+			universalDB.startFileGarbageCollection(fileGarbageCollectionGracePeriodMillis, fileGarbageCollectionIntervalMillis);
+		}
+		return universalDB;
 	}
 }
@@ -26,14 +26,24 @@ import org.teamapps.commons.util.collections.CollectionUtil;
 import org.teamapps.universaldb.DatabaseManager;
 import org.teamapps.universaldb.UniversalDB;
 import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
+import org.teamapps.universaldb.index.log.LogIterator;
+import org.teamapps.universaldb.index.file.FileContentExtractor;
+import org.teamapps.universaldb.index.file.FileIndex;
+import org.teamapps.universaldb.index.file.FileReferenceIndex;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+import org.teamapps.universaldb.index.transaction.TransactionIndex;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+import org.teamapps.universaldb.index.transaction.resolved.BulkLoadMarker;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionDecoder;
 import org.teamapps.universaldb.model.DatabaseModel;
 import org.teamapps.universaldb.model.ReferenceFieldModel;
 import org.teamapps.universaldb.model.TableModel;
+import org.teamapps.universaldb.query.QueryResultCache;
 
 import java.io.File;
 import java.lang.invoke.MethodHandles;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class DatabaseIndex {
@@ -45,7 +55,10 @@ public class DatabaseIndex {
 	private final File fullTextIndexPath;
 	private final List<TableIndex> tables;
 	private final DatabaseFileStore databaseFileStore;
+	private final FileReferenceIndex fileReferenceIndex;
 	private DatabaseModel databaseModel;
+	private boolean fullTextIndexRecovered;
+	private volatile QueryResultCache queryResultCache;
 
 
 	public DatabaseIndex(UniversalDB universalDB, String name, File dataPath, File fullTextIndexPath, DatabaseFileStore databaseFileStore) {
@@ -54,6 +67,7 @@ public class DatabaseIndex {
 		this.dataPath = dataPath;
 		this.fullTextIndexPath = fullTextIndexPath;
 		this.databaseFileStore = databaseFileStore;
+		this.fileReferenceIndex = dataPath != null ? new FileReferenceIndex(dataPath, "file-store") : null;
 		this.tables = new ArrayList<>();
 	}
 
@@ -103,6 +117,10 @@ public class DatabaseIndex {
 			}
 		});
 
+		if (fileReferenceIndex != null && !fileReferenceIndex.isInitialized()) {
+			rebuildFileReferences();
+		}
+
 		if (checkFullTextIndex) {
 			for (TableIndex tableIndex : tables) {
 				if (tableIndex.getTableModel().isVersioning()) {
@@ -110,6 +128,70 @@ public class DatabaseIndex {
 				}
 				tableIndex.checkFullTextIndex();
 			}
+			if (!fullTextIndexRecovered && universalDB != null && universalDB.getTransactionIndex() != null) {
+				fullTextIndexRecovered = true;
+				recoverFullTextIndices(universalDB.getTransactionIndex());
+			}
+		}
+	}
+
+	/**
+	 * Re-indexes all records changed after the last full-text checkpoints with a single scan of the transaction log.
+	 * If the recovery fails the full-text indices of the affected tables are rebuilt.
+	 */
+	private void recoverFullTextIndices(TransactionIndex transactionIndex) {
+		long lastTransactionId = transactionIndex.getLastTransactionId();
+		Map<Integer, TableIndex> tableByMappingId = new HashMap<>();
+		Map<Integer, Long> recoveryTransactionIdByMappingId = new HashMap<>();
+		Map<Integer, BitSet> changedRecordsByMappingId = new HashMap<>();
+		long firstTransactionId = Long.MAX_VALUE;
+		for (TableIndex tableIndex : tables) {
+			long recoveryTransactionId = tableIndex.getFullTextRecoveryTransactionId(lastTransactionId);
+			if (recoveryTransactionId >= 0) {
+				tableByMappingId.put(tableIndex.getMappingId(), tableIndex);
+				recoveryTransactionIdByMappingId.put(tableIndex.getMappingId(), recoveryTransactionId);
+				changedRecordsByMappingId.put(tableIndex.getMappingId(), new BitSet());
+				firstTransactionId = Math.min(firstTransactionId, recoveryTransactionId);
+			}
+		}
+		if (tableByMappingId.isEmpty()) {
+			return;
+		}
+		try (LogIterator logIterator = transactionIndex.getLogIterator(firstTransactionId)) {
+			ResolvedTransactionDecoder decoder = new ResolvedTransactionDecoder();
+			while (logIterator.hasNext()) {
+				byte[] bytes = logIterator.next();
+				long transactionId = ResolvedTransaction.readTransactionId(bytes);
+				if (transactionId <= firstTransactionId) {
+					continue;
+				}
+				decoder.wrap(bytes);
+				if (decoder.getTransactionType() == TransactionType.BULK_LOAD) {
+					BulkLoadMarker marker = ResolvedTransaction.createResolvedTransaction(bytes).getBulkLoadMarker();
+					Long recoveryTransactionId = recoveryTransactionIdByMappingId.get(marker.getTableId());
+					if (recoveryTransactionId != null && transactionId > recoveryTransactionId && marker.getFirstRecordId() > 0) {
+						changedRecordsByMappingId.get(marker.getTableId()).set(marker.getFirstRecordId(), marker.getLastRecordId() + 1);
+					}
+					continue;
+				}
+				if (decoder.getTransactionType() != TransactionType.DATA_UPDATE) {
+					continue;
+				}
+				while (decoder.nextRecord()) {
+					Long recoveryTransactionId = recoveryTransactionIdByMappingId.get(decoder.getTableId());
+					if (recoveryTransactionId != null && decoder.getTransactionId() > recoveryTransactionId) {
+						changedRecordsByMappingId.get(decoder.getTableId()).set(decoder.getRecordId());
+					}
+				}
+			}
+			for (TableIndex tableIndex : tableByMappingId.values()) {
+				tableIndex.recoverFullTextIndex(changedRecordsByMappingId.get(tableIndex.getMappingId()), lastTransactionId);
+			}
+		} catch (Exception e) {
+			logger.error("Full text index recovery failed, rebuilding indices", e);
+			for (TableIndex tableIndex : tableByMappingId.values()) {
+				tableIndex.forceFullTextIndexRecreation();
+			}
 		}
 	}
 
@@ -153,6 +235,53 @@ public class DatabaseIndex {
 		return universalDB;
 	}
 
+	public FullTextIndexConfig getFullTextIndexConfig() {
+		return universalDB != null ? universalDB.getFullTextIndexConfig() : FullTextIndexConfig.create();
+	}
+
+	private void rebuildFileReferences() {
+		long time = System.currentTimeMillis();
+		fileReferenceIndex.clear();
+		for (TableIndex tableIndex : tables) {
+			for (FieldIndex<?, ?> fieldIndex : tableIndex.getFieldIndices()) {
+				if (fieldIndex instanceof FileIndex fileIndex) {
+					fileIndex.addFileReferences(fileReferenceIndex);
+				}
+			}
+		}
+		fileReferenceIndex.setInitialized();
+		logger.info("Built file references of " + name + ": " + fileReferenceIndex.getFileCount() + " files, time: " + (System.currentTimeMillis() - time));
+	}
+
+	public FileReferenceIndex getFileReferenceIndex() {
+		return fileReferenceIndex;
+	}
+
+	/**
+	 * @return the result cache of queries on this database or null if query results are not cached
+	 */
+	public QueryResultCache getQueryResultCache() {
+		return queryResultCache;
+	}
+
+	public void setQueryResultCache(QueryResultCache queryResultCache) {
+		this.queryResultCache = queryResultCache;
+	}
+
+	/**
+	 * @return true if a table with versioning has file fields, older versions may then reference files that are not counted
+	 */
+	public boolean hasVersionedFileFields() {
+		return tables.stream()
+				.filter(tableIndex -> tableIndex.getTableModel().isVersioning())
+				.flatMap(tableIndex -> tableIndex.getFieldIndices().stream())
+				.anyMatch(fieldIndex -> fieldIndex instanceof FileIndex);
+	}
+
+	public FileContentExtractor getFileContentExtractor() {
+		return universalDB != null ? universalDB.getFileContentExtractor() : null;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -30,6 +30,7 @@ import org.teamapps.universaldb.query.IndexPath;
 
 import java.io.*;
 import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -71,6 +72,31 @@ public interface FieldIndex<TYPE, FILTER> extends MappedObject {
 
 	List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext);
 
+	/**
+	 * @return the order of sort entries by the values of their leaf records, or null if this field has no sort order
+	 */
+	default Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
+		return null;
+	}
+
+	/**
+	 * @return the value the sort comparator orders this record by, comparable with equals
+	 */
+	default Object getSortValue(int id, UserContext userContext) {
+		return getGenericValue(id);
+	}
+
+	/**
+	 * Sorts the records by primitive sort keys that are read once per record.
+	 *
+	 * @param recordIds the ids of the records to sort in ascending order
+	 * @param leafIds the ids of the records holding the sort values, the same as recordIds if there is no reference path
+	 * @return the sorted record ids or null if this field has no primitive sort keys
+	 */
+	default int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		return null;
+	}
+
 	BitSet filter(BitSet records, FILTER filter);
 
 	default String getStringValue(int id) {
@@ -0,0 +1,217 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+
+import java.lang.invoke.MethodHandles;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies full-text index updates of committed transactions on background threads.
+ * Each table has its own queue, updates of a table are applied in order and in batches with one document per record.
+ * The indexed transaction id of a table is its watermark: full-text queries wait until all transactions
+ * submitted before the query are indexed.
+ */
+public class FullTextIndexPipeline {
+
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final int maxBatchSize;
+	private final long maxWaitMillis;
+	private final ExecutorService executor;
+	private final Map<TableIndex, TableQueue> queueByTable = new ConcurrentHashMap<>();
+
+	public FullTextIndexPipeline(FullTextIndexConfig config) {
+		this.maxBatchSize = Math.max(1, config.getIndexingBatchSize());
+		this.maxWaitMillis = config.getIndexingWaitMillis();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, config.getIndexingThreads()), runnable -> {
+			Thread thread = new Thread(runnable, "udb-full-text-indexer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Submits the full-text updates of a table of a committed transaction, all updates of the transaction are queued at once.
+	 */
+	public void submit(TableIndex tableIndex, Map<Integer, Boolean> updateByRecordId, long transactionId) {
+		queueByTable.computeIfAbsent(tableIndex, TableQueue::new).add(updateByRecordId, transactionId);
+	}
+
+	public long getIndexedTransactionId(TableIndex tableIndex) {
+		TableQueue queue = queueByTable.get(tableIndex);
+		return queue != null ? queue.indexedTransactionId : 0;
+	}
+
+	public boolean isPending(TableIndex tableIndex) {
+		TableQueue queue = queueByTable.get(tableIndex);
+		return queue != null && queue.indexedTransactionId < queue.submittedTransactionId;
+	}
+
+	public int getPendingCount(TableIndex tableIndex) {
+		TableQueue queue = queueByTable.get(tableIndex);
+		return queue != null ? queue.tasks.size() : 0;
+	}
+
+	/**
+	 * Waits until all updates of the table submitted before this call are indexed.
+	 */
+	public boolean awaitIndexed(TableIndex tableIndex, long timeoutMillis) {
+		TableQueue queue = queueByTable.get(tableIndex);
+		return queue == null || queue.awaitIndexed(queue.submittedTransactionId, timeoutMillis);
+	}
+
+	/**
+	 * Indexes all pending updates on the calling thread and stops the indexing threads.
+	 */
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (TableQueue queue : queueByTable.values()) {
+			while (!queue.tasks.isEmpty()) {
+				queue.processBatch();
+			}
+		}
+	}
+
+	private class TableQueue implements Runnable {
+
+		private final TableIndex tableIndex;
+		private final ConcurrentLinkedQueue<IndexTask> tasks = new ConcurrentLinkedQueue<>();
+		private final Object queueLock = new Object();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition indexedCondition = lock.newCondition();
+		private volatile long submittedTransactionId;
+		private volatile long indexedTransactionId;
+
+		private TableQueue(TableIndex tableIndex) {
+			this.tableIndex = tableIndex;
+			if (maxWaitMillis > 0) {
+				tableIndex.getCollectionTextSearchIndex().setSearchBarrier(() -> awaitIndexed(submittedTransactionId, maxWaitMillis));
+			}
+		}
+
+		private void add(Map<Integer, Boolean> updateByRecordId, long transactionId) {
+			synchronized (queueLock) {
+				updateByRecordId.forEach((recordId, update) -> tasks.add(new IndexTask(recordId, update, transactionId)));
+				submittedTransactionId = Math.max(submittedTransactionId, transactionId);
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (!executor.isShutdown() && scheduled.compareAndSet(false, true)) {
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				processBatch();
+			} catch (Throwable e) {
+				logger.error("Error indexing full text of table: " + tableIndex.getName(), e);
+			} finally {
+				scheduled.set(false);
+				if (!tasks.isEmpty()) {
+					schedule();
+				}
+			}
+		}
+
+		private synchronized void processBatch() {
+			Map<Integer, Boolean> updateByRecordId = new LinkedHashMap<>();
+			long indexedTransactionId;
+			synchronized (queueLock) {
+				//a transaction is queued at once, so the batch is complete up to the transaction of the next queued task
+				long lastTransactionId = 0;
+				IndexTask task;
+				while (updateByRecordId.size() < maxBatchSize && (task = tasks.poll()) != null) {
+					updateByRecordId.merge(task.recordId, task.update, (update1, update2) -> update1 || update2);
+					lastTransactionId = Math.max(lastTransactionId, task.transactionId);
+				}
+				IndexTask next = tasks.peek();
+				indexedTransactionId = next == null ? lastTransactionId : Math.min(lastTransactionId, next.transactionId - 1);
+			}
+			if (updateByRecordId.isEmpty()) {
+				return;
+			}
+			tableIndex.updateFullTextIndex(updateByRecordId);
+			markIndexed(indexedTransactionId);
+		}
+
+		private void markIndexed(long transactionId) {
+			lock.lock();
+			try {
+				if (transactionId > indexedTransactionId) {
+					indexedTransactionId = transactionId;
+					tableIndex.setFullTextIndexedTransactionId(transactionId);
+				}
+				indexedCondition.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private boolean awaitIndexed(long transactionId, long timeoutMillis) {
+			if (indexedTransactionId >= transactionId) {
+				return true;
+			}
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			lock.lock();
+			try {
+				while (indexedTransactionId < transactionId && remainingNanos > 0) {
+					remainingNanos = indexedCondition.awaitNanos(remainingNanos);
+				}
+				return indexedTransactionId >= transactionId;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private static class IndexTask {
+		private final int recordId;
+		private final boolean update;
+		private final long transactionId;
+
+		private IndexTask(int recordId, boolean update, long transactionId) {
+			this.recordId = recordId;
+			this.update = update;
+			this.transactionId = transactionId;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorts record ids by primitive sort keys that are extracted once per record. Records with equal keys keep the order
+ * of their ids, so the result matches a stable sort of records in ascending id order.
+ */
+public class RecordSorter {
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+
+	/**
+	 * Sorts by signed int keys. Key and id are packed into one long and sorted with parallel merges.
+	 */
+	public static int[] sortByIntKeys(int[] recordIds, int[] keys, boolean ascending) {
+		int length = recordIds.length;
+		long[] packed = new long[length];
+		for (int i = 0; i < length; i++) {
+			int key = ascending ? keys[i] : ~keys[i];
+			packed[i] = ((long) key << 32) | recordIds[i];
+		}
+		Arrays.parallelSort(packed);
+		int[] sortedIds = new int[length];
+		for (int i = 0; i < length; i++) {
+			sortedIds[i] = (int) packed[i];
+		}
+		return sortedIds;
+	}
+
+	/**
+	 * Sorts by signed long keys with a least significant digit radix sort, the ids must be in ascending order.
+	 */
+	public static int[] sortByLongKeys(int[] recordIds, long[] keys, boolean ascending) {
+		long[] unsignedKeys = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			unsignedKeys[i] = keys[i] ^ Long.MIN_VALUE;
+		}
+		return radixSort(recordIds, unsignedKeys, ascending);
+	}
+
+	/**
+	 * Sorts in the order of {@link Double#compare(double, double)}, the ids must be in ascending order.
+	 */
+	public static int[] sortByDoubleKeys(int[] recordIds, double[] keys, boolean ascending) {
+		long[] unsignedKeys = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			long bits = Double.doubleToLongBits(keys[i]);
+			unsignedKeys[i] = bits < 0 ? ~bits : bits | Long.MIN_VALUE;
+		}
+		return radixSort(recordIds, unsignedKeys, ascending);
+	}
+
+	private static int[] radixSort(int[] recordIds, long[] keys, boolean ascending) {
+		int length = recordIds.length;
+		int[] ids = Arrays.copyOf(recordIds, length);
+		if (!ascending) {
+			for (int i = 0; i < length; i++) {
+				keys[i] = ~keys[i];
+			}
+		}
+		long[] keyBuffer = new long[length];
+		int[] idBuffer = new int[length];
+		int[] offsets = new int[RADIX_BUCKETS];
+		for (int shift = 0; shift < Long.SIZE && length > 1; shift += RADIX_BITS) {
+			Arrays.fill(offsets, 0);
+			for (int i = 0; i < length; i++) {
+				offsets[(int) (keys[i] >>> shift) & (RADIX_BUCKETS - 1)]++;
+			}
+			if (offsets[(int) (keys[0] >>> shift) & (RADIX_BUCKETS - 1)] == length) {
+				//all keys share this digit
+				continue;
+			}
+			int offset = 0;
+			for (int bucket = 0; bucket < RADIX_BUCKETS; bucket++) {
+				int count = offsets[bucket];
+				offsets[bucket] = offset;
+				offset += count;
+			}
+			for (int i = 0; i < length; i++) {
+				int position = offsets[(int) (keys[i] >>> shift) & (RADIX_BUCKETS - 1)]++;
+				keyBuffer[position] = keys[i];
+				idBuffer[position] = ids[i];
+			}
+			long[] swapKeys = keys;
+			keys = keyBuffer;
+			keyBuffer = swapKeys;
+			int[] swapIds = ids;
+			ids = idBuffer;
+			idBuffer = swapIds;
+		}
+		return ids;
+	}
+}
@@ -82,6 +82,58 @@ public class SortEntry<ENTITY extends Entity> {
 		return entries;
 	}
 
+	/**
+	 * Returns the first entries of the records in the order of the comparator without sorting all records. Entries
+	 * with equal values are ordered by id, if an entry to start after is given only records following it are returned.
+	 */
+	public static List<SortEntry> sortTopEntries(BitSet records, Comparator<SortEntry> comparator, SortEntry after, int count, SingleReferenceIndex... path) {
+		if (count <= 0) {
+			return new ArrayList<>();
+		}
+		Comparator<SortEntry> order = comparator.thenComparingInt(SortEntry::getId);
+		PriorityQueue<SortEntry> heap = new PriorityQueue<>(Math.min(count, 1024) + 1, order.reversed());
+		for (int id = records.nextSetBit(0); id >= 0; id = records.nextSetBit(id + 1)) {
+			SortEntry entry = new SortEntry(id, getLeafId(id, path));
+			if (after != null && order.compare(entry, after) <= 0) {
+				continue;
+			}
+			if (heap.size() < count) {
+				heap.add(entry);
+			} else if (order.compare(entry, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(entry);
+			}
+		}
+		List<SortEntry> entries = new ArrayList<>(heap);
+		entries.sort(order);
+		return entries;
+	}
+
+	public static int[] getLeafIds(int[] ids, SingleReferenceIndex... path) {
+		if (path == null || path.length == 0) {
+			return ids;
+		}
+		int[] leafIds = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			leafIds[i] = getLeafId(ids[i], path);
+		}
+		return leafIds;
+	}
+
+	public static int getLeafId(int id, SingleReferenceIndex... path) {
+		if (path == null) {
+			return id;
+		}
+		int recordId = id;
+		for (SingleReferenceIndex singleReferenceIndex : path) {
+			recordId = singleReferenceIndex.getValue(recordId);
+			if (recordId == 0) {
+				break;
+			}
+		}
+		return recordId;
+	}
+
 	public static List<SortEntry> createSortEntries(BitSet records, SingleReferenceIndex... path) {
 		List<SortEntry> entries = new ArrayList<>();
 		boolean noPath = (path == null || path.length == 0);
@@ -29,13 +29,21 @@ import org.teamapps.universaldb.index.binary.BinaryIndex;
 import org.teamapps.universaldb.index.bool.BooleanIndex;
 import org.teamapps.universaldb.index.buffer.index.RecordIndex;
 import org.teamapps.universaldb.index.file.FileIndex;
+import org.teamapps.universaldb.index.filelegacy.FileUtil;
 import org.teamapps.universaldb.index.numeric.*;
 import org.teamapps.universaldb.index.reference.CyclicReferenceUpdate;
 import org.teamapps.universaldb.index.reference.ReferenceIndex;
 import org.teamapps.universaldb.index.reference.multi.MultiReferenceIndex;
 import org.teamapps.universaldb.index.reference.single.SingleReferenceIndex;
 import org.teamapps.universaldb.index.text.CollectionTextSearchIndex;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
 import org.teamapps.universaldb.index.text.FullTextIndexValue;
+import org.teamapps.universaldb.index.text.FullTextRebuildProgress;
+import org.teamapps.universaldb.index.text.FullTextSearchIndex;
+import org.teamapps.universaldb.index.text.ScoredRecord;
+import org.teamapps.universaldb.index.text.SearchBoosts;
+import org.teamapps.universaldb.index.text.ShardedTextSearchIndex;
+import org.teamapps.universaldb.index.text.TextFieldFilter;
 import org.teamapps.universaldb.index.text.TextFilter;
 import org.teamapps.universaldb.index.text.TextIndex;
 import org.teamapps.universaldb.index.translation.TranslatableText;
@@ -54,10 +62,13 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class TableIndex implements MappedObject {
 	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+	private static final int REBUILD_PARTITION_SIZE = 16_384;
 
 	private final DatabaseIndex databaseIndex;
 	private final TableModel tableModel;
@@ -69,12 +80,16 @@ public class TableIndex implements MappedObject {
 	private final Map<String, FieldIndex<?, ?>> fieldIndexByName;
 	private boolean keepDeletedRecords;
 	private RecordIndex deletedRecords;
-	private CollectionTextSearchIndex collectionTextSearchIndex;
+	private FullTextSearchIndex collectionTextSearchIndex;
+	private final Object fullTextLock = new Object();
 	private List<String> fileFieldNames;
 	private List<TextIndex> textFields;
 	private List<TranslatableTextIndex> translatedTextFields;
 	private RecordVersioningIndex recordVersioningIndex;
 	private long lastFullTextIndexCheck;
+	private boolean fullTextLayoutChanged;
+	private volatile FullTextRebuildProgress fullTextRebuildProgress;
+	private volatile long modifiedTransactionId;
 
 
 	public TableIndex(DatabaseIndex databaseIndex, TableModel tableModel) {
@@ -173,9 +188,21 @@ public class TableIndex implements MappedObject {
 		textFields = null;
 	}
 
-	public CollectionTextSearchIndex getCollectionTextSearchIndex() {
+	public FullTextSearchIndex getCollectionTextSearchIndex() {
 		if (collectionTextSearchIndex == null) {
-			collectionTextSearchIndex = new CollectionTextSearchIndex(fullTextIndexPath, "coll-text");
+			FullTextIndexConfig config = databaseIndex.getFullTextIndexConfig();
+			boolean sharded = config.getShards() > 1;
+			File unusedIndexPath = new File(fullTextIndexPath, sharded ? "coll-text" : "coll-text-shards");
+			if (unusedIndexPath.exists()) {
+				logger.warn("Full text index sharding of table " + getName() + " changed, deleting " + unusedIndexPath.getPath() + " and rebuilding index");
+				FileUtil.deleteFileRecursive(unusedIndexPath);
+				fullTextLayoutChanged = true;
+			}
+			if (sharded) {
+				collectionTextSearchIndex = new ShardedTextSearchIndex(fullTextIndexPath, "coll-text-shards", config, records.getMaxId());
+			} else {
+				collectionTextSearchIndex = new CollectionTextSearchIndex(fullTextIndexPath, "coll-text", config);
+			}
 		}
 		return collectionTextSearchIndex;
 	}
@@ -184,9 +211,12 @@ public class TableIndex implements MappedObject {
 		if (collectionTextSearchIndex == null) {
 			return;
 		}
+		boolean uncheckpointed = collectionTextSearchIndex.getIndexedTransactionId() < 0;
 		if (
-				(!records.getBoolean(0) && getCount() > 0 && (System.currentTimeMillis() - lastFullTextIndexCheck > 300_000)) ||
-				getCount() > 0 && collectionTextSearchIndex.getMaxDoc() == 0
+				(uncheckpointed && !records.getBoolean(0) && getCount() > 0 && (System.currentTimeMillis() - lastFullTextIndexCheck > 300_000)) ||
+				getCount() > 0 && collectionTextSearchIndex.getMaxDoc() == 0 ||
+				fullTextLayoutChanged ||
+				collectionTextSearchIndex.isRebuildRequired()
 		) {
 			long time = System.currentTimeMillis();
 			logger.warn("RECREATING FULL TEXT INDEX FOR: " + getName() + " (RECORDS:" + getCount() + ", MAX-DOC:" + collectionTextSearchIndex.getMaxDoc() + ")");
@@ -203,34 +233,175 @@ public class TableIndex implements MappedObject {
 
 	}
 
+	/**
+	 * @return the checkpoint of the full-text index if transactions after it must be re-indexed, otherwise -1
+	 */
+	public long getFullTextRecoveryTransactionId(long lastTransactionId) {
+		if (collectionTextSearchIndex == null) {
+			return -1;
+		}
+		long indexedTransactionId = collectionTextSearchIndex.getIndexedTransactionId();
+		return indexedTransactionId >= 0 && indexedTransactionId < lastTransactionId ? indexedTransactionId : -1;
+	}
+
+	/**
+	 * Re-indexes the records changed by the transactions after the last full-text checkpoint.
+	 */
+	public void recoverFullTextIndex(BitSet changedRecords, long lastTransactionId) {
+		logger.info("Recovering full text index for: " + getName() + " (RECORDS:" + changedRecords.cardinality() + ", FROM TRANSACTION:" + collectionTextSearchIndex.getIndexedTransactionId() + ")");
+		for (int id = changedRecords.nextSetBit(0); id >= 0; id = changedRecords.nextSetBit(id + 1)) {
+			if (isStored(id) || (keepDeletedRecords && deletedRecords.getBoolean(id))) {
+				collectionTextSearchIndex.setRecordValues(id, getFullTextIndexValues(id), true);
+			} else {
+				collectionTextSearchIndex.delete(id, getFileFieldNames());
+			}
+		}
+		collectionTextSearchIndex.setIndexedTransactionId(lastTransactionId);
+		collectionTextSearchIndex.commit(false);
+	}
+
+	public void setFullTextIndexedTransactionId(long transactionId) {
+		FullTextRebuildProgress progress = fullTextRebuildProgress;
+		if (collectionTextSearchIndex != null && (progress == null || progress.isFinished())) {
+			collectionTextSearchIndex.setIndexedTransactionId(transactionId);
+		}
+	}
+
+	/**
+	 * @return the id of the last transaction that changed records of this table since the database was opened
+	 */
+	public long getModifiedTransactionId() {
+		return modifiedTransactionId;
+	}
+
+	public void setModifiedTransactionId(long transactionId) {
+		this.modifiedTransactionId = transactionId;
+	}
+
+	/**
+	 * @return true if changes of this table are not yet visible to full-text queries
+	 */
+	public boolean isFullTextIndexPending() {
+		if (collectionTextSearchIndex == null) {
+			return false;
+		}
+		FullTextRebuildProgress progress = fullTextRebuildProgress;
+		if (progress != null && !progress.isFinished()) {
+			return true;
+		}
+		return modifiedTransactionId > 0 && collectionTextSearchIndex.getIndexedTransactionId() < modifiedTransactionId;
+	}
+
+	private long getLastTransactionId() {
+		UniversalDB universalDB = databaseIndex.getUniversalDB();
+		return universalDB != null && universalDB.getTransactionIndex() != null ? universalDB.getTransactionIndex().getLastTransactionId() : -1;
+	}
+
+	public FullTextRebuildProgress getFullTextRebuildProgress() {
+		return fullTextRebuildProgress;
+	}
+
 	private void recreateFullTextIndex() {
+		FullTextIndexConfig config = databaseIndex.getFullTextIndexConfig();
+		BitSet bitSet = records.getBitSet();
+		int threads = Math.max(1, Math.min(config.getRebuildThreads(), bitSet.cardinality() / REBUILD_PARTITION_SIZE + 1));
+		FullTextRebuildProgress progress = new FullTextRebuildProgress(getName(), bitSet.cardinality(), threads);
+		fullTextRebuildProgress = progress;
+		getTextFields();
+		getTranslatedTextFields();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "udb-full-text-rebuild-" + getName());
+			thread.setDaemon(true);
+			return thread;
+		});
 		try {
+			//the index is incomplete until the final commit, a checkpoint committed in between would skip the rebuild after a crash
+			long lastTransactionId = getLastTransactionId();
+			collectionTextSearchIndex.clearIndexedTransactionId();
 			collectionTextSearchIndex.deleteAllDocuments();
-			BitSet bitSet = records.getBitSet();
-			for (int id = bitSet.nextSetBit(0); id >= 0; id = bitSet.nextSetBit(id + 1)) {
-				List<FullTextIndexValue> values = new ArrayList<>();
-				for (TextIndex textField : getTextFields()) {
-					String value = textField.getValue(id);
-					if (value != null) {
-						values.add(new FullTextIndexValue(textField.getName(), value));
+			collectionTextSearchIndex.setRamBufferSizeMB(config.getRebuildRamBufferSizeMB());
+			AtomicLong lastLogTime = new AtomicLong(System.currentTimeMillis());
+			List<Future<?>> futures = new ArrayList<>();
+			for (int start = 0; start < bitSet.length(); start += REBUILD_PARTITION_SIZE) {
+				int partitionStart = start;
+				int partitionEnd = Math.min(bitSet.length(), start + REBUILD_PARTITION_SIZE);
+				futures.add(executor.submit(() -> {
+					int count = 0;
+					for (int id = bitSet.nextSetBit(partitionStart); id >= 0 && id < partitionEnd; id = bitSet.nextSetBit(id + 1)) {
+						List<FullTextIndexValue> values = getFullTextIndexValues(id);
+						if (!values.isEmpty()) {
+							collectionTextSearchIndex.setRecordValues(id, values, false);
+						}
+						count++;
 					}
-				}
-				for (TranslatableTextIndex translatableTextIndex : getTranslatedTextFields()) {
-					TranslatableText value = translatableTextIndex.getValue(id);
-					if (value != null) {
-						values.add(new FullTextIndexValue(translatableTextIndex.getName(), value));
+					progress.addIndexedRecords(count);
+					long lastLog = lastLogTime.get();
+					if (System.currentTimeMillis() - lastLog > 10_000 && lastLogTime.compareAndSet(lastLog, System.currentTimeMillis())) {
+						logger.info("Full text index rebuild: " + progress);
 					}
-				}
-				if (!values.isEmpty()) {
-					collectionTextSearchIndex.setRecordValues(id, values, false);
-				}
+				}));
 			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			collectionTextSearchIndex.setIndexedTransactionId(lastTransactionId);
 			collectionTextSearchIndex.commit(false);
-		} catch (IOException e) {
+			fullTextLayoutChanged = false;
+			progress.finish();
+			logger.info("Full text index rebuild finished: " + progress);
+		} catch (IOException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new RuntimeException(e);
+		} finally {
+			executor.shutdownNow();
+			collectionTextSearchIndex.setRamBufferSizeMB(CollectionTextSearchIndex.DEFAULT_RAM_BUFFER_SIZE_MB);
 		}
 	}
 
+	public void updateFullTextIndex(BitSet recordIds) {
+		if (collectionTextSearchIndex == null) {
+			return;
+		}
+		for (int id = recordIds.nextSetBit(0); id >= 0; id = recordIds.nextSetBit(id + 1)) {
+			List<FullTextIndexValue> values = getFullTextIndexValues(id);
+			if (!values.isEmpty()) {
+				collectionTextSearchIndex.setRecordValues(id, values, true);
+			}
+		}
+		collectionTextSearchIndex.commit(false);
+	}
+
+	public void updateFullTextIndex(Map<Integer, Boolean> updateByRecordId) {
+		FullTextSearchIndex searchIndex = getCollectionTextSearchIndex();
+		for (Map.Entry<Integer, Boolean> entry : updateByRecordId.entrySet()) {
+			int id = entry.getKey();
+			synchronized (fullTextLock) {
+				if (isStored(id)) {
+					searchIndex.setRecordValues(id, getFullTextIndexValues(id), entry.getValue());
+				}
+			}
+		}
+	}
+
+	private List<FullTextIndexValue> getFullTextIndexValues(int id) {
+		List<FullTextIndexValue> values = new ArrayList<>();
+		for (TextIndex textField : getTextFields()) {
+			String value = textField.getValue(id);
+			if (value != null) {
+				values.add(new FullTextIndexValue(textField.getName(), value));
+			}
+		}
+		for (TranslatableTextIndex translatableTextIndex : getTranslatedTextFields()) {
+			TranslatableText value = translatableTextIndex.getValue(id);
+			if (value != null) {
+				values.add(new FullTextIndexValue(translatableTextIndex.getName(), value));
+			}
+		}
+		return values;
+	}
+
 	public TableModel getTableModel() {
 		return tableModel;
 	}
@@ -302,6 +473,41 @@ public class TableIndex implements MappedObject {
 		return andFilter;
 	}
 
+	/**
+	 * Ranked full-text search: each term of the query must match in one of the fields, results are ordered by score.
+	 *
+	 * @param records optional filter, if null all stored records are searched
+	 */
+	public List<ScoredRecord> searchRanked(String query, BitSet records, int maxResults, SearchBoosts boosts, UserContext userContext, String... fieldNames) {
+		if (collectionTextSearchIndex == null || query == null || query.isBlank()) {
+			return Collections.emptyList();
+		}
+		List<FieldIndex> searchFields = fieldIndices.stream()
+				.filter(fieldIndex -> fieldIndex.getType() == IndexType.TEXT || fieldIndex.getType() == IndexType.TRANSLATABLE_TEXT)
+				.filter(fieldIndex -> fieldNames == null || fieldNames.length == 0 || Arrays.asList(fieldNames).contains(fieldIndex.getName()))
+				.collect(Collectors.toList());
+		List<List<TextFieldFilter>> clauses = new ArrayList<>();
+		for (String term : query.split(" ")) {
+			if (!term.isBlank()) {
+				boolean isNegation = term.startsWith("!");
+				TextFilter textFilter = parseTextFilter(term);
+				List<TextFieldFilter> termFilters = new ArrayList<>();
+				for (FieldIndex fieldIndex : searchFields) {
+					TextFieldFilter fieldFilter = new TextFieldFilter(textFilter.getFilterType(), fieldIndex.getName(), fieldIndex.getType() == IndexType.TRANSLATABLE_TEXT, userContext, textFilter.getValue());
+					if (isNegation) {
+						clauses.add(Collections.singletonList(fieldFilter));
+					} else {
+						termFilters.add(fieldFilter);
+					}
+				}
+				if (!termFilters.isEmpty()) {
+					clauses.add(termFilters);
+				}
+			}
+		}
+		return collectionTextSearchIndex.searchRanked(clauses, records != null ? records : getRecords(), maxResults, boosts);
+	}
+
 	private TextFilter parseTextFilter(String term) {
 		boolean negation = false;
 		boolean similar = false;
@@ -436,6 +642,22 @@ public class TableIndex implements MappedObject {
 		return deleteRecord(id, null);
 	}
 
+	/**
+	 * Removes records that have been written without a transaction, e.g. by a failed bulk load.
+	 * Their field values and references must have been removed before.
+	 */
+	public void removeRecords(BitSet recordIds, boolean fullTextIndexed) {
+		for (int id = recordIds.nextSetBit(0); id >= 0; id = recordIds.nextSetBit(id + 1)) {
+			records.setBoolean(id, false);
+			if (fullTextIndexed && collectionTextSearchIndex != null) {
+				deleteFullTextDocument(id);
+			}
+		}
+		if (fullTextIndexed && collectionTextSearchIndex != null) {
+			collectionTextSearchIndex.commit(false);
+		}
+	}
+
 	private List<CyclicReferenceUpdate> deleteRecord(int id, FieldIndex<?, ?> cascadeOriginIndex) {
 		records.setBoolean(id, false);
 		if (keepDeletedRecords) {
@@ -507,12 +729,22 @@ public class TableIndex implements MappedObject {
 				fieldIndex.removeValue(id);
 			}
 			if (collectionTextSearchIndex != null) {
-				collectionTextSearchIndex.delete(id, getFileFieldNames());
+				deleteFullTextDocument(id);
 			}
 		}
 		return cyclicReferenceUpdates;
 	}
 
+	/**
+	 * Deletes the document of a removed record, ordered against the stored check of the background indexer
+	 * so a pending update cannot write the document again after the delete.
+	 */
+	private void deleteFullTextDocument(int id) {
+		synchronized (fullTextLock) {
+			collectionTextSearchIndex.delete(id, getFileFieldNames());
+		}
+	}
+
 	private List<CyclicReferenceUpdate> removeBackReferences(int id, FieldIndex<?, ?> backReferenceColumn, boolean isMultiBackReference, List<Integer> referencedRecords) {
 		List<CyclicReferenceUpdate> cyclicReferenceUpdates = new ArrayList<>();
 		if (isMultiBackReference) {
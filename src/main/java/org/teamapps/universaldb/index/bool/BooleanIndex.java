@@ -29,6 +29,7 @@ import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 
 public class BooleanIndex extends AbstractIndex<Boolean, BooleanFilter> {
@@ -95,13 +96,27 @@ public class BooleanIndex extends AbstractIndex<Boolean, BooleanFilter> {
 	}
 
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		int[] keys = new int[leafIds.length];
+		for (int i = 0; i < leafIds.length; i++) {
+			keys[i] = getValue(leafIds[i]) ? 1 : 0;
+		}
+		return RecordSorter.sortByIntKeys(recordIds, keys, ascending);
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		int order = ascending ? 1 : -1;
-		sortEntries.sort((o1, o2) -> {
+		return (o1, o2) -> {
 			boolean value1 = getValue(o1.getLeafId());
 			boolean value2 = getValue(o2.getLeafId());
 			return Boolean.compare(value1, value2) * order;
-		});
-		return sortEntries;
+		};
 	}
 
 	@Override
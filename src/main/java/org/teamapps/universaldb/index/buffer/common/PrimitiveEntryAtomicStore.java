@@ -106,6 +106,25 @@ public class PrimitiveEntryAtomicStore extends AbstractResizingAtomicStore {
 		buffer.putShort(offset, value, byteOrder);
 	}
 
+	public void setShorts(int firstId, short[] values) {
+		if (values.length == 0) {
+			return;
+		}
+		ensureCapacity(firstId + values.length - 1, 2);
+		int index = 0;
+		while (index < values.length) {
+			int id = firstId + index;
+			int bufferIndex = id / SHORT_ENTRIES_PER_FILE;
+			int count = getSequenceLength(id, bufferIndex, SHORT_ENTRIES_PER_FILE, values.length - index);
+			int offset = getOffset(id, bufferIndex, SHORT_ENTRIES_PER_FILE, 2);
+			AtomicBuffer buffer = getBuffer(bufferIndex);
+			for (int i = 0; i < count; i++) {
+				buffer.putShort(offset + i * 2, values[index + i], byteOrder);
+			}
+			index += count;
+		}
+	}
+
 
 	public int getInt(int id) {
 		if (id <= 0 || id > getMaximumId(4)) {
@@ -135,6 +154,25 @@ public class PrimitiveEntryAtomicStore extends AbstractResizingAtomicStore {
 		buffer.putInt(offset, value, byteOrder);
 	}
 
+	public void setInts(int firstId, int[] values) {
+		if (values.length == 0) {
+			return;
+		}
+		ensureCapacity(firstId + values.length - 1, 4);
+		int index = 0;
+		while (index < values.length) {
+			int id = firstId + index;
+			int bufferIndex = id / INTEGER_ENTRIES_PER_FILE;
+			int count = getSequenceLength(id, bufferIndex, INTEGER_ENTRIES_PER_FILE, values.length - index);
+			int offset = getOffset(id, bufferIndex, INTEGER_ENTRIES_PER_FILE, 4);
+			AtomicBuffer buffer = getBuffer(bufferIndex);
+			for (int i = 0; i < count; i++) {
+				buffer.putInt(offset + i * 4, values[index + i], byteOrder);
+			}
+			index += count;
+		}
+	}
+
 	public float getFloat(int id) {
 		if (id <= 0 || id > getMaximumId(4)) {
 			return 0;
@@ -153,6 +191,25 @@ public class PrimitiveEntryAtomicStore extends AbstractResizingAtomicStore {
 		buffer.putFloat(offset, value, byteOrder);
 	}
 
+	public void setFloats(int firstId, float[] values) {
+		if (values.length == 0) {
+			return;
+		}
+		ensureCapacity(firstId + values.length - 1, 4);
+		int index = 0;
+		while (index < values.length) {
+			int id = firstId + index;
+			int bufferIndex = id / INTEGER_ENTRIES_PER_FILE;
+			int count = getSequenceLength(id, bufferIndex, INTEGER_ENTRIES_PER_FILE, values.length - index);
+			int offset = getOffset(id, bufferIndex, INTEGER_ENTRIES_PER_FILE, 4);
+			AtomicBuffer buffer = getBuffer(bufferIndex);
+			for (int i = 0; i < count; i++) {
+				buffer.putFloat(offset + i * 4, values[index + i], byteOrder);
+			}
+			index += count;
+		}
+	}
+
 	public long getLong(int id) {
 		if (id <= 0 || id > getMaximumId(8)) {
 			return 0;
@@ -181,6 +238,25 @@ public class PrimitiveEntryAtomicStore extends AbstractResizingAtomicStore {
 		buffer.putLong(offset, value, byteOrder);
 	}
 
+	public void setLongs(int firstId, long[] values) {
+		if (values.length == 0) {
+			return;
+		}
+		ensureCapacity(firstId + values.length - 1, 8);
+		int index = 0;
+		while (index < values.length) {
+			int id = firstId + index;
+			int bufferIndex = id / LONG_ENTRIES_PER_FILE;
+			int count = getSequenceLength(id, bufferIndex, LONG_ENTRIES_PER_FILE, values.length - index);
+			int offset = getOffset(id, bufferIndex, LONG_ENTRIES_PER_FILE, 8);
+			AtomicBuffer buffer = getBuffer(bufferIndex);
+			for (int i = 0; i < count; i++) {
+				buffer.putLong(offset + i * 8, values[index + i], byteOrder);
+			}
+			index += count;
+		}
+	}
+
 	public double getDouble(int id) {
 		if (id <= 0 || id > getMaximumId(8)) {
 			return 0;
@@ -199,8 +275,34 @@ public class PrimitiveEntryAtomicStore extends AbstractResizingAtomicStore {
 		buffer.putDouble(offset, value, byteOrder);
 	}
 
+	public void setDoubles(int firstId, double[] values) {
+		if (values.length == 0) {
+			return;
+		}
+		ensureCapacity(firstId + values.length - 1, 8);
+		int index = 0;
+		while (index < values.length) {
+			int id = firstId + index;
+			int bufferIndex = id / LONG_ENTRIES_PER_FILE;
+			int count = getSequenceLength(id, bufferIndex, LONG_ENTRIES_PER_FILE, values.length - index);
+			int offset = getOffset(id, bufferIndex, LONG_ENTRIES_PER_FILE, 8);
+			AtomicBuffer buffer = getBuffer(bufferIndex);
+			for (int i = 0; i < count; i++) {
+				buffer.putDouble(offset + i * 8, values[index + i], byteOrder);
+			}
+			index += count;
+		}
+	}
+
 	protected AtomicBuffer getFirstBuffer() {
 		return getBuffer(0);
 	}
 
+	/**
+	 * @return the number of consecutive ids starting with id that are stored in the same buffer
+	 */
+	private static int getSequenceLength(int id, int bufferIndex, int entriesPerFile, int remaining) {
+		long bufferEnd = (bufferIndex + 1L) * entriesPerFile;
+		return (int) Math.min(remaining, bufferEnd - id);
+	}
 }
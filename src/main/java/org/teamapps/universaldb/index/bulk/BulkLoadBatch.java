@@ -0,0 +1,95 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.bulk;
+
+import org.teamapps.universaldb.index.translation.TranslatableText;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BulkLoadBatch {
+
+	private final int size;
+	private final Map<String, Object> columns = new LinkedHashMap<>();
+
+	public static BulkLoadBatch create(int size) {
+		return new BulkLoadBatch(size);
+	}
+
+	public BulkLoadBatch(int size) {
+		this.size = size;
+	}
+
+	public BulkLoadBatch booleanColumn(String fieldName, boolean[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch shortColumn(String fieldName, short[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch intColumn(String fieldName, int[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch longColumn(String fieldName, long[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch floatColumn(String fieldName, float[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch doubleColumn(String fieldName, double[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch textColumn(String fieldName, String[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch translatableTextColumn(String fieldName, TranslatableText[] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch binaryColumn(String fieldName, byte[][] values) {
+		return addColumn(fieldName, values, values.length);
+	}
+
+	public BulkLoadBatch referenceColumn(String fieldName, int[] referencedRecordIds) {
+		return addColumn(fieldName, referencedRecordIds, referencedRecordIds.length);
+	}
+
+	private BulkLoadBatch addColumn(String fieldName, Object values, int length) {
+		if (length != size) {
+			throw new IllegalArgumentException("Wrong column size for field " + fieldName + ": " + length + ", expected: " + size);
+		}
+		columns.put(fieldName, values);
+		return this;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public Map<String, Object> getColumns() {
+		return columns;
+	}
+}
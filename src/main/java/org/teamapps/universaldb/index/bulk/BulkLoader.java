@@ -0,0 +1,338 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.index.FieldIndex;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.binary.BinaryIndex;
+import org.teamapps.universaldb.index.bool.BooleanIndex;
+import org.teamapps.universaldb.index.numeric.*;
+import org.teamapps.universaldb.index.reference.multi.MultiReferenceIndex;
+import org.teamapps.universaldb.index.reference.single.SingleReferenceIndex;
+import org.teamapps.universaldb.index.text.TextIndex;
+import org.teamapps.universaldb.index.transaction.resolved.BulkLoadMarker;
+import org.teamapps.universaldb.index.translation.TranslatableText;
+import org.teamapps.universaldb.index.translation.TranslatableTextIndex;
+import org.teamapps.universaldb.schema.Table;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+/**
+ * Loads records column by column directly into the column stores of a table.
+ * Values are written without transaction records, versioning entries or full-text updates per record,
+ * reverse references and the full-text index are built in one pass by {@link #finish()}.
+ * If the load fails before its log marker is written, {@link #rollback()} removes the loaded records again.
+ */
+public class BulkLoader {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final TableIndex tableIndex;
+	private final int userId;
+	private final BitSet loadedRecords = new BitSet();
+	private final Set<FieldIndex> loadedFields = new LinkedHashSet<>();
+	private final Set<FieldIndex> metaDataFields = new LinkedHashSet<>();
+	private final Map<MultiReferenceIndex, Map<Integer, List<Integer>>> addedReverseReferences = new LinkedHashMap<>();
+	private final Map<SingleReferenceIndex, List<int[]>> replacedReverseReferences = new LinkedHashMap<>();
+	private int firstRecordId;
+	private int lastRecordId;
+	private int recordCount;
+	private boolean fullTextIndexed;
+	private final long startTime = System.currentTimeMillis();
+
+	public BulkLoader(TableIndex tableIndex, int userId) {
+		this.tableIndex = tableIndex;
+		this.userId = userId;
+	}
+
+	public void load(BulkLoadBatch batch) {
+		Map<FieldIndex, Object> columns = new LinkedHashMap<>();
+		for (Map.Entry<String, Object> entry : batch.getColumns().entrySet()) {
+			FieldIndex fieldIndex = tableIndex.getFieldIndex(entry.getKey());
+			if (fieldIndex == null) {
+				throw new RuntimeException("Unknown field for bulk load: " + tableIndex.getFQN() + "." + entry.getKey());
+			}
+			Class<?> columnClass = getColumnClass(fieldIndex);
+			if (columnClass == null) {
+				throw new RuntimeException("Bulk load is not supported for field: " + fieldIndex.getFQN() + ", type: " + fieldIndex.getType());
+			}
+			if (!columnClass.isInstance(entry.getValue())) {
+				throw new RuntimeException("Wrong column type for bulk load field: " + fieldIndex.getFQN() + ", expected: " + columnClass.getSimpleName());
+			}
+			columns.put(fieldIndex, entry.getValue());
+		}
+		int[] recordIds = new int[batch.getSize()];
+		for (int i = 0; i < recordIds.length; i++) {
+			int recordId = tableIndex.createRecord(0);
+			loadedRecords.set(recordId);
+			recordIds[i] = recordId;
+			if (firstRecordId == 0) {
+				firstRecordId = recordId;
+			}
+			lastRecordId = recordId;
+		}
+		recordCount += recordIds.length;
+		for (Map.Entry<FieldIndex, Object> entry : columns.entrySet()) {
+			FieldIndex fieldIndex = entry.getKey();
+			loadedFields.add(fieldIndex);
+			writeColumn(fieldIndex, recordIds, entry.getValue());
+		}
+		writeCreationMetaData(batch, recordIds);
+	}
+
+	private static Class<?> getColumnClass(FieldIndex fieldIndex) {
+		return switch (fieldIndex.getType()) {
+			case BOOLEAN -> boolean[].class;
+			case SHORT -> short[].class;
+			case INT, REFERENCE -> int[].class;
+			case LONG -> long[].class;
+			case FLOAT -> float[].class;
+			case DOUBLE -> double[].class;
+			case TEXT -> String[].class;
+			case TRANSLATABLE_TEXT -> TranslatableText[].class;
+			case BINARY -> byte[][].class;
+			default -> null;
+		};
+	}
+
+	/**
+	 * Fixed size columns of consecutive record ids are written as one sequence into the column store,
+	 * variable length values are written record by record.
+	 */
+	private void writeColumn(FieldIndex fieldIndex, int[] recordIds, Object values) {
+		boolean sequential = isSequential(recordIds);
+		switch (fieldIndex.getType()) {
+			case BOOLEAN -> {
+				BooleanIndex index = (BooleanIndex) fieldIndex;
+				boolean[] columnValues = (boolean[]) values;
+				for (int i = 0; i < recordIds.length; i++) {
+					index.setValue(recordIds[i], columnValues[i]);
+				}
+			}
+			case SHORT -> {
+				ShortIndex index = (ShortIndex) fieldIndex;
+				short[] columnValues = (short[]) values;
+				if (sequential) {
+					index.setValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case INT -> {
+				IntegerIndex index = (IntegerIndex) fieldIndex;
+				int[] columnValues = (int[]) values;
+				if (sequential) {
+					index.setValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case LONG -> {
+				LongIndex index = (LongIndex) fieldIndex;
+				long[] columnValues = (long[]) values;
+				if (sequential) {
+					index.setValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case FLOAT -> {
+				FloatIndex index = (FloatIndex) fieldIndex;
+				float[] columnValues = (float[]) values;
+				if (sequential) {
+					index.setValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case DOUBLE -> {
+				DoubleIndex index = (DoubleIndex) fieldIndex;
+				double[] columnValues = (double[]) values;
+				if (sequential) {
+					index.setValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case TEXT -> {
+				TextIndex index = (TextIndex) fieldIndex;
+				String[] columnValues = (String[]) values;
+				for (int i = 0; i < recordIds.length; i++) {
+					if (columnValues[i] != null) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case TRANSLATABLE_TEXT -> {
+				TranslatableTextIndex index = (TranslatableTextIndex) fieldIndex;
+				TranslatableText[] columnValues = (TranslatableText[]) values;
+				for (int i = 0; i < recordIds.length; i++) {
+					if (columnValues[i] != null) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case BINARY -> {
+				BinaryIndex index = (BinaryIndex) fieldIndex;
+				byte[][] columnValues = (byte[][]) values;
+				for (int i = 0; i < recordIds.length; i++) {
+					if (columnValues[i] != null) {
+						index.setValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			case REFERENCE -> {
+				SingleReferenceIndex index = (SingleReferenceIndex) fieldIndex;
+				int[] columnValues = (int[]) values;
+				if (sequential) {
+					index.setIndexValues(recordIds[0], columnValues);
+				} else {
+					for (int i = 0; i < recordIds.length; i++) {
+						index.setIndexValue(recordIds[i], columnValues[i]);
+					}
+				}
+			}
+			default -> throw new RuntimeException("Bulk load is not supported for field: " + fieldIndex.getFQN() + ", type: " + fieldIndex.getType());
+		}
+	}
+
+	private static boolean isSequential(int[] recordIds) {
+		return recordIds.length > 0 && recordIds[recordIds.length - 1] - recordIds[0] == recordIds.length - 1;
+	}
+
+	private void writeCreationMetaData(BulkLoadBatch batch, int[] recordIds) {
+		FieldIndex creationDate = tableIndex.getFieldIndex(Table.FIELD_CREATION_DATE);
+		FieldIndex createdBy = tableIndex.getFieldIndex(Table.FIELD_CREATED_BY);
+		if (creationDate instanceof IntegerIndex index && !batch.getColumns().containsKey(Table.FIELD_CREATION_DATE)) {
+			int[] timestamps = new int[recordIds.length];
+			Arrays.fill(timestamps, (int) (System.currentTimeMillis() / 1000));
+			metaDataFields.add(index);
+			writeColumn(index, recordIds, timestamps);
+		}
+		if (createdBy instanceof IntegerIndex index && !batch.getColumns().containsKey(Table.FIELD_CREATED_BY)) {
+			int[] userIds = new int[recordIds.length];
+			Arrays.fill(userIds, userId);
+			metaDataFields.add(index);
+			writeColumn(index, recordIds, userIds);
+		}
+	}
+
+	public void finish() {
+		for (FieldIndex fieldIndex : loadedFields) {
+			if (fieldIndex instanceof SingleReferenceIndex referenceIndex && referenceIndex.getReferencedColumn() != null) {
+				buildReverseReferences(referenceIndex);
+			}
+		}
+		boolean textFieldsLoaded = loadedFields.stream().anyMatch(fieldIndex -> fieldIndex instanceof TextIndex || fieldIndex instanceof TranslatableTextIndex);
+		if (textFieldsLoaded) {
+			fullTextIndexed = true;
+			tableIndex.updateFullTextIndex(loadedRecords);
+		}
+		long time = System.currentTimeMillis() - startTime;
+		logger.info("Bulk loaded {} records into {} in {} ms", recordCount, tableIndex.getFQN(), time);
+	}
+
+	private void buildReverseReferences(SingleReferenceIndex referenceIndex) {
+		FieldIndex reverseIndex = referenceIndex.getReferencedColumn();
+		if (reverseIndex instanceof MultiReferenceIndex reverseMultiIndex) {
+			Map<Integer, List<Integer>> referencesByTarget = new HashMap<>();
+			for (int id = loadedRecords.nextSetBit(0); id >= 0; id = loadedRecords.nextSetBit(id + 1)) {
+				int target = referenceIndex.getValue(id);
+				if (target > 0) {
+					referencesByTarget.computeIfAbsent(target, k -> new ArrayList<>()).add(id);
+				}
+			}
+			addedReverseReferences.put(reverseMultiIndex, referencesByTarget);
+			referencesByTarget.forEach((target, references) -> reverseMultiIndex.addReferences(target, references, true));
+		} else {
+			SingleReferenceIndex reverseSingleIndex = (SingleReferenceIndex) reverseIndex;
+			List<int[]> replacedReferences = replacedReverseReferences.computeIfAbsent(referenceIndex, k -> new ArrayList<>());
+			for (int id = loadedRecords.nextSetBit(0); id >= 0; id = loadedRecords.nextSetBit(id + 1)) {
+				int target = referenceIndex.getValue(id);
+				if (target > 0) {
+					int previousReference = reverseSingleIndex.getValue(target);
+					replacedReferences.add(new int[]{target, previousReference});
+					if (previousReference > 0 && previousReference != id) {
+						referenceIndex.setIndexValue(previousReference, 0);
+					}
+					reverseSingleIndex.setIndexValue(target, id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the loaded records, their values and the reverse references to them.
+	 */
+	public void rollback() {
+		for (Map.Entry<SingleReferenceIndex, List<int[]>> entry : replacedReverseReferences.entrySet()) {
+			SingleReferenceIndex referenceIndex = entry.getKey();
+			SingleReferenceIndex reverseSingleIndex = (SingleReferenceIndex) referenceIndex.getReferencedColumn();
+			List<int[]> replacedReferences = entry.getValue();
+			for (int i = replacedReferences.size() - 1; i >= 0; i--) {
+				int target = replacedReferences.get(i)[0];
+				int previousReference = replacedReferences.get(i)[1];
+				reverseSingleIndex.setIndexValue(target, previousReference);
+				if (previousReference > 0) {
+					referenceIndex.setIndexValue(previousReference, target);
+				}
+			}
+		}
+		addedReverseReferences.forEach((reverseMultiIndex, referencesByTarget) -> referencesByTarget.forEach((target, references) -> reverseMultiIndex.removeReferences(target, references, true)));
+		Set<FieldIndex> writtenFields = new LinkedHashSet<>(loadedFields);
+		writtenFields.addAll(metaDataFields);
+		for (FieldIndex fieldIndex : writtenFields) {
+			for (int id = loadedRecords.nextSetBit(0); id >= 0; id = loadedRecords.nextSetBit(id + 1)) {
+				if (fieldIndex instanceof SingleReferenceIndex referenceIndex) {
+					referenceIndex.setIndexValue(id, 0);
+				} else {
+					fieldIndex.removeValue(id);
+				}
+			}
+		}
+		tableIndex.removeRecords(loadedRecords, fullTextIndexed);
+		logger.warn("Rolled back bulk load of {} records into {}", recordCount, tableIndex.getFQN());
+	}
+
+	public BulkLoadMarker createMarker() {
+		int[] fieldIds = loadedFields.stream().mapToInt(FieldIndex::getMappingId).toArray();
+		return new BulkLoadMarker(tableIndex.getMappingId(), recordCount, firstRecordId, lastRecordId, fieldIds);
+	}
+
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	public BitSet getLoadedRecords() {
+		return loadedRecords;
+	}
+}
@@ -0,0 +1,147 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.teamapps.udb.model.FileContentData;
+import org.teamapps.universaldb.index.buffer.index.ByteArrayAtomicMappedIndex;
+import org.teamapps.universaldb.index.buffer.index.IntegerAtomicMappedIndex;
+import org.teamapps.universaldb.message.MessageCache;
+import org.teamapps.universaldb.message.MessageStore;
+import org.teamapps.universaldb.message.MessageStoreImpl;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stores the content data of files once per content hash. Records reference the shared content data,
+ * which is deleted when the last record referencing it is removed.
+ */
+public class FileContentDataStore {
+
+	private static final int CACHE_SIZE = 1_000;
+
+	private final MessageStore<FileContentData> contentStore;
+	private final MessageStore<FileContentData> recordContentStore;
+	private final IntegerAtomicMappedIndex contentIdIndex;
+	private final IntegerAtomicMappedIndex referenceCountIndex;
+	private final ByteArrayAtomicMappedIndex contentHashIndex;
+	private final Map<String, Integer> contentIdByHash = new HashMap<>();
+
+	public FileContentDataStore(File path, String name) {
+		contentStore = new MessageStoreImpl<>(path, name + "-file-content", FileContentData.getMessageDecoder(), MessageCache.lruCache(CACHE_SIZE));
+		recordContentStore = new MessageStoreImpl<>(path, name + "-file-meta", FileContentData.getMessageDecoder());
+		contentIdIndex = new IntegerAtomicMappedIndex(path, name + "-content-id");
+		referenceCountIndex = new IntegerAtomicMappedIndex(path, name + "-content-refs");
+		contentHashIndex = new ByteArrayAtomicMappedIndex(path, name + "-content-hash");
+		int maximumId = referenceCountIndex.getMaximumId();
+		for (int contentId = 1; contentId <= maximumId; contentId++) {
+			byte[] hash = referenceCountIndex.getValue(contentId) > 0 ? contentHashIndex.getValue(contentId) : null;
+			if (hash != null) {
+				contentIdByHash.put(normalize(new String(hash, StandardCharsets.UTF_8)), contentId);
+			}
+		}
+	}
+
+	private static String normalize(String hash) {
+		return hash != null ? hash.toUpperCase(Locale.ROOT) : null;
+	}
+
+	public synchronized FileContentData getByHash(String hash) {
+		Integer contentId = hash != null ? contentIdByHash.get(normalize(hash)) : null;
+		return contentId != null ? contentStore.getById(contentId) : null;
+	}
+
+	public synchronized FileContentData getByRecord(int recordId) {
+		int contentId = contentIdIndex.getValue(recordId);
+		return contentId > 0 ? contentStore.getById(contentId) : recordContentStore.getById(recordId);
+	}
+
+	public synchronized void setRecordContent(int recordId, FileContentData contentData) {
+		String hash = normalize(contentData.getHash());
+		Integer contentId = hash != null ? contentIdByHash.get(hash) : null;
+		int previousContentId = contentIdIndex.getValue(recordId);
+		if (contentId != null && contentId == previousContentId) {
+			return;
+		}
+		if (contentId == null) {
+			contentData.setRecordId(0);
+			contentStore.save(contentData);
+			contentId = contentData.getRecordId();
+			if (hash != null) {
+				contentHashIndex.setValue(contentId, hash.getBytes(StandardCharsets.UTF_8));
+				contentIdByHash.put(hash, contentId);
+			}
+		}
+		referenceCountIndex.setValue(contentId, referenceCountIndex.getValue(contentId) + 1);
+		contentIdIndex.setValue(recordId, contentId);
+		release(previousContentId);
+		recordContentStore.delete(recordId);
+	}
+
+	public synchronized void removeRecordContent(int recordId) {
+		release(contentIdIndex.getValue(recordId));
+		contentIdIndex.setValue(recordId, 0);
+		recordContentStore.delete(recordId);
+	}
+
+	private void release(int contentId) {
+		if (contentId <= 0) {
+			return;
+		}
+		int references = referenceCountIndex.getValue(contentId) - 1;
+		referenceCountIndex.setValue(contentId, Math.max(0, references));
+		if (references <= 0) {
+			contentStore.delete(contentId);
+			byte[] hash = contentHashIndex.getValue(contentId);
+			if (hash != null) {
+				contentIdByHash.remove(normalize(new String(hash, StandardCharsets.UTF_8)));
+				contentHashIndex.removeValue(contentId);
+			}
+		}
+	}
+
+	public synchronized int getReferenceCount(String hash) {
+		Integer contentId = hash != null ? contentIdByHash.get(normalize(hash)) : null;
+		return contentId != null ? referenceCountIndex.getValue(contentId) : 0;
+	}
+
+	public synchronized int getContentCount() {
+		return contentStore.getMessageCount();
+	}
+
+	public void close() {
+		contentStore.close();
+		recordContentStore.close();
+		contentIdIndex.close();
+		referenceCountIndex.close();
+		contentHashIndex.close();
+	}
+
+	public void drop() {
+		contentStore.drop();
+		recordContentStore.drop();
+		contentIdIndex.drop();
+		referenceCountIndex.drop();
+		contentHashIndex.drop();
+	}
+}
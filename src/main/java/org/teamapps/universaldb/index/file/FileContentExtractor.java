@@ -0,0 +1,151 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.teamapps.udb.model.FileContentData;
+import org.teamapps.universaldb.index.file.value.FileContentParser;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pool extracting the content of stored files. If the queue is full, a task is rejected and the file stays pending
+ * until its index resubmits it, the submitting thread never parses files itself.
+ * With a timeout each file is parsed on its own thread, a parser exceeding the timeout is interrupted and abandoned so it cannot
+ * hold a worker.
+ */
+public class FileContentExtractor {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private static final ExecutorService PARSE_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "udb-file-content-parser");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ThreadPoolExecutor executor;
+	private final long timeoutMillis;
+	private final long maxFileSize;
+	private final int maxExtractedContentLength;
+	private final AtomicInteger abandonedParsers = new AtomicInteger();
+
+	public FileContentExtractor(FullTextIndexConfig config) {
+		int threads = Math.max(1, config.getFileContentExtractionThreads());
+		this.timeoutMillis = config.getFileContentExtractionTimeoutMillis();
+		this.maxFileSize = config.getMaxExtractedFileSize();
+		this.maxExtractedContentLength = config.getMaxExtractedContentLength();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, config.getFileContentExtractionQueueSize())), runnable -> {
+			Thread thread = new Thread(runnable, "udb-file-content-extractor");
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return false if the queue is full or the extractor is closed
+	 */
+	public boolean submit(Runnable task) {
+		try {
+			executor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return true if at least half of the queue is free
+	 */
+	public boolean hasQueueCapacity() {
+		BlockingQueue<Runnable> queue = executor.getQueue();
+		return queue.remainingCapacity() >= queue.size();
+	}
+
+	/**
+	 * @return the content data of the file, only name, size and hash for files larger than the configured maximum
+	 * @throws TimeoutException if parsing took longer than the configured timeout
+	 */
+	public FileContentData extract(File file, String fileName, String hash, int maxContentLength, boolean detectLanguage) throws TimeoutException {
+		FileContentParser parser = new FileContentParser(file, fileName, hash);
+		if (maxFileSize > 0 && file.length() > maxFileSize) {
+			return parser.getFileInfoData();
+		}
+		int writeLimit = maxExtractedContentLength > 0 && (maxContentLength <= 0 || maxContentLength > maxExtractedContentLength) ? maxExtractedContentLength : maxContentLength;
+		return parseWithTimeout(fileName, () -> {
+			FileContentData contentData = parser.getFileContentData(writeLimit);
+			if (detectLanguage && !parser.isCancelled()) {
+				parser.getContentLanguage();
+			}
+			return contentData;
+		}, parser::cancel);
+	}
+
+	FileContentData parseWithTimeout(String fileName, Callable<FileContentData> parse, Runnable cancel) throws TimeoutException {
+		if (timeoutMillis <= 0) {
+			try {
+				return parse.call();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+		Future<FileContentData> future = PARSE_EXECUTOR.submit(parse);
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			cancel.run();
+			future.cancel(true);
+			logger.warn("Content extraction of " + fileName + " exceeded " + timeoutMillis + "ms, abandoned parser threads: " + abandonedParsers.incrementAndGet());
+			throw new TimeoutException("Content extraction of " + fileName + " exceeded " + timeoutMillis + "ms");
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			cancel.run();
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the number of parsers that exceeded the timeout, a parser that does not react to the cancellation keeps its thread
+	 */
+	public int getAbandonedParsers() {
+		return abandonedParsers.get();
+	}
+
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public void close() {
+		executor.shutdownNow();
+	}
+}
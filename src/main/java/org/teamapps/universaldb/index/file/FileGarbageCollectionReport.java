@@ -0,0 +1,126 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.teamapps.universaldb.index.file.store.StoredFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FileGarbageCollectionReport {
+
+	private static final int MAX_SAMPLES = 100;
+
+	private final boolean dryRun;
+	private final long startTime;
+	private long endTime;
+	private long scannedFiles;
+	private long collectableFiles;
+	private long collectableBytes;
+	private long deletedFiles;
+	private long deletedBytes;
+	private long errors;
+	private final List<StoredFile> sampleFiles = new ArrayList<>();
+
+	public FileGarbageCollectionReport(boolean dryRun) {
+		this.dryRun = dryRun;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	void addScanned(int count) {
+		scannedFiles += count;
+	}
+
+	void addCollectable(StoredFile file) {
+		collectableFiles++;
+		collectableBytes += file.getLength();
+		if (sampleFiles.size() < MAX_SAMPLES) {
+			sampleFiles.add(file);
+		}
+	}
+
+	void addDeleted(StoredFile file) {
+		deletedFiles++;
+		deletedBytes += file.getLength();
+	}
+
+	void addError() {
+		errors++;
+	}
+
+	void finish() {
+		endTime = System.currentTimeMillis();
+	}
+
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	public boolean isFinished() {
+		return endTime > 0;
+	}
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getEndTime() {
+		return endTime;
+	}
+
+	public long getScannedFiles() {
+		return scannedFiles;
+	}
+
+	/**
+	 * @return number of unreferenced files past their grace period, in a dry run the files that would be deleted
+	 */
+	public long getCollectableFiles() {
+		return collectableFiles;
+	}
+
+	public long getCollectableBytes() {
+		return collectableBytes;
+	}
+
+	public long getDeletedFiles() {
+		return deletedFiles;
+	}
+
+	public long getDeletedBytes() {
+		return deletedBytes;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return the first collectable files found
+	 */
+	public List<StoredFile> getSampleFiles() {
+		return sampleFiles;
+	}
+
+	@Override
+	public String toString() {
+		return (dryRun ? "dry run, " : "") + "scanned: " + scannedFiles + ", collectable: " + collectableFiles + " (" + collectableBytes + " bytes), deleted: " + deletedFiles + " (" + deletedBytes + " bytes), errors: " + errors + (isFinished() ? ", time: " + (endTime - startTime) + "ms" : "");
+	}
+}
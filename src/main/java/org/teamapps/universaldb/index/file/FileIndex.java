@@ -19,6 +19,8 @@
  */
 package org.teamapps.universaldb.index.file;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.teamapps.message.protocol.utils.MessageUtils;
 import org.teamapps.udb.model.FileContentData;
 import org.teamapps.universaldb.context.UserContext;
@@ -26,24 +28,31 @@ import org.teamapps.universaldb.index.AbstractIndex;
 import org.teamapps.universaldb.index.IndexType;
 import org.teamapps.universaldb.index.SortEntry;
 import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.buffer.index.BooleanAtomicMappedIndex;
 import org.teamapps.universaldb.index.buffer.index.ByteArrayAtomicMappedIndex;
 import org.teamapps.universaldb.index.buffer.index.LongAtomicMappedIndex;
 import org.teamapps.universaldb.index.buffer.index.StringAtomicMappedIndex;
 import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
 import org.teamapps.universaldb.index.file.store.FileStoreUtil;
+import org.teamapps.universaldb.index.file.store.LocalFileHandle;
+import org.teamapps.universaldb.index.file.store.StoredFile;
 import org.teamapps.universaldb.index.file.value.*;
 import org.teamapps.universaldb.index.text.CollectionTextSearchIndex;
-import org.teamapps.universaldb.message.MessageStore;
-import org.teamapps.universaldb.message.MessageStoreImpl;
 import org.teamapps.universaldb.model.FileFieldModel;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
 	private final StringAtomicMappedIndex nameIndex;
 	private final LongAtomicMappedIndex sizeIndex;
@@ -53,7 +62,14 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 	private final DatabaseFileStore fileStore;
 	private final boolean fileStoreEncrypted;
 	private CollectionTextSearchIndex fullTextIndex;
-	private MessageStore<FileContentData> contentDataMessageStore;
+	private FileContentDataStore contentDataStore;
+	private BooleanAtomicMappedIndex extractionPendingIndex;
+	private final FileContentExtractor contentExtractor;
+	private final FileReferenceIndex referenceIndex;
+	private final boolean keepReplacedFiles;
+	private final Object contentLock = new Object();
+	private final Set<Integer> queuedExtractions = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean extractionOverflow = new AtomicBoolean();
 
 	public FileIndex(FileFieldModel fileFieldModel, TableIndex tableIndex) {
 		super(fileFieldModel, tableIndex);
@@ -63,13 +79,34 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 		sizeIndex = new LongAtomicMappedIndex(tableIndex.getDataPath(), fileFieldModel.getName() + "-len");
 		hashIndex = new ByteArrayAtomicMappedIndex(tableIndex.getDataPath(), fileFieldModel.getName() + "-hash");
 		fileStoreEncrypted = fileStore.isEncrypted();
-		keyIndex = fileStoreEncrypted ? new ByteArrayAtomicMappedIndex(tableIndex.getDataPath(), fileFieldModel.getName() + "-hash") : null;
+		keyIndex = fileStoreEncrypted ? new ByteArrayAtomicMappedIndex(tableIndex.getDataPath(), fileFieldModel.getName() + "-key") : null;
+		contentExtractor = tableIndex.getDatabaseIndex().getFileContentExtractor();
+		referenceIndex = tableIndex.getDatabaseIndex().getFileReferenceIndex();
+		keepReplacedFiles = tableIndex.getTableModel().isVersioning();
 		if (fileFieldModel.isIndexContent()) {
-			contentDataMessageStore = new MessageStoreImpl<>(tableIndex.getDataPath(), fileFieldModel.getName() + "-file-meta", FileContentData.getMessageDecoder());
-			fullTextIndex = new CollectionTextSearchIndex(tableIndex.getFullTextIndexPath(), fileFieldModel.getName());
+			contentDataStore = new FileContentDataStore(tableIndex.getDataPath(), fileFieldModel.getName());
+			fullTextIndex = new CollectionTextSearchIndex(tableIndex.getFullTextIndexPath(), fileFieldModel.getName(), tableIndex.getDatabaseIndex().getFullTextIndexConfig());
+			extractionPendingIndex = new BooleanAtomicMappedIndex(tableIndex.getDataPath(), fileFieldModel.getName() + "-extract");
+			resumePendingExtractions();
 		}
 	}
 
+	private void resumePendingExtractions() {
+		int count = submitPendingExtractions();
+		if (count > 0) {
+			logger.info("Resuming content extraction of " + count + " files for: " + getFQN());
+		}
+	}
+
+	private int submitPendingExtractions() {
+		if (contentExtractor == null) {
+			return 0;
+		}
+		BitSet pending = extractionPendingIndex.filterEquals(true, extractionPendingIndex.getIndexStream());
+		pending.stream().forEach(this::submitContentExtraction);
+		return pending.cardinality();
+	}
+
 	public FileFieldModel getFileFieldModel() {
 		return fileFieldModel;
 	}
@@ -100,11 +137,13 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 		if (size != 0) {
 			String name = nameIndex.getValue(id);
 			String hash = FileStoreUtil.bytesToHex(hashIndex.getValue(id));
-			String key = fileStoreEncrypted ? FileStoreUtil.bytesToHex(keyIndex.getValue(id)) : null;
+			String key = getKey(id);
 			File file = fileStore.getLocalFile(hash, size, key);
-			Supplier<FileContentData> contentDataSupplier = fileFieldModel.isIndexContent() ? () -> contentDataMessageStore.getById(id) : null;
-			if (file != null) {
+			Supplier<FileContentData> contentDataSupplier = fileFieldModel.isIndexContent() ? () -> contentDataStore.getByRecord(id) : null;
+			if (file != null && fileStore.hasStableLocalFiles()) {
 				return new CommittedLocalFile(file, name, hash, size, contentDataSupplier);
+			} else if (file != null || fileStore.isChunked(hash, size, key)) {
+				return new CommittedLocalFile(offset -> fileStore.openInputStream(hash, size, key, offset), name, hash, size, contentDataSupplier);
 			} else {
 				return new CommittedRemoteFile(() -> fileStore.loadRemoteFile(hash, size, key), name, hash, size, contentDataSupplier);
 			}
@@ -113,46 +152,232 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 		}
 	}
 
+	/**
+	 * Asks the file store to load the files of these records in the background, e.g. before a result list is shown.
+	 */
+	public void prefetch(BitSet records) {
+		for (int id = records.nextSetBit(0); id >= 0; id = records.nextSetBit(id + 1)) {
+			long size = sizeIndex.getValue(id);
+			if (size != 0) {
+				String hash = FileStoreUtil.bytesToHex(hashIndex.getValue(id));
+				String key = getKey(id);
+				fileStore.prefetch(hash, size, key);
+			}
+		}
+	}
+
+	private String getKey(int id) {
+		byte[] key = fileStoreEncrypted ? keyIndex.getValue(id) : null;
+		return key != null ? FileStoreUtil.bytesToHex(key) : null;
+	}
+
 	public void setValue(int id, FileValue value) {
 		if (value != null && value.getType() == FileValueType.UNCOMMITTED_FILE) {
 			throw new RuntimeException("Error saving uncommitted file is not possible!");
 		}
-		boolean update = sizeIndex.getValue(id) != 0;
+		long previousSize = sizeIndex.getValue(id);
+		byte[] previousHash = previousSize != 0 ? hashIndex.getValue(id) : null;
+		boolean update = previousSize != 0;
 		if (value == null || value.getSize() == 0) {
 			if (update) {
 				sizeIndex.setValue(id, 0);
 				nameIndex.setValue(id, null);
 				hashIndex.removeValue(id);
+				if (fileStoreEncrypted) {
+					keyIndex.removeValue(id);
+				}
 				if (fileFieldModel.isIndexContent()) {
-					fullTextIndex.setRecordValues(id, Collections.emptyList(), true);
-					contentDataMessageStore.delete(id);
+					synchronized (contentLock) {
+						extractionPendingIndex.setValue(id, false);
+						fullTextIndex.setRecordValues(id, Collections.emptyList(), true);
+						contentDataStore.removeRecordContent(id);
+					}
 				}
 			}
 		} else {
 			sizeIndex.setValue(id, value.getSize());
 			nameIndex.setValue(id, value.getFileName());
 			hashIndex.setValue(id, value.getHashBytes());
+			if (fileStoreEncrypted) {
+				keyIndex.setValue(id, value.getKeyBytes());
+			}
 			if (fileFieldModel.isIndexContent()) {
 				FileContentData contentData = value.getFileContentData();
-				contentData.setRecordId(id);
-				fullTextIndex.setRecordValues(id, value.getFullTextIndexData(), update);
-				contentDataMessageStore.save(contentData);
+				if (contentData == null) {
+					contentData = contentDataStore.getByHash(value.getHash());
+					if (contentData != null) {
+						value = new StoreDescriptionFile(null, value.getFileName(), value.getSize(), value.getHash(), value.getKey(), contentData);
+					}
+				}
+				synchronized (contentLock) {
+					fullTextIndex.setRecordValues(id, value.getFullTextIndexData(), update);
+					if (contentData != null) {
+						contentDataStore.setRecordContent(id, contentData);
+						extractionPendingIndex.setValue(id, false);
+					} else {
+						contentDataStore.removeRecordContent(id);
+						extractionPendingIndex.setValue(id, true);
+					}
+				}
+				if (contentData == null) {
+					submitContentExtraction(id);
+				}
+			}
+		}
+		boolean hasValue = value != null && value.getSize() != 0;
+		updateFileReferences(previousSize, previousHash, hasValue ? value.getSize() : 0, hasValue ? value.getHashBytes() : null, hasValue ? value.getKey() : null);
+	}
+
+	/**
+	 * Files replaced in tables with versioning keep their reference as older record versions still point to them.
+	 */
+	private void updateFileReferences(long previousSize, byte[] previousHash, long size, byte[] hash, String key) {
+		if (referenceIndex == null) {
+			return;
+		}
+		boolean hasValue = size != 0 && hash != null;
+		if (hasValue && previousSize == size && Arrays.equals(previousHash, hash)) {
+			return;
+		}
+		if (hasValue) {
+			referenceIndex.addReference(FileStoreUtil.bytesToHex(hash), size, key);
+		}
+		if (previousHash != null && !keepReplacedFiles) {
+			referenceIndex.removeReference(FileStoreUtil.bytesToHex(previousHash), previousSize);
+		}
+	}
+
+	/**
+	 * Adds a reference for each stored file value, used to build the reference counts of an existing database.
+	 */
+	public void addFileReferences(FileReferenceIndex fileReferenceIndex) {
+		int maximumId = sizeIndex.getMaximumId();
+		for (int id = 1; id <= maximumId; id++) {
+			long size = sizeIndex.getValue(id);
+			byte[] hash = size != 0 ? hashIndex.getValue(id) : null;
+			if (hash != null) {
+				fileReferenceIndex.addReference(FileStoreUtil.bytesToHex(hash), size, getKey(id));
 			}
 		}
 	}
 
+	/**
+	 * Without an extractor, e.g. for an index opened outside of a database, files stay pending.
+	 * A file rejected by a full extractor queue stays pending as well and is resubmitted once the queue has drained.
+	 */
+	private void submitContentExtraction(int id) {
+		if (contentExtractor == null || !queuedExtractions.add(id)) {
+			return;
+		}
+		if (!contentExtractor.submit(() -> runContentExtraction(id))) {
+			queuedExtractions.remove(id);
+			extractionOverflow.set(true);
+		}
+	}
+
+	private void runContentExtraction(int id) {
+		try {
+			extractContent(id);
+		} finally {
+			queuedExtractions.remove(id);
+			if (extractionOverflow.get() && contentExtractor.hasQueueCapacity() && extractionOverflow.compareAndSet(true, false)) {
+				submitPendingExtractions();
+			}
+		}
+	}
+
+	private void extractContent(int id) {
+		long size = sizeIndex.getValue(id);
+		byte[] hashBytes = hashIndex.getValue(id);
+		if (size == 0 || hashBytes == null) {
+			return;
+		}
+		String name = nameIndex.getValue(id);
+		String hash = FileStoreUtil.bytesToHex(hashBytes);
+		String key = getKey(id);
+		FileContentData contentData = contentDataStore.getByHash(hash);
+		if (contentData == null) {
+			try (LocalFileHandle fileHandle = fileStore.openLocalFile(hash, size, key)) {
+				contentData = contentExtractor.extract(fileHandle.getFile(), name, hash, fileFieldModel.getMaxIndexContentLength(), fileFieldModel.isDetectLanguage());
+			} catch (Throwable e) {
+				logger.warn("Content extraction failed for file " + name + " (" + getFQN() + ", record: " + id + "): " + e.getMessage());
+			}
+		}
+		synchronized (contentLock) {
+			if (sizeIndex.getValue(id) != size || !Arrays.equals(hashBytes, hashIndex.getValue(id))) {
+				return;
+			}
+			if (contentData != null) {
+				contentDataStore.setRecordContent(id, contentData);
+				fullTextIndex.setRecordValues(id, new StoreDescriptionFile(null, name, size, hash, key, contentData).getFullTextIndexData(), true);
+			}
+			extractionPendingIndex.setValue(id, false);
+		}
+	}
+
+	public FileContentExtractionStatus getContentExtractionStatus(int id) {
+		if (!fileFieldModel.isIndexContent() || sizeIndex.getValue(id) == 0) {
+			return FileContentExtractionStatus.NONE;
+		} else if (extractionPendingIndex.getValue(id)) {
+			return FileContentExtractionStatus.PENDING;
+		} else if (contentDataStore.getByRecord(id) != null) {
+			return FileContentExtractionStatus.COMPLETED;
+		} else {
+			return FileContentExtractionStatus.FAILED;
+		}
+	}
+
 	public FileValue storeFile(File file) {
 		return (file != null && file.exists() && file.length() > 0) ? storeFile(file, file.getName()) : null;
 	}
 
 	public FileValue storeFile(File file, String fileName) {
-		FileValue fileValue = FileValue.create(file, fileName);
-		String key = fileStore.storeFile(file, fileValue.getHash(), fileValue.getSize());
-		FileContentData contentData = fileFieldModel.isIndexContent() ? fileValue.getFileContentData(fileFieldModel.getMaxIndexContentLength()) : null;
-		if (fileFieldModel.isIndexContent() && fileFieldModel.isDetectLanguage()) {
-			fileValue.getDetectedLanguage();
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+			return storeFile(inputStream, fileName != null ? fileName : file.getName());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Hashes and stores the stream in a single pass, the content is parsed from the stored file if required.
+	 * The file is touched in the reference index before the store looks for an existing copy, so the garbage collection
+	 * cannot delete that copy before the new value references it.
+	 */
+	public FileValue storeFile(InputStream inputStream, String fileName) throws IOException {
+		StoredFile storedFile = referenceIndex != null ?
+				fileStore.storeFile(inputStream, file -> referenceIndex.touch(file.getHash(), file.getLength(), null)) :
+				fileStore.storeFile(inputStream);
+		String hash = storedFile.getHash();
+		long size = storedFile.getLength();
+		String key = storedFile.getKey();
+		if (referenceIndex != null && key != null) {
+			referenceIndex.touch(hash, size, key);
+		}
+		File localFile = fileStore.getLocalFile(hash, size, key);
+		boolean extractContent = fileFieldModel.isIndexContent() && !getTable().getDatabaseIndex().getFullTextIndexConfig().isAsyncFileContentExtraction();
+		FileContentData contentData = extractContent ? getContentDataByHash(hash) : null;
+		if (extractContent && contentData == null) {
+			try (LocalFileHandle fileHandle = fileStore.openLocalFile(hash, size, key)) {
+				FileContentParser contentParser = new FileContentParser(fileHandle.getFile(), fileName, hash);
+				contentData = contentParser.getFileContentData(fileFieldModel.getMaxIndexContentLength());
+				if (fileFieldModel.isDetectLanguage() && contentData.getLanguage() == null) {
+					contentParser.getContentLanguage();
+				}
+			}
 		}
-		return new StoreDescriptionFile(file, fileName, fileValue.getSize(), fileValue.getHash(), key, contentData);
+		return new StoreDescriptionFile(localFile, fileName, size, hash, key, contentData);
+	}
+
+	/**
+	 * @return the content data already extracted for a file with this hash or null
+	 */
+	public FileContentData getContentDataByHash(String hash) {
+		return contentDataStore != null ? contentDataStore.getByHash(hash) : null;
+	}
+
+	public FileContentDataStore getContentDataStore() {
+		return contentDataStore;
 	}
 
 	@Override
@@ -175,8 +400,11 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 				MessageUtils.writeString(dos, nameIndex.getValue(id));
 				MessageUtils.writeByteArray(dos, hashIndex.getValue(id));
 				dos.writeLong(size);
+				if (fileStoreEncrypted) {
+					MessageUtils.writeByteArray(dos, keyIndex.getValue(id));
+				}
 				if (withContent) {
-					FileContentData contentData = contentDataMessageStore.getById(id);
+					FileContentData contentData = contentDataStore.getByRecord(id);
 					if (contentData != null) {
 						dos.writeBoolean(true);
 						MessageUtils.writeByteArray(dos, contentData.toBytes());
@@ -193,13 +421,20 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 			String name = MessageUtils.readString(dis);
 			byte[] hash = MessageUtils.readByteArray(dis);
 			long size = dis.readLong();
+			byte[] key = fileStoreEncrypted ? MessageUtils.readByteArray(dis) : null;
+			long previousSize = sizeIndex.getValue(id);
+			byte[] previousHash = previousSize != 0 ? hashIndex.getValue(id) : null;
 			nameIndex.setValue(id, name);
 			hashIndex.setValue(id, hash);
 			sizeIndex.setValue(id, size);
+			if (fileStoreEncrypted) {
+				keyIndex.setValue(id, key);
+			}
+			updateFileReferences(previousSize, previousHash, size, hash, key != null ? FileStoreUtil.bytesToHex(key) : null);
 			if (dis.readBoolean()) {
 				byte[] bytes = MessageUtils.readByteArray(dis);
 				FileContentData contentData = new FileContentData(bytes);
-				contentDataMessageStore.save(contentData);
+				contentDataStore.setRecordContent(id, contentData);
 			}
 		} catch (EOFException ignore) {
 		}
@@ -228,22 +463,30 @@ public class FileIndex extends AbstractIndex<FileValue, FileFilter> {
 	@Override
 	public void close() {
 		if (fullTextIndex != null) {
-			contentDataMessageStore.close();
+			contentDataStore.close();
 			fullTextIndex.commit(true);
+			extractionPendingIndex.close();
 		}
 		nameIndex.close();
 		hashIndex.close();
 		sizeIndex.close();
+		if (keyIndex != null) {
+			keyIndex.close();
+		}
 	}
 
 	@Override
 	public void drop() {
 		if (fullTextIndex != null) {
-			contentDataMessageStore.drop();
+			contentDataStore.drop();
 			fullTextIndex.drop();
+			extractionPendingIndex.drop();
 		}
 		nameIndex.drop();
 		hashIndex.drop();
 		sizeIndex.drop();
+		if (keyIndex != null) {
+			keyIndex.drop();
+		}
 	}
 }
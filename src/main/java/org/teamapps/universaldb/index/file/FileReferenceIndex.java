@@ -0,0 +1,239 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.teamapps.universaldb.index.buffer.index.ByteArrayAtomicMappedIndex;
+import org.teamapps.universaldb.index.buffer.index.IntegerAtomicMappedIndex;
+import org.teamapps.universaldb.index.buffer.index.LongAtomicMappedIndex;
+import org.teamapps.universaldb.index.file.store.FileStoreUtil;
+import org.teamapps.universaldb.index.file.store.StoredFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Database wide reference counts of the files in the file store, maintained by all file indices.
+ * Files without references are remembered with the time they lost their last reference.
+ */
+public class FileReferenceIndex {
+
+	private final File path;
+	private final String name;
+	private final ByteArrayAtomicMappedIndex hashIndex;
+	private final LongAtomicMappedIndex lengthIndex;
+	private final ByteArrayAtomicMappedIndex keyIndex;
+	private final IntegerAtomicMappedIndex referenceCountIndex;
+	private final LongAtomicMappedIndex unreferencedSinceIndex;
+	private final Map<String, Integer> idByFile = new HashMap<>();
+	private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+	private final Set<String> deletingFiles = new HashSet<>();
+	private int maxId;
+
+	public FileReferenceIndex(File path, String name) {
+		this.path = path;
+		this.name = name;
+		hashIndex = new ByteArrayAtomicMappedIndex(path, name + "-hash");
+		lengthIndex = new LongAtomicMappedIndex(path, name + "-len");
+		keyIndex = new ByteArrayAtomicMappedIndex(path, name + "-key");
+		referenceCountIndex = new IntegerAtomicMappedIndex(path, name + "-refs");
+		unreferencedSinceIndex = new LongAtomicMappedIndex(path, name + "-unref");
+		maxId = lengthIndex.getMaximumId();
+		while (maxId > 0 && lengthIndex.getValue(maxId) == 0) {
+			maxId--;
+		}
+		for (int id = 1; id <= maxId; id++) {
+			byte[] hash = hashIndex.getValue(id);
+			if (hash != null) {
+				idByFile.put(getFileName(FileStoreUtil.bytesToHex(hash), lengthIndex.getValue(id)), id);
+			} else {
+				freeIds.add(id);
+			}
+		}
+	}
+
+	private static String getFileName(String hash, long length) {
+		return FileStoreUtil.getStoreFileName(hash, length);
+	}
+
+	/**
+	 * @return false if the reference counts have never been built from the file indices
+	 */
+	public boolean isInitialized() {
+		return new File(path, name + ".initialized").exists();
+	}
+
+	public void setInitialized() {
+		try {
+			new File(path, name + ".initialized").createNewFile();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public synchronized void addReference(String hash, long length, String key) {
+		int id = getOrCreateId(hash, length, key);
+		referenceCountIndex.setValue(id, referenceCountIndex.getValue(id) + 1);
+		unreferencedSinceIndex.setValue(id, 0);
+	}
+
+	public synchronized void removeReference(String hash, long length) {
+		Integer id = idByFile.get(getFileName(hash, length));
+		if (id == null) {
+			return;
+		}
+		int references = referenceCountIndex.getValue(id) - 1;
+		referenceCountIndex.setValue(id, Math.max(0, references));
+		if (references <= 0) {
+			unreferencedSinceIndex.setValue(id, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Marks a file as just stored, an unreferenced file is kept for the full grace period again.
+	 */
+	public synchronized void touch(String hash, long length, String key) {
+		int id = getOrCreateId(hash, length, key);
+		if (referenceCountIndex.getValue(id) == 0) {
+			unreferencedSinceIndex.setValue(id, System.currentTimeMillis());
+		}
+	}
+
+	public synchronized int getReferenceCount(String hash, long length) {
+		Integer id = idByFile.get(getFileName(hash, length));
+		return id != null ? referenceCountIndex.getValue(id) : 0;
+	}
+
+	/**
+	 * @param lastModified modification time of the stored file, used for files that are not tracked
+	 * @return true if the file has no references and has been unreferenced since before the cutoff
+	 */
+	public synchronized boolean isCollectable(String hash, long length, long lastModified, long cutoff) {
+		Integer id = idByFile.get(getFileName(hash, length));
+		if (id == null) {
+			return lastModified > 0 && lastModified < cutoff;
+		}
+		long unreferencedSince = unreferencedSinceIndex.getValue(id);
+		return referenceCountIndex.getValue(id) == 0 && unreferencedSince > 0 && unreferencedSince < cutoff;
+	}
+
+	/**
+	 * @return tracked files that are collectable at the cutoff
+	 */
+	public synchronized List<StoredFile> getCollectableFiles(long cutoff) {
+		List<StoredFile> files = new ArrayList<>();
+		for (int id : idByFile.values()) {
+			long unreferencedSince = unreferencedSinceIndex.getValue(id);
+			if (referenceCountIndex.getValue(id) == 0 && unreferencedSince > 0 && unreferencedSince < cutoff) {
+				byte[] key = keyIndex.getValue(id);
+				files.add(new StoredFile(FileStoreUtil.bytesToHex(hashIndex.getValue(id)), lengthIndex.getValue(id), key != null ? FileStoreUtil.bytesToHex(key) : null));
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Removes a collectable file before it is deleted from the store. Until {@link #endDelete} is called, touch and addReference
+	 * of the file wait, so a store deduplicating against the file stores it again after the delete.
+	 *
+	 * @return false if the file is not collectable
+	 */
+	public synchronized boolean beginDelete(String hash, long length, long lastModified, long cutoff) {
+		if (!isCollectable(hash, length, lastModified, cutoff)) {
+			return false;
+		}
+		remove(hash, length);
+		deletingFiles.add(getFileName(hash, length));
+		return true;
+	}
+
+	public synchronized void endDelete(String hash, long length) {
+		deletingFiles.remove(getFileName(hash, length));
+		notifyAll();
+	}
+
+	public synchronized void remove(String hash, long length) {
+		Integer id = idByFile.remove(getFileName(hash, length));
+		if (id != null) {
+			hashIndex.removeValue(id);
+			keyIndex.removeValue(id);
+			lengthIndex.setValue(id, 0);
+			referenceCountIndex.setValue(id, 0);
+			unreferencedSinceIndex.setValue(id, 0);
+			freeIds.add(id);
+		}
+	}
+
+	/**
+	 * Removes all reference counts before they are rebuilt from the file indices.
+	 */
+	public synchronized void clear() {
+		for (String file : new ArrayList<>(idByFile.keySet())) {
+			int id = idByFile.get(file);
+			remove(FileStoreUtil.bytesToHex(hashIndex.getValue(id)), lengthIndex.getValue(id));
+		}
+	}
+
+	public synchronized int getFileCount() {
+		return idByFile.size();
+	}
+
+	private int getOrCreateId(String hash, long length, String key) {
+		String fileName = getFileName(hash, length);
+		while (deletingFiles.contains(fileName)) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		Integer id = idByFile.get(fileName);
+		if (id == null) {
+			id = freeIds.isEmpty() ? ++maxId : freeIds.poll();
+			hashIndex.setValue(id, FileStoreUtil.hexToBytes(hash));
+			lengthIndex.setValue(id, length);
+			referenceCountIndex.setValue(id, 0);
+			unreferencedSinceIndex.setValue(id, System.currentTimeMillis());
+			idByFile.put(fileName, id);
+		}
+		if (key != null && keyIndex.getValue(id) == null) {
+			keyIndex.setValue(id, FileStoreUtil.hexToBytes(key));
+		}
+		return id;
+	}
+
+	public void close() {
+		hashIndex.close();
+		lengthIndex.close();
+		keyIndex.close();
+		referenceCountIndex.close();
+		unreferencedSinceIndex.close();
+	}
+
+	public void drop() {
+		hashIndex.drop();
+		lengthIndex.drop();
+		keyIndex.drop();
+		referenceCountIndex.drop();
+		unreferencedSinceIndex.drop();
+		new File(path, name + ".initialized").delete();
+	}
+}
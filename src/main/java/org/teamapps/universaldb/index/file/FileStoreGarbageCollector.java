@@ -0,0 +1,200 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
+import org.teamapps.universaldb.index.file.store.StoredFile;
+
+import java.io.File;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes files of the file store that have not been referenced by any file index for the grace period.
+ * The background sweep handles one partition of the store per step, writers only wait for the deletion of a
+ * file they are referencing at the same time.
+ */
+public class FileStoreGarbageCollector {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final DatabaseFileStore fileStore;
+	private final FileReferenceIndex referenceIndex;
+	private final long gracePeriodMillis;
+	private final boolean collectUntrackedFiles;
+	private ScheduledExecutorService scheduler;
+	private int nextPartition;
+	private FileGarbageCollectionReport currentReport;
+	private FileGarbageCollectionReport lastReport;
+
+	/**
+	 * @param collectUntrackedFiles also delete stored files that have never been referenced by a file index since tracking started
+	 */
+	public FileStoreGarbageCollector(DatabaseFileStore fileStore, FileReferenceIndex referenceIndex, long gracePeriodMillis, boolean collectUntrackedFiles) {
+		this.fileStore = fileStore;
+		this.referenceIndex = referenceIndex;
+		this.gracePeriodMillis = gracePeriodMillis;
+		this.collectUntrackedFiles = collectUntrackedFiles;
+	}
+
+	/**
+	 * Runs a complete collection, with dryRun the collectable files are only reported.
+	 */
+	public synchronized FileGarbageCollectionReport collect(boolean dryRun) {
+		FileGarbageCollectionReport report = new FileGarbageCollectionReport(dryRun);
+		int partitionCount = collectUntrackedFiles ? fileStore.getPartitionCount() : 0;
+		for (int partition = 0; partition < partitionCount; partition++) {
+			sweepPartition(partition, report);
+		}
+		sweepTrackedFiles(partitionCount > 0, report);
+		if (!dryRun) {
+			deleteUnreferencedChunks();
+		}
+		report.finish();
+		logger.info("File garbage collection: " + report);
+		return report;
+	}
+
+	public synchronized void start(long sweepIntervalMillis) {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "udb-file-gc");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				sweepStep();
+			} catch (Throwable e) {
+				logger.warn("Error in file garbage collection", e);
+			}
+		}, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Sweeps the next partition of the store, the tracked files are checked after the last partition.
+	 */
+	public synchronized void sweepStep() {
+		if (currentReport == null) {
+			currentReport = new FileGarbageCollectionReport(false);
+			nextPartition = 0;
+		}
+		int partitionCount = collectUntrackedFiles ? fileStore.getPartitionCount() : 0;
+		if (nextPartition < partitionCount) {
+			sweepPartition(nextPartition++, currentReport);
+		} else {
+			sweepTrackedFiles(partitionCount > 0, currentReport);
+			deleteUnreferencedChunks();
+			currentReport.finish();
+			if (currentReport.getCollectableFiles() > 0) {
+				logger.info("File garbage collection: " + currentReport);
+			}
+			lastReport = currentReport;
+			currentReport = null;
+		}
+	}
+
+	/**
+	 * @return the report of the last completed background sweep
+	 */
+	public synchronized FileGarbageCollectionReport getLastReport() {
+		return lastReport;
+	}
+
+	private void sweepPartition(int partition, FileGarbageCollectionReport report) {
+		List<StoredFile> files = fileStore.listFiles(partition);
+		report.addScanned(files.size());
+		long cutoff = System.currentTimeMillis() - gracePeriodMillis;
+		for (StoredFile file : files) {
+			collectFile(file, file.getLastModified(), cutoff, report);
+		}
+	}
+
+	private void sweepTrackedFiles(boolean storeListed, FileGarbageCollectionReport report) {
+		long cutoff = System.currentTimeMillis() - gracePeriodMillis;
+		for (StoredFile file : referenceIndex.getCollectableFiles(cutoff)) {
+			if (storeListed) {
+				File localFile = fileStore.getLocalFile(file.getHash(), file.getLength(), file.getKey());
+				if (localFile != null && localFile.exists()) {
+					continue;
+				}
+			}
+			report.addScanned(1);
+			collectFile(file, 0, cutoff, report);
+		}
+	}
+
+	private void deleteUnreferencedChunks() {
+		try {
+			int deletedChunks = fileStore.deleteUnreferencedChunks(System.currentTimeMillis() - gracePeriodMillis);
+			if (deletedChunks > 0) {
+				logger.info("Deleted unreferenced file chunks: " + deletedChunks);
+			}
+		} catch (Exception e) {
+			logger.warn("Error deleting unreferenced file chunks: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The file is unregistered under the lock of the reference index and deleted outside of it,
+	 * stores of the same file wait for the delete instead of deduplicating against it.
+	 */
+	private void collectFile(StoredFile file, long lastModified, long cutoff, FileGarbageCollectionReport report) {
+		if (report.isDryRun()) {
+			if (referenceIndex.isCollectable(file.getHash(), file.getLength(), lastModified, cutoff)) {
+				report.addCollectable(file);
+			}
+			return;
+		}
+		if (!referenceIndex.beginDelete(file.getHash(), file.getLength(), lastModified, cutoff)) {
+			return;
+		}
+		report.addCollectable(file);
+		boolean failed = false;
+		try {
+			if (fileStore.deleteFile(file.getHash(), file.getLength(), file.getKey())) {
+				report.addDeleted(file);
+			}
+		} catch (Exception e) {
+			failed = true;
+			report.addError();
+			logger.warn("Error deleting unreferenced file " + file + ": " + e.getMessage());
+		} finally {
+			referenceIndex.endDelete(file.getHash(), file.getLength());
+		}
+		if (failed) {
+			//keep tracking the file so the delete is retried after the grace period
+			referenceIndex.touch(file.getHash(), file.getLength(), file.getKey());
+		}
+	}
+}
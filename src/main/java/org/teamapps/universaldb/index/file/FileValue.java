@@ -133,6 +133,9 @@ public interface FileValue {
 			fullTextIndexValues.add(new FullTextIndexValue(FileDataField.EXTENSION.name(), fileExtension));
 		}
 		FileContentData contentData = getFileContentData();
+		if (contentData == null) {
+			return fullTextIndexValues;
+		}
 		if (contentData.getContent() != null) {
 			fullTextIndexValues.add(new FullTextIndexValue(FileDataField.CONTENT.name(), contentData.getContent()));
 		}
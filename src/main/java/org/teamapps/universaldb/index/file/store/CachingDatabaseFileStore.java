@@ -0,0 +1,467 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Size bounded, content addressed disk cache in front of a remote {@link DatabaseFileStore}.
+ * Concurrent requests for the same file share a single download and the access statistics are persisted on close,
+ * files found in the cache directory without statistics are adopted on startup.
+ * Files returned by {@link #getLocalFile} and {@link #loadRemoteFile} may be evicted at any time,
+ * files of open {@link LocalFileHandle}s are pinned and only evicted after the handle is closed.
+ */
+public class CachingDatabaseFileStore implements DatabaseFileStore {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+	private static final String METADATA_FILE = "cache.meta";
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+	private final DatabaseFileStore remoteStore;
+	private final File cachePath;
+	private final File tempPath;
+	private final long maxCacheSize;
+	private final FileCacheEvictionPolicy evictionPolicy;
+	private final Map<String, CacheEntry> entries = new HashMap<>();
+	private final TreeSet<CacheEntry> evictionOrder;
+	private final ConcurrentHashMap<String, CompletableFuture<File>> pendingLoads = new ConcurrentHashMap<>();
+	private final ExecutorService prefetchExecutor;
+	private long cacheSize;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long accessSequence;
+
+	public CachingDatabaseFileStore(DatabaseFileStore remoteStore, File cachePath, long maxCacheSize) {
+		this(remoteStore, cachePath, maxCacheSize, FileCacheEvictionPolicy.LEAST_RECENTLY_USED, 2);
+	}
+
+	public CachingDatabaseFileStore(DatabaseFileStore remoteStore, File cachePath, long maxCacheSize, FileCacheEvictionPolicy evictionPolicy, int prefetchThreads) {
+		this.remoteStore = remoteStore;
+		this.cachePath = cachePath;
+		this.tempPath = new File(cachePath, "tmp");
+		this.maxCacheSize = maxCacheSize;
+		this.evictionPolicy = evictionPolicy;
+		this.evictionOrder = new TreeSet<>(evictionPolicy == FileCacheEvictionPolicy.LEAST_FREQUENTLY_USED ?
+				Comparator.comparingLong((CacheEntry entry) -> entry.accessCount).thenComparingLong(entry -> entry.lastAccess).thenComparingLong(entry -> entry.sequence) :
+				Comparator.comparingLong((CacheEntry entry) -> entry.lastAccess).thenComparingLong(entry -> entry.sequence));
+		this.prefetchExecutor = Executors.newFixedThreadPool(Math.max(1, prefetchThreads), runnable -> {
+			Thread thread = new Thread(runnable, "udb-file-cache-prefetch-" + THREAD_ID.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		cachePath.mkdirs();
+		loadMetadata();
+	}
+
+	@Override
+	public boolean isEncrypted() {
+		return remoteStore.isEncrypted();
+	}
+
+	@Override
+	public File getLocalFile(String hash, long length, String key) {
+		File file = getCachedFile(hash, length);
+		return file != null ? file : remoteStore.getLocalFile(hash, length, key);
+	}
+
+	@Override
+	public File loadRemoteFile(String hash, long length, String key) {
+		File file = getCachedFile(hash, length);
+		return file != null ? file : awaitLoad(hash, length, key);
+	}
+
+	@Override
+	public LocalFileHandle openLocalFile(String hash, long length, String key) throws IOException {
+		for (int attempt = 0; attempt < 3; attempt++) {
+			CacheEntry entry = pin(hash, length, attempt == 0);
+			if (entry != null) {
+				return new LocalFileHandle(FileStoreUtil.getPath(cachePath, hash, length), () -> unpin(entry));
+			}
+			if (remoteStore.getLocalFile(hash, length, key) != null) {
+				return remoteStore.openLocalFile(hash, length, key);
+			}
+			//the loaded file may be evicted before it is pinned if the cache is full of pinned files
+			awaitLoad(hash, length, key);
+		}
+		return remoteStore.openLocalFile(hash, length, key);
+	}
+
+	@Override
+	public boolean hasStableLocalFiles() {
+		return false;
+	}
+
+	@Override
+	public String storeFile(File file, String hash, long length) {
+		String key = remoteStore.storeFile(file, hash, length);
+		try {
+			File tempFile = createTempFile();
+			Files.copy(file.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			addToCache(tempFile, hash, length);
+		} catch (IOException e) {
+			logger.warn("Error caching stored file:" + hash, e);
+		}
+		return key;
+	}
+
+	/**
+	 * Loads the file into the cache in the background unless it is already cached or being loaded.
+	 */
+	@Override
+	public CompletableFuture<File> prefetch(String hash, long length, String key) {
+		File file = getCachedFile(hash, length, false);
+		if (file != null) {
+			return CompletableFuture.completedFuture(file);
+		}
+		return loadIntoCache(hash, length, key, prefetchExecutor);
+	}
+
+	@Override
+	public boolean deleteFile(String hash, long length, String key) {
+		synchronized (this) {
+			CacheEntry entry = removeEntry(FileStoreUtil.getStoreFileName(hash, length));
+			if (entry != null) {
+				FileStoreUtil.getPath(cachePath, hash, length).delete();
+			}
+		}
+		return remoteStore.deleteFile(hash, length, key);
+	}
+
+	@Override
+	public int deleteUnreferencedChunks(long modifiedBefore) throws IOException {
+		return remoteStore.deleteUnreferencedChunks(modifiedBefore);
+	}
+
+	@Override
+	public int getPartitionCount() {
+		return remoteStore.getPartitionCount();
+	}
+
+	@Override
+	public List<StoredFile> listFiles(int partition) {
+		return remoteStore.listFiles(partition);
+	}
+
+	@Override
+	public synchronized void close() {
+		prefetchExecutor.shutdownNow();
+		writeMetadata();
+	}
+
+	private File getCachedFile(String hash, long length) {
+		return getCachedFile(hash, length, true);
+	}
+
+	private synchronized File getCachedFile(String hash, long length, boolean countAccess) {
+		CacheEntry entry = entries.get(FileStoreUtil.getStoreFileName(hash, length));
+		File file = FileStoreUtil.getPath(cachePath, hash, length);
+		if (entry != null && file.exists()) {
+			if (countAccess) {
+				recordAccess(entry);
+				hitCount++;
+			}
+			return file;
+		}
+		if (entry != null) {
+			removeEntry(entry.name);
+		}
+		if (countAccess) {
+			missCount++;
+		}
+		return null;
+	}
+
+	private synchronized CacheEntry pin(String hash, long length, boolean countAccess) {
+		if (getCachedFile(hash, length, countAccess) == null) {
+			return null;
+		}
+		CacheEntry entry = entries.get(FileStoreUtil.getStoreFileName(hash, length));
+		entry.pinCount++;
+		return entry;
+	}
+
+	private synchronized void unpin(CacheEntry entry) {
+		entry.pinCount--;
+		if (entry.pinCount == 0) {
+			evict(null);
+		}
+	}
+
+	private File awaitLoad(String hash, long length, String key) {
+		try {
+			return loadIntoCache(hash, length, key).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Error loading remote file:" + hash, e.getCause());
+		}
+	}
+
+	private CompletableFuture<File> loadIntoCache(String hash, long length, String key) {
+		return loadIntoCache(hash, length, key, null);
+	}
+
+	private CompletableFuture<File> loadIntoCache(String hash, long length, String key, Executor executor) {
+		String name = FileStoreUtil.getStoreFileName(hash, length);
+		CompletableFuture<File> future = new CompletableFuture<>();
+		CompletableFuture<File> pending = pendingLoads.putIfAbsent(name, future);
+		if (pending != null) {
+			return pending;
+		}
+		Runnable load = () -> {
+			try {
+				future.complete(download(hash, length, key));
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				pendingLoads.remove(name, future);
+			}
+		};
+		if (executor != null) {
+			executor.execute(load);
+		} else {
+			load.run();
+		}
+		return future;
+	}
+
+	private File download(String hash, long length, String key) throws IOException {
+		File cachedFile = getCachedFile(hash, length, false);
+		if (cachedFile != null) {
+			return cachedFile;
+		}
+		File tempFile = createTempFile();
+		try {
+			remoteStore.downloadFile(hash, length, key, tempFile);
+			return addToCache(tempFile, hash, length);
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	private File addToCache(File tempFile, String hash, long length) throws IOException {
+		File file = FileStoreUtil.getPath(cachePath, hash, length, true);
+		try {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		synchronized (this) {
+			String name = FileStoreUtil.getStoreFileName(hash, length);
+			CacheEntry entry = entries.get(name);
+			if (entry == null) {
+				entry = addEntry(name, hash, length, System.currentTimeMillis(), 0);
+			}
+			recordAccess(entry);
+			evict(entry);
+		}
+		return file;
+	}
+
+	private CacheEntry addEntry(String name, String hash, long length, long lastAccess, long accessCount) {
+		CacheEntry entry = new CacheEntry(name, hash, length, lastAccess, accessCount, ++accessSequence);
+		entries.put(name, entry);
+		evictionOrder.add(entry);
+		cacheSize += length;
+		return entry;
+	}
+
+	private CacheEntry removeEntry(String name) {
+		CacheEntry entry = entries.remove(name);
+		if (entry != null) {
+			evictionOrder.remove(entry);
+			cacheSize -= entry.length;
+		}
+		return entry;
+	}
+
+	private void recordAccess(CacheEntry entry) {
+		evictionOrder.remove(entry);
+		entry.lastAccess = System.currentTimeMillis();
+		entry.accessCount++;
+		entry.sequence = ++accessSequence;
+		evictionOrder.add(entry);
+	}
+
+	/**
+	 * Removes entries in eviction order until the cache fits, only pinned and loading entries are skipped.
+	 */
+	private void evict(CacheEntry keep) {
+		Iterator<CacheEntry> iterator = evictionOrder.iterator();
+		while (cacheSize > maxCacheSize && iterator.hasNext()) {
+			CacheEntry entry = iterator.next();
+			if (entry == keep || entry.pinCount > 0 || pendingLoads.containsKey(entry.name)) {
+				continue;
+			}
+			iterator.remove();
+			FileStoreUtil.getPath(cachePath, entry.hash, entry.length).delete();
+			entries.remove(entry.name);
+			cacheSize -= entry.length;
+			evictionCount++;
+		}
+	}
+
+	private File createTempFile() throws IOException {
+		tempPath.mkdirs();
+		return Files.createTempFile(tempPath.toPath(), "cache", ".tmp").toFile();
+	}
+
+	private synchronized void loadMetadata() {
+		File metadataFile = new File(cachePath, METADATA_FILE);
+		if (metadataFile.exists()) {
+			try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataFile)))) {
+				int count = dis.readInt();
+				for (int i = 0; i < count; i++) {
+					String hash = dis.readUTF();
+					long length = dis.readLong();
+					long lastAccess = dis.readLong();
+					long accessCount = dis.readLong();
+					if (FileStoreUtil.getPath(cachePath, hash, length).exists()) {
+						addEntry(FileStoreUtil.getStoreFileName(hash, length), hash, length, lastAccess, accessCount);
+					}
+				}
+			} catch (IOException e) {
+				logger.warn("Error reading file cache metadata, rebuilding it from the cache directory", e);
+			}
+		}
+		File[] primaryFolders = cachePath.listFiles(File::isDirectory);
+		if (primaryFolders != null) {
+			for (File primaryFolder : primaryFolders) {
+				File[] secondaryFolders = primaryFolder.equals(tempPath) ? null : primaryFolder.listFiles(File::isDirectory);
+				if (secondaryFolders == null) {
+					continue;
+				}
+				for (File secondaryFolder : secondaryFolders) {
+					File[] files = secondaryFolder.listFiles(File::isFile);
+					if (files == null) {
+						continue;
+					}
+					for (File file : files) {
+						adoptFile(file);
+					}
+				}
+			}
+		}
+		File[] tempFiles = tempPath.listFiles();
+		if (tempFiles != null) {
+			for (File tempFile : tempFiles) {
+				tempFile.delete();
+			}
+		}
+		evict(null);
+	}
+
+	private void adoptFile(File file) {
+		String name = file.getName();
+		if (entries.containsKey(name)) {
+			return;
+		}
+		StoredFile storedFile = FileStoreUtil.parseStoreFileName(name);
+		if (storedFile == null) {
+			logger.warn("Unknown file in file cache:" + file);
+			return;
+		}
+		String hash = storedFile.getHash();
+		long length = storedFile.getLength();
+		if (file.length() != length || !FileStoreUtil.getPath(cachePath, hash, length).equals(file)) {
+			file.delete();
+			return;
+		}
+		addEntry(name, hash, length, file.lastModified(), 1);
+	}
+
+	private synchronized void writeMetadata() {
+		File metadataFile = new File(cachePath, METADATA_FILE);
+		File tempFile = new File(cachePath, METADATA_FILE + ".tmp");
+		try {
+			try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				dos.writeInt(entries.size());
+				for (CacheEntry entry : entries.values()) {
+					dos.writeUTF(entry.hash);
+					dos.writeLong(entry.length);
+					dos.writeLong(entry.lastAccess);
+					dos.writeLong(entry.accessCount);
+				}
+			}
+			Files.move(tempFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("Error writing file cache metadata", e);
+		}
+	}
+
+	public DatabaseFileStore getRemoteStore() {
+		return remoteStore;
+	}
+
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	public synchronized long getCacheSize() {
+		return cacheSize;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "entries: " + entries.size() + ", bytes: " + cacheSize + ", hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount;
+	}
+
+	private static class CacheEntry {
+		private final String name;
+		private final String hash;
+		private final long length;
+		private long lastAccess;
+		private long accessCount;
+		private long sequence;
+		private int pinCount;
+
+		private CacheEntry(String name, String hash, long length, long lastAccess, long accessCount, long sequence) {
+			this.name = name;
+			this.hash = hash;
+			this.length = length;
+			this.lastAccess = lastAccess;
+			this.accessCount = accessCount;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,412 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stores files as content defined chunks, each chunk is stored once under its own hash and a manifest
+ * lists the chunks of a file. Chunks are hashed and written in parallel and read ahead while a file is read.
+ */
+class ChunkStore {
+
+	private static final int MANIFEST_VERSION = 1;
+
+	private final File chunkPath;
+	private final File manifestPath;
+	private final File tempPath;
+	private final ChunkingConfig config;
+	private final ContentDefinedChunker chunker;
+	private final ExecutorService executor;
+	private final ReadWriteLock chunkLock = new ReentrantReadWriteLock();
+
+	ChunkStore(File basePath, File tempPath, ChunkingConfig config) {
+		this.chunkPath = new File(basePath, "chunks");
+		this.manifestPath = new File(basePath, "manifests");
+		this.tempPath = tempPath;
+		this.config = config;
+		this.chunker = new ContentDefinedChunker(config);
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(config.getIoThreads(), runnable -> {
+			Thread thread = new Thread(runnable, "udb-chunk-io-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	StoredFile storeFile(InputStream inputStream) throws IOException {
+		return storeFile(inputStream, storedFile -> {});
+	}
+
+	StoredFile storeFile(InputStream inputStream, Consumer<StoredFile> beforeDeduplication) throws IOException {
+		MessageDigest fileDigest = createDigest();
+		List<Future<ChunkRef>> chunkWrites = new ArrayList<>();
+		Semaphore pendingChunks = new Semaphore(config.getIoThreads() * 2);
+		byte[] buffer = new byte[config.getMaxChunkSize() * 2];
+		int available = 0;
+		long length = 0;
+		boolean endOfStream = false;
+		try {
+			while (true) {
+				while (!endOfStream && available < buffer.length) {
+					int count = inputStream.read(buffer, available, buffer.length - available);
+					if (count < 0) {
+						endOfStream = true;
+					} else {
+						available += count;
+					}
+				}
+				if (available == 0) {
+					break;
+				}
+				int chunkLength = chunker.nextChunkLength(buffer, 0, available);
+				byte[] chunk = Arrays.copyOf(buffer, chunkLength);
+				fileDigest.update(chunk);
+				length += chunkLength;
+				available -= chunkLength;
+				System.arraycopy(buffer, chunkLength, buffer, 0, available);
+				pendingChunks.acquire();
+				chunkWrites.add(executor.submit(() -> {
+					try {
+						return writeChunk(chunk);
+					} finally {
+						pendingChunks.release();
+					}
+				}));
+			}
+			List<ChunkRef> chunks = new ArrayList<>();
+			for (Future<ChunkRef> chunkWrite : chunkWrites) {
+				chunks.add(chunkWrite.get());
+			}
+			String hash = FileStoreUtil.bytesToHex(fileDigest.digest());
+			beforeDeduplication.accept(new StoredFile(hash, length, null));
+			File manifestFile = FileStoreUtil.getPath(manifestPath, hash, length, true);
+			if (!manifestFile.exists()) {
+				writeManifest(manifestFile, length, chunks);
+			}
+			return new StoredFile(hash, length, null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while storing chunks");
+		} catch (ExecutionException e) {
+			throw new IOException("Error writing chunk", e.getCause());
+		}
+	}
+
+	int getMaxChunkSize() {
+		return config.getMaxChunkSize();
+	}
+
+	boolean contains(String hash, long length) {
+		return FileStoreUtil.getPath(manifestPath, hash, length).exists();
+	}
+
+	InputStream openInputStream(String hash, long length, long offset) throws IOException {
+		return new ChunkedInputStream(readManifest(hash, length), offset);
+	}
+
+	boolean delete(String hash, long length) {
+		return FileStoreUtil.getPath(manifestPath, hash, length).delete();
+	}
+
+	List<StoredFile> listFiles(String hashPrefix) {
+		File folder = new File(manifestPath, FileStoreUtil.getPrimaryFolder(hashPrefix) + "/" + FileStoreUtil.getSecondaryFolder(hashPrefix));
+		File[] files = folder.listFiles(File::isFile);
+		if (files == null) {
+			return Collections.emptyList();
+		}
+		List<StoredFile> storedFiles = new ArrayList<>();
+		for (File file : files) {
+			StoredFile storedFile = FileStoreUtil.parseStoreFileName(file.getName());
+			if (storedFile != null) {
+				storedFiles.add(new StoredFile(storedFile.getHash(), storedFile.getLength(), null, file.lastModified()));
+			}
+		}
+		return storedFiles;
+	}
+
+	/**
+	 * Deletes chunks not listed by any manifest. Chunks modified after the cutoff are kept, a chunk is touched
+	 * when it is reused so a file that is being stored cannot lose it. Reusing and deleting a chunk are
+	 * mutually exclusive, a chunk deleted before it could be touched is written again.
+	 */
+	int deleteUnreferencedChunks(long modifiedBefore) throws IOException {
+		if (!chunkPath.exists()) {
+			return 0;
+		}
+		Set<String> referencedChunks = new HashSet<>();
+		if (manifestPath.exists()) {
+			try (Stream<Path> manifests = Files.walk(manifestPath.toPath())) {
+				for (Path manifest : (Iterable<Path>) manifests.filter(Files::isRegularFile)::iterator) {
+					for (ChunkRef chunk : readManifest(manifest.toFile())) {
+						referencedChunks.add(FileStoreUtil.getStoreFileName(chunk.getHash(), chunk.getLength()));
+					}
+				}
+			}
+		}
+		int deleted = 0;
+		try (Stream<Path> chunks = Files.walk(chunkPath.toPath())) {
+			for (Path chunk : (Iterable<Path>) chunks.filter(Files::isRegularFile)::iterator) {
+				File file = chunk.toFile();
+				if (referencedChunks.contains(file.getName())) {
+					continue;
+				}
+				chunkLock.writeLock().lock();
+				try {
+					if (file.lastModified() < modifiedBefore && file.delete()) {
+						deleted++;
+					}
+				} finally {
+					chunkLock.writeLock().unlock();
+				}
+			}
+		}
+		return deleted;
+	}
+
+	void close() {
+		executor.shutdown();
+	}
+
+	private ChunkRef writeChunk(byte[] chunk) throws IOException {
+		String hash = FileStoreUtil.bytesToHex(createDigest().digest(chunk));
+		File chunkFile = FileStoreUtil.getPath(chunkPath, hash, chunk.length, true);
+		if (!reuseChunk(chunkFile, chunk.length)) {
+			tempPath.mkdirs();
+			Path tempFile = Files.createTempFile(tempPath.toPath(), "chunk", ".tmp");
+			try {
+				Files.write(tempFile, chunk);
+				LocalDatabaseFileStore.moveToStore(tempFile.toFile(), chunkFile);
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+		}
+		return new ChunkRef(hash, chunk.length, 0);
+	}
+
+	private boolean reuseChunk(File chunkFile, int length) {
+		chunkLock.readLock().lock();
+		try {
+			return chunkFile.exists() && chunkFile.length() == length && chunkFile.setLastModified(System.currentTimeMillis());
+		} finally {
+			chunkLock.readLock().unlock();
+		}
+	}
+
+	private void writeManifest(File manifestFile, long length, List<ChunkRef> chunks) throws IOException {
+		tempPath.mkdirs();
+		Path tempFile = Files.createTempFile(tempPath.toPath(), "manifest", ".tmp");
+		try {
+			try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				dos.writeInt(MANIFEST_VERSION);
+				dos.writeLong(length);
+				dos.writeInt(chunks.size());
+				for (ChunkRef chunk : chunks) {
+					dos.write(FileStoreUtil.hexToBytes(chunk.getHash()));
+					dos.writeInt(chunk.getLength());
+				}
+			}
+			LocalDatabaseFileStore.moveToStore(tempFile.toFile(), manifestFile);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private List<ChunkRef> readManifest(String hash, long length) throws IOException {
+		File manifestFile = FileStoreUtil.getPath(manifestPath, hash, length);
+		if (!manifestFile.exists()) {
+			throw new FileNotFoundException("No chunk manifest for file:" + hash);
+		}
+		return readManifest(manifestFile);
+	}
+
+	private List<ChunkRef> readManifest(File manifestFile) throws IOException {
+		try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)))) {
+			int version = dis.readInt();
+			if (version != MANIFEST_VERSION) {
+				throw new IOException("Unknown chunk manifest version " + version + ": " + manifestFile);
+			}
+			dis.readLong();
+			int count = dis.readInt();
+			List<ChunkRef> chunks = new ArrayList<>(count);
+			long offset = 0;
+			byte[] hashBytes = new byte[32];
+			for (int i = 0; i < count; i++) {
+				dis.readFully(hashBytes);
+				int chunkLength = dis.readInt();
+				chunks.add(new ChunkRef(FileStoreUtil.bytesToHex(hashBytes), chunkLength, offset));
+				offset += chunkLength;
+			}
+			return chunks;
+		}
+	}
+
+	private byte[] readChunk(ChunkRef chunk) {
+		try {
+			byte[] data = Files.readAllBytes(FileStoreUtil.getPath(chunkPath, chunk.getHash(), chunk.getLength()).toPath());
+			if (data.length != chunk.getLength()) {
+				throw new IOException("Invalid chunk length: " + chunk.getHash());
+			}
+			return data;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static class ChunkRef {
+		private final String hash;
+		private final int length;
+		private final long offset;
+
+		private ChunkRef(String hash, int length, long offset) {
+			this.hash = hash;
+			this.length = length;
+			this.offset = offset;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+	}
+
+	/**
+	 * Reassembles a file from its chunks, only the chunks from the start offset on are read.
+	 */
+	private class ChunkedInputStream extends InputStream {
+
+		private final List<ChunkRef> chunks;
+		private final Map<Integer, CompletableFuture<byte[]>> pendingChunks = new HashMap<>();
+		private int chunkIndex;
+		private byte[] chunk;
+		private int position;
+
+		private ChunkedInputStream(List<ChunkRef> chunks, long offset) throws IOException {
+			this.chunks = chunks;
+			this.chunkIndex = findChunk(offset);
+			if (chunkIndex < chunks.size()) {
+				chunk = loadChunk(chunkIndex);
+				position = (int) (offset - chunks.get(chunkIndex).getOffset());
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!nextData()) {
+				return -1;
+			}
+			return chunk[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, b.length);
+			if (len == 0) {
+				return 0;
+			}
+			if (!nextData()) {
+				return -1;
+			}
+			int count = Math.min(len, chunk.length - position);
+			System.arraycopy(chunk, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return chunk != null ? chunk.length - position : 0;
+		}
+
+		@Override
+		public void close() {
+			pendingChunks.values().forEach(future -> future.cancel(false));
+			pendingChunks.clear();
+			chunk = null;
+		}
+
+		private boolean nextData() throws IOException {
+			while (chunk != null && position >= chunk.length) {
+				chunkIndex++;
+				position = 0;
+				chunk = chunkIndex < chunks.size() ? loadChunk(chunkIndex) : null;
+			}
+			return chunk != null;
+		}
+
+		private int findChunk(long offset) {
+			int low = 0;
+			int high = chunks.size() - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				ChunkRef chunkRef = chunks.get(mid);
+				if (offset < chunkRef.getOffset()) {
+					high = mid - 1;
+				} else if (offset >= chunkRef.getOffset() + chunkRef.getLength()) {
+					low = mid + 1;
+				} else {
+					return mid;
+				}
+			}
+			return chunks.size();
+		}
+
+		private byte[] loadChunk(int index) throws IOException {
+			CompletableFuture<byte[]> future = pendingChunks.remove(index);
+			for (int next = index + 1; next <= index + config.getReadAheadChunks() && next < chunks.size(); next++) {
+				ChunkRef nextChunk = chunks.get(next);
+				pendingChunks.computeIfAbsent(next, key -> CompletableFuture.supplyAsync(() -> readChunk(nextChunk), executor));
+			}
+			try {
+				return future != null ? future.join() : readChunk(chunks.get(index));
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof UncheckedIOException ? ((UncheckedIOException) e.getCause()).getCause() : new IOException(e.getCause());
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+public class ChunkingConfig {
+
+	private int minChunkSize = 256 * 1024;
+	private int averageChunkSize = 1024 * 1024;
+	private int maxChunkSize = 4 * 1024 * 1024;
+	private int ioThreads = 4;
+	private int readAheadChunks = 2;
+
+	public static ChunkingConfig create() {
+		return new ChunkingConfig();
+	}
+
+	/**
+	 * Chunk boundaries are chosen by content between the min and max size, the average size has to be a power of two.
+	 * Files not larger than the max chunk size are stored in full.
+	 */
+	public ChunkingConfig chunkSizes(int minChunkSize, int averageChunkSize, int maxChunkSize) {
+		if (Integer.bitCount(averageChunkSize) != 1 || minChunkSize <= 0 || minChunkSize >= averageChunkSize || averageChunkSize >= maxChunkSize) {
+			throw new RuntimeException("Invalid chunk sizes: " + minChunkSize + ", " + averageChunkSize + ", " + maxChunkSize);
+		}
+		this.minChunkSize = minChunkSize;
+		this.averageChunkSize = averageChunkSize;
+		this.maxChunkSize = maxChunkSize;
+		return this;
+	}
+
+	/**
+	 * @param ioThreads threads hashing and writing chunks of a file in parallel
+	 */
+	public ChunkingConfig ioThreads(int ioThreads) {
+		this.ioThreads = Math.max(1, ioThreads);
+		return this;
+	}
+
+	/**
+	 * @param readAheadChunks chunks loaded in the background while a chunked file is read
+	 */
+	public ChunkingConfig readAheadChunks(int readAheadChunks) {
+		this.readAheadChunks = Math.max(0, readAheadChunks);
+		return this;
+	}
+
+	public int getMinChunkSize() {
+		return minChunkSize;
+	}
+
+	public int getAverageChunkSize() {
+		return averageChunkSize;
+	}
+
+	public int getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	public int getIoThreads() {
+		return ioThreads;
+	}
+
+	public int getReadAheadChunks() {
+		return readAheadChunks;
+	}
+}
@@ -0,0 +1,98 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+/**
+ * Finds chunk boundaries with a gear rolling hash, so an insertion into a file only changes the chunks around it.
+ * Boundaries are harder to match before the average size and easier after it, which keeps chunk sizes close to the average.
+ */
+public class ContentDefinedChunker {
+
+	private static final long[] GEAR = createGearTable();
+
+	private final int minChunkSize;
+	private final int averageChunkSize;
+	private final int maxChunkSize;
+	private final long hardMask;
+	private final long easyMask;
+
+	public ContentDefinedChunker(ChunkingConfig config) {
+		this(config.getMinChunkSize(), config.getAverageChunkSize(), config.getMaxChunkSize());
+	}
+
+	public ContentDefinedChunker(int minChunkSize, int averageChunkSize, int maxChunkSize) {
+		this.minChunkSize = minChunkSize;
+		this.averageChunkSize = averageChunkSize;
+		this.maxChunkSize = maxChunkSize;
+		int bits = Integer.numberOfTrailingZeros(averageChunkSize);
+		this.hardMask = createMask(bits + 2);
+		this.easyMask = createMask(bits - 2);
+	}
+
+	/**
+	 * @param available bytes of the data starting at offset, must be at least the max chunk size unless the data ends there
+	 * @return length of the chunk starting at offset
+	 */
+	public int nextChunkLength(byte[] data, int offset, int available) {
+		if (available <= minChunkSize) {
+			return available;
+		}
+		int end = Math.min(available, maxChunkSize);
+		int normalEnd = Math.min(averageChunkSize, end);
+		long hash = 0;
+		int pos = minChunkSize;
+		for (; pos < normalEnd; pos++) {
+			hash = (hash << 1) + GEAR[data[offset + pos] & 0xff];
+			if ((hash & hardMask) == 0) {
+				return pos + 1;
+			}
+		}
+		for (; pos < end; pos++) {
+			hash = (hash << 1) + GEAR[data[offset + pos] & 0xff];
+			if ((hash & easyMask) == 0) {
+				return pos + 1;
+			}
+		}
+		return end;
+	}
+
+	public int getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	private static long createMask(int bits) {
+		// the highest bits depend on the last 64 bytes, the lowest only on the last few
+		return bits <= 0 ? 0 : -1L << (64 - Math.min(bits, 64));
+	}
+
+	private static long[] createGearTable() {
+		// fixed splitmix64 sequence, the table must never change or stored files would be chunked differently
+		long[] table = new long[256];
+		long state = 0x5544422D43444331L;
+		for (int i = 0; i < table.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			long value = state;
+			value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+			value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+			table[i] = value ^ (value >>> 31);
+		}
+		return table;
+	}
+}
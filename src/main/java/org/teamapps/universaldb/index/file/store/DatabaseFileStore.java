@@ -20,6 +20,18 @@
 package org.teamapps.universaldb.index.file.store;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface DatabaseFileStore {
 
@@ -29,5 +41,140 @@ public interface DatabaseFileStore {
 
 	File loadRemoteFile(String hash, long length, String key);
 
+	/**
+	 * Provides the stored file on the local disk, loading it if required. The file stays readable until the handle is closed.
+	 */
+	default LocalFileHandle openLocalFile(String hash, long length, String key) throws IOException {
+		File file = getLocalFile(hash, length, key);
+		return new LocalFileHandle(file != null ? file : loadRemoteFile(hash, length, key));
+	}
+
+	/**
+	 * @return false if files returned by {@link #getLocalFile} may be removed while they are still read, e.g. by a cache eviction
+	 */
+	default boolean hasStableLocalFiles() {
+		return true;
+	}
+
 	String storeFile(File file, String hash, long length);
+
+	/**
+	 * Stores the content of the stream and calculates its hash. The stream is read but not closed.
+	 */
+	default StoredFile storeFile(InputStream inputStream) throws IOException {
+		return storeFile(inputStream, storedFile -> {});
+	}
+
+	/**
+	 * Stores the content of the stream like {@link #storeFile(InputStream)}. The callback receives hash and length
+	 * before the store checks for an existing copy, e.g. to protect that copy from a concurrent garbage collection.
+	 */
+	default StoredFile storeFile(InputStream inputStream, Consumer<StoredFile> beforeDeduplication) throws IOException {
+		File tempFile = FileStoreUtil.createTempFile();
+		try {
+			StoredFile storedFile = FileStoreUtil.copyAndHash(inputStream, tempFile);
+			beforeDeduplication.accept(storedFile);
+			String key = storeFile(tempFile, storedFile.getHash(), storedFile.getLength());
+			return new StoredFile(storedFile.getHash(), storedFile.getLength(), key);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	default StoredFile storeFile(ReadableByteChannel channel) throws IOException {
+		return storeFile(Channels.newInputStream(channel));
+	}
+
+	/**
+	 * Writes the decrypted content of a stored file into the target file.
+	 */
+	default void downloadFile(String hash, long length, String key, File target) throws IOException {
+		try (LocalFileHandle handle = openLocalFile(hash, length, key)) {
+			File file = handle.getFile();
+			if (file == null || !file.exists()) {
+				throw new FileNotFoundException("File not available:" + hash);
+			}
+			Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Opens the decrypted content of a stored file starting at the offset, the local file is released when the stream is closed.
+	 */
+	default InputStream openInputStream(String hash, long length, String key, long offset) throws IOException {
+		LocalFileHandle handle = openLocalFile(hash, length, key);
+		FileInputStream inputStream;
+		try {
+			File file = handle.getFile();
+			if (file == null || !file.exists()) {
+				throw new FileNotFoundException("File not available:" + hash);
+			}
+			inputStream = new FileInputStream(file) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						handle.close();
+					}
+				}
+			};
+		} catch (IOException | RuntimeException e) {
+			handle.close();
+			throw e;
+		}
+		try {
+			inputStream.getChannel().position(offset);
+		} catch (IOException e) {
+			inputStream.close();
+			throw e;
+		}
+		return inputStream;
+	}
+
+	/**
+	 * @return true if the file is only available as chunks and has to be read with {@link #openInputStream}
+	 */
+	default boolean isChunked(String hash, long length, String key) {
+		return false;
+	}
+
+	/**
+	 * Hint that the file will be read soon, stores with a local cache may start loading it in the background.
+	 */
+	default CompletableFuture<File> prefetch(String hash, long length, String key) {
+		return CompletableFuture.completedFuture(getLocalFile(hash, length, key));
+	}
+
+	/**
+	 * Removes a stored file, used by the garbage collection of unreferenced files.
+	 *
+	 * @return true if the file has been deleted
+	 */
+	default boolean deleteFile(String hash, long length, String key) {
+		return false;
+	}
+
+	/**
+	 * Deletes chunks of chunked stores that are not used by any stored file anymore.
+	 *
+	 * @return number of deleted chunks
+	 */
+	default int deleteUnreferencedChunks(long modifiedBefore) throws IOException {
+		return 0;
+	}
+
+	/**
+	 * @return number of partitions the stored files can be listed with, 0 if listing is not supported
+	 */
+	default int getPartitionCount() {
+		return 0;
+	}
+
+	default List<StoredFile> listFiles(int partition) {
+		return Collections.emptyList();
+	}
+
+	default void close() {
+	}
 }
@@ -30,6 +30,7 @@ import java.nio.file.Files;
 import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
 
 public class FileStoreUtil {
@@ -84,6 +85,23 @@ public class FileStoreUtil {
 		return (NAME_PREFIX + hash.toLowerCase() + Long.toString(length, 16) + FILE_SUFFIX).toLowerCase();
 	}
 
+	/**
+	 * @return hash and length encoded in a store file name or null if it is not a store file name
+	 */
+	public static StoredFile parseStoreFileName(String fileName) {
+		int hashLength = 64;
+		if (!fileName.startsWith(NAME_PREFIX) || !fileName.endsWith(FILE_SUFFIX) || fileName.length() <= NAME_PREFIX.length() + hashLength + FILE_SUFFIX.length()) {
+			return null;
+		}
+		try {
+			String hash = fileName.substring(NAME_PREFIX.length(), NAME_PREFIX.length() + hashLength).toUpperCase();
+			long length = Long.parseLong(fileName.substring(NAME_PREFIX.length() + hashLength, fileName.length() - FILE_SUFFIX.length()), 16);
+			return new StoredFile(hash, length, null);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
 	public static long getLengthOfStoreFile(String fileName) {
 		return Long.parseLong(fileName.substring(fileName.length() - FILE_SUFFIX.length() - 2));
 	}
@@ -105,6 +123,28 @@ public class FileStoreUtil {
 		return Files.createTempFile("tmp", ".tmp").toFile();
 	}
 
+	/**
+	 * Copies the stream into the file and hashes it in the same pass.
+	 */
+	public static StoredFile copyAndHash(InputStream inputStream, File file) throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			long length = 0;
+			try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file), 64_000)) {
+				byte[] buffer = new byte[64_000];
+				int count;
+				while ((count = inputStream.read(buffer)) >= 0) {
+					digest.update(buffer, 0, count);
+					outputStream.write(buffer, 0, count);
+					length += count;
+				}
+			}
+			return new StoredFile(bytesToHex(digest.digest()), length, null);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	public static String encryptFile(File file, String hash, File encryptedFile) throws Exception {
 		Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
 		MessageDigest digest = MessageDigest.getInstance("SHA-256");
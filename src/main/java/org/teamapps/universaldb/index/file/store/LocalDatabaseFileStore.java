@@ -19,17 +19,34 @@
  */
 package org.teamapps.universaldb.index.file.store;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class LocalDatabaseFileStore implements DatabaseFileStore {
 
+	private static final String PARTITION_CHARS = "0123456789abcdef";
+
 	private final File basePath;
+	private final File tempPath;
+	private final ChunkStore chunkStore;
 
 	public LocalDatabaseFileStore(File basePath) {
+		this(basePath, null);
+	}
+
+	/**
+	 * @param chunkingConfig if set, files larger than the max chunk size are stored as content defined chunks
+	 *                       so similar files share the chunks they have in common
+	 */
+	public LocalDatabaseFileStore(File basePath, ChunkingConfig chunkingConfig) {
 		this.basePath = basePath;
+		this.tempPath = new File(basePath, "tmp");
+		this.chunkStore = chunkingConfig != null ? new ChunkStore(basePath, tempPath, chunkingConfig) : null;
 	}
 
 	@Override
@@ -39,24 +56,175 @@ public class LocalDatabaseFileStore implements DatabaseFileStore {
 
 	@Override
 	public File getLocalFile(String hash, long length, String key) {
-		return FileStoreUtil.getPath(basePath, hash, length);
+		File file = FileStoreUtil.getPath(basePath, hash, length);
+		if (chunkStore != null && !file.exists() && chunkStore.contains(hash, length)) {
+			return null;
+		}
+		return file;
 	}
 
+	/**
+	 * Reassembles a chunked file into a temp file that is only deleted on exit, prefer {@link #openLocalFile}.
+	 */
 	@Override
 	public File loadRemoteFile(String hash, long length, String key) {
-		return null;
+		if (chunkStore == null || !chunkStore.contains(hash, length)) {
+			return null;
+		}
+		try {
+			File tempFile = reassembleChunks(hash, length);
+			tempFile.deleteOnExit();
+			return tempFile;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Chunked files are reassembled into a temp file that is deleted when the handle is closed.
+	 */
+	@Override
+	public LocalFileHandle openLocalFile(String hash, long length, String key) throws IOException {
+		File file = getLocalFile(hash, length, key);
+		if (file != null) {
+			return new LocalFileHandle(file);
+		}
+		File tempFile = reassembleChunks(hash, length);
+		return new LocalFileHandle(tempFile, tempFile::delete);
+	}
+
+	private File reassembleChunks(String hash, long length) throws IOException {
+		File tempFile = createTempFile();
+		try (InputStream inputStream = chunkStore.openInputStream(hash, length, 0)) {
+			Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+		return tempFile;
+	}
+
+	@Override
+	public boolean isChunked(String hash, long length, String key) {
+		return chunkStore != null && !FileStoreUtil.exists(basePath, hash, length) && chunkStore.contains(hash, length);
+	}
+
+	@Override
+	public InputStream openInputStream(String hash, long length, String key, long offset) throws IOException {
+		if (isChunked(hash, length, key)) {
+			return chunkStore.openInputStream(hash, length, offset);
+		}
+		return DatabaseFileStore.super.openInputStream(hash, length, key, offset);
 	}
 
 	@Override
 	public String storeFile(File file, String hash, long length)  {
 		try {
 			File storeFile = FileStoreUtil.getPath(basePath, hash, length, true);
-			if (!storeFile.exists() || storeFile.length() != length) {
-				Files.copy(file.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			if (storeFile.exists() && storeFile.length() == length) {
+				return null;
+			}
+			if (chunkStore != null && length > chunkStore.getMaxChunkSize()) {
+				if (!chunkStore.contains(hash, length)) {
+					try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+						chunkStore.storeFile(inputStream);
+					}
+				}
+			} else {
+				File tempFile = createTempFile();
+				Files.copy(file.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				moveToStore(tempFile, storeFile);
 			}
 			return null;
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
+
+	@Override
+	public boolean deleteFile(String hash, long length, String key) {
+		File file = FileStoreUtil.getPath(basePath, hash, length);
+		boolean deleted = file.delete();
+		if (chunkStore != null && chunkStore.delete(hash, length)) {
+			deleted = true;
+		}
+		return deleted;
+	}
+
+	@Override
+	public int deleteUnreferencedChunks(long modifiedBefore) throws IOException {
+		return chunkStore != null ? chunkStore.deleteUnreferencedChunks(modifiedBefore) : 0;
+	}
+
+	@Override
+	public int getPartitionCount() {
+		return PARTITION_CHARS.length() * PARTITION_CHARS.length();
+	}
+
+	@Override
+	public List<StoredFile> listFiles(int partition) {
+		String hashPrefix = "" + PARTITION_CHARS.charAt(partition / PARTITION_CHARS.length()) + PARTITION_CHARS.charAt(partition % PARTITION_CHARS.length());
+		File folder = new File(basePath, FileStoreUtil.getPrimaryFolder(hashPrefix) + "/" + FileStoreUtil.getSecondaryFolder(hashPrefix));
+		File[] files = folder.listFiles(File::isFile);
+		List<StoredFile> storedFiles = new ArrayList<>();
+		if (files != null) {
+			for (File file : files) {
+				StoredFile storedFile = FileStoreUtil.parseStoreFileName(file.getName());
+				if (storedFile != null) {
+					storedFiles.add(new StoredFile(storedFile.getHash(), storedFile.getLength(), null, file.lastModified()));
+				}
+			}
+		}
+		if (chunkStore != null) {
+			storedFiles.addAll(chunkStore.listFiles(hashPrefix));
+		}
+		return storedFiles;
+	}
+
+	/**
+	 * Hashes the stream while writing it to a temp file next to the store and renames it to its content address,
+	 * the temp file is discarded if the store already contains the content.
+	 */
+	@Override
+	public StoredFile storeFile(InputStream inputStream, Consumer<StoredFile> beforeDeduplication) throws IOException {
+		if (chunkStore != null) {
+			byte[] head = inputStream.readNBytes(chunkStore.getMaxChunkSize() + 1);
+			if (head.length > chunkStore.getMaxChunkSize()) {
+				return chunkStore.storeFile(new SequenceInputStream(new ByteArrayInputStream(head), inputStream), beforeDeduplication);
+			}
+			inputStream = new ByteArrayInputStream(head);
+		}
+		File tempFile = createTempFile();
+		try {
+			StoredFile storedFile = FileStoreUtil.copyAndHash(inputStream, tempFile);
+			beforeDeduplication.accept(storedFile);
+			File storeFile = FileStoreUtil.getPath(basePath, storedFile.getHash(), storedFile.getLength(), true);
+			if (!storeFile.exists() || storeFile.length() != storedFile.getLength()) {
+				moveToStore(tempFile, storeFile);
+			}
+			return storedFile;
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	@Override
+	public void close() {
+		if (chunkStore != null) {
+			chunkStore.close();
+		}
+	}
+
+	private File createTempFile() throws IOException {
+		tempPath.mkdirs();
+		return Files.createTempFile(tempPath.toPath(), "ingest", ".tmp").toFile();
+	}
+
+	static void moveToStore(File tempFile, File storeFile) throws IOException {
+		try {
+			Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
 }
@@ -0,0 +1,60 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A stored file that stays readable on the local disk until the handle is closed.
+ */
+public class LocalFileHandle implements Closeable {
+
+	private final File file;
+	private final Runnable release;
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	public LocalFileHandle(File file) {
+		this(file, null);
+	}
+
+	public LocalFileHandle(File file, Runnable release) {
+		this.file = file;
+		this.release = release;
+	}
+
+	/**
+	 * @return the file or null if the store does not have the file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Releases the file, further calls have no effect.
+	 */
+	@Override
+	public void close() {
+		if (release != null && closed.compareAndSet(false, true)) {
+			release.run();
+		}
+	}
+}
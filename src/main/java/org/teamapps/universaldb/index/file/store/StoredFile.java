@@ -0,0 +1,63 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+public class StoredFile {
+
+	private final String hash;
+	private final long length;
+	private final String key;
+	private final long lastModified;
+
+	public StoredFile(String hash, long length, String key) {
+		this(hash, length, key, 0);
+	}
+
+	public StoredFile(String hash, long length, String key, long lastModified) {
+		this.hash = hash;
+		this.length = length;
+		this.key = key;
+		this.lastModified = lastModified;
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return modification time of the stored blob if known, otherwise 0
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public String toString() {
+		return hash + " (" + length + ")";
+	}
+}
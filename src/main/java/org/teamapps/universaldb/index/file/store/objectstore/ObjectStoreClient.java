@@ -0,0 +1,389 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store.objectstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal client for the S3 REST protocol with path style addressing. Large objects are transferred as parallel
+ * multipart uploads and ranged downloads, all requests share the connection pool of one {@link HttpClient}.
+ */
+public class ObjectStoreClient implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+	private static final DateTimeFormatter AMZ_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+	private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+	private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("<UploadId>(.+?)</UploadId>");
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+	private final ObjectStoreConfig config;
+	private final HttpClient httpClient;
+	private final ExecutorService transferExecutor;
+
+	public ObjectStoreClient(ObjectStoreConfig config) {
+		this.config = config;
+		this.transferExecutor = Executors.newFixedThreadPool(Math.max(1, config.getTransferThreads()), runnable -> {
+			Thread thread = new Thread(runnable, "udb-object-store-transfer-" + THREAD_ID.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(30))
+				.build();
+	}
+
+	public boolean exists(String objectName) throws IOException {
+		HttpResponse<Void> response = send(() -> createRequest("HEAD", objectName, null, HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() == 404) {
+			return false;
+		}
+		checkStatus(response, "HEAD", objectName);
+		return true;
+	}
+
+	public void upload(String objectName, File file) throws IOException {
+		long length = file.length();
+		if (length <= config.getPartSize()) {
+			HttpResponse<String> response = send(() -> createRequest("PUT", objectName, null, filePart(file, 0, length)), HttpResponse.BodyHandlers.ofString());
+			checkStatus(response, "PUT", objectName);
+		} else {
+			uploadMultipart(objectName, file, length);
+		}
+	}
+
+	public void download(String objectName, long length, File target) throws IOException {
+		try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			if (length <= config.getPartSize()) {
+				downloadRange(objectName, channel, 0, length);
+			} else {
+				List<Future<Void>> futures = new ArrayList<>();
+				for (long start = 0; start < length; start += config.getPartSize()) {
+					long rangeStart = start;
+					long rangeLength = Math.min(config.getPartSize(), length - start);
+					futures.add(transferExecutor.submit(() -> {
+						downloadRange(objectName, channel, rangeStart, rangeLength);
+						return null;
+					}));
+				}
+				awaitAll(futures);
+			}
+		}
+	}
+
+	public void delete(String objectName) throws IOException {
+		HttpResponse<String> response = send(() -> createRequest("DELETE", objectName, null, HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 404) {
+			checkStatus(response, "DELETE", objectName);
+		}
+	}
+
+	@Override
+	public void close() {
+		transferExecutor.shutdownNow();
+	}
+
+	private void uploadMultipart(String objectName, File file, long length) throws IOException {
+		HttpResponse<String> response = send(() -> createRequest("POST", objectName, Map.of("uploads", ""), HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+		checkStatus(response, "POST", objectName);
+		Matcher matcher = UPLOAD_ID_PATTERN.matcher(response.body());
+		if (!matcher.find()) {
+			throw new IOException("Missing upload id for multipart upload of " + objectName);
+		}
+		String uploadId = matcher.group(1);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			int partNumber = 1;
+			for (long start = 0; start < length; start += config.getPartSize()) {
+				long partStart = start;
+				long partLength = Math.min(config.getPartSize(), length - start);
+				Map<String, String> parameters = Map.of("partNumber", String.valueOf(partNumber++), "uploadId", uploadId);
+				futures.add(transferExecutor.submit(() -> {
+					HttpResponse<String> partResponse = send(() -> createRequest("PUT", objectName, parameters, filePart(file, partStart, partLength)), HttpResponse.BodyHandlers.ofString());
+					checkStatus(partResponse, "PUT", objectName);
+					return partResponse.headers().firstValue("ETag").orElseThrow(() -> new IOException("Missing ETag for part of " + objectName));
+				}));
+			}
+			List<String> eTags = awaitAll(futures);
+			StringBuilder body = new StringBuilder("<CompleteMultipartUpload>");
+			for (int i = 0; i < eTags.size(); i++) {
+				body.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>").append(eTags.get(i)).append("</ETag></Part>");
+			}
+			body.append("</CompleteMultipartUpload>");
+			HttpResponse<String> completeResponse = send(() -> createRequest("POST", objectName, Map.of("uploadId", uploadId), HttpRequest.BodyPublishers.ofString(body.toString())), HttpResponse.BodyHandlers.ofString());
+			checkStatus(completeResponse, "POST", objectName);
+			if (completeResponse.body().contains("<Error>")) {
+				throw new IOException("Error completing multipart upload of " + objectName + ": " + completeResponse.body());
+			}
+		} catch (IOException | RuntimeException e) {
+			try {
+				send(() -> createRequest("DELETE", objectName, Map.of("uploadId", uploadId), HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+			} catch (IOException abortException) {
+				logger.warn("Error aborting multipart upload of " + objectName, abortException);
+			}
+			throw e;
+		}
+	}
+
+	private void downloadRange(String objectName, FileChannel channel, long start, long length) throws IOException {
+		if (length == 0) {
+			return;
+		}
+		int attempt = 0;
+		while (true) {
+			HttpResponse<InputStream> response = send(() -> createRequest("GET", objectName, null, HttpRequest.BodyPublishers.noBody())
+					.header("Range", "bytes=" + start + "-" + (start + length - 1)), HttpResponse.BodyHandlers.ofInputStream());
+			int status = response.statusCode();
+			if (status != 206 && (status != 200 || start > 0)) {
+				response.body().close();
+				checkStatus(response, "GET", objectName);
+				throw new IOException("Object store ignored range request for " + objectName + ", status: " + status);
+			}
+			try (InputStream inputStream = response.body()) {
+				byte[] buffer = new byte[64_000];
+				long position = start;
+				long end = start + length;
+				int count;
+				while (position < end && (count = inputStream.read(buffer, 0, (int) Math.min(buffer.length, end - position))) >= 0) {
+					ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+					while (byteBuffer.hasRemaining()) {
+						position += channel.write(byteBuffer, position);
+					}
+				}
+				if (position != end) {
+					throw new EOFException("Incomplete download of " + objectName + " at " + position);
+				}
+				return;
+			} catch (IOException e) {
+				if (++attempt > config.getMaxRetries()) {
+					throw e;
+				}
+				logger.warn("Retrying download of " + objectName + ": " + e.getMessage());
+				backoff(attempt);
+			}
+		}
+	}
+
+	private <T> HttpResponse<T> send(Supplier<HttpRequest.Builder> requestSupplier, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+		int attempt = 0;
+		while (true) {
+			try {
+				HttpResponse<T> response = httpClient.send(requestSupplier.get().build(), bodyHandler);
+				int status = response.statusCode();
+				if ((status < 500 && status != 429) || attempt >= config.getMaxRetries()) {
+					return response;
+				}
+				if (response.body() instanceof Closeable closeable) {
+					closeable.close();
+				}
+				logger.warn("Retrying object store request, status: " + status);
+			} catch (IOException e) {
+				if (attempt >= config.getMaxRetries()) {
+					throw e;
+				}
+				logger.warn("Retrying object store request: " + e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Object store request interrupted");
+			}
+			backoff(++attempt);
+		}
+	}
+
+	private void backoff(int attempt) throws InterruptedIOException {
+		long wait = config.getRetryBackoffMillis() << Math.min(attempt - 1, 10);
+		try {
+			Thread.sleep(wait + ThreadLocalRandom.current().nextLong(wait / 2 + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Object store request interrupted");
+		}
+	}
+
+	private static void checkStatus(HttpResponse<?> response, String method, String objectName) throws IOException {
+		int status = response.statusCode();
+		if (status < 200 || status >= 300) {
+			throw new IOException("Object store request failed: " + method + " " + objectName + ", status: " + status);
+		}
+	}
+
+	private static <T> List<T> awaitAll(List<Future<T>> futures) throws IOException {
+		List<T> results = new ArrayList<>();
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Object store transfer interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException ioException) {
+				throw ioException;
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+
+	private static HttpRequest.BodyPublisher filePart(File file, long start, long length) {
+		return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+			try {
+				FileInputStream inputStream = new FileInputStream(file);
+				inputStream.getChannel().position(start);
+				return new BoundedInputStream(new BufferedInputStream(inputStream, 64_000), length);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}), length);
+	}
+
+	private HttpRequest.Builder createRequest(String method, String objectName, Map<String, String> parameters, HttpRequest.BodyPublisher bodyPublisher) {
+		String path = "/" + encode(config.getBucket(), false) + "/" + encode(objectName, true);
+		String query = createCanonicalQuery(parameters);
+		URI endpoint = config.getEndpoint();
+		String basePath = endpoint.getRawPath() != null && endpoint.getRawPath().length() > 1 ? endpoint.getRawPath().replaceAll("/$", "") : "";
+		URI uri = URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + basePath + path + (query.isEmpty() ? "" : "?" + query));
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+				.timeout(Duration.ofMillis(config.getRequestTimeoutMillis()))
+				.method(method, bodyPublisher);
+		if (config.getAccessKey() != null) {
+			sign(builder, method, uri, basePath + path, query);
+		}
+		return builder;
+	}
+
+	private void sign(HttpRequest.Builder builder, String method, URI uri, String canonicalPath, String canonicalQuery) {
+		ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+		String amzDate = AMZ_DATE_FORMAT.format(now);
+		String date = amzDate.substring(0, 8);
+		String host = uri.getRawAuthority();
+		String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+		String canonicalRequest = method + "\n" + canonicalPath + "\n" + canonicalQuery + "\n" +
+				"host:" + host + "\n" +
+				"x-amz-content-sha256:" + UNSIGNED_PAYLOAD + "\n" +
+				"x-amz-date:" + amzDate + "\n\n" +
+				signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+		String scope = date + "/" + config.getRegion() + "/s3/aws4_request";
+		String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+		byte[] signingKey = hmac(("AWS4" + config.getSecretKey()).getBytes(StandardCharsets.UTF_8), date);
+		signingKey = hmac(signingKey, config.getRegion());
+		signingKey = hmac(signingKey, "s3");
+		signingKey = hmac(signingKey, "aws4_request");
+		String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+		builder.header("x-amz-date", amzDate)
+				.header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+				.header("Authorization", "AWS4-HMAC-SHA256 Credential=" + config.getAccessKey() + "/" + scope + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+	}
+
+	private static String createCanonicalQuery(Map<String, String> parameters) {
+		if (parameters == null || parameters.isEmpty()) {
+			return "";
+		}
+		StringJoiner joiner = new StringJoiner("&");
+		new TreeMap<>(parameters).forEach((key, value) -> joiner.add(encode(key, false) + "=" + encode(value, false)));
+		return joiner.toString();
+	}
+
+	private static String encode(String value, boolean keepSlash) {
+		String encoded = URLEncoder.encode(value, StandardCharsets.UTF_8)
+				.replace("+", "%20")
+				.replace("*", "%2A")
+				.replace("%7E", "~");
+		return keepSlash ? encoded.replace("%2F", "/") : encoded;
+	}
+
+	private static String sha256Hex(String value) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte[] hmac(byte[] key, String value) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static class BoundedInputStream extends FilterInputStream {
+		private long remaining;
+
+		private BoundedInputStream(InputStream inputStream, long length) {
+			super(inputStream);
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int value = super.read();
+			if (value >= 0) {
+				remaining--;
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+			if (count > 0) {
+				remaining -= count;
+			}
+			return count;
+		}
+	}
+}
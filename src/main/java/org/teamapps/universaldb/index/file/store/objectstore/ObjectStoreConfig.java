@@ -0,0 +1,178 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store.objectstore;
+
+import java.io.File;
+import java.net.URI;
+
+public class ObjectStoreConfig {
+
+	private URI endpoint;
+	private String bucket;
+	private String region = "us-east-1";
+	private String accessKey;
+	private String secretKey;
+	private String prefix = "";
+	private boolean encrypted = true;
+	private File tempPath;
+	private long partSize = 16 * 1024 * 1024;
+	private int transferThreads = 8;
+	private int maxRetries = 5;
+	private long retryBackoffMillis = 200;
+	private long requestTimeoutMillis = 300_000;
+
+	public static ObjectStoreConfig create(String endpoint, String bucket) {
+		return new ObjectStoreConfig().endpoint(URI.create(endpoint)).bucket(bucket);
+	}
+
+	public ObjectStoreConfig endpoint(URI endpoint) {
+		this.endpoint = endpoint;
+		return this;
+	}
+
+	public ObjectStoreConfig bucket(String bucket) {
+		this.bucket = bucket;
+		return this;
+	}
+
+	public ObjectStoreConfig region(String region) {
+		this.region = region;
+		return this;
+	}
+
+	/**
+	 * Requests are signed with AWS signature version 4 if credentials are set.
+	 */
+	public ObjectStoreConfig credentials(String accessKey, String secretKey) {
+		this.accessKey = accessKey;
+		this.secretKey = secretKey;
+		return this;
+	}
+
+	/**
+	 * @param prefix prepended to all object names, e.g. "udb/"
+	 */
+	public ObjectStoreConfig prefix(String prefix) {
+		this.prefix = prefix != null ? prefix : "";
+		return this;
+	}
+
+	/**
+	 * Encrypt files with their content hash before uploading them.
+	 */
+	public ObjectStoreConfig encrypted(boolean encrypted) {
+		this.encrypted = encrypted;
+		return this;
+	}
+
+	/**
+	 * @param tempPath directory for files in transfer, default is the system temp directory
+	 */
+	public ObjectStoreConfig tempPath(File tempPath) {
+		this.tempPath = tempPath;
+		return this;
+	}
+
+	/**
+	 * @param partSize files larger than this are uploaded and downloaded in parts of this size, minimum is 5 MB
+	 */
+	public ObjectStoreConfig partSize(long partSize) {
+		this.partSize = partSize;
+		return this;
+	}
+
+	/**
+	 * @param transferThreads maximum number of parallel part transfers
+	 */
+	public ObjectStoreConfig transferThreads(int transferThreads) {
+		this.transferThreads = transferThreads;
+		return this;
+	}
+
+	public ObjectStoreConfig maxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+		return this;
+	}
+
+	/**
+	 * @param retryBackoffMillis wait before the first retry, doubled with each further retry
+	 */
+	public ObjectStoreConfig retryBackoffMillis(long retryBackoffMillis) {
+		this.retryBackoffMillis = retryBackoffMillis;
+		return this;
+	}
+
+	public ObjectStoreConfig requestTimeoutMillis(long requestTimeoutMillis) {
+		this.requestTimeoutMillis = requestTimeoutMillis;
+		return this;
+	}
+
+	public URI getEndpoint() {
+		return endpoint;
+	}
+
+	public String getBucket() {
+		return bucket;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public String getAccessKey() {
+		return accessKey;
+	}
+
+	public String getSecretKey() {
+		return secretKey;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public boolean isEncrypted() {
+		return encrypted;
+	}
+
+	public File getTempPath() {
+		return tempPath;
+	}
+
+	public long getPartSize() {
+		return partSize;
+	}
+
+	public int getTransferThreads() {
+		return transferThreads;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public long getRetryBackoffMillis() {
+		return retryBackoffMillis;
+	}
+
+	public long getRequestTimeoutMillis() {
+		return requestTimeoutMillis;
+	}
+}
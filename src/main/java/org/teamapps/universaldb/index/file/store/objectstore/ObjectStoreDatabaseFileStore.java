@@ -0,0 +1,160 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store.objectstore;
+
+import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
+import org.teamapps.universaldb.index.file.store.FileStoreUtil;
+import org.teamapps.universaldb.index.file.store.LocalFileHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * File store for S3 compatible object stores. Objects are content addressed, encrypted files are stored under the
+ * hash of their encrypted content which is returned as key. Wrap it into a
+ * {@link org.teamapps.universaldb.index.file.store.CachingDatabaseFileStore} to keep downloaded files locally.
+ */
+public class ObjectStoreDatabaseFileStore implements DatabaseFileStore {
+
+	private final ObjectStoreConfig config;
+	private final ObjectStoreClient client;
+
+	public ObjectStoreDatabaseFileStore(ObjectStoreConfig config) {
+		this.config = config;
+		this.client = new ObjectStoreClient(config);
+	}
+
+	@Override
+	public boolean isEncrypted() {
+		return config.isEncrypted();
+	}
+
+	@Override
+	public File getLocalFile(String hash, long length, String key) {
+		return null;
+	}
+
+	@Override
+	public File loadRemoteFile(String hash, long length, String key) {
+		try {
+			File file = createTempFile();
+			file.deleteOnExit();
+			downloadFile(hash, length, key, file);
+			return file;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Downloads the file into a temp file that is deleted when the handle is closed.
+	 */
+	@Override
+	public LocalFileHandle openLocalFile(String hash, long length, String key) throws IOException {
+		File file = createTempFile();
+		try {
+			downloadFile(hash, length, key, file);
+		} catch (IOException | RuntimeException e) {
+			file.delete();
+			throw e;
+		}
+		return new LocalFileHandle(file, file::delete);
+	}
+
+	@Override
+	public void downloadFile(String hash, long length, String key, File target) throws IOException {
+		if (!config.isEncrypted()) {
+			client.download(getObjectName(hash, length), length, target);
+			return;
+		}
+		File encryptedFile = createTempFile();
+		try {
+			client.download(getObjectName(key, length), length, encryptedFile);
+			FileStoreUtil.decryptFile(encryptedFile, hash, target);
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Error decrypting file:" + hash, e);
+		} finally {
+			Files.deleteIfExists(encryptedFile.toPath());
+		}
+	}
+
+	@Override
+	public String storeFile(File file, String hash, long length) {
+		try {
+			if (!config.isEncrypted()) {
+				upload(file, getObjectName(hash, length));
+				return null;
+			}
+			File encryptedFile = createTempFile();
+			try {
+				String key = FileStoreUtil.encryptFile(file, hash, encryptedFile);
+				upload(encryptedFile, getObjectName(key, length));
+				return key;
+			} finally {
+				Files.deleteIfExists(encryptedFile.toPath());
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("Error storing file in object store:" + hash, e);
+		}
+	}
+
+	@Override
+	public boolean deleteFile(String hash, long length, String key) {
+		if (config.isEncrypted() && key == null) {
+			return false;
+		}
+		try {
+			client.delete(getObjectName(config.isEncrypted() ? key : hash, length));
+			return true;
+		} catch (IOException e) {
+			throw new RuntimeException("Error deleting file in object store:" + hash, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+
+	public ObjectStoreClient getClient() {
+		return client;
+	}
+
+	public String getObjectName(String objectHash, long length) {
+		return config.getPrefix() + FileStoreUtil.getPrimaryFolder(objectHash) + "/" + FileStoreUtil.getSecondaryFolder(objectHash) + "/" + FileStoreUtil.getStoreFileName(objectHash, length);
+	}
+
+	private void upload(File file, String objectName) throws IOException {
+		if (!client.exists(objectName)) {
+			client.upload(objectName, file);
+		}
+	}
+
+	private File createTempFile() throws IOException {
+		if (config.getTempPath() != null) {
+			config.getTempPath().mkdirs();
+			return Files.createTempFile(config.getTempPath().toPath(), "transfer", ".tmp").toFile();
+		}
+		return FileStoreUtil.createTempFile();
+	}
+}
@@ -31,6 +31,7 @@ import java.util.function.Supplier;
 public class CommittedLocalFile implements FileValue {
 
 	private final File file;
+	private final ContentStream contentStream;
 	private final String fileName;
 	private final String hash;
 	private final long size;
@@ -39,6 +40,19 @@ public class CommittedLocalFile implements FileValue {
 
 	public CommittedLocalFile(File file, String fileName, String hash, long size, Supplier<FileContentData> contentDataSupplier) {
 		this.file = file;
+		this.contentStream = null;
+		this.fileName = fileName;
+		this.hash = hash;
+		this.size = size;
+		this.contentDataSupplier = contentDataSupplier;
+	}
+
+	/**
+	 * For files stored as chunks, the content is reassembled while it is read.
+	 */
+	public CommittedLocalFile(ContentStream contentStream, String fileName, String hash, long size, Supplier<FileContentData> contentDataSupplier) {
+		this.file = null;
+		this.contentStream = contentStream;
 		this.fileName = fileName;
 		this.hash = hash;
 		this.size = size;
@@ -52,14 +66,26 @@ public class CommittedLocalFile implements FileValue {
 
 	@Override
 	public InputStream getInputStream() throws IOException {
-		return new BufferedInputStream(new FileInputStream(file));
+		return getInputStream(0);
+	}
+
+	/**
+	 * Reads the content from the offset on, chunked files only load the chunks from there.
+	 */
+	public InputStream getInputStream(long offset) throws IOException {
+		if (contentStream != null) {
+			return new BufferedInputStream(contentStream.open(offset));
+		}
+		FileInputStream inputStream = new FileInputStream(file);
+		inputStream.getChannel().position(offset);
+		return new BufferedInputStream(inputStream);
 	}
 
 	@Override
 	public File getAsFile() {
 		try {
 			Path path = Files.createTempFile("tmp", "." + getFileExtension());
-			Files.copy(file.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
+			copyToFile(path.toFile());
 			return path.toFile();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
@@ -68,7 +94,13 @@ public class CommittedLocalFile implements FileValue {
 
 	@Override
 	public void copyToFile(File file) throws IOException {
-		Files.copy(this.file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		if (contentStream != null) {
+			try (InputStream inputStream = contentStream.open(0)) {
+				Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} else {
+			Files.copy(this.file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 
 	@Override
@@ -103,4 +135,8 @@ public class CommittedLocalFile implements FileValue {
 	public String getDetectedLanguage() {
 		return getFileContentData().getLanguage();
 	}
+
+	public interface ContentStream {
+		InputStream open(long offset) throws IOException;
+	}
 }
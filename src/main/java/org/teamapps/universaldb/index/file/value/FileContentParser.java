@@ -35,26 +35,31 @@ import org.apache.tika.parser.Parser;
 import org.apache.tika.sax.BodyContentHandler;
 import org.teamapps.udb.model.FileContentData;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 
 public class FileContentParser {
 
 	public static TikaConfig TIKA_CONFIG;
+	private static final Parser PARSER;
 	private static final LanguageDetector languageDetector = LanguageDetectorBuilder.fromAllLanguages().withLowAccuracyMode().build();
+	private static final int LANGUAGE_CACHE_SIZE = 10_000;
+	private static final String NO_LANGUAGE = "";
+	private static final Map<String, String> languageByHash = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > LANGUAGE_CACHE_SIZE;
+		}
+	});
 	private final File file;
 	private final String fileName;
 	private Metadata meta;
 	private FileContentData data;
+	private volatile InputStream inputStream;
+	private volatile boolean cancelled;
 
 	static {
 		try {
@@ -69,6 +74,7 @@ public class FileContentParser {
 					"   </parsers>\n" +
 					"</properties>";
 			TIKA_CONFIG = new TikaConfig(new ByteArrayInputStream(xmlConfig.getBytes(StandardCharsets.UTF_8)));
+			PARSER = new AutoDetectParser(TIKA_CONFIG);
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -84,12 +90,16 @@ public class FileContentParser {
 	}
 
 	public FileContentParser(File file, String fileName) {
+		this(file, fileName, createFileHash(file));
+	}
+
+	public FileContentParser(File file, String fileName, String hash) {
 		this.file = file;
 		this.fileName = fileName != null ? fileName : file.getName();
 		data = new FileContentData();
 		data.setName(fileName);
 		data.setFileSize(file.length());
-		data.setHash(createFileHash(file));
+		data.setHash(hash);
 	}
 
 	public String getHash() {
@@ -103,6 +113,31 @@ public class FileContentParser {
 		return data;
 	}
 
+	/**
+	 * @return name, size and hash of the file without parsing its content
+	 */
+	public FileContentData getFileInfoData() {
+		return data;
+	}
+
+	/**
+	 * Aborts a running parse by closing the file stream, the parsed content is incomplete afterwards.
+	 */
+	public void cancel() {
+		cancelled = true;
+		InputStream stream = inputStream;
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException ignore) {
+			}
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
 	public String getContentLanguage() {
 		getFileContentData(100_000);
 		if (data.getLanguage() == null) {
@@ -115,11 +150,15 @@ public class FileContentParser {
 		try {
 			BodyContentHandler handler = new BodyContentHandler(maxContentLength);
 			meta = new Metadata();
-			BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
-			Parser parser = new AutoDetectParser(TIKA_CONFIG);
-			try {
-				parser.parse(bis, handler, meta, new ParseContext());
+			try (InputStream bis = new BufferedInputStream(new FileInputStream(file))) {
+				inputStream = bis;
+				if (cancelled) {
+					return;
+				}
+				PARSER.parse(bis, handler, meta, new ParseContext());
 			} catch (WriteLimitReachedException ignore) {
+			} finally {
+				inputStream = null;
 			}
 			data.setContent(handler.toString());
 
@@ -163,9 +202,19 @@ public class FileContentParser {
 	private void detectLanguage() {
 		String content = data.getContent();
 		if (content != null && content.length() > 100) {
+			String hash = data.getHash();
+			String cachedLanguage = hash != null ? languageByHash.get(hash) : null;
+			if (cachedLanguage != null) {
+				data.setLanguage(cachedLanguage.equals(NO_LANGUAGE) ? null : cachedLanguage);
+				return;
+			}
 			Language language = languageDetector.detectLanguageOf(content);
-			if (language.getIsoCode639_1() != IsoCode639_1.NONE) {
-				data.setLanguage(language.getIsoCode639_1().name().toLowerCase());
+			String isoCode = language.getIsoCode639_1() != IsoCode639_1.NONE ? language.getIsoCode639_1().name().toLowerCase() : null;
+			if (isoCode != null) {
+				data.setLanguage(isoCode);
+			}
+			if (hash != null) {
+				languageByHash.put(hash, isoCode != null ? isoCode : NO_LANGUAGE);
 			}
 		}
 	}
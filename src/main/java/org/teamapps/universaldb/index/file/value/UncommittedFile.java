@@ -30,9 +30,9 @@ public class UncommittedFile implements FileValue {
 
 	private final File file;
 	private final String fileName;
-	private final String hash;
 	private final long size;
-	private final FileContentParser contentParser;
+	private String hash;
+	private FileContentParser contentParser;
 	private FileContentData contentData;
 
 	public UncommittedFile(File file) {
@@ -43,8 +43,13 @@ public class UncommittedFile implements FileValue {
 		this.file = file;
 		this.fileName = fileName != null ? fileName : file.getName();
 		this.size = file.length();
-		this.contentParser = new FileContentParser(file, fileName);
-		this.hash = contentParser.getHash();
+	}
+
+	private FileContentParser getContentParser() {
+		if (contentParser == null) {
+			contentParser = new FileContentParser(file, fileName, getHash());
+		}
+		return contentParser;
 	}
 
 	@Override
@@ -79,6 +84,9 @@ public class UncommittedFile implements FileValue {
 
 	@Override
 	public String getHash() {
+		if (hash == null) {
+			hash = FileContentParser.createFileHash(file);
+		}
 		return hash;
 	}
 
@@ -95,7 +103,7 @@ public class UncommittedFile implements FileValue {
 	@Override
 	public FileContentData getFileContentData(int maxContentLength) {
 		if (contentData == null) {
-			contentData = contentParser.getFileContentData(maxContentLength);
+			contentData = getContentParser().getFileContentData(maxContentLength);
 		}
 		return contentData;
 	}
@@ -103,8 +111,8 @@ public class UncommittedFile implements FileValue {
 	@Override
 	public String getDetectedLanguage() {
 		if (getFileContentData() != null) {
-			if (contentData.getLanguage() == null && contentParser != null) {
-				contentParser.getContentLanguage();
+			if (contentData.getLanguage() == null) {
+				getContentParser().getContentLanguage();
 			}
 			return contentData.getLanguage();
 		} else {
@@ -29,6 +29,7 @@ import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -75,14 +76,35 @@ public class DoubleIndex extends AbstractIndex<Double, NumericFilter> implements
 		atomicStore.setDouble(id, value);
 	}
 
+	/**
+	 * Writes the values of the consecutive records starting with firstId.
+	 */
+	public void setValues(int firstId, double[] values) {
+		atomicStore.setDoubles(firstId, values);
+	}
+
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		double[] keys = new double[leafIds.length];
+		for (int i = 0; i < leafIds.length; i++) {
+			keys[i] = getValue(leafIds[i]);
+		}
+		return RecordSorter.sortByDoubleKeys(recordIds, keys, ascending);
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		int order = ascending ? 1 : -1;
-		sortEntries.sort((o1, o2) -> {
+		return (o1, o2) -> {
 			double value1 = getValue(o1.getLeafId());
 			double value2 = getValue(o2.getLeafId());
 			return Double.compare(value1, value2) * order;
-		});
-		return sortEntries;
+		};
 	}
 
 	@Override
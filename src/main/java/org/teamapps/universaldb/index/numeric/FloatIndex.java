@@ -72,14 +72,35 @@ public class FloatIndex extends AbstractIndex<Float, NumericFilter> implements N
 		atomicStore.setFloat(id, value);
 	}
 
+	/**
+	 * Writes the values of the consecutive records starting with firstId.
+	 */
+	public void setValues(int firstId, float[] values) {
+		atomicStore.setFloats(firstId, values);
+	}
+
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		double[] keys = new double[leafIds.length];
+		for (int i = 0; i < leafIds.length; i++) {
+			keys[i] = getValue(leafIds[i]);
+		}
+		return RecordSorter.sortByDoubleKeys(recordIds, keys, ascending);
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		int order = ascending ? 1 : -1;
-		sortEntries.sort((o1, o2) -> {
+		return (o1, o2) -> {
 			float value1 = getValue(o1.getLeafId());
 			float value2 = getValue(o2.getLeafId());
 			return Float.compare(value1, value2) * order;
-		});
-		return sortEntries;
+		};
 	}
 
 	@Override
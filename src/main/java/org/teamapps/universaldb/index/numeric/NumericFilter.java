@@ -140,7 +140,9 @@ public class NumericFilter {
 
 	@Override
 	public String toString() {
-		if (value2 == null) {
+		if (values != null) {
+			return filterType + ":" + values;
+		} else if (value2 == null) {
 			return filterType + ":" + value1;
 		} else {
 			return filterType + ":" + value1 + "," + value2;
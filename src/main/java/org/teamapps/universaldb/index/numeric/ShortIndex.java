@@ -72,14 +72,35 @@ public class ShortIndex extends AbstractIndex<Short, NumericFilter> implements N
 		atomicStore.setShort(id, value);
 	}
 
+	/**
+	 * Writes the values of the consecutive records starting with firstId.
+	 */
+	public void setValues(int firstId, short[] values) {
+		atomicStore.setShorts(firstId, values);
+	}
+
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		int[] keys = new int[leafIds.length];
+		for (int i = 0; i < leafIds.length; i++) {
+			keys[i] = getValue(leafIds[i]);
+		}
+		return RecordSorter.sortByIntKeys(recordIds, keys, ascending);
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		int order = ascending ? 1 : -1;
-		sortEntries.sort((o1, o2) -> {
+		return (o1, o2) -> {
 			short value1 = getValue(o1.getLeafId());
 			short value2 = getValue(o2.getLeafId());
 			return Short.compare(value1, value2) * order;
-		});
-		return sortEntries;
+		};
 	}
 
 	@Override
@@ -275,13 +275,32 @@ public class MultiReferenceIndex extends AbstractIndex<MultiReferenceValue, Mult
 	}
 
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public int[] sortRecordIds(int[] recordIds, int[] leafIds, boolean ascending) {
+		int[] keys = new int[leafIds.length];
+		for (int i = 0; i < leafIds.length; i++) {
+			keys[i] = getReferencesCount(leafIds[i]);
+		}
+		return RecordSorter.sortByIntKeys(recordIds, keys, ascending);
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		int order = ascending ? 1 : -1;
-		sortEntries.sort((o1, o2) -> {
+		return (o1, o2) -> {
 			int value1 = getReferencesCount(o1.getLeafId());
 			int value2 = getReferencesCount(o2.getLeafId());
 			return Integer.compare(value1, value2) * order;
-		});
-		return sortEntries;
+		};
+	}
+
+	@Override
+	public Object getSortValue(int id, UserContext userContext) {
+		return getReferencesCount(id);
 	}
 
 	@Override
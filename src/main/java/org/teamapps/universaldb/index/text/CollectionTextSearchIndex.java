@@ -26,56 +26,136 @@ import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.teamapps.universaldb.index.filelegacy.FileUtil;
 import org.teamapps.universaldb.index.translation.TranslatableText;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class CollectionTextSearchIndex {
+public class CollectionTextSearchIndex implements FullTextSearchIndex {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
 	public static final String ID = "id";
+	public static final double DEFAULT_RAM_BUFFER_SIZE_MB = 32;
+	private static final String SUBSTRING_INDEX = "substringIndex";
+	private static final String SCORING = "scoring";
+	private static final String TRANSACTION_ID = "transactionId";
+	private static final int MIN_CACHED_CANDIDATES_DIVISOR = 16;
+
+	private static final ScheduledExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "udb-full-text-searcher-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	private String name;
 	private File dir;
 	private IndexWriter writer;
 	private Analyzer queryAnalyzer;
-	private StringField idSearchField;
-	private NumericDocValuesField idField;
-	private FieldType fieldType;
+	private volatile FieldType fieldType;
+	private SearcherManager searcherManager;
+	private ScheduledFuture<?> refreshTask;
+	private ScheduledFuture<?> checkpointTask;
+	private final long maxStalenessMillis;
+	private final AtomicLong changeCount = new AtomicLong();
+	private volatile long refreshedChangeCount;
+	private volatile long committedChangeCount;
+	private final Map<String, String> commitData = new HashMap<>();
+	private long committedTransactionId = -1;
+	private final AtomicLong indexedTransactionId = new AtomicLong(-1);
+	private volatile Runnable searchBarrier;
+	private final RecordIdCache recordIdCache = new RecordIdCache();
+	private final int minSubstringLength;
+	private volatile boolean substringIndexComplete;
+	private final boolean scoring;
+	private volatile boolean indexedScoring;
+	private final FullTextFilterCache filterCache;
 
 	public CollectionTextSearchIndex(File path, String name) {
+		this(path, name, FullTextIndexConfig.create());
+	}
+
+	public CollectionTextSearchIndex(File path, String name, FullTextIndexConfig config) {
+		this.maxStalenessMillis = config.getMaxStalenessMillis();
+		this.minSubstringLength = config.isSubstringIndex() ? Math.max(1, config.getMinSubstringLength()) : 0;
+		this.scoring = config.isScoring();
+		this.filterCache = config.getFilterCacheMaxBytes() > 0 ? new FullTextFilterCache(config.getFilterCacheMaxBytes(), config.getFilterCacheMaxEntries()) : null;
 		try {
 			this.name = name;
 			dir = new File(path, name);
-			Directory directory = FSDirectory.open(dir.toPath());
-
-			Analyzer analyzer = new StandardAnalyzer();
 			queryAnalyzer = new StandardAnalyzer();
-			IndexWriterConfig iwc = new IndexWriterConfig(analyzer);
-			iwc.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-			iwc.setRAMBufferSizeMB(32);
-			writer = new IndexWriter(directory, iwc);
+			try {
+				writer = openWriter();
+			} catch (CorruptIndexException | IndexFormatTooOldException e) {
+				logger.error("Cannot open full text index " + dir.getPath() + ", deleting index for rebuild", e);
+				FileUtil.deleteFileRecursive(dir);
+				writer = openWriter();
+			}
 
-			idSearchField = new StringField(ID, "", Field.Store.NO);
-			idField = new NumericDocValuesField(ID, 0);
-			fieldType = SearchIndexUtil.createIndexFieldType();
+			Iterable<Map.Entry<String, String>> liveCommitData = writer.getLiveCommitData();
+			if (liveCommitData != null) {
+				liveCommitData.forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+			}
+			boolean emptyIndex = writer.getDocStats().maxDoc == 0;
+			indexedScoring = emptyIndex ? scoring : "true".equals(commitData.get(SCORING));
+			fieldType = SearchIndexUtil.createIndexFieldType(indexedScoring);
+			substringIndexComplete = minSubstringLength > 0 && (emptyIndex || "true".equals(commitData.get(SUBSTRING_INDEX)));
+			if (commitData.containsKey(TRANSACTION_ID)) {
+				committedTransactionId = Long.parseLong(commitData.get(TRANSACTION_ID));
+				indexedTransactionId.set(committedTransactionId);
+			}
+			searcherManager = new SearcherManager(writer, true, false, null);
+			if (filterCache != null) {
+				searcherManager.addListener(new ReferenceManager.RefreshListener() {
+					@Override
+					public void beforeRefresh() {
+					}
+
+					@Override
+					public void afterRefresh(boolean didRefresh) {
+						if (didRefresh) {
+							filterCache.invalidate();
+						}
+					}
+				});
+			}
+			if (maxStalenessMillis > 0) {
+				refreshTask = REFRESH_EXECUTOR.scheduleWithFixedDelay(this::refreshSearcher, maxStalenessMillis, maxStalenessMillis, TimeUnit.MILLISECONDS);
+			}
+			long checkpointIntervalMillis = config.getCheckpointIntervalMillis();
+			if (checkpointIntervalMillis > 0) {
+				checkpointTask = REFRESH_EXECUTOR.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+			}
 
 			Runtime.getRuntime().addShutdownHook(new Thread(() -> commit(true)));
 
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new RuntimeException("Cannot open full text index " + dir.getPath(), e);
 		}
 	}
 
+	private IndexWriter openWriter() throws IOException {
+		Directory directory = FSDirectory.open(dir.toPath());
+		IndexWriterConfig iwc = new IndexWriterConfig(new StandardAnalyzer());
+		iwc.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+		iwc.setRAMBufferSizeMB(DEFAULT_RAM_BUFFER_SIZE_MB);
+		return new IndexWriter(directory, iwc);
+	}
+
 	public void setRecordValues(int id, List<FullTextIndexValue> values, boolean update) {
 		try {
-			idSearchField.setStringValue("" + id);
-			idField.setLongValue(id);
 			Document doc = new Document();
-			doc.add(idSearchField);
-			doc.add(idField);
+			doc.add(new StringField(ID, "" + id, Field.Store.NO));
+			doc.add(new NumericDocValuesField(ID, id));
 			for (FullTextIndexValue fullTextIndexValue : values) {
 				if (fullTextIndexValue.isTranslatableText()) {
 					TranslatableText translatableText = fullTextIndexValue.getTranslatableText();
@@ -84,12 +164,15 @@ public class CollectionTextSearchIndex {
 						String value = translationMap.get(language) != null ? translationMap.get(language) : "";
 						Field field = new Field(fullTextIndexValue.getFieldName() + "_" + language, value, fieldType);
 						doc.add(field);
+						addSubstringFields(doc, fullTextIndexValue.getFieldName() + "_" + language, value);
 					}
 					Field field = new Field(fullTextIndexValue.getFieldName(), translatableText.getText(), fieldType);
 					doc.add(field);
+					addSubstringFields(doc, fullTextIndexValue.getFieldName(), translatableText.getText());
 				} else {
 					Field field = new Field(fullTextIndexValue.getFieldName(), fullTextIndexValue.getValueNonNull(), fieldType);
 					doc.add(field);
+					addSubstringFields(doc, fullTextIndexValue.getFieldName(), fullTextIndexValue.getValueNonNull());
 				}
 			}
 			if (update) {
@@ -98,6 +181,7 @@ public class CollectionTextSearchIndex {
 			} else {
 				writer.addDocument(doc);
 			}
+			changeCount.incrementAndGet();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -105,23 +189,29 @@ public class CollectionTextSearchIndex {
 
 	public void setFileContent(int id, String fieldName, String content, boolean update) {
 		try {
-			idSearchField.setStringValue(id + "-" + fieldName);
-			idField.setLongValue(id);
 			Document doc = new Document();
-			doc.add(idSearchField);
-			doc.add(idField);
+			doc.add(new StringField(ID, id + "-" + fieldName, Field.Store.NO));
+			doc.add(new NumericDocValuesField(ID, id));
 			doc.add(new Field(fieldName, content, fieldType));
+			addSubstringFields(doc, fieldName, content);
 			if (update) {
 				Term term = new Term(ID, "" + id);
 				writer.updateDocument(term, doc);
 			} else {
 				writer.addDocument(doc);
 			}
+			changeCount.incrementAndGet();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	private void addSubstringFields(Document doc, String fieldName, String value) {
+		if (minSubstringLength > 0) {
+			SearchIndexUtil.addSubstringFields(doc, fieldName, value, queryAnalyzer, minSubstringLength);
+		}
+	}
+
 	public void delete(int id, List<String> fileFieldNames) {
 		try {
 			Term term = new Term(ID, "" + id);
@@ -133,9 +223,62 @@ public class CollectionTextSearchIndex {
 					writer.deleteDocuments(fileFieldTerm);
 				}
 			}
+			changeCount.incrementAndGet();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the best matching records ordered by score (BM25).
+	 *
+	 * @param clauses each clause must match, a clause matches if any of its field filters matches
+	 * @param records optional filter, only these records are returned
+	 * @param boosts optional field and language boosts
+	 */
+	public List<ScoredRecord> searchRanked(List<List<TextFieldFilter>> clauses, BitSet records, int maxResults, SearchBoosts boosts) {
+		if (clauses == null || clauses.isEmpty() || maxResults <= 0) {
+			return Collections.emptyList();
+		}
+		try {
+			int minSubstringLength = substringIndexComplete ? this.minSubstringLength : 0;
+			BooleanQuery.Builder queryBuilder = new BooleanQuery.Builder();
+			for (List<TextFieldFilter> clause : clauses) {
+				BooleanQuery.Builder clauseQueries = new BooleanQuery.Builder();
+				for (TextFieldFilter filter : clause) {
+					clauseQueries.add(createFieldQuery(filter, boosts, minSubstringLength), BooleanClause.Occur.SHOULD);
+				}
+				queryBuilder.add(clauseQueries.build(), BooleanClause.Occur.MUST);
+			}
+			if (records != null) {
+				queryBuilder.add(new RecordIdFilterQuery(records, recordIdCache), BooleanClause.Occur.FILTER);
+			}
+			IndexSearcher searcher = acquireSearcher();
+			try {
+				TopDocs topDocs = searcher.search(queryBuilder.build(), maxResults);
+				return toScoredRecords(searcher, topDocs.scoreDocs);
+			} finally {
+				searcherManager.release(searcher);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		return null;
+	}
+
+	private List<ScoredRecord> toScoredRecords(IndexSearcher searcher, ScoreDoc[] scoreDocs) throws IOException {
+		List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+		List<ScoredRecord> scoredRecords = new ArrayList<>(scoreDocs.length);
+		BitSet resultIds = new BitSet();
+		for (ScoreDoc scoreDoc : scoreDocs) {
+			LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(scoreDoc.doc, leaves));
+			int id = recordIdCache.getRecordIds(leaf.reader())[scoreDoc.doc - leaf.docBase];
+			if (id > 0 && !resultIds.get(id)) {
+				resultIds.set(id);
+				scoredRecords.add(new ScoredRecord(id, scoreDoc.score));
+			}
+		}
+		return scoredRecords;
 	}
 
 	public BitSet filter(BitSet bitSet, List<TextFieldFilter> filters, boolean andFilter) {
@@ -143,49 +286,186 @@ public class CollectionTextSearchIndex {
 			if (filters == null || filters.isEmpty()) {
 				return bitSet;
 			}
-			DirectoryReader reader = DirectoryReader.open(writer, false, false);
-			IndexSearcher searcher = new IndexSearcher(reader);
-			SearchCollector collector = new SearchCollector();
-
-			BooleanClause.Occur occur = andFilter ? BooleanClause.Occur.MUST : BooleanClause.Occur.SHOULD;
-
-			BooleanQuery.Builder fieldQueries = new BooleanQuery.Builder();
-			for (TextFieldFilter filter : filters) {
-				if (filter.isTranslatableField()) {
-					BooleanQuery.Builder translatableQueries = new BooleanQuery.Builder();
-					Query originalLanguage = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName(), filter.getValue(), queryAnalyzer);
-					translatableQueries.add(originalLanguage, BooleanClause.Occur.SHOULD);
-					for (String language : filter.getRankedLanguages()) {
-						Query query = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName() + "_" + language, filter.getValue(), queryAnalyzer);
-						translatableQueries.add(query, BooleanClause.Occur.SHOULD);
-					}
-					fieldQueries.add(translatableQueries.build(), occur);
-				} else {
-					Query query = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName(), filter.getValue(), queryAnalyzer);
-					fieldQueries.add(query, occur);
+			IndexSearcher searcher = acquireSearcher();
+			try {
+				if (filterCache != null) {
+					return filterCached(searcher, bitSet, filters, andFilter);
 				}
+				return filter(searcher, bitSet, filters, andFilter);
+			} finally {
+				searcherManager.release(searcher);
 			}
-
-			BooleanQuery query = fieldQueries.build();
-			searcher.search(query, collector);
-			BitSet resultIds = collector.getResultIds();
-			resultIds.and(bitSet);
-			reader.close();
-			return resultIds;
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
 
+	private BitSet filterCached(IndexSearcher searcher, BitSet bitSet, List<TextFieldFilter> filters, boolean andFilter) throws IOException {
+		long readerVersion = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+		String key = createFilterCacheKey(filters, andFilter);
+		BitSet result = filterCache.get(key, readerVersion, bitSet);
+		if (result == null) {
+			//a miss runs the query over the whole index, for few candidates the filtered query is cheaper
+			if ((long) bitSet.cardinality() * MIN_CACHED_CANDIDATES_DIVISOR < searcher.getIndexReader().maxDoc()) {
+				return filter(searcher, bitSet, filters, andFilter);
+			}
+			BitSet recordIds = filter(searcher, null, filters, andFilter);
+			filterCache.put(key, readerVersion, recordIds);
+			recordIds.and(bitSet);
+			result = recordIds;
+		}
+		return result;
+	}
+
+	private static String createFilterCacheKey(List<TextFieldFilter> filters, boolean andFilter) {
+		List<String> filterKeys = new ArrayList<>();
+		for (TextFieldFilter filter : filters) {
+			String filterKey = filter.getFieldName() + "\u0000" + filter.getFilterType() + "\u0000" + filter.getValue();
+			if (filter.isTranslatableField()) {
+				filterKey += "\u0000" + String.join(",", filter.getRankedLanguages());
+			}
+			filterKeys.add(filterKey);
+		}
+		Collections.sort(filterKeys);
+		return (andFilter ? "and" : "or") + "\u0001" + String.join("\u0001", filterKeys);
+	}
+
+	private BitSet filter(IndexSearcher searcher, BitSet bitSet, List<TextFieldFilter> filters, boolean andFilter) throws IOException {
+		SearchCollector collector = new SearchCollector(recordIdCache);
+		BooleanClause.Occur occur = andFilter ? BooleanClause.Occur.MUST : BooleanClause.Occur.SHOULD;
+		int minSubstringLength = substringIndexComplete ? this.minSubstringLength : 0;
+
+		BooleanQuery.Builder fieldQueries = new BooleanQuery.Builder();
+		for (TextFieldFilter filter : filters) {
+			fieldQueries.add(createFieldQuery(filter, null, minSubstringLength), occur);
+		}
+
+		BooleanQuery.Builder query = new BooleanQuery.Builder()
+				.add(fieldQueries.build(), BooleanClause.Occur.MUST);
+		if (bitSet != null) {
+			query.add(new RecordIdFilterQuery(bitSet, recordIdCache), BooleanClause.Occur.FILTER);
+		}
+		searcher.search(query.build(), collector);
+		return collector.getResultIds();
+	}
+
+	private Query createFieldQuery(TextFieldFilter filter, SearchBoosts boosts, int minSubstringLength) {
+		float fieldBoost = boosts != null ? boosts.getFieldBoost(filter.getFieldName()) : 1f;
+		if (filter.isTranslatableField()) {
+			BooleanQuery.Builder translatableQueries = new BooleanQuery.Builder();
+			Query originalLanguage = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName(), filter.getValue(), queryAnalyzer, minSubstringLength);
+			translatableQueries.add(boost(originalLanguage, fieldBoost), BooleanClause.Occur.SHOULD);
+			for (String language : filter.getRankedLanguages()) {
+				Query query = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName() + "_" + language, filter.getValue(), queryAnalyzer, minSubstringLength);
+				float languageBoost = boosts != null ? boosts.getLanguageBoost(language) : 1f;
+				translatableQueries.add(boost(query, fieldBoost * languageBoost), BooleanClause.Occur.SHOULD);
+			}
+			return translatableQueries.build();
+		} else {
+			Query query = SearchIndexUtil.createQuery(filter.getFilterType(), filter.getFieldName(), filter.getValue(), queryAnalyzer, minSubstringLength);
+			return boost(query, fieldBoost);
+		}
+	}
+
+	private static Query boost(Query query, float boost) {
+		return boost == 1f ? query : new BoostQuery(query, boost);
+	}
+
+	/**
+	 * @param searchBarrier called before each query, e.g. to wait for pending asynchronous index updates
+	 */
+	public void setSearchBarrier(Runnable searchBarrier) {
+		this.searchBarrier = searchBarrier;
+	}
+
+	private IndexSearcher acquireSearcher() throws IOException {
+		Runnable barrier = searchBarrier;
+		if (barrier != null) {
+			barrier.run();
+		}
+		if (maxStalenessMillis <= 0) {
+			long changes = changeCount.get();
+			if (changes != refreshedChangeCount) {
+				searcherManager.maybeRefreshBlocking();
+				refreshedChangeCount = changes;
+			}
+		}
+		return searcherManager.acquire();
+	}
+
+	private void refreshSearcher() {
+		try {
+			long changes = changeCount.get();
+			if (changes != refreshedChangeCount && searcherManager.maybeRefresh()) {
+				refreshedChangeCount = changes;
+			}
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * @param transactionId all changes of this and previous transactions have been written to this index
+	 */
+	public void setIndexedTransactionId(long transactionId) {
+		indexedTransactionId.accumulateAndGet(transactionId, Math::max);
+	}
+
+	/**
+	 * Removes the checkpoint while the index is incomplete, commits in between store no transaction id.
+	 */
+	public synchronized void clearIndexedTransactionId() {
+		indexedTransactionId.set(-1);
+		commitData.remove(TRANSACTION_ID);
+	}
+
+	public long getIndexedTransactionId() {
+		return indexedTransactionId.get();
+	}
+
+	/**
+	 * @return the transaction id stored with the last commit before this index was opened, -1 if unknown
+	 */
+	public long getCommittedTransactionId() {
+		return committedTransactionId;
+	}
+
+	private void checkpoint() {
+		if (changeCount.get() != committedChangeCount) {
+			commit(false);
+		}
+	}
+
+	private void updateCommitData() {
+		commitData.put(SUBSTRING_INDEX, String.valueOf(substringIndexComplete));
+		commitData.put(SCORING, String.valueOf(indexedScoring));
+		if (indexedTransactionId.get() >= 0) {
+			commitData.put(TRANSACTION_ID, String.valueOf(indexedTransactionId.get()));
+		}
+		writer.setLiveCommitData(new HashMap<>(commitData).entrySet());
+	}
 
 	public synchronized void commit(boolean close) {
 		try {
 			if (writer != null && writer.isOpen()) {
+				long changes = changeCount.get();
+				updateCommitData();
 				writer.commit();
+				committedChangeCount = changes;
 				if (close) {
+					if (refreshTask != null) {
+						refreshTask.cancel(false);
+					}
+					if (checkpointTask != null) {
+						checkpointTask.cancel(false);
+					}
+					searcherManager.close();
 					writer.close();
 					writer = null;
+				} else {
+					refreshSearcher();
 				}
 			}
 		} catch (Throwable e) {
@@ -193,6 +473,21 @@ public class CollectionTextSearchIndex {
 		}
 	}
 
+	public void setRamBufferSizeMB(double ramBufferSizeMB) {
+		writer.getConfig().setRAMBufferSizeMB(ramBufferSizeMB);
+	}
+
+	/**
+	 * @return the filter result cache or null if disabled
+	 */
+	public FullTextFilterCache getFilterCache() {
+		return filterCache;
+	}
+
+	int getCachedSegmentCount() {
+		return recordIdCache.getSegmentCount();
+	}
+
 	public int getMaxDoc() {
 		if (writer == null) {
 			return -1;
@@ -201,9 +496,23 @@ public class CollectionTextSearchIndex {
 		}
 	}
 
-	public void deleteAllDocuments() throws IOException {
+	/**
+	 * @return true if the index contains documents written with another format than configured (substring fields, scoring)
+	 */
+	public boolean isRebuildRequired() {
+		return (minSubstringLength > 0 && !substringIndexComplete) || indexedScoring != scoring;
+	}
+
+	public synchronized void deleteAllDocuments() throws IOException {
 		writer.deleteAll();
+		substringIndexComplete = minSubstringLength > 0;
+		if (indexedScoring != scoring) {
+			indexedScoring = scoring;
+			fieldType = SearchIndexUtil.createIndexFieldType(scoring);
+		}
+		updateCommitData();
 		writer.commit();
+		changeCount.incrementAndGet();
 	}
 
 	public void drop() {
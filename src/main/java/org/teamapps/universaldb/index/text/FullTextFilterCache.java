@@ -0,0 +1,156 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.RoaringDocIdSet;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of full-text filter results. Results are stored as compressed bitmaps of record ids and tagged with the
+ * version of the index reader they were computed with, entries of older readers are never returned.
+ */
+public class FullTextFilterCache {
+
+	private static final long ENTRY_OVERHEAD = 96;
+
+	private final long maxBytes;
+	private final int maxEntries;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	public FullTextFilterCache(long maxBytes, int maxEntries) {
+		this.maxBytes = maxBytes;
+		this.maxEntries = maxEntries;
+	}
+
+	public synchronized BitSet get(String key, long readerVersion, BitSet records) throws IOException {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.readerVersion != readerVersion) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return intersect(entry.recordIds, records);
+	}
+
+	public synchronized void put(String key, long readerVersion, BitSet recordIds) {
+		RoaringDocIdSet compressed = compress(recordIds);
+		long size = compressed.ramBytesUsed() + key.length() * 2L + ENTRY_OVERHEAD;
+		if (size > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(readerVersion, compressed, size));
+		if (previous != null) {
+			bytes -= previous.size;
+		}
+		bytes += size;
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while ((bytes > maxBytes || entries.size() > maxEntries) && iterator.hasNext()) {
+			bytes -= iterator.next().getValue().size;
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	public synchronized void invalidate() {
+		if (!entries.isEmpty()) {
+			entries.clear();
+			bytes = 0;
+			invalidationCount++;
+		}
+	}
+
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	public synchronized long getSizeInBytes() {
+		return bytes;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public synchronized long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "entries: " + entries.size() + ", bytes: " + bytes + ", hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount + ", invalidations: " + invalidationCount;
+	}
+
+	private static RoaringDocIdSet compress(BitSet recordIds) {
+		RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(Math.max(1, recordIds.length()));
+		for (int id = recordIds.nextSetBit(0); id >= 0; id = recordIds.nextSetBit(id + 1)) {
+			builder.add(id);
+		}
+		return builder.build();
+	}
+
+	private static BitSet intersect(RoaringDocIdSet recordIds, BitSet records) throws IOException {
+		BitSet result = new BitSet();
+		DocIdSetIterator iterator = recordIds.iterator();
+		if (iterator != null) {
+			for (int id = iterator.nextDoc(); id != DocIdSetIterator.NO_MORE_DOCS; id = iterator.nextDoc()) {
+				if (records.get(id)) {
+					result.set(id);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static class Entry {
+		private final long readerVersion;
+		private final RoaringDocIdSet recordIds;
+		private final long size;
+
+		private Entry(long readerVersion, RoaringDocIdSet recordIds, long size) {
+			this.readerVersion = readerVersion;
+			this.recordIds = recordIds;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+public class FullTextIndexConfig {
+
+	private long maxStalenessMillis;
+	private boolean asyncIndexing;
+	private int indexingThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+	private int indexingBatchSize = 1_000;
+	private long indexingWaitMillis = 5_000;
+	private boolean substringIndex;
+	private int minSubstringLength = 3;
+	private boolean scoring;
+	private long checkpointIntervalMillis = 60_000;
+	private int rebuildThreads = Runtime.getRuntime().availableProcessors();
+	private double rebuildRamBufferSizeMB = 256;
+	private long filterCacheMaxBytes;
+	private int filterCacheMaxEntries = 1_000;
+	private int shards = 1;
+	private int shardRecordCount = 10_000_000;
+	private boolean asyncFileContentExtraction;
+	private int fileContentExtractionThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+	private int fileContentExtractionQueueSize = 1_000;
+	private long fileContentExtractionTimeoutMillis = 60_000;
+	private long maxExtractedFileSize = 1_000_000_000L;
+	private int maxExtractedContentLength = 10_000_000;
+
+	public static FullTextIndexConfig create() {
+		return new FullTextIndexConfig();
+	}
+
+	/**
+	 * @param maxStalenessMillis 0: each query sees all written documents, otherwise searchers are refreshed in the background at this interval
+	 */
+	public FullTextIndexConfig maxStalenessMillis(long maxStalenessMillis) {
+		this.maxStalenessMillis = maxStalenessMillis;
+		return this;
+	}
+
+	/**
+	 * Index text fields on background threads after the transaction is written instead of within the transaction.
+	 */
+	public FullTextIndexConfig asyncIndexing(boolean asyncIndexing) {
+		this.asyncIndexing = asyncIndexing;
+		return this;
+	}
+
+	public FullTextIndexConfig indexingThreads(int indexingThreads) {
+		this.indexingThreads = indexingThreads;
+		return this;
+	}
+
+	public FullTextIndexConfig indexingBatchSize(int indexingBatchSize) {
+		this.indexingBatchSize = indexingBatchSize;
+		return this;
+	}
+
+	/**
+	 * @param indexingWaitMillis maximum time a full-text query waits for pending asynchronous indexing, 0: don't wait
+	 */
+	public FullTextIndexConfig indexingWaitMillis(long indexingWaitMillis) {
+		this.indexingWaitMillis = indexingWaitMillis;
+		return this;
+	}
+
+	/**
+	 * Index the suffixes of all terms in a shadow field so that contains filters become prefix lookups instead of wildcard scans.
+	 */
+	public FullTextIndexConfig substringIndex(boolean substringIndex) {
+		this.substringIndex = substringIndex;
+		return this;
+	}
+
+	/**
+	 * @param minSubstringLength shorter contains terms are still resolved with a wildcard query
+	 */
+	public FullTextIndexConfig minSubstringLength(int minSubstringLength) {
+		this.minSubstringLength = minSubstringLength;
+		return this;
+	}
+
+	/**
+	 * Index term frequencies and field lengths for BM25 ranked searches. Changing this option rebuilds existing table indices.
+	 */
+	public FullTextIndexConfig scoring(boolean scoring) {
+		this.scoring = scoring;
+		return this;
+	}
+
+	/**
+	 * @param checkpointIntervalMillis interval of background commits, after a crash only transactions after the last commit are re-indexed; 0: commit only on shutdown
+	 */
+	public FullTextIndexConfig checkpointIntervalMillis(long checkpointIntervalMillis) {
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+		return this;
+	}
+
+	/**
+	 * @param rebuildThreads number of threads reading and indexing records when a full-text index is recreated
+	 */
+	public FullTextIndexConfig rebuildThreads(int rebuildThreads) {
+		this.rebuildThreads = rebuildThreads;
+		return this;
+	}
+
+	/**
+	 * @param rebuildRamBufferSizeMB index writer buffer while a full-text index is recreated
+	 */
+	public FullTextIndexConfig rebuildRamBufferSizeMB(double rebuildRamBufferSizeMB) {
+		this.rebuildRamBufferSizeMB = rebuildRamBufferSizeMB;
+		return this;
+	}
+
+	/**
+	 * @param filterCacheMaxBytes memory budget of the cached filter results of each table index; 0: no filter cache
+	 */
+	public FullTextIndexConfig filterCacheMaxBytes(long filterCacheMaxBytes) {
+		this.filterCacheMaxBytes = filterCacheMaxBytes;
+		return this;
+	}
+
+	public FullTextIndexConfig filterCacheMaxEntries(int filterCacheMaxEntries) {
+		this.filterCacheMaxEntries = filterCacheMaxEntries;
+		return this;
+	}
+
+	/**
+	 * @param shards number of Lucene indices per table, records are assigned by id range; changing the shard layout rebuilds existing table indices
+	 */
+	public FullTextIndexConfig shards(int shards) {
+		this.shards = shards;
+		return this;
+	}
+
+	/**
+	 * @param shardRecordCount size of the record id range of each shard, the last shard contains all records above
+	 */
+	public FullTextIndexConfig shardRecordCount(int shardRecordCount) {
+		this.shardRecordCount = shardRecordCount;
+		return this;
+	}
+
+	/**
+	 * Store file records without parsing the file content, content data and full-text document are filled in by a background worker.
+	 */
+	public FullTextIndexConfig asyncFileContentExtraction(boolean asyncFileContentExtraction) {
+		this.asyncFileContentExtraction = asyncFileContentExtraction;
+		return this;
+	}
+
+	public FullTextIndexConfig fileContentExtractionThreads(int fileContentExtractionThreads) {
+		this.fileContentExtractionThreads = fileContentExtractionThreads;
+		return this;
+	}
+
+	public FullTextIndexConfig fileContentExtractionQueueSize(int fileContentExtractionQueueSize) {
+		this.fileContentExtractionQueueSize = fileContentExtractionQueueSize;
+		return this;
+	}
+
+	/**
+	 * @param fileContentExtractionTimeoutMillis parsing of a single file is aborted after this time; 0: no limit
+	 */
+	public FullTextIndexConfig fileContentExtractionTimeoutMillis(long fileContentExtractionTimeoutMillis) {
+		this.fileContentExtractionTimeoutMillis = fileContentExtractionTimeoutMillis;
+		return this;
+	}
+
+	/**
+	 * @param maxExtractedFileSize the content of larger files is not parsed; 0: no limit
+	 */
+	public FullTextIndexConfig maxExtractedFileSize(long maxExtractedFileSize) {
+		this.maxExtractedFileSize = maxExtractedFileSize;
+		return this;
+	}
+
+	/**
+	 * @param maxExtractedContentLength write limit of the content handler for a single file, also for fields without a max index content length; 0: no limit
+	 */
+	public FullTextIndexConfig maxExtractedContentLength(int maxExtractedContentLength) {
+		this.maxExtractedContentLength = maxExtractedContentLength;
+		return this;
+	}
+
+	public long getMaxStalenessMillis() {
+		return maxStalenessMillis;
+	}
+
+	public boolean isAsyncIndexing() {
+		return asyncIndexing;
+	}
+
+	public int getIndexingThreads() {
+		return indexingThreads;
+	}
+
+	public int getIndexingBatchSize() {
+		return indexingBatchSize;
+	}
+
+	public long getIndexingWaitMillis() {
+		return indexingWaitMillis;
+	}
+
+	public boolean isSubstringIndex() {
+		return substringIndex;
+	}
+
+	public int getMinSubstringLength() {
+		return minSubstringLength;
+	}
+
+	public boolean isScoring() {
+		return scoring;
+	}
+
+	public long getCheckpointIntervalMillis() {
+		return checkpointIntervalMillis;
+	}
+
+	public int getRebuildThreads() {
+		return rebuildThreads;
+	}
+
+	public double getRebuildRamBufferSizeMB() {
+		return rebuildRamBufferSizeMB;
+	}
+
+	public long getFilterCacheMaxBytes() {
+		return filterCacheMaxBytes;
+	}
+
+	public int getFilterCacheMaxEntries() {
+		return filterCacheMaxEntries;
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	public int getShardRecordCount() {
+		return shardRecordCount;
+	}
+
+	public boolean isAsyncFileContentExtraction() {
+		return asyncFileContentExtraction;
+	}
+
+	public int getFileContentExtractionThreads() {
+		return fileContentExtractionThreads;
+	}
+
+	public int getFileContentExtractionQueueSize() {
+		return fileContentExtractionQueueSize;
+	}
+
+	public long getFileContentExtractionTimeoutMillis() {
+		return fileContentExtractionTimeoutMillis;
+	}
+
+	public long getMaxExtractedFileSize() {
+		return maxExtractedFileSize;
+	}
+
+	public int getMaxExtractedContentLength() {
+		return maxExtractedContentLength;
+	}
+}
@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FullTextRebuildProgress {
+
+	private final String name;
+	private final long totalRecords;
+	private final int threads;
+	private final long startTime;
+	private final AtomicLong indexedRecords = new AtomicLong();
+	private volatile long finishTime;
+
+	public FullTextRebuildProgress(String name, long totalRecords, int threads) {
+		this.name = name;
+		this.totalRecords = totalRecords;
+		this.threads = threads;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	public void addIndexedRecords(long count) {
+		indexedRecords.addAndGet(count);
+	}
+
+	public void finish() {
+		finishTime = System.currentTimeMillis();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getTotalRecords() {
+		return totalRecords;
+	}
+
+	public long getIndexedRecords() {
+		return indexedRecords.get();
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public boolean isFinished() {
+		return finishTime > 0;
+	}
+
+	public long getDurationMillis() {
+		return (isFinished() ? finishTime : System.currentTimeMillis()) - startTime;
+	}
+
+	public double getRecordsPerSecond() {
+		return getIndexedRecords() * 1000.0 / Math.max(1, getDurationMillis());
+	}
+
+	public double getPercentage() {
+		return totalRecords == 0 ? 100 : getIndexedRecords() * 100.0 / totalRecords;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d/%d records (%.1f%%), %.0f records/s, threads: %d, time: %d ms", name, getIndexedRecords(), totalRecords, getPercentage(), getRecordsPerSecond(), threads, getDurationMillis());
+	}
+}
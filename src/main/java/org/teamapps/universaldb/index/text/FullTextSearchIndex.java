@@ -0,0 +1,62 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Full-text index of all text fields of a table.
+ */
+public interface FullTextSearchIndex {
+
+	void setRecordValues(int id, List<FullTextIndexValue> values, boolean update);
+
+	void setFileContent(int id, String fieldName, String content, boolean update);
+
+	void delete(int id, List<String> fileFieldNames);
+
+	List<ScoredRecord> searchRanked(List<List<TextFieldFilter>> clauses, BitSet records, int maxResults, SearchBoosts boosts);
+
+	BitSet filter(BitSet bitSet, List<TextFieldFilter> filters, boolean andFilter);
+
+	void setSearchBarrier(Runnable searchBarrier);
+
+	void setIndexedTransactionId(long transactionId);
+
+	void clearIndexedTransactionId();
+
+	long getIndexedTransactionId();
+
+	long getCommittedTransactionId();
+
+	void commit(boolean close);
+
+	void setRamBufferSizeMB(double ramBufferSizeMB);
+
+	int getMaxDoc();
+
+	boolean isRebuildRequired();
+
+	void deleteAllDocuments() throws IOException;
+
+	void drop();
+}
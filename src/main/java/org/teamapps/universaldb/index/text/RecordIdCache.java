@@ -0,0 +1,68 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per segment mapping of Lucene doc ids to record ids. Segments are immutable, entries are removed when the segment core is closed.
+ */
+class RecordIdCache {
+
+	private final Map<IndexReader.CacheKey, int[]> recordIdsBySegment = new ConcurrentHashMap<>();
+
+	int[] getRecordIds(LeafReader reader) throws IOException {
+		IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+		if (cacheHelper == null) {
+			return readRecordIds(reader);
+		}
+		IndexReader.CacheKey key = cacheHelper.getKey();
+		int[] recordIds = recordIdsBySegment.get(key);
+		if (recordIds == null) {
+			recordIds = readRecordIds(reader);
+			if (recordIdsBySegment.putIfAbsent(key, recordIds) == null) {
+				cacheHelper.addClosedListener(recordIdsBySegment::remove);
+			}
+		}
+		return recordIds;
+	}
+
+	int getSegmentCount() {
+		return recordIdsBySegment.size();
+	}
+
+	private static int[] readRecordIds(LeafReader reader) throws IOException {
+		int[] recordIds = new int[reader.maxDoc()];
+		NumericDocValues idValues = reader.getNumericDocValues(CollectionTextSearchIndex.ID);
+		if (idValues != null) {
+			for (int doc = idValues.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = idValues.nextDoc()) {
+				recordIds[doc] = (int) idValues.longValue();
+			}
+		}
+		return recordIds;
+	}
+}
@@ -0,0 +1,89 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.*;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Matches documents whose record id is contained in the bit set.
+ */
+class RecordIdFilterQuery extends Query {
+
+	private final BitSet records;
+	private final RecordIdCache recordIdCache;
+
+	RecordIdFilterQuery(BitSet records, RecordIdCache recordIdCache) {
+		this.records = records;
+		this.recordIdCache = recordIdCache;
+	}
+
+	@Override
+	public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+		return new ConstantScoreWeight(this, boost) {
+			@Override
+			public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+				int[] recordIds = recordIdCache.getRecordIds(context.reader());
+				DocIdSetIterator approximation = DocIdSetIterator.all(recordIds.length);
+				TwoPhaseIterator iterator = new TwoPhaseIterator(approximation) {
+					@Override
+					public boolean matches() {
+						int id = recordIds[approximation.docID()];
+						return id > 0 && records.get(id);
+					}
+
+					@Override
+					public float matchCost() {
+						return 1;
+					}
+				};
+				return new DefaultScorerSupplier(new ConstantScoreScorer(score(), scoreMode, iterator));
+			}
+
+			@Override
+			public boolean isCacheable(LeafReaderContext context) {
+				return false;
+			}
+		};
+	}
+
+	@Override
+	public void visit(QueryVisitor visitor) {
+		visitor.visitLeaf(this);
+	}
+
+	@Override
+	public String toString(String field) {
+		return "records(" + records.cardinality() + ")";
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return sameClassAs(other) && records == ((RecordIdFilterQuery) other).records;
+	}
+
+	@Override
+	public int hashCode() {
+		return classHash() ^ System.identityHashCode(records);
+	}
+}
@@ -0,0 +1,44 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+public class ScoredRecord {
+
+	private final int recordId;
+	private final float score;
+
+	public ScoredRecord(int recordId, float score) {
+		this.recordId = recordId;
+		this.score = score;
+	}
+
+	public int getRecordId() {
+		return recordId;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		return recordId + ":" + score;
+	}
+}
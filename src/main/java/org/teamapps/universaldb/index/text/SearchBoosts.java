@@ -0,0 +1,54 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SearchBoosts {
+
+	private final Map<String, Float> fieldBoosts = new HashMap<>();
+	private final Map<String, Float> languageBoosts = new HashMap<>();
+
+	public static SearchBoosts create() {
+		return new SearchBoosts();
+	}
+
+	public SearchBoosts fieldBoost(String fieldName, float boost) {
+		fieldBoosts.put(fieldName, boost);
+		return this;
+	}
+
+	/**
+	 * Boost for matches within a translation of a translatable text field, multiplied with the field boost.
+	 */
+	public SearchBoosts languageBoost(String language, float boost) {
+		languageBoosts.put(language, boost);
+		return this;
+	}
+
+	public float getFieldBoost(String fieldName) {
+		return fieldBoosts.getOrDefault(fieldName, 1f);
+	}
+
+	public float getLanguageBoost(String language) {
+		return languageBoosts.getOrDefault(language, 1f);
+	}
+}
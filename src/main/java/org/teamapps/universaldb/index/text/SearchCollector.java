@@ -36,7 +36,6 @@
 package org.teamapps.universaldb.index.text;
 
 import org.apache.lucene.index.LeafReaderContext;
-import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SimpleCollector;
 
@@ -44,28 +43,26 @@ import java.io.IOException;
 import java.util.BitSet;
 
 class SearchCollector extends SimpleCollector {
-    public static final String ID = "id";
-
-    private NumericDocValues idValues;
+    private final RecordIdCache recordIdCache;
     private final BitSet resultIds;
+    private int[] recordIds;
 
-    public SearchCollector() {
+    public SearchCollector(RecordIdCache recordIdCache) {
+        this.recordIdCache = recordIdCache;
         resultIds = new BitSet();
     }
 
     @Override
     public void collect(int doc) throws IOException {
-        if (idValues.advanceExact(doc)) {
-            int id = (int) idValues.longValue();
-            if (id > 0) {
-                resultIds.set(id);
-            }
+        int id = recordIds[doc];
+        if (id > 0) {
+            resultIds.set(id);
         }
     }
 
     @Override
     public void doSetNextReader(LeafReaderContext context) throws IOException {
-        idValues = context.reader().getNumericDocValues(ID);
+        recordIds = recordIdCache.getRecordIds(context.reader());
     }
 
     public BitSet getResultIds() {
@@ -22,17 +22,25 @@ package org.teamapps.universaldb.index.text;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class SearchIndexUtil {
 
+	public static final String SUBSTRING_FIELD_SUFFIX = "$sub";
+	public static final int MAX_SUBSTRING_LENGTH = 32;
+
 	public static List<String> analyze(String text, Analyzer analyzer) {
 		try {
 			List<String> result = new ArrayList<>();
@@ -51,7 +59,34 @@ public class SearchIndexUtil {
 	}
 
 
+	/**
+	 * Adds all suffixes (truncated to {@link #MAX_SUBSTRING_LENGTH}) of the terms of the value to the substring shadow field.
+	 * A term of at least minLength chars is contained in an indexed term if it is the prefix of one of these suffixes.
+	 */
+	public static void addSubstringFields(Document doc, String fieldName, String value, Analyzer analyzer, int minLength) {
+		if (value == null || value.isEmpty()) {
+			return;
+		}
+		Set<String> substrings = new HashSet<>();
+		for (String term : analyze(value, analyzer)) {
+			for (int start = 0; start <= term.length() - minLength; start++) {
+				substrings.add(term.substring(start, Math.min(term.length(), start + MAX_SUBSTRING_LENGTH)));
+			}
+		}
+		String substringFieldName = fieldName + SUBSTRING_FIELD_SUFFIX;
+		for (String substring : substrings) {
+			doc.add(new StringField(substringFieldName, substring, Field.Store.NO));
+		}
+	}
+
 	public static Query createQuery(TextFilterType filterType, String fieldName, String value, Analyzer analyzer) {
+		return createQuery(filterType, fieldName, value, analyzer, 0);
+	}
+
+	/**
+	 * @param minSubstringLength if greater than 0 contains filters with terms of at least this length use the substring shadow field
+	 */
+	public static Query createQuery(TextFilterType filterType, String fieldName, String value, Analyzer analyzer, int minSubstringLength) {
 		List<String> textParts = analyze(value, analyzer);
 		BooleanQuery.Builder termQueries = new BooleanQuery.Builder();
 		boolean containsOnlyNegationQueries = false;
@@ -88,11 +123,11 @@ public class SearchIndexUtil {
 					termQueries.add(new FuzzyQuery(term), BooleanClause.Occur.MUST_NOT);
 					break;
 				case TERM_CONTAINS:
-					termQueries.add(new WildcardQuery(new Term(fieldName, "*" + textPart + "*")), BooleanClause.Occur.MUST);
+					termQueries.add(createContainsQuery(fieldName, textPart, minSubstringLength), BooleanClause.Occur.MUST);
 					break;
 				case TERM_CONTAINS_NOT:
 					containsOnlyNegationQueries = true;
-					termQueries.add(new WildcardQuery(new Term(fieldName, "*" + textPart + "*")), BooleanClause.Occur.MUST_NOT);
+					termQueries.add(createContainsQuery(fieldName, textPart, minSubstringLength), BooleanClause.Occur.MUST_NOT);
 					break;
 			}
 		}
@@ -102,10 +137,25 @@ public class SearchIndexUtil {
 		return termQueries.build();
 	}
 
+	private static Query createContainsQuery(String fieldName, String textPart, int minSubstringLength) {
+		if (minSubstringLength > 0 && textPart.length() >= minSubstringLength && textPart.length() <= MAX_SUBSTRING_LENGTH) {
+			return new PrefixQuery(new Term(fieldName + SUBSTRING_FIELD_SUFFIX, textPart));
+		} else {
+			return new WildcardQuery(new Term(fieldName, "*" + textPart + "*"));
+		}
+	}
+
 	public static FieldType createIndexFieldType() {
+		return createIndexFieldType(false);
+	}
+
+	/**
+	 * @param scoring index term frequencies and norms, required for meaningful BM25 scores
+	 */
+	public static FieldType createIndexFieldType(boolean scoring) {
 		FieldType fieldType = new FieldType();
-		fieldType.setIndexOptions(IndexOptions.DOCS);
-		fieldType.setOmitNorms(true);
+		fieldType.setIndexOptions(scoring ? IndexOptions.DOCS_AND_FREQS : IndexOptions.DOCS);
+		fieldType.setOmitNorms(!scoring);
 		fieldType.setStored(false);
 		fieldType.setTokenized(true);
 		fieldType.freeze();
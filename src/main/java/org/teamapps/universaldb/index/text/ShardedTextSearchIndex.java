@@ -0,0 +1,295 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.index.filelegacy.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Full-text index split into several Lucene indices by record id range. Shard i contains the records
+ * [i * shardRecordCount, (i + 1) * shardRecordCount), the last shard also contains all records above.
+ * A new layout gets at least as many shards as needed for the records existing at that time. Once the last
+ * shard covers more than two id ranges the layout is recreated with more shards when the index is opened
+ * and the index is rebuilt.
+ * Searches run in parallel on all shards containing candidate records.
+ */
+public class ShardedTextSearchIndex implements FullTextSearchIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private static final String LAYOUT_FILE = "shards.layout";
+	private static final ExecutorService SEARCH_EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+		Thread thread = new Thread(runnable, "udb-full-text-shard-search");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final File dir;
+	private final CollectionTextSearchIndex[] shards;
+	private final int shardRecordCount;
+	private volatile Runnable searchBarrier;
+	private volatile boolean layoutChanged;
+
+	public ShardedTextSearchIndex(File path, String name, FullTextIndexConfig config) {
+		this(path, name, config, 0);
+	}
+
+	/**
+	 * @param maxRecordId the highest record id of the table, used to size the shard layout
+	 */
+	public ShardedTextSearchIndex(File path, String name, FullTextIndexConfig config, int maxRecordId) {
+		this.dir = new File(path, name);
+		this.shardRecordCount = Math.max(1, config.getShardRecordCount());
+		this.shards = new CollectionTextSearchIndex[checkLayout(Math.max(1, config.getShards()), maxRecordId)];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new CollectionTextSearchIndex(dir, "shard-" + i, config);
+		}
+	}
+
+	private int checkLayout(int configuredShards, int maxRecordId) {
+		try {
+			int requiredShards = Math.max(configuredShards, maxRecordId / shardRecordCount + 1);
+			File layoutFile = new File(dir, LAYOUT_FILE);
+			if (layoutFile.exists()) {
+				int shardCount = readShardCount(Files.readString(layoutFile.toPath()).trim());
+				if (shardCount >= configuredShards && shardCount <= requiredShards && requiredShards <= shardCount + 1) {
+					return shardCount;
+				}
+				logger.warn("Shard layout of full text index " + dir.getPath() + " changed, deleting index for rebuild with " + requiredShards + " shards");
+				FileUtil.deleteFileRecursive(dir);
+				layoutChanged = true;
+			}
+			dir.mkdirs();
+			Files.writeString(layoutFile.toPath(), requiredShards + ":" + shardRecordCount);
+			return requiredShards;
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot write shard layout of full text index " + dir.getPath(), e);
+		}
+	}
+
+	private int readShardCount(String layout) {
+		String[] parts = layout.split(":");
+		try {
+			return parts.length == 2 && Integer.parseInt(parts[1]) == shardRecordCount ? Integer.parseInt(parts[0]) : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private CollectionTextSearchIndex getShard(int id) {
+		return shards[Math.min(id / shardRecordCount, shards.length - 1)];
+	}
+
+	private boolean containsRecords(int shard, BitSet records) {
+		if (records == null) {
+			return true;
+		}
+		long start = (long) shard * shardRecordCount;
+		if (start > Integer.MAX_VALUE) {
+			return false;
+		}
+		int next = records.nextSetBit((int) start);
+		return next >= 0 && (shard == shards.length - 1 || next < start + shardRecordCount);
+	}
+
+	private <T> List<T> search(BitSet records, Function<CollectionTextSearchIndex, T> search) {
+		Runnable barrier = searchBarrier;
+		if (barrier != null) {
+			barrier.run();
+		}
+		List<CollectionTextSearchIndex> searchShards = new ArrayList<>();
+		for (int i = 0; i < shards.length; i++) {
+			if (containsRecords(i, records)) {
+				searchShards.add(shards[i]);
+			}
+		}
+		List<T> results = new ArrayList<>();
+		if (searchShards.size() <= 1) {
+			searchShards.forEach(shard -> results.add(search.apply(shard)));
+			return results;
+		}
+		List<Future<T>> futures = new ArrayList<>();
+		for (int i = 1; i < searchShards.size(); i++) {
+			CollectionTextSearchIndex shard = searchShards.get(i);
+			futures.add(SEARCH_EXECUTOR.submit(() -> search.apply(shard)));
+		}
+		results.add(search.apply(searchShards.get(0)));
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		return results;
+	}
+
+	@Override
+	public void setRecordValues(int id, List<FullTextIndexValue> values, boolean update) {
+		getShard(id).setRecordValues(id, values, update);
+	}
+
+	@Override
+	public void setFileContent(int id, String fieldName, String content, boolean update) {
+		getShard(id).setFileContent(id, fieldName, content, update);
+	}
+
+	@Override
+	public void delete(int id, List<String> fileFieldNames) {
+		getShard(id).delete(id, fileFieldNames);
+	}
+
+	/**
+	 * Returns the best matching records of all shards. Term statistics are collected per shard, so scores of
+	 * different shards are only comparable if the shards contain similar documents.
+	 */
+	@Override
+	public List<ScoredRecord> searchRanked(List<List<TextFieldFilter>> clauses, BitSet records, int maxResults, SearchBoosts boosts) {
+		if (clauses == null || clauses.isEmpty() || maxResults <= 0) {
+			return Collections.emptyList();
+		}
+		List<ScoredRecord> scoredRecords = new ArrayList<>();
+		for (List<ScoredRecord> shardResult : search(records, shard -> shard.searchRanked(clauses, records, maxResults, boosts))) {
+			if (shardResult == null) {
+				return null;
+			}
+			scoredRecords.addAll(shardResult);
+		}
+		scoredRecords.sort(Comparator.comparingDouble(ScoredRecord::getScore).reversed());
+		return scoredRecords.size() > maxResults ? new ArrayList<>(scoredRecords.subList(0, maxResults)) : scoredRecords;
+	}
+
+	@Override
+	public BitSet filter(BitSet bitSet, List<TextFieldFilter> filters, boolean andFilter) {
+		if (filters == null || filters.isEmpty()) {
+			return bitSet;
+		}
+		BitSet result = new BitSet();
+		for (BitSet shardResult : search(bitSet, shard -> shard.filter(bitSet, filters, andFilter))) {
+			if (shardResult == null) {
+				return null;
+			}
+			result.or(shardResult);
+		}
+		return result;
+	}
+
+	@Override
+	public void setSearchBarrier(Runnable searchBarrier) {
+		this.searchBarrier = searchBarrier;
+	}
+
+	@Override
+	public void setIndexedTransactionId(long transactionId) {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.setIndexedTransactionId(transactionId);
+		}
+	}
+
+	@Override
+	public void clearIndexedTransactionId() {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.clearIndexedTransactionId();
+		}
+	}
+
+	@Override
+	public long getIndexedTransactionId() {
+		return Arrays.stream(shards).mapToLong(CollectionTextSearchIndex::getIndexedTransactionId).min().orElse(-1);
+	}
+
+	@Override
+	public long getCommittedTransactionId() {
+		return Arrays.stream(shards).mapToLong(CollectionTextSearchIndex::getCommittedTransactionId).min().orElse(-1);
+	}
+
+	@Override
+	public void commit(boolean close) {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.commit(close);
+		}
+	}
+
+	/**
+	 * @param ramBufferSizeMB index writer buffer of each shard
+	 */
+	@Override
+	public void setRamBufferSizeMB(double ramBufferSizeMB) {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.setRamBufferSizeMB(ramBufferSizeMB);
+		}
+	}
+
+	@Override
+	public int getMaxDoc() {
+		int maxDoc = 0;
+		for (CollectionTextSearchIndex shard : shards) {
+			if (shard.getMaxDoc() < 0) {
+				return -1;
+			}
+			maxDoc += shard.getMaxDoc();
+		}
+		return maxDoc;
+	}
+
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	CollectionTextSearchIndex getShardByIndex(int shard) {
+		return shards[shard];
+	}
+
+	@Override
+	public boolean isRebuildRequired() {
+		return layoutChanged || Arrays.stream(shards).anyMatch(CollectionTextSearchIndex::isRebuildRequired);
+	}
+
+	@Override
+	public void deleteAllDocuments() throws IOException {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.deleteAllDocuments();
+		}
+		layoutChanged = false;
+	}
+
+	@Override
+	public void drop() {
+		for (CollectionTextSearchIndex shard : shards) {
+			shard.drop();
+		}
+		FileUtil.deleteFileRecursive(dir);
+	}
+}
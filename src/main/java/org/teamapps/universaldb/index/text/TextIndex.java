@@ -35,9 +35,9 @@ public class TextIndex extends AbstractIndex<String, TextFilter> {
 
 	private final BlockEntryAtomicStore atomicStore;
 	private final TextSearchIndex searchIndex;
-	private final CollectionTextSearchIndex collectionSearchIndex;
+	private final FullTextSearchIndex collectionSearchIndex;
 
-	public TextIndex(FieldModel fieldModel, TableIndex tableIndex, CollectionTextSearchIndex collectionSearchIndex) {
+	public TextIndex(FieldModel fieldModel, TableIndex tableIndex, FullTextSearchIndex collectionSearchIndex) {
 		super(fieldModel, tableIndex);
 		atomicStore = new BlockEntryAtomicStore(tableIndex.getDataPath(), fieldModel.getName());
 		this.searchIndex = null;
@@ -55,7 +55,7 @@ public class TextIndex extends AbstractIndex<String, TextFilter> {
 		collectionSearchIndex = null;
 	}
 
-	public CollectionTextSearchIndex getCollectionSearchIndex() {
+	public FullTextSearchIndex getCollectionSearchIndex() {
 		return collectionSearchIndex;
 	}
 
@@ -145,11 +145,16 @@ public class TextIndex extends AbstractIndex<String, TextFilter> {
 	}
 
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
-		Comparator<String> comparator = UserContext.getOrCreateComparator(userContext, ascending);
-		sortEntries.sort((o1, o2) -> comparator.compare(getValue(o1.getLeafId()), getValue(o2.getLeafId())));
+		sortEntries.sort(createSortComparator(ascending, userContext));
 		return sortEntries;
 	}
 
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
+		Comparator<String> comparator = UserContext.getOrCreateComparator(userContext, ascending);
+		return (o1, o2) -> comparator.compare(getValue(o1.getLeafId()), getValue(o2.getLeafId()));
+	}
+
 	public BitSet filter(BitSet records, TextFilter textFilter, boolean performLocalFullTextSearch) {
 		BitSet fullTextResult = records;
 		if (performLocalFullTextSearch) {
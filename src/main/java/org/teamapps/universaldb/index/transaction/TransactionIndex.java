@@ -59,7 +59,9 @@ public class TransactionIndex {
 	private final LogIndex transactionLog;
 	private final LogIndex modelsLog;
 	private PrimitiveEntryAtomicStore databaseStats;
+	private final PrimitiveEntryAtomicStore transactionPositions;
 	private volatile boolean active = true;
+	private boolean batchActive;
 
 	private DatabaseModel currentModel;
 	private ModelUpdate currentModelUpdate;
@@ -69,6 +71,7 @@ public class TransactionIndex {
 		this.transactionLog = new RotatingLogIndex(this.path, "transactions");
 		this.modelsLog = new DefaultLogIndex(this.path, "models");
 		this.databaseStats = new PrimitiveEntryAtomicStore(this.path, "db-stats");
+		this.transactionPositions = new PrimitiveEntryAtomicStore(this.path, "transaction-pos");
 		logger.info("Open transaction index on: {}", path.getAbsolutePath());
 		init();
 		if (!skipIndexCheck) {
@@ -117,12 +120,12 @@ public class TransactionIndex {
 		boolean ok = true;
 		logger.info(UniversalDB.SKIP_DB_LOGGING, "Checking transaction index...");
 		while (logIterator.hasNext()) {
-			ResolvedTransaction transaction = ResolvedTransaction.createResolvedTransaction(logIterator.next());
-			if (expectedTransactionId != transaction.getTransactionId()) {
-				logger.error(UniversalDB.SKIP_DB_LOGGING, "Wrong transaction id: {}, expected: {}", transaction.getTransactionId(), expectedTransactionId);
+			long transactionId = ResolvedTransaction.readTransactionId(logIterator.next());
+			if (expectedTransactionId != transactionId) {
+				logger.error(UniversalDB.SKIP_DB_LOGGING, "Wrong transaction id: {}, expected: {}", transactionId, expectedTransactionId);
 				ok = false;
 			}
-			expectedTransactionId = transaction.getTransactionId() + 1;
+			expectedTransactionId = transactionId + 1;
 		}
 		logger.info(UniversalDB.SKIP_DB_LOGGING, "Transaction index check result: {}", ok);
 		logIterator.closeSave();
@@ -186,13 +189,33 @@ public class TransactionIndex {
 		return Long.toHexString(getNodeId()).toUpperCase();
 	}
 
-	public ResolvedTransaction getLastTransaction() {
+	public synchronized ResolvedTransaction getLastTransaction() {
 		if (transactionLog.isEmpty()) {
 			return null;
-		} else {
-			byte[] bytes = transactionLog.readLog(getLastTransactionStoreId());
-			return ResolvedTransaction.createResolvedTransaction(bytes);
 		}
+		transactionLog.flush();
+		long position = getTransactionPosition(getLastTransactionId());
+		if (position >= 0) {
+			return ResolvedTransaction.createResolvedTransaction(transactionLog.readLog(position));
+		}
+		byte[] bytes = null;
+		LogIterator logIterator = transactionLog.readLogs();
+		while (logIterator.hasNext()) {
+			bytes = logIterator.next();
+		}
+		logIterator.closeSave();
+		return bytes != null ? ResolvedTransaction.createResolvedTransaction(bytes) : null;
+	}
+
+	/**
+	 * @return the log position of the transaction or -1 if it has not been recorded
+	 */
+	private long getTransactionPosition(long transactionId) {
+		if (transactionId == 1) {
+			return 0;
+		}
+		long position = transactionId > 1 && transactionId <= Integer.MAX_VALUE ? transactionPositions.getLong((int) transactionId) : 0;
+		return position > 0 ? position : -1;
 	}
 
 	public synchronized boolean isValidModel(DatabaseModel model) {
@@ -229,16 +252,42 @@ public class TransactionIndex {
 	}
 
 	public synchronized void writeTransaction(ResolvedTransaction transaction) throws Exception {
+		writeTransaction(transaction.getTransactionId(), transaction.getBytes());
+	}
+
+	public synchronized void writeTransaction(long transactionId, byte[] bytes) throws Exception {
 		if (!active) {
 			throw new RuntimeException("Error transaction index already shut down");
 		}
-		if (transaction.getTransactionId() != getLastTransactionId() + 1) {
-			throw new RuntimeException(String.format("Error wrong transaction id: %s, last transaction id: %s", transaction.getTransactionId(), getLastTransactionId()));
+		if (transactionId != getLastTransactionId() + 1) {
+			throw new RuntimeException(String.format("Error wrong transaction id: %s, last transaction id: %s", transactionId, getLastTransactionId()));
 		}
-		transactionLog.writeLog(transaction.getBytes());
-		databaseStats.setLong(LAST_TRANSACTION_ID, transaction.getTransactionId());
+		long position = transactionLog.writeLog(bytes, !batchActive);
+		if (transactionId <= Integer.MAX_VALUE) {
+			transactionPositions.setLong((int) transactionId, position);
+		}
+		databaseStats.setLong(LAST_TRANSACTION_ID, transactionId);
 		databaseStats.setLong(LAST_TRANSACTION_STORE_ID, transactionLog.getPosition());
 		databaseStats.setLong(TRANSACTIONS_COUNT, getTransactionCount() + 1);
+		if (!batchActive) {
+			databaseStats.flush();
+		}
+	}
+
+	/**
+	 * Defers flushing the transaction log and the stats until {@link #commitBatch()} is called.
+	 */
+	public synchronized void beginBatch() {
+		batchActive = true;
+	}
+
+	public synchronized void commitBatch() {
+		batchActive = false;
+		flush();
+	}
+
+	public synchronized void flush() {
+		transactionLog.flush();
 		databaseStats.flush();
 	}
 
@@ -257,13 +306,25 @@ public class TransactionIndex {
 		Stream<byte[]> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(logIterator, Spliterator.ORDERED), false);
 		//todo close log iterator?
 		return stream
-				.map(ResolvedTransaction::createResolvedTransaction)
-				.filter(transaction -> transaction.getTransactionId() > lastTransactionId);
+				.filter(bytes -> ResolvedTransaction.readTransactionId(bytes) > lastTransactionId)
+				.map(ResolvedTransaction::createResolvedTransaction);
 	}
 
 	public LogIterator getLogIterator() {
 		return transactionLog.readLogs();
 	}
 
+	/**
+	 * Returns an iterator starting at the first transaction after the given transaction id.
+	 * Transactions written before positions were recorded are found by reading the log from the start.
+	 */
+	public synchronized LogIterator getLogIterator(long lastTransactionId) {
+		if (lastTransactionId >= getLastTransactionId()) {
+			return transactionLog.readLogs(transactionLog.getPosition());
+		}
+		long position = getTransactionPosition(lastTransactionId + 1);
+		return position > 0 ? transactionLog.readLogs(position) : transactionLog.readLogs();
+	}
+
 
 }
@@ -23,6 +23,7 @@ public enum TransactionType {
 
 	MODEL_UPDATE(1),
 	DATA_UPDATE(2),
+	BULK_LOAD(3),
 
 	;
 	private final int id;
@@ -39,6 +40,7 @@ public enum TransactionType {
 		switch (id) {
 			case 1: return MODEL_UPDATE;
 			case 2: return DATA_UPDATE;
+			case 3: return BULK_LOAD;
 		}
 		return null;
 	}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.transaction.resolved;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class BulkLoadMarker {
+
+	private final int tableId;
+	private final int recordCount;
+	private final int firstRecordId;
+	private final int lastRecordId;
+	private final int[] fieldIds;
+
+	public BulkLoadMarker(int tableId, int recordCount, int firstRecordId, int lastRecordId, int[] fieldIds) {
+		this.tableId = tableId;
+		this.recordCount = recordCount;
+		this.firstRecordId = firstRecordId;
+		this.lastRecordId = lastRecordId;
+		this.fieldIds = fieldIds;
+	}
+
+	public BulkLoadMarker(DataInputStream dis) throws IOException {
+		tableId = dis.readInt();
+		recordCount = dis.readInt();
+		firstRecordId = dis.readInt();
+		lastRecordId = dis.readInt();
+		fieldIds = new int[dis.readInt()];
+		for (int i = 0; i < fieldIds.length; i++) {
+			fieldIds[i] = dis.readInt();
+		}
+	}
+
+	public void write(DataOutputStream dos) throws IOException {
+		dos.writeInt(tableId);
+		dos.writeInt(recordCount);
+		dos.writeInt(firstRecordId);
+		dos.writeInt(lastRecordId);
+		dos.writeInt(fieldIds.length);
+		for (int fieldId : fieldIds) {
+			dos.writeInt(fieldId);
+		}
+	}
+
+	public int getTableId() {
+		return tableId;
+	}
+
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	public int getFirstRecordId() {
+		return firstRecordId;
+	}
+
+	public int getLastRecordId() {
+		return lastRecordId;
+	}
+
+	public int[] getFieldIds() {
+		return fieldIds;
+	}
+}
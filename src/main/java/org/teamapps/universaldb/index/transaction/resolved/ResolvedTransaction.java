@@ -25,6 +25,7 @@ import org.teamapps.universaldb.index.transaction.schema.ModelUpdate;
 import org.teamapps.universaldb.model.DatabaseModel;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +42,7 @@ public class ResolvedTransaction {
 	private final List<ResolvedTransactionRecord> transactionRecords;
 	private Map<Integer, Integer> recordIdByCorrelationId;
 	private ModelUpdate modelUpdate;
+	private BulkLoadMarker bulkLoadMarker;
 
 	public static ResolvedTransaction createResolvedTransaction(byte[] bytes) {
 		try {
@@ -51,6 +53,10 @@ public class ResolvedTransaction {
 		}
 	}
 
+	public static long readTransactionId(byte[] bytes) {
+		return ByteBuffer.wrap(bytes).getLong(16);
+	}
+
 	public static ResolvedTransaction createFromRequest(long transactionId, TransactionRequest request) {
 		if (request.getTransactionType() == TransactionType.DATA_UPDATE) {
 			return new ResolvedTransaction(request.getNodeId(), request.getRequestId(), transactionId, request.getUserId(), request.getTimestamp());
@@ -87,6 +93,18 @@ public class ResolvedTransaction {
 		this.modelUpdate = modelUpdate;
 	}
 
+	public ResolvedTransaction(long nodeId, long requestId, long transactionId, int userId, long timestamp, BulkLoadMarker bulkLoadMarker) {
+		this.nodeId = nodeId;
+		this.requestId = requestId;
+		this.transactionId = transactionId;
+		this.transactionType = TransactionType.BULK_LOAD;
+		this.userId = userId;
+		this.timestamp = timestamp;
+		this.transactionRecords = null;
+		this.recordIdByCorrelationId = null;
+		this.bulkLoadMarker = bulkLoadMarker;
+	}
+
 	private ResolvedTransaction(long transactionId, ResolvedTransaction transaction) {
 		this.nodeId = transaction.getNodeId();
 		this.requestId = transaction.getRequestId();
@@ -97,6 +115,7 @@ public class ResolvedTransaction {
 		this.transactionRecords = transaction.getTransactionRecords();
 		this.modelUpdate = transaction.getModelUpdate();
 		this.recordIdByCorrelationId = transaction.getRecordIdByCorrelationId();
+		this.bulkLoadMarker = transaction.getBulkLoadMarker();
 	}
 
 	public ResolvedTransaction(DataInputStream dis) throws IOException {
@@ -120,6 +139,10 @@ public class ResolvedTransaction {
 					recordIdByCorrelationId.put(dis.readInt(), dis.readInt());
 				}
 			}
+		} else if (transactionType == TransactionType.BULK_LOAD) {
+			transactionRecords = null;
+			recordIdByCorrelationId = null;
+			bulkLoadMarker = new BulkLoadMarker(dis);
 		} else {
 			transactionRecords = null;
 			recordIdByCorrelationId = null;
@@ -148,6 +171,8 @@ public class ResolvedTransaction {
 			} else {
 				dos.writeInt(0);
 			}
+		} else if (transactionType == TransactionType.BULK_LOAD) {
+			bulkLoadMarker.write(dos);
 		} else {
 			modelUpdate.write(dos);
 		}
@@ -158,10 +183,9 @@ public class ResolvedTransaction {
 	}
 
 	public byte[] getBytes(boolean withCorrelationIds) throws IOException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		DataOutputStream dos = new DataOutputStream(bos);
-		write(dos, withCorrelationIds);
-		return bos.toByteArray();
+		ResolvedTransactionEncoder encoder = ResolvedTransactionEncoder.get();
+		encoder.encode(this, withCorrelationIds);
+		return encoder.toByteArray();
 	}
 
 	public void addTransactionRecord(ResolvedTransactionRecord transactionRecord) {
@@ -213,6 +237,10 @@ public class ResolvedTransaction {
 		return modelUpdate;
 	}
 
+	public BulkLoadMarker getBulkLoadMarker() {
+		return bulkLoadMarker;
+	}
+
 	public Map<Integer, Integer> getRecordIdByCorrelationId() {
 		return recordIdByCorrelationId;
 	}
@@ -0,0 +1,309 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.transaction.resolved;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.io.DirectBufferInputStream;
+import org.teamapps.universaldb.index.IndexType;
+import org.teamapps.universaldb.index.file.value.StoreDescriptionFile;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceType;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceUpdate;
+import org.teamapps.universaldb.index.translation.TranslatableText;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+/**
+ * Flyweight over an encoded {@link ResolvedTransaction}. Header fields, records and primitive values are read in place,
+ * only text, file and multi reference values are materialized on request. Records and their values are visited with
+ * {@link #nextRecord()} and {@link #nextValue()}, skipped values are never parsed.
+ * Decoders are not thread safe and may be reused by calling one of the wrap methods.
+ */
+public class ResolvedTransactionDecoder {
+
+	static final int HEADER_LENGTH = 37;
+	static final int RECORD_HEADER_LENGTH = 13;
+	static final int VALUE_HEADER_LENGTH = 6;
+
+	private static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+	private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+	private final DirectBufferInputStream inputStream = new DirectBufferInputStream();
+	private final DataInputStream dataInputStream = new DataInputStream(inputStream);
+	private int length;
+
+	private int position;
+	private int recordCount;
+	private int recordIndex;
+	private int recordOffset;
+	private int valuesRemaining;
+	private int valueOffset;
+	private int payloadLength;
+	private Object materializedValue;
+
+	public ResolvedTransactionDecoder wrap(byte[] bytes) {
+		buffer.wrap(bytes);
+		return reset(bytes.length);
+	}
+
+	public ResolvedTransactionDecoder wrap(DirectBuffer source, int offset, int length) {
+		buffer.wrap(source, offset, length);
+		return reset(length);
+	}
+
+	private ResolvedTransactionDecoder reset(int length) {
+		this.length = length;
+		rewind();
+		return this;
+	}
+
+	public void rewind() {
+		if (getTransactionType() == TransactionType.DATA_UPDATE) {
+			recordCount = buffer.getInt(HEADER_LENGTH, BYTE_ORDER);
+			position = HEADER_LENGTH + 4;
+		} else {
+			recordCount = 0;
+			position = HEADER_LENGTH;
+		}
+		recordIndex = -1;
+		recordOffset = -1;
+		valuesRemaining = 0;
+		valueOffset = -1;
+	}
+
+	public long getNodeId() {
+		return buffer.getLong(0, BYTE_ORDER);
+	}
+
+	public long getRequestId() {
+		return buffer.getLong(8, BYTE_ORDER);
+	}
+
+	public long getTransactionId() {
+		return buffer.getLong(16, BYTE_ORDER);
+	}
+
+	public TransactionType getTransactionType() {
+		return TransactionType.getById(buffer.getByte(24) & 0xFF);
+	}
+
+	public int getUserId() {
+		return buffer.getInt(25, BYTE_ORDER);
+	}
+
+	public long getTimestamp() {
+		return buffer.getLong(29, BYTE_ORDER);
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	public boolean nextRecord() {
+		while (nextValue()) {
+			//skip unread values
+		}
+		if (recordIndex + 1 >= recordCount) {
+			return false;
+		}
+		recordIndex++;
+		recordOffset = position;
+		valuesRemaining = buffer.getInt(recordOffset + 9, BYTE_ORDER);
+		position += RECORD_HEADER_LENGTH;
+		return true;
+	}
+
+	public ResolvedTransactionRecordType getRecordType() {
+		return ResolvedTransactionRecordType.getById(buffer.getByte(recordOffset));
+	}
+
+	public int getTableId() {
+		return buffer.getInt(recordOffset + 1, BYTE_ORDER);
+	}
+
+	public int getRecordId() {
+		return buffer.getInt(recordOffset + 5, BYTE_ORDER);
+	}
+
+	public int getValueCount() {
+		return buffer.getInt(recordOffset + 9, BYTE_ORDER);
+	}
+
+	public boolean nextValue() {
+		if (valueOffset >= 0) {
+			position = valueOffset + VALUE_HEADER_LENGTH + getPayloadLength();
+			valueOffset = -1;
+		}
+		if (valuesRemaining == 0) {
+			return false;
+		}
+		valuesRemaining--;
+		valueOffset = position;
+		payloadLength = -1;
+		materializedValue = null;
+		return true;
+	}
+
+	public int getColumnId() {
+		return buffer.getInt(valueOffset, BYTE_ORDER);
+	}
+
+	public IndexType getIndexType() {
+		return IndexType.getIndexTypeById(buffer.getByte(valueOffset + 4));
+	}
+
+	public boolean hasValue() {
+		return buffer.getByte(valueOffset + 5) != 0;
+	}
+
+	public boolean getBooleanValue() {
+		return buffer.getByte(payloadOffset()) != 0;
+	}
+
+	public short getShortValue() {
+		return buffer.getShort(payloadOffset(), BYTE_ORDER);
+	}
+
+	public int getIntValue() {
+		return buffer.getInt(payloadOffset(), BYTE_ORDER);
+	}
+
+	public long getLongValue() {
+		return buffer.getLong(payloadOffset(), BYTE_ORDER);
+	}
+
+	public float getFloatValue() {
+		return Float.intBitsToFloat(buffer.getInt(payloadOffset(), BYTE_ORDER));
+	}
+
+	public double getDoubleValue() {
+		return Double.longBitsToDouble(buffer.getLong(payloadOffset(), BYTE_ORDER));
+	}
+
+	public String getTextValue() {
+		int stringLength = buffer.getInt(payloadOffset(), BYTE_ORDER);
+		return stringLength == 0 ? null : buffer.getStringWithoutLengthUtf8(payloadOffset() + 4, stringLength);
+	}
+
+	/**
+	 * Materializes the current value with the same types as {@link ResolvedTransactionRecordValue#getValue()}.
+	 */
+	public Object getValue() {
+		if (!hasValue()) {
+			return null;
+		}
+		if (materializedValue != null) {
+			return materializedValue;
+		}
+		switch (getIndexType()) {
+			case BOOLEAN -> materializedValue = getBooleanValue();
+			case SHORT -> materializedValue = getShortValue();
+			case INT, REFERENCE -> materializedValue = getIntValue();
+			case LONG -> materializedValue = getLongValue();
+			case FLOAT -> materializedValue = getFloatValue();
+			case DOUBLE -> materializedValue = getDoubleValue();
+			case TEXT -> materializedValue = getTextValue();
+			case TRANSLATABLE_TEXT, MULTI_REFERENCE, FILE -> materializedValue = readStreamValue();
+			case BINARY -> {
+				byte[] bytes = new byte[buffer.getInt(payloadOffset(), BYTE_ORDER)];
+				buffer.getBytes(payloadOffset() + 4, bytes);
+				materializedValue = bytes;
+			}
+		}
+		return materializedValue;
+	}
+
+	public ResolvedTransactionRecordValue toRecordValue() {
+		return new ResolvedTransactionRecordValue(getColumnId(), getIndexType(), getValue());
+	}
+
+	public ResolvedTransaction toResolvedTransaction() {
+		try {
+			inputStream.wrap(buffer, 0, length);
+			return new ResolvedTransaction(dataInputStream);
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot parse transaction", e);
+		}
+	}
+
+	private int payloadOffset() {
+		return valueOffset + VALUE_HEADER_LENGTH;
+	}
+
+	private int getPayloadLength() {
+		if (payloadLength >= 0) {
+			return payloadLength;
+		}
+		if (!hasValue()) {
+			payloadLength = 0;
+			return payloadLength;
+		}
+		int offset = payloadOffset();
+		switch (getIndexType()) {
+			case BOOLEAN -> payloadLength = 1;
+			case SHORT -> payloadLength = 2;
+			case INT, FLOAT, REFERENCE -> payloadLength = 4;
+			case LONG, DOUBLE -> payloadLength = 8;
+			case TEXT, TRANSLATABLE_TEXT, BINARY -> payloadLength = 4 + buffer.getInt(offset, BYTE_ORDER);
+			case MULTI_REFERENCE -> {
+				ResolvedMultiReferenceType type = ResolvedMultiReferenceType.getById(buffer.getByte(offset));
+				if (type == ResolvedMultiReferenceType.SET_REFERENCES) {
+					payloadLength = 5 + 4 * buffer.getInt(offset + 1, BYTE_ORDER);
+				} else if (type == ResolvedMultiReferenceType.ADD_REMOVE_REFERENCES) {
+					int addCount = buffer.getInt(offset + 1, BYTE_ORDER);
+					int removeCount = buffer.getInt(offset + 5 + 4 * addCount, BYTE_ORDER);
+					payloadLength = 9 + 4 * addCount + 4 * removeCount;
+				} else {
+					payloadLength = 1;
+				}
+			}
+			case FILE -> readStreamValue();
+			default -> payloadLength = 0;
+		}
+		return payloadLength;
+	}
+
+	private Object readStreamValue() {
+		if (materializedValue != null) {
+			return materializedValue;
+		}
+		try {
+			int offset = payloadOffset();
+			inputStream.wrap(buffer, offset, length - offset);
+			materializedValue = switch (getIndexType()) {
+				case TRANSLATABLE_TEXT -> new TranslatableText(dataInputStream);
+				case MULTI_REFERENCE -> new ResolvedMultiReferenceUpdate(dataInputStream);
+				case FILE -> new StoreDescriptionFile(dataInputStream);
+				default -> null;
+			};
+			payloadLength = length - offset - inputStream.available();
+			return materializedValue;
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot parse transaction value", e);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.transaction.resolved;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.io.ExpandableDirectBufferOutputStream;
+import org.teamapps.universaldb.index.IndexType;
+import org.teamapps.universaldb.index.file.FileValue;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceType;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceUpdate;
+import org.teamapps.universaldb.index.translation.TranslatableText;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a {@link ResolvedTransaction} into a reusable buffer. The produced bytes are identical to
+ * {@link ResolvedTransaction#write(DataOutputStream, boolean)}, so existing transaction logs stay readable.
+ * Encoders are not thread safe, use {@link #get()} to obtain the pooled encoder of the current thread.
+ */
+public class ResolvedTransactionEncoder {
+
+	private static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+	private static final int INITIAL_CAPACITY = 4_096;
+	private static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+	private static final ThreadLocal<ResolvedTransactionEncoder> ENCODERS = ThreadLocal.withInitial(ResolvedTransactionEncoder::new);
+
+	private ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(INITIAL_CAPACITY);
+	private final ExpandableDirectBufferOutputStream outputStream = new ExpandableDirectBufferOutputStream();
+	private final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+	private int length;
+
+	public static ResolvedTransactionEncoder get() {
+		return ENCODERS.get();
+	}
+
+	public int encode(ResolvedTransaction transaction, boolean withCorrelationIds) throws IOException {
+		if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+			buffer = new ExpandableArrayBuffer(INITIAL_CAPACITY);
+		}
+		buffer.putLong(0, transaction.getNodeId(), BYTE_ORDER);
+		buffer.putLong(8, transaction.getRequestId(), BYTE_ORDER);
+		buffer.putLong(16, transaction.getTransactionId(), BYTE_ORDER);
+		buffer.putByte(24, (byte) transaction.getTransactionType().getId());
+		buffer.putInt(25, transaction.getUserId(), BYTE_ORDER);
+		buffer.putLong(29, transaction.getTimestamp(), BYTE_ORDER);
+		int offset = ResolvedTransactionDecoder.HEADER_LENGTH;
+		if (transaction.getTransactionType() == TransactionType.DATA_UPDATE) {
+			List<ResolvedTransactionRecord> records = transaction.getTransactionRecords();
+			buffer.putInt(offset, records.size(), BYTE_ORDER);
+			offset += 4;
+			for (ResolvedTransactionRecord record : records) {
+				offset = encodeRecord(offset, record);
+			}
+			Map<Integer, Integer> recordIdByCorrelationId = transaction.getRecordIdByCorrelationId();
+			if (withCorrelationIds && !recordIdByCorrelationId.isEmpty()) {
+				buffer.putInt(offset, recordIdByCorrelationId.size(), BYTE_ORDER);
+				offset += 4;
+				for (Map.Entry<Integer, Integer> entry : recordIdByCorrelationId.entrySet()) {
+					buffer.putInt(offset, entry.getKey(), BYTE_ORDER);
+					buffer.putInt(offset + 4, entry.getValue(), BYTE_ORDER);
+					offset += 8;
+				}
+			} else {
+				buffer.putInt(offset, 0, BYTE_ORDER);
+				offset += 4;
+			}
+		} else if (transaction.getTransactionType() == TransactionType.BULK_LOAD) {
+			outputStream.wrap(buffer, offset);
+			transaction.getBulkLoadMarker().write(dataOutputStream);
+			offset += outputStream.position();
+		} else {
+			outputStream.wrap(buffer, offset);
+			transaction.getModelUpdate().write(dataOutputStream);
+			offset += outputStream.position();
+		}
+		length = offset;
+		return length;
+	}
+
+	private int encodeRecord(int offset, ResolvedTransactionRecord record) throws IOException {
+		List<ResolvedTransactionRecordValue> recordValues = record.getRecordValues();
+		buffer.putByte(offset, (byte) record.getRecordType().getId());
+		buffer.putInt(offset + 1, record.getTableId(), BYTE_ORDER);
+		buffer.putInt(offset + 5, record.getRecordId(), BYTE_ORDER);
+		buffer.putInt(offset + 9, recordValues.size(), BYTE_ORDER);
+		offset += ResolvedTransactionDecoder.RECORD_HEADER_LENGTH;
+		for (ResolvedTransactionRecordValue recordValue : recordValues) {
+			offset = encodeValue(offset, recordValue);
+		}
+		return offset;
+	}
+
+	private int encodeValue(int offset, ResolvedTransactionRecordValue recordValue) throws IOException {
+		Object value = recordValue.getValue();
+		buffer.putInt(offset, recordValue.getColumnId(), BYTE_ORDER);
+		buffer.putByte(offset + 4, (byte) recordValue.getIndexType().getId());
+		buffer.putByte(offset + 5, (byte) (value != null ? 1 : 0));
+		offset += ResolvedTransactionDecoder.VALUE_HEADER_LENGTH;
+		if (value == null) {
+			return offset;
+		}
+		switch (recordValue.getIndexType()) {
+			case BOOLEAN -> {
+				buffer.putByte(offset, (byte) ((Boolean) value ? 1 : 0));
+				return offset + 1;
+			}
+			case SHORT -> {
+				buffer.putShort(offset, (Short) value, BYTE_ORDER);
+				return offset + 2;
+			}
+			case INT, REFERENCE -> {
+				buffer.putInt(offset, (Integer) value, BYTE_ORDER);
+				return offset + 4;
+			}
+			case LONG -> {
+				buffer.putLong(offset, (Long) value, BYTE_ORDER);
+				return offset + 8;
+			}
+			case FLOAT -> {
+				buffer.putInt(offset, Float.floatToIntBits((Float) value), BYTE_ORDER);
+				return offset + 4;
+			}
+			case DOUBLE -> {
+				buffer.putLong(offset, Double.doubleToLongBits((Double) value), BYTE_ORDER);
+				return offset + 8;
+			}
+			case TEXT -> {
+				return encodeString(offset, (String) value);
+			}
+			case TRANSLATABLE_TEXT -> {
+				return encodeString(offset, ((TranslatableText) value).getEncodedValue());
+			}
+			case MULTI_REFERENCE -> {
+				return encodeMultiReference(offset, (ResolvedMultiReferenceUpdate) value);
+			}
+			case FILE -> {
+				outputStream.wrap(buffer, offset);
+				((FileValue) value).writeValues(dataOutputStream);
+				return offset + outputStream.position();
+			}
+			case BINARY -> {
+				byte[] bytes = (byte[]) value;
+				buffer.putInt(offset, bytes.length, BYTE_ORDER);
+				buffer.putBytes(offset + 4, bytes);
+				return offset + 4 + bytes.length;
+			}
+		}
+		return offset;
+	}
+
+	private int encodeString(int offset, String value) {
+		if (value == null || value.isEmpty()) {
+			buffer.putInt(offset, 0, BYTE_ORDER);
+			return offset + 4;
+		}
+		int stringLength = buffer.putStringWithoutLengthUtf8(offset + 4, value);
+		buffer.putInt(offset, stringLength, BYTE_ORDER);
+		return offset + 4 + stringLength;
+	}
+
+	private int encodeMultiReference(int offset, ResolvedMultiReferenceUpdate update) {
+		buffer.putByte(offset, (byte) update.getType().getId());
+		offset++;
+		if (update.getType() == ResolvedMultiReferenceType.SET_REFERENCES) {
+			offset = encodeIds(offset, update.getSetReferences());
+		} else if (update.getType() == ResolvedMultiReferenceType.ADD_REMOVE_REFERENCES) {
+			offset = encodeIds(offset, update.getAddReferences());
+			offset = encodeIds(offset, update.getRemoveReferences());
+		}
+		return offset;
+	}
+
+	private int encodeIds(int offset, List<Integer> ids) {
+		buffer.putInt(offset, ids.size(), BYTE_ORDER);
+		offset += 4;
+		for (Integer id : ids) {
+			buffer.putInt(offset, id, BYTE_ORDER);
+			offset += 4;
+		}
+		return offset;
+	}
+
+	public DirectBuffer getBuffer() {
+		return buffer;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[length];
+		buffer.getBytes(0, bytes);
+		return bytes;
+	}
+}
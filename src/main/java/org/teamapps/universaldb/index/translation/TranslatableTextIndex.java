@@ -22,7 +22,7 @@ package org.teamapps.universaldb.index.translation;
 import org.teamapps.universaldb.context.UserContext;
 import org.teamapps.universaldb.index.*;
 import org.teamapps.universaldb.index.buffer.common.BlockEntryAtomicStore;
-import org.teamapps.universaldb.index.text.CollectionTextSearchIndex;
+import org.teamapps.universaldb.index.text.FullTextSearchIndex;
 import org.teamapps.universaldb.index.text.TextFieldFilter;
 import org.teamapps.universaldb.index.text.TextFilter;
 import org.teamapps.universaldb.index.text.TextSearchIndex;
@@ -39,9 +39,9 @@ public class TranslatableTextIndex extends AbstractIndex<TranslatableText, TextF
 
 	private BlockEntryAtomicStore atomicStore;
 	private final TextSearchIndex searchIndex;
-	private final CollectionTextSearchIndex collectionSearchIndex;
+	private final FullTextSearchIndex collectionSearchIndex;
 
-	public TranslatableTextIndex(FieldModel fieldModel, TableIndex tableIndex, CollectionTextSearchIndex collectionSearchIndex) {
+	public TranslatableTextIndex(FieldModel fieldModel, TableIndex tableIndex, FullTextSearchIndex collectionSearchIndex) {
 		super(fieldModel, tableIndex);
 		atomicStore = new BlockEntryAtomicStore(tableIndex.getDataPath(), fieldModel.getName());
 		this.searchIndex = null;
@@ -59,7 +59,7 @@ public class TranslatableTextIndex extends AbstractIndex<TranslatableText, TextF
 		collectionSearchIndex = null;
 	}
 
-	public CollectionTextSearchIndex getCollectionSearchIndex() {
+	public FullTextSearchIndex getCollectionSearchIndex() {
 		return collectionSearchIndex;
 	}
 
@@ -165,10 +165,20 @@ public class TranslatableTextIndex extends AbstractIndex<TranslatableText, TextF
 	}
 
 	public List<SortEntry> sortRecords(List<SortEntry> sortEntries, boolean ascending, UserContext userContext) {
+		sortEntries.sort(createSortComparator(ascending, userContext));
+		return sortEntries;
+	}
+
+	@Override
+	public Comparator<SortEntry> createSortComparator(boolean ascending, UserContext userContext) {
 		String language = userContext.getLanguage();
 		Comparator<String> comparator = UserContext.getOrCreateComparator(userContext, ascending);
-		sortEntries.sort((o1, o2) -> comparator.compare(getTranslatedValue(o1.getLeafId(), language), getTranslatedValue(o2.getLeafId(), language)));
-		return sortEntries;
+		return (o1, o2) -> comparator.compare(getTranslatedValue(o1.getLeafId(), language), getTranslatedValue(o2.getLeafId(), language));
+	}
+
+	@Override
+	public Object getSortValue(int id, UserContext userContext) {
+		return getTranslatedValue(id, userContext.getLanguage());
 	}
 
 	public BitSet filter(BitSet records, TextFilter textFilter, boolean performLocalFullTextSearch) {
@@ -40,6 +40,8 @@ import org.teamapps.universaldb.index.transaction.request.TransactionRequestReco
 import org.teamapps.universaldb.index.translation.TranslatableText;
 import org.teamapps.universaldb.index.translation.TranslatableTextIndex;
 import org.teamapps.universaldb.index.versioning.RecordUpdate;
+import org.teamapps.universaldb.query.SortCursor;
+import org.teamapps.universaldb.query.Sorting;
 import org.teamapps.universaldb.record.EntityBuilder;
 import org.teamapps.universaldb.schema.Table;
 
@@ -49,6 +51,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -99,6 +102,15 @@ public abstract class AbstractUdbEntity<ENTITY extends Entity> implements Entity
 		if (column == null) {
 			return createUnsortedList(recordIds, builder);
 		}
+		int[] ids = recordIds.stream().toArray();
+		int[] sortedIds = column.sortRecordIds(ids, SortEntry.getLeafIds(ids, referencePath), ascending);
+		if (sortedIds != null) {
+			List<ENTITY> list = new ArrayList<>(sortedIds.length);
+			for (int id : sortedIds) {
+				list.add(builder.build(id));
+			}
+			return list;
+		}
 		List<SortEntry> sortEntries = SortEntry.createSortEntries(recordIds, referencePath);
 		sortEntries = column.sortRecords(sortEntries, ascending, userContext);
 		List<ENTITY> list = new ArrayList<>();
@@ -108,6 +120,77 @@ public abstract class AbstractUdbEntity<ENTITY extends Entity> implements Entity
 		return list;
 	}
 
+	/**
+	 * Returns a page of the sorted records, only the records up to the end of the page are kept and sorted.
+	 */
+	public static <ENTITY extends Entity> List<ENTITY> sort(TableIndex table, EntityBuilder<ENTITY> builder, BitSet recordIds, int startIndex, int length, String sortFieldName, boolean ascending, UserContext userContext, String ... path) {
+		SingleReferenceIndex[] referencePath = getReferenceIndices(table, path);
+		FieldIndex column = sortFieldName != null ? getSortColumn(table, sortFieldName, referencePath) : null;
+		Comparator<SortEntry> comparator = column != null ? column.createSortComparator(ascending, userContext) : null;
+		if (comparator == null) {
+			return createUnsortedList(recordIds, builder, 0, startIndex, length);
+		}
+		int count = (int) Math.min((long) startIndex + length, Integer.MAX_VALUE);
+		List<SortEntry> sortEntries = SortEntry.sortTopEntries(recordIds, comparator, null, count, referencePath);
+		List<ENTITY> list = new ArrayList<>();
+		for (int i = startIndex; i < sortEntries.size(); i++) {
+			list.add(builder.build(sortEntries.get(i).getId()));
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the sorted records following the cursor and moves the cursor to the last returned record.
+	 */
+	public static <ENTITY extends Entity> List<ENTITY> sort(TableIndex table, EntityBuilder<ENTITY> builder, BitSet recordIds, SortCursor cursor, int length, UserContext userContext) {
+		Sorting sorting = cursor.getSorting();
+		SingleReferenceIndex[] referencePath = getReferenceIndices(table, sorting.getSortFieldPath());
+		FieldIndex column = sorting.getSortFieldName() != null ? getSortColumn(table, sorting.getSortFieldName(), referencePath) : null;
+		Comparator<SortEntry> comparator = column != null ? column.createSortComparator(sorting.getSortDirection().isAscending(), userContext) : null;
+		if (comparator == null) {
+			List<ENTITY> list = createUnsortedList(recordIds, builder, cursor.getRecordId() + 1, 0, length);
+			if (!list.isEmpty()) {
+				int lastId = list.get(list.size() - 1).getId();
+				cursor.moveTo(lastId, null, cursor.getPosition() + list.size());
+			}
+			return list;
+		}
+		SortEntry after = null;
+		int skip = 0;
+		if (!cursor.isStart()) {
+			int leafId = SortEntry.getLeafId(cursor.getRecordId(), referencePath);
+			if (Objects.equals(column.getSortValue(leafId, userContext), cursor.getSortValue())) {
+				after = new SortEntry(cursor.getRecordId(), leafId);
+			} else {
+				skip = cursor.getPosition();
+			}
+		}
+		int count = (int) Math.min((long) skip + length, Integer.MAX_VALUE);
+		List<SortEntry> sortEntries = SortEntry.sortTopEntries(recordIds, comparator, after, count, referencePath);
+		List<ENTITY> list = new ArrayList<>();
+		for (int i = skip; i < sortEntries.size(); i++) {
+			list.add(builder.build(sortEntries.get(i).getId()));
+		}
+		if (!list.isEmpty()) {
+			SortEntry last = sortEntries.get(sortEntries.size() - 1);
+			cursor.moveTo(last.getId(), column.getSortValue(last.getLeafId(), userContext), cursor.getPosition() + list.size());
+		}
+		return list;
+	}
+
+	private static <ENTITY extends Entity> List<ENTITY> createUnsortedList(BitSet records, EntityBuilder<ENTITY> builder, int fromId, int startIndex, int length) {
+		List<ENTITY> list = new ArrayList<>();
+		int skip = startIndex;
+		for (int id = records.nextSetBit(fromId); id >= 0 && list.size() < length; id = records.nextSetBit(id + 1)) {
+			if (skip > 0) {
+				skip--;
+			} else {
+				list.add(builder.build(id));
+			}
+		}
+		return list;
+	}
+
 	private static <ENTITY extends Entity> List<ENTITY> createUnsortedList(BitSet records, EntityBuilder<ENTITY> builder) {
 		List<ENTITY> list = new ArrayList<>();
 		for (int id = records.nextSetBit(0); id >= 0; id = records.nextSetBit(id + 1)) {
@@ -753,6 +836,30 @@ public abstract class AbstractUdbEntity<ENTITY extends Entity> implements Entity
 		}
 	}
 
+	public CompletableFuture<ENTITY> saveRecordAsync(UniversalDB database, int userId, long timestamp) {
+		if (entityChangeSet == null) {
+			return CompletableFuture.completedFuture((ENTITY) this);
+		}
+		return saveRecordAsync(database.createTransactionRequest(userId, timestamp), database);
+	}
+
+	public CompletableFuture<ENTITY> saveRecordAsync(UniversalDB database) {
+		if (entityChangeSet == null) {
+			return CompletableFuture.completedFuture((ENTITY) this);
+		}
+		return saveRecordAsync(database.createTransactionRequest(), database);
+	}
+
+	private CompletableFuture<ENTITY> saveRecordAsync(TransactionRequest transactionRequest, UniversalDB database) {
+		saveRecord(transactionRequest, database);
+		return database.executeTransactionAsync(transactionRequest).thenApply(resolvedTransaction -> {
+			if (id == 0) {
+				id = transactionRequest.getResolvedRecordIdByCorrelationId(correlationId);
+			}
+			return (ENTITY) this;
+		});
+	}
+
 	public void saveRecord(TransactionRequest transactionRequest, UniversalDB database) {
 		if (entityChangeSet != null) {
 			this.transactionRequest = transactionRequest;
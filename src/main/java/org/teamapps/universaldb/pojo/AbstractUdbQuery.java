@@ -25,6 +25,7 @@ import org.teamapps.universaldb.index.TableIndex;
 import org.teamapps.universaldb.index.bool.BooleanFilter;
 import org.teamapps.universaldb.index.bool.BooleanIndex;
 import org.teamapps.universaldb.index.numeric.NumericFilter;
+import org.teamapps.universaldb.index.text.SearchBoosts;
 import org.teamapps.universaldb.index.text.TextFilter;
 import org.teamapps.universaldb.index.text.TextIndex;
 import org.teamapps.universaldb.query.*;
@@ -135,6 +136,14 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 		}
 	}
 
+	private BitSet filterRecords(boolean deletedRecords) {
+		QueryResultCache queryResultCache = tableIndex.getDatabaseIndex().getQueryResultCache();
+		if (filter == null || queryResultCache == null) {
+			return filter(deletedRecords ? tableIndex.getDeletedRecordsBitSet() : tableIndex.getRecordBitSet());
+		}
+		return queryResultCache.filter(tableIndex, deletedRecords, filter);
+	}
+
 	public void addFullTextFilter(TextFilter textFilter, String... fieldNames) {
 		and(tableIndex.createFullTextFilter(textFilter, fieldNames));
 	}
@@ -163,7 +172,7 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 
 
 	public List<ENTITY> execute() {
-		BitSet result = filter(tableIndex.getRecordBitSet());
+		BitSet result = filterRecords(false);
 		return new EntityBitSetList<>(entityBuilder, result);
 	}
 
@@ -182,12 +191,12 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 		if (!tableIndex.isKeepDeletedRecords()) {
 			throw new RuntimeException("Query error: this table has no 'keep deleted' option set.");
 		}
-		BitSet result = filter(tableIndex.getDeletedRecordsBitSet());
+		BitSet result = filterRecords(true);
 		return new EntityBitSetList<>(entityBuilder, result);
 	}
 
 	public ENTITY executeExpectSingleton() {
-		BitSet result = filter(tableIndex.getRecordBitSet());
+		BitSet result = filterRecords(false);
 		int id = result.nextSetBit(1);
 		if (id < 0) {
 			return null;
@@ -205,7 +214,7 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 	}
 
 	public BitSet executeToBitSet() {
-		return filter(tableIndex.getRecordBitSet());
+		return filterRecords(false);
 	}
 
 	public List<ENTITY> execute(String sortFieldName, boolean ascending, UserContext userContext, String ... path) {
@@ -216,8 +225,7 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 		if (deletedRecords && !tableIndex.isKeepDeletedRecords()) {
 			throw new RuntimeException("Query error: this table has no 'keep deleted' option set.");
 		}
-		BitSet recordBitSet = deletedRecords ? tableIndex.getDeletedRecordsBitSet() : tableIndex.getRecordBitSet();
-		BitSet result = filter(recordBitSet);
+		BitSet result = filterRecords(deletedRecords);
 		if (sortFieldName == null || sortFieldName.isBlank()) {
 			return new EntityBitSetList<>(entityBuilder, result);
 		} else {
@@ -225,20 +233,32 @@ public class AbstractUdbQuery<ENTITY extends Entity<ENTITY>> {
 		}
 	}
 
+	/**
+	 * Returns the records of this query that best match the full-text query, ordered by relevance.
+	 */
+	public List<ENTITY> executeRanked(String fullTextQuery, int maxResults, SearchBoosts boosts, UserContext userContext, String... fieldNames) {
+		BitSet records = filter == null ? null : executeToBitSet();
+		return tableIndex.searchRanked(fullTextQuery, records, maxResults, boosts, userContext, fieldNames).stream()
+				.map(scoredRecord -> entityBuilder.build(scoredRecord.getRecordId()))
+				.collect(Collectors.toList());
+	}
+
 	public List<ENTITY> execute(int startIndex, int length, Sorting sorting, UserContext userContext) {
-		if (sorting == null) {
-			return execute().stream()
-					.skip(startIndex)
-					.limit(length)
-					.collect(Collectors.toList());
+		BitSet result = filterRecords(false);
+		if (sorting == null || sorting.getSortFieldName() == null || sorting.getSortFieldName().isBlank()) {
+			return AbstractUdbEntity.sort(tableIndex, entityBuilder, result, startIndex, length, null, true, userContext);
 		} else {
-			return execute(sorting.getSortFieldName(), sorting.getSortDirection().isAscending(), userContext, sorting.getSortFieldPath()).stream()
-					.skip(startIndex)
-					.limit(length)
-					.collect(Collectors.toList());
+			return AbstractUdbEntity.sort(tableIndex, entityBuilder, result, startIndex, length, sorting.getSortFieldName(), sorting.getSortDirection().isAscending(), userContext, sorting.getSortFieldPath());
 		}
 	}
 
+	/**
+	 * Returns the next page of the sorted result and moves the cursor to its end, deep pages cost no more than the first one.
+	 */
+	public List<ENTITY> execute(SortCursor cursor, int length, UserContext userContext) {
+		return AbstractUdbEntity.sort(tableIndex, entityBuilder, filterRecords(false), cursor, length, userContext);
+	}
+
 
 	public TableIndex getTableIndex() {
 		return tableIndex;
@@ -19,23 +19,21 @@
  */
 package org.teamapps.universaldb.pojo;
 
-import org.teamapps.udb.model.FileContentData;
 import org.teamapps.universaldb.UniversalDB;
 import org.teamapps.universaldb.index.FieldIndex;
 import org.teamapps.universaldb.index.IndexType;
 import org.teamapps.universaldb.index.file.FileIndex;
 import org.teamapps.universaldb.index.file.FileValue;
-import org.teamapps.universaldb.index.file.store.DatabaseFileStore;
 import org.teamapps.universaldb.index.file.value.FileValueType;
-import org.teamapps.universaldb.index.file.value.StoreDescriptionFile;
 import org.teamapps.universaldb.index.reference.value.MultiReferenceEditValue;
 import org.teamapps.universaldb.index.reference.value.RecordReference;
 import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
 import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
 import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordValue;
-import org.teamapps.universaldb.model.FileFieldModel;
 import org.teamapps.universaldb.model.TableModel;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -139,15 +137,13 @@ public class EntityChangeSet {
 					FileValue fileValue = (FileValue) value;
 					if (fileValue.getType() == FileValueType.UNCOMMITTED_FILE) {
 						FileIndex fileIndex = (FileIndex) database.getColumnById(recordValue.getColumnId());
-						FileFieldModel model = fileIndex.getFileFieldModel();
-						DatabaseFileStore fileStore = database.getDatabaseIndex().getDatabaseFileStore();
-						String key = fileStore.storeFile(fileValue.getAsFile(), fileValue.getHash(), fileValue.getSize());
-						FileContentData contentData = model.isIndexContent() ? fileValue.getFileContentData(model.getMaxIndexContentLength()) : null;
-						if (model.isIndexContent() && model.isDetectLanguage()) {
-							fileValue.getDetectedLanguage();
+						FileValue storedFile;
+						try (InputStream inputStream = fileValue.getInputStream()) {
+							storedFile = fileIndex.storeFile(inputStream, fileValue.getFileName());
+						} catch (IOException e) {
+							throw new RuntimeException("Error storing file:" + fileValue.getFileName(), e);
 						}
-						StoreDescriptionFile storeDescriptionFile = new StoreDescriptionFile(null, fileValue.getFileName(), fileValue.getSize(), fileValue.getHash(), key, contentData);
-						record.addRecordValue(fileIndex, storeDescriptionFile);
+						record.addRecordValue(fileIndex, storedFile);
 					} else {
 						throw new RuntimeException("Error wrong file value type to save:" + fileValue.getType());
 					}
@@ -20,6 +20,8 @@
 package org.teamapps.universaldb.pojo;
 
 import org.teamapps.universaldb.context.UserContext;
+import org.teamapps.universaldb.index.text.SearchBoosts;
+import org.teamapps.universaldb.query.SortCursor;
 import org.teamapps.universaldb.query.Sorting;
 
 import java.util.BitSet;
@@ -35,6 +37,8 @@ public interface Query<ENTITY extends Entity<ENTITY>> {
 
 	List<ENTITY> execute(int startIndex, int length, Sorting sorting, UserContext userContext);
 
+	List<ENTITY> execute(SortCursor cursor, int length, UserContext userContext);
+
 	ENTITY executeExpectSingleton();
 
 	List<ENTITY> executeOnDeletedRecords();
@@ -44,4 +48,6 @@ public interface Query<ENTITY extends Entity<ENTITY>> {
 	BitSet executeToBitSet();
 
 	boolean matches(Entity<ENTITY> entity);
+
+	List<ENTITY> executeRanked(String fullTextQuery, int maxResults, SearchBoosts boosts, UserContext userContext, String... fieldNames);
 }
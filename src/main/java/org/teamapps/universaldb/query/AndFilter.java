@@ -30,6 +30,7 @@ import org.teamapps.universaldb.index.translation.TranslatableTextIndex;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
 
 public class AndFilter implements Filter {
 
@@ -58,25 +59,28 @@ public class AndFilter implements Filter {
 
     @Override
     public BitSet filter(BitSet input) {
-        List<List<Filter>> mappedFilters = Filter.mapFiltersByPathAndExpense(filters);
+        List<List<Filter>> mappedFilters = QueryPlanner.orderAndGroups(Filter.mapFiltersByPathAndExpense(filters), input);
         BitSet result = input;
         for (List<Filter> filters : mappedFilters) {
             IndexPath path = filters.get(0).getPath();
             if (path == null) {
-                for (Filter filter : filters) {
+                for (Filter filter : QueryPlanner.orderAndFilters(filters, result, false)) {
                     result.and(filter.filter(result));
                 }
             } else {
                 BitSet localRecords = path.calculatePathBitSet(result);
 
                 List<IndexFilter> collectionFullTextFilters = Filter.getCollectionFullTextFilters(filters);
+                //filters with an index part are checked by the local text filter below, scanning few records is cheaper than the lookup
+                int localRecordCount = localRecords.cardinality();
+                collectionFullTextFilters.removeIf(filter -> QueryPlanner.isScanPreferred(filter, localRecordCount));
                 if (!collectionFullTextFilters.isEmpty()) {
                     List<TextFieldFilter> textFilters = IndexFilter.createTextFilters(collectionFullTextFilters);
                     TableIndex table = collectionFullTextFilters.get(0).getColumnIndex().getTable();
                     localRecords = table.getCollectionTextSearchIndex().filter(localRecords, textFilters, true);
                 }
 
-                for (Filter filter : Filter.getNonCollectionFullTextFilters(filters)) {
+                for (Filter filter : QueryPlanner.orderAndFilters(Filter.getNonCollectionFullTextFilters(filters), localRecords, true)) {
                     localRecords = filter.localFilter(localRecords);
                 }
 
@@ -104,7 +108,7 @@ public class AndFilter implements Filter {
     @Override
     public BitSet localFilter(BitSet localRecords) {
         BitSet result = localRecords;
-        for (Filter filter : filters) {
+        for (Filter filter : QueryPlanner.orderAndFilters(filters, localRecords, true)) {
             result = filter.localFilter(result);
         }
         return result;
@@ -127,6 +131,16 @@ public class AndFilter implements Filter {
         return filters;
     }
 
+    @Override
+    public String getCacheKey() {
+        return Filter.createCacheKey("AND", filters);
+    }
+
+    @Override
+    public void collectTables(Set<TableIndex> tables) {
+        filters.forEach(filter -> filter.collectTables(tables));
+    }
+
     @Override
     public String explain(int level) {
         StringBuilder sb = new StringBuilder();
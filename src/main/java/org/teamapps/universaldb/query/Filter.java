@@ -21,6 +21,7 @@ package org.teamapps.universaldb.query;
 
 import org.teamapps.universaldb.index.FieldIndex;
 import org.teamapps.universaldb.index.IndexType;
+import org.teamapps.universaldb.index.TableIndex;
 import org.teamapps.universaldb.index.text.TextFilter;
 import org.teamapps.universaldb.index.text.TextIndex;
 import org.teamapps.universaldb.index.translation.TranslatableTextIndex;
@@ -74,6 +75,19 @@ public interface Filter {
                 .collect(Collectors.toList());
     }
 
+    static String createCacheKey(String operator, List<Filter> filters) {
+        List<String> keys = new ArrayList<>();
+        for (Filter filter : filters) {
+            String key = filter.getCacheKey();
+            if (key == null) {
+                return null;
+            }
+            keys.add(key.length() + ":" + key);
+        }
+        Collections.sort(keys);
+        return operator + "(" + String.join(",", keys) + ")";
+    }
+
     BitSet filter(BitSet input);
 
     BitSet localFilter(BitSet localRecords);
@@ -125,6 +139,23 @@ public interface Filter {
         return false;
     }
 
+    /**
+     * @return a key that identifies the result of this filter independent of the filter instance, or null if the result must not be cached
+     */
+    default String getCacheKey() {
+        return null;
+    }
+
+    /**
+     * Adds all tables this filter reads, including the tables reached through its index path.
+     */
+    default void collectTables(Set<TableIndex> tables) {
+        IndexPath path = getPath();
+        if (path != null) {
+            path.collectTables(tables);
+        }
+    }
+
     String explain(int level);
 
     default String getExplainTabs(int tabs) {
@@ -0,0 +1,58 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+/**
+ * Estimated fraction of the input records a filter matches and the cost of evaluating it.
+ * Costs are relative units, one unit is about one primitive column read.
+ */
+public class FilterEstimate {
+
+	private final double selectivity;
+	private final double fixedCost;
+	private final double recordCost;
+
+	public FilterEstimate(double selectivity, double fixedCost, double recordCost) {
+		this.selectivity = Math.max(0, Math.min(1, selectivity));
+		this.fixedCost = fixedCost;
+		this.recordCost = recordCost;
+	}
+
+	public double getSelectivity() {
+		return selectivity;
+	}
+
+	public double getFixedCost() {
+		return fixedCost;
+	}
+
+	public double getRecordCost() {
+		return recordCost;
+	}
+
+	public double getCost(double records) {
+		return fixedCost + recordCost * records;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("selectivity: %.4f, fixed cost: %.0f, record cost: %.2f", selectivity, fixedCost, recordCost);
+	}
+}
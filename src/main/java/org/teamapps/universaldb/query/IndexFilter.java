@@ -20,13 +20,18 @@
 package org.teamapps.universaldb.query;
 
 import org.teamapps.universaldb.index.FieldIndex;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.bool.BooleanFilter;
 import org.teamapps.universaldb.index.file.FileFilter;
+import org.teamapps.universaldb.index.numeric.NumericFilter;
+import org.teamapps.universaldb.index.reference.multi.MultiReferenceFilter;
 import org.teamapps.universaldb.index.text.TextFieldFilter;
 import org.teamapps.universaldb.index.text.TextFilter;
 
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
 
 public class IndexFilter<TYPE, FILTER> implements Filter {
 
@@ -100,6 +105,21 @@ public class IndexFilter<TYPE, FILTER> implements Filter {
 		}
 	}
 
+	@Override
+	public String getCacheKey() {
+		//file filters depend on asynchronously extracted file contents
+		if (!(filter instanceof NumericFilter || filter instanceof TextFilter || filter instanceof BooleanFilter || filter instanceof MultiReferenceFilter)) {
+			return null;
+		}
+		return indexPath.getPathId() + ":" + fieldIndex.getFQN() + ":" + filter.getClass().getSimpleName() + ":" + filter;
+	}
+
+	@Override
+	public void collectTables(Set<TableIndex> tables) {
+		tables.add(fieldIndex.getTable());
+		indexPath.collectTables(tables);
+	}
+
 	@Override
 	public String explain(int level) {
 		StringBuilder sb = new StringBuilder();
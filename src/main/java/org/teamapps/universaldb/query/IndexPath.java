@@ -173,6 +173,21 @@ public class IndexPath implements Comparable<IndexPath>{
 		}
 	}
 
+	public void collectTables(Set<TableIndex> tables) {
+		if (isLocalPath()) {
+			return;
+		}
+		for (int i = 0; i < forwardSinglePath.length; i++) {
+			if (forwardSinglePath[i] != null) {
+				tables.add(forwardSinglePath[i].getTable());
+				tables.add(forwardSinglePath[i].getReferencedTable());
+			} else {
+				tables.add(forwardMultiPath[i].getTable());
+				tables.add(forwardMultiPath[i].getReferencedTable());
+			}
+		}
+	}
+
 	private BitSet calculatePath(BitSet records, boolean reversePath) {
 		if(isLocalPath()) {
 			return records;
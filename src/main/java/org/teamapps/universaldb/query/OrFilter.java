@@ -30,6 +30,7 @@ import org.teamapps.universaldb.index.translation.TranslatableTextIndex;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Set;
 
 public class OrFilter implements Filter {
 
@@ -61,26 +62,33 @@ public class OrFilter implements Filter {
         filters.forEach(filter -> filter.prependPath(path));
     }
 
+    /**
+     * Each branch is only evaluated on the input records not matched by the previous branches.
+     */
     @Override
     public BitSet filter(BitSet input) {
-        List<List<Filter>> mappedFilters = Filter.mapFiltersByPathAndExpense(filters);
+        List<List<Filter>> mappedFilters = QueryPlanner.orderOrGroups(Filter.mapFiltersByPathAndExpense(filters), input);
         if (mappedFilters.isEmpty()) {
             return input;
         }
-        BitSet result = null;
+        BitSet result = new BitSet();
+        BitSet remaining = (BitSet) input.clone();
         for (List<Filter> filters : mappedFilters) {
+            if (remaining.isEmpty()) {
+                break;
+            }
             IndexPath path = filters.get(0).getPath();
             if (path == null) {
-                for (Filter filter : filters) {
-                    BitSet reduced = filter.filter(input);
-                    if (result == null) {
-                        result = reduced;
-                    } else {
-                        result.or(reduced);
+                for (Filter filter : QueryPlanner.orderOrFilters(filters, remaining, false)) {
+                    if (remaining.isEmpty()) {
+                        break;
                     }
+                    BitSet reduced = filter.filter((BitSet) remaining.clone());
+                    result.or(reduced);
+                    remaining.andNot(reduced);
                 }
             } else {
-                BitSet localRecords = path.calculatePathBitSet(input);
+                BitSet localRecords = path.calculatePathBitSet(remaining);
                 BitSet localResult = null;
 
 
@@ -121,22 +129,24 @@ public class OrFilter implements Filter {
                         localResult = reduced;
                     }
                 }
+                if (localResult == null) {
+                    localResult = new BitSet();
+                }
 
-                for (Filter filter : Filter.getNonCollectionFullTextFilters(filters)) {
-                    BitSet reduced = filter.localFilter(localRecords);
-                    if (localResult == null) {
-                        localResult = reduced;
-                    } else {
-                        localResult.or(reduced);
+                BitSet localRemaining = (BitSet) localRecords.clone();
+                localRemaining.andNot(localResult);
+                for (Filter filter : QueryPlanner.orderOrFilters(Filter.getNonCollectionFullTextFilters(filters), localRemaining, true)) {
+                    if (localRemaining.isEmpty()) {
+                        break;
                     }
+                    BitSet reduced = filter.localFilter((BitSet) localRemaining.clone());
+                    localResult.or(reduced);
+                    localRemaining.andNot(reduced);
                 }
 
-                BitSet pathResult = path.calculateReversePath(localResult, input);
-                if (result == null) {
-                    result = pathResult;
-                } else {
-                    result.or(pathResult);
-                }
+                BitSet pathResult = path.calculateReversePath(localResult, remaining);
+                result.or(pathResult);
+                remaining.andNot(pathResult);
             }
         }
         return result;
@@ -144,14 +154,18 @@ public class OrFilter implements Filter {
 
     @Override
     public BitSet localFilter(BitSet localRecords) {
-        BitSet result = null;
-        for (Filter filter : filters) {
-            BitSet reduced = filter.localFilter(localRecords);
-            if (result == null) {
-                result = reduced;
-            } else {
-                result.or(reduced);
+        if (filters.isEmpty()) {
+            return localRecords;
+        }
+        BitSet result = new BitSet();
+        BitSet remaining = (BitSet) localRecords.clone();
+        for (Filter filter : QueryPlanner.orderOrFilters(filters, remaining, true)) {
+            if (remaining.isEmpty()) {
+                break;
             }
+            BitSet reduced = filter.localFilter((BitSet) remaining.clone());
+            result.or(reduced);
+            remaining.andNot(reduced);
         }
         return result;
     }
@@ -173,6 +187,16 @@ public class OrFilter implements Filter {
         return filters;
     }
 
+    @Override
+    public String getCacheKey() {
+        return Filter.createCacheKey("OR", filters);
+    }
+
+    @Override
+    public void collectTables(Set<TableIndex> tables) {
+        filters.forEach(filter -> filter.collectTables(tables));
+    }
+
     @Override
     public String explain(int level) {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,277 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+import org.teamapps.universaldb.index.FieldIndex;
+import org.teamapps.universaldb.index.file.FileFilter;
+import org.teamapps.universaldb.index.file.FileFilterType;
+import org.teamapps.universaldb.index.text.TextFilter;
+import org.teamapps.universaldb.index.text.TextFilterType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Orders the filters of AND and OR queries by estimated selectivity and cost, so the query speed does not depend on the
+ * order the filters have been added in. Selectivities of scanned columns are measured on a sample of the input records,
+ * full text lookups are estimated with a fixed cost that does not depend on the number of input records.
+ */
+public class QueryPlanner {
+
+	private static final int SAMPLE_SIZE = 64;
+	private static final int MIN_PLANNED_RECORDS = 1_000;
+	private static final int MAX_SAMPLED_PATH_EXPENSE = 12;
+	private static final double DEFAULT_SELECTIVITY = 0.5;
+	private static final double LOOKUP_SELECTIVITY = 0.1;
+	private static final double LOOKUP_COST = 10_000;
+	private static final double LOOKUP_RECORD_COST = 0.05;
+	private static final double SCAN_COST = 1;
+	private static final double TEXT_SCAN_COST = 4;
+	private static final double MULTI_REFERENCE_SCAN_COST = 3;
+	private static final double RECORD_ID_COST = 0.1;
+	private static final double CUSTOM_FILTER_COST = 20;
+
+	private static volatile boolean enabled = true;
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * With a disabled planner filters are evaluated in the order they have been added.
+	 */
+	public static void setEnabled(boolean enabled) {
+		QueryPlanner.enabled = enabled;
+	}
+
+	public static List<List<Filter>> orderAndGroups(List<List<Filter>> groups, BitSet input) {
+		return orderGroups(groups, input, true);
+	}
+
+	public static List<List<Filter>> orderOrGroups(List<List<Filter>> groups, BitSet input) {
+		return orderGroups(groups, input, false);
+	}
+
+	/**
+	 * @param local true if the filters are evaluated with {@link Filter#localFilter}
+	 */
+	public static <FILTER extends Filter> List<FILTER> orderAndFilters(List<FILTER> filters, BitSet records, boolean local) {
+		return orderFilters(filters, records, local, true);
+	}
+
+	public static <FILTER extends Filter> List<FILTER> orderOrFilters(List<FILTER> filters, BitSet records, boolean local) {
+		return orderFilters(filters, records, local, false);
+	}
+
+	/**
+	 * Text filters that can be decided by comparing the stored values are scanned instead of being looked up in the
+	 * full text index if the scan is cheaper than the lookup.
+	 */
+	public static boolean isScanPreferred(IndexFilter<?, ?> filter, int recordCount) {
+		if (!enabled || !(filter.getFilter() instanceof TextFilter)) {
+			return false;
+		}
+		TextFilterType filterType = ((TextFilter) filter.getFilter()).getFilterType();
+		return filterType.containsFullTextPart() && filterType.containsIndexPart() && getScanCost(filter.getColumnIndex()) * recordCount < LOOKUP_COST;
+	}
+
+	public static FilterEstimate estimate(Filter filter, BitSet sample, boolean local) {
+		if (filter instanceof AndFilter) {
+			return combine(((AndFilter) filter).getFilters(), sample, local, true);
+		} else if (filter instanceof OrFilter) {
+			return combine(((OrFilter) filter).getFilters(), sample, local, false);
+		} else if (filter instanceof IndexFilter && isIndexLookup((IndexFilter<?, ?>) filter)) {
+			return new FilterEstimate(LOOKUP_SELECTIVITY, LOOKUP_COST, LOOKUP_RECORD_COST);
+		}
+		double recordCost;
+		if (filter instanceof IndexFilter) {
+			recordCost = getScanCost(((IndexFilter<?, ?>) filter).getColumnIndex());
+		} else if (filter instanceof RecordIdFilter) {
+			recordCost = RECORD_ID_COST;
+		} else {
+			recordCost = CUSTOM_FILTER_COST;
+		}
+		if (!local) {
+			recordCost += getPathCost(filter.getPath());
+		}
+		return new FilterEstimate(sampleSelectivity(filter, sample, local), 0, recordCost);
+	}
+
+	private static List<List<Filter>> orderGroups(List<List<Filter>> groups, BitSet input, boolean conjunction) {
+		if (!enabled || groups.size() < 2) {
+			return groups;
+		}
+		int count = input.cardinality();
+		if (count < MIN_PLANNED_RECORDS) {
+			return groups;
+		}
+		BitSet sample = createSample(input, count);
+		List<FilterEstimate> estimates = new ArrayList<>();
+		for (List<Filter> group : groups) {
+			estimates.add(estimateGroup(group, sample, conjunction));
+		}
+		return order(groups, estimates, count, conjunction);
+	}
+
+	private static <FILTER extends Filter> List<FILTER> orderFilters(List<FILTER> filters, BitSet records, boolean local, boolean conjunction) {
+		if (!enabled || filters.size() < 2) {
+			return filters;
+		}
+		int count = records.cardinality();
+		if (count < MIN_PLANNED_RECORDS) {
+			return filters;
+		}
+		BitSet sample = createSample(records, count);
+		List<FilterEstimate> estimates = new ArrayList<>();
+		for (FILTER filter : filters) {
+			estimates.add(estimate(filter, sample, local));
+		}
+		return order(filters, estimates, count, conjunction);
+	}
+
+	private static FilterEstimate estimateGroup(List<Filter> group, BitSet sample, boolean conjunction) {
+		IndexPath path = group.get(0).getPath();
+		if (path == null) {
+			return combine(group, sample, false, conjunction);
+		}
+		BitSet localSample = sample;
+		if (!path.isLocalPath()) {
+			localSample = path.getExpense() <= MAX_SAMPLED_PATH_EXPENSE ? createSample(path.calculatePathBitSet(sample)) : null;
+		}
+		FilterEstimate estimate = combine(group, localSample, true, conjunction);
+		return new FilterEstimate(estimate.getSelectivity(), estimate.getFixedCost(), estimate.getRecordCost() + getPathCost(path));
+	}
+
+	private static FilterEstimate combine(List<Filter> filters, BitSet sample, boolean local, boolean conjunction) {
+		double selectivity = conjunction ? 1 : 0;
+		double fixedCost = 0;
+		double recordCost = 0;
+		double evaluatedRecords = 1;
+		for (Filter filter : filters) {
+			FilterEstimate estimate = estimate(filter, sample, local);
+			fixedCost += estimate.getFixedCost();
+			recordCost += estimate.getRecordCost() * evaluatedRecords;
+			if (conjunction) {
+				selectivity *= estimate.getSelectivity();
+				evaluatedRecords = selectivity;
+			} else {
+				selectivity = 1 - (1 - selectivity) * (1 - estimate.getSelectivity());
+				evaluatedRecords = 1 - selectivity;
+			}
+		}
+		return new FilterEstimate(selectivity, fixedCost, recordCost);
+	}
+
+	/**
+	 * Greedy ordering: AND filters with the lowest cost per removed record first, OR filters with the lowest cost per matched record.
+	 */
+	private static <T> List<T> order(List<T> items, List<FilterEstimate> estimates, double records, boolean conjunction) {
+		List<T> orderedItems = new ArrayList<>(items.size());
+		List<Integer> remaining = new ArrayList<>();
+		for (int i = 0; i < items.size(); i++) {
+			remaining.add(i);
+		}
+		while (!remaining.isEmpty()) {
+			int bestPos = 0;
+			double bestRank = Double.MAX_VALUE;
+			for (int pos = 0; pos < remaining.size(); pos++) {
+				FilterEstimate estimate = estimates.get(remaining.get(pos));
+				double gain = conjunction ? 1 - estimate.getSelectivity() : estimate.getSelectivity();
+				double rank = estimate.getCost(records) / Math.max(gain, 0.000_001);
+				if (rank < bestRank) {
+					bestRank = rank;
+					bestPos = pos;
+				}
+			}
+			int index = remaining.remove(bestPos);
+			orderedItems.add(items.get(index));
+			double selectivity = estimates.get(index).getSelectivity();
+			records *= conjunction ? selectivity : 1 - selectivity;
+		}
+		return orderedItems;
+	}
+
+	private static double sampleSelectivity(Filter filter, BitSet sample, boolean local) {
+		if (sample == null || sample.isEmpty()) {
+			return DEFAULT_SELECTIVITY;
+		}
+		IndexPath path = filter.getPath();
+		if (!local && path != null && !path.isLocalPath() && path.getExpense() > MAX_SAMPLED_PATH_EXPENSE) {
+			return DEFAULT_SELECTIVITY;
+		}
+		BitSet input = (BitSet) sample.clone();
+		BitSet result = local ? filter.localFilter(input) : filter.filter(input);
+		int matches = result != null ? result.cardinality() : 0;
+		return (matches + 0.5) / (sample.cardinality() + 1);
+	}
+
+	private static boolean isIndexLookup(IndexFilter<?, ?> filter) {
+		Object indexFilter = filter.getFilter();
+		if (indexFilter instanceof TextFilter) {
+			return ((TextFilter) indexFilter).getFilterType().containsFullTextPart();
+		} else if (indexFilter instanceof FileFilter) {
+			return ((FileFilter) indexFilter).getFilterType() == FileFilterType.FULL_TEXT_FILTER;
+		}
+		return false;
+	}
+
+	private static double getScanCost(FieldIndex<?, ?> fieldIndex) {
+		switch (fieldIndex.getType()) {
+			case TEXT:
+			case BINARY:
+				return TEXT_SCAN_COST;
+			case TRANSLATABLE_TEXT:
+				return 2 * TEXT_SCAN_COST;
+			case MULTI_REFERENCE:
+				return MULTI_REFERENCE_SCAN_COST;
+			default:
+				return SCAN_COST;
+		}
+	}
+
+	private static double getPathCost(IndexPath path) {
+		if (path == null || path.isLocalPath()) {
+			return 0;
+		}
+		return path.getExpense() + path.getReverseExpense();
+	}
+
+	private static BitSet createSample(BitSet records) {
+		return createSample(records, records.cardinality());
+	}
+
+	private static BitSet createSample(BitSet records, int count) {
+		if (count <= SAMPLE_SIZE) {
+			return (BitSet) records.clone();
+		}
+		//random instead of strided, so periodic values cannot bias the sample
+		BitSet sample = new BitSet();
+		Random random = new Random(count);
+		double probability = (double) SAMPLE_SIZE / count;
+		for (int id = records.nextSetBit(0); id >= 0; id = records.nextSetBit(id + 1)) {
+			if (random.nextDouble() < probability) {
+				sample.set(id);
+			}
+		}
+		return sample;
+	}
+}
@@ -0,0 +1,283 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.RoaringDocIdSet;
+import org.teamapps.universaldb.index.TableIndex;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Opt-in LRU cache of query results. Entries are keyed by the normalized filter tree of a query and store the matching
+ * records as compressed bitmap together with the last modifying transaction of every table the filter read. An entry
+ * is dropped as soon as one of these tables has been changed by a later transaction.
+ */
+public class QueryResultCache {
+
+	private static final long ENTRY_OVERHEAD = 128;
+	private static final int MAX_STATISTICS = 1_000;
+
+	private final long maxBytes;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, QueryStatistics> statisticsByKey = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, QueryStatistics> eldest) {
+			return size() > MAX_STATISTICS;
+		}
+	};
+	private long bytes;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	public QueryResultCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	public static String createKey(TableIndex tableIndex, boolean deletedRecords, Filter filter) {
+		String filterKey = filter.getCacheKey();
+		if (filterKey == null) {
+			return null;
+		}
+		return tableIndex.getMappingId() + (deletedRecords ? ":deleted:" : ":") + filterKey;
+	}
+
+	/**
+	 * Returns the records of the table matching the filter, from the cache if the filter is cacheable and none of the tables it reads changed.
+	 */
+	public BitSet filter(TableIndex tableIndex, boolean deletedRecords, Filter filter) {
+		BitSet records = deletedRecords ? tableIndex.getDeletedRecordsBitSet() : tableIndex.getRecordBitSet();
+		String key = createKey(tableIndex, deletedRecords, filter);
+		if (key == null) {
+			return filter.filter(records);
+		}
+		BitSet cachedResult = get(key);
+		if (cachedResult != null) {
+			return cachedResult;
+		}
+		Set<TableIndex> tableSet = new HashSet<>();
+		tableSet.add(tableIndex);
+		filter.collectTables(tableSet);
+		TableIndex[] tables = tableSet.toArray(new TableIndex[0]);
+		long[] transactionIds = new long[tables.length];
+		boolean cacheable = true;
+		for (int i = 0; i < tables.length; i++) {
+			transactionIds[i] = tables[i].getModifiedTransactionId();
+			//full-text results of pending index updates will change without a new transaction
+			cacheable &= !tables[i].isFullTextIndexPending();
+		}
+		BitSet result = filter.filter(records);
+		if (cacheable) {
+			put(key, tables, transactionIds, result);
+		}
+		return result;
+	}
+
+	public synchronized BitSet get(String key) {
+		QueryStatistics statistics = statisticsByKey.computeIfAbsent(key, QueryStatistics::new);
+		Entry entry = entries.get(key);
+		if (entry != null && !entry.isValid()) {
+			entries.remove(key);
+			bytes -= entry.size;
+			invalidationCount++;
+			statistics.invalidations++;
+			entry = null;
+		}
+		if (entry == null) {
+			missCount++;
+			statistics.misses++;
+			return null;
+		}
+		hitCount++;
+		statistics.hits++;
+		try {
+			return decompress(entry.recordIds);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public synchronized void put(String key, TableIndex[] tables, long[] transactionIds, BitSet recordIds) {
+		RoaringDocIdSet compressed = compress(recordIds);
+		long size = compressed.ramBytesUsed() + key.length() * 2L + tables.length * 16L + ENTRY_OVERHEAD;
+		if (size > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(key, new Entry(tables, transactionIds, compressed, size));
+		if (previous != null) {
+			bytes -= previous.size;
+		}
+		bytes += size;
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while (bytes > maxBytes && iterator.hasNext()) {
+			bytes -= iterator.next().getValue().size;
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public synchronized long getSizeInBytes() {
+		return bytes;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public synchronized long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+
+	public synchronized QueryStatistics getStatistics(String key) {
+		QueryStatistics statistics = statisticsByKey.get(key);
+		return statistics != null ? statistics.copy() : null;
+	}
+
+	/**
+	 * @return the statistics of the most recently executed queries, ordered by hit count
+	 */
+	public synchronized List<QueryStatistics> getStatistics() {
+		List<QueryStatistics> statistics = new ArrayList<>();
+		statisticsByKey.values().forEach(value -> statistics.add(value.copy()));
+		statistics.sort(Comparator.comparingLong(QueryStatistics::getHits).reversed());
+		return statistics;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "entries: " + entries.size() + ", bytes: " + bytes + ", hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount + ", invalidations: " + invalidationCount;
+	}
+
+	private static RoaringDocIdSet compress(BitSet recordIds) {
+		RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(Math.max(1, recordIds.length()));
+		for (int id = recordIds.nextSetBit(0); id >= 0; id = recordIds.nextSetBit(id + 1)) {
+			builder.add(id);
+		}
+		return builder.build();
+	}
+
+	private static BitSet decompress(RoaringDocIdSet recordIds) throws IOException {
+		BitSet result = new BitSet();
+		DocIdSetIterator iterator = recordIds.iterator();
+		if (iterator != null) {
+			for (int id = iterator.nextDoc(); id != DocIdSetIterator.NO_MORE_DOCS; id = iterator.nextDoc()) {
+				result.set(id);
+			}
+		}
+		return result;
+	}
+
+	public static class QueryStatistics {
+		private final String key;
+		private long hits;
+		private long misses;
+		private long invalidations;
+
+		private QueryStatistics(String key) {
+			this.key = key;
+		}
+
+		private QueryStatistics copy() {
+			QueryStatistics copy = new QueryStatistics(key);
+			copy.hits = hits;
+			copy.misses = misses;
+			copy.invalidations = invalidations;
+			return copy;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getInvalidations() {
+			return invalidations;
+		}
+
+		public double getHitRate() {
+			long requests = hits + misses;
+			return requests == 0 ? 0 : (double) hits / requests;
+		}
+
+		@Override
+		public String toString() {
+			return key + " (hits: " + hits + ", misses: " + misses + ", invalidations: " + invalidations + ")";
+		}
+	}
+
+	private static class Entry {
+		private final TableIndex[] tables;
+		private final long[] transactionIds;
+		private final RoaringDocIdSet recordIds;
+		private final long size;
+
+		private Entry(TableIndex[] tables, long[] transactionIds, RoaringDocIdSet recordIds, long size) {
+			this.tables = tables;
+			this.transactionIds = transactionIds;
+			this.recordIds = recordIds;
+			this.size = size;
+		}
+
+		private boolean isValid() {
+			for (int i = 0; i < tables.length; i++) {
+				if (tables[i].getModifiedTransactionId() != transactionIds[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
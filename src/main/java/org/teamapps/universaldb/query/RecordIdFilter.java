@@ -24,6 +24,8 @@ import java.util.Collection;
 
 public class RecordIdFilter implements Filter {
 
+	private static final int MAX_CACHE_KEY_IDS = 256;
+
 	private final BitSet filterBitset;
 	private IndexPath indexPath = new IndexPath();
 
@@ -60,6 +62,14 @@ public class RecordIdFilter implements Filter {
 		indexPath = path;
 	}
 
+	@Override
+	public String getCacheKey() {
+		if (filterBitset.cardinality() > MAX_CACHE_KEY_IDS) {
+			return null;
+		}
+		return indexPath.getPathId() + ":ids:" + filterBitset;
+	}
+
 	@Override
 	public String explain(int level) {
 		StringBuilder sb = new StringBuilder();
@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+/**
+ * Position within the sorted result of a query, used to page through large results. The cursor is keyed on the sort
+ * value and id of the last returned record, if that record changed in the meantime the next page starts at the
+ * position of the cursor instead.
+ */
+public class SortCursor {
+
+	private final Sorting sorting;
+	private int recordId;
+	private Object sortValue;
+	private int position;
+
+	public static SortCursor create(Sorting sorting) {
+		return new SortCursor(sorting);
+	}
+
+	public SortCursor(Sorting sorting) {
+		this.sorting = sorting;
+	}
+
+	public void moveTo(int recordId, Object sortValue, int position) {
+		this.recordId = recordId;
+		this.sortValue = sortValue;
+		this.position = position;
+	}
+
+	public void reset() {
+		moveTo(0, null, 0);
+	}
+
+	public boolean isStart() {
+		return recordId == 0;
+	}
+
+	public Sorting getSorting() {
+		return sorting;
+	}
+
+	public int getRecordId() {
+		return recordId;
+	}
+
+	public Object getSortValue() {
+		return sortValue;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	@Override
+	public String toString() {
+		return "record: " + recordId + ", value: " + sortValue + ", position: " + position;
+	}
+}
@@ -0,0 +1,96 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.replication;
+
+public class ReplicationConfig {
+
+	public enum Role {
+		LEADER,
+		FOLLOWER
+	}
+
+	private final Role role;
+	private final String leaderHost;
+	private final int port;
+	private int maxPendingTransactions = 25_000;
+	private long syncTimeoutMillis = 60_000;
+	private long reconnectDelayMillis = 2_000;
+
+	public static ReplicationConfig leader(int port) {
+		return new ReplicationConfig(Role.LEADER, null, port);
+	}
+
+	public static ReplicationConfig follower(String leaderHost, int leaderPort) {
+		return new ReplicationConfig(Role.FOLLOWER, leaderHost, leaderPort);
+	}
+
+	private ReplicationConfig(Role role, String leaderHost, int port) {
+		this.role = role;
+		this.leaderHost = leaderHost;
+		this.port = port;
+	}
+
+	public ReplicationConfig maxPendingTransactions(int maxPendingTransactions) {
+		this.maxPendingTransactions = maxPendingTransactions;
+		return this;
+	}
+
+	public ReplicationConfig syncTimeoutMillis(long syncTimeoutMillis) {
+		this.syncTimeoutMillis = syncTimeoutMillis;
+		return this;
+	}
+
+	public ReplicationConfig reconnectDelayMillis(long reconnectDelayMillis) {
+		this.reconnectDelayMillis = reconnectDelayMillis;
+		return this;
+	}
+
+	public Role getRole() {
+		return role;
+	}
+
+	public boolean isLeader() {
+		return role == Role.LEADER;
+	}
+
+	public boolean isFollower() {
+		return role == Role.FOLLOWER;
+	}
+
+	public String getLeaderHost() {
+		return leaderHost;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public int getMaxPendingTransactions() {
+		return maxPendingTransactions;
+	}
+
+	public long getSyncTimeoutMillis() {
+		return syncTimeoutMillis;
+	}
+
+	public long getReconnectDelayMillis() {
+		return reconnectDelayMillis;
+	}
+}
@@ -0,0 +1,142 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ReplicationFollower {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final UniversalDB universalDB;
+	private final ReplicationConfig config;
+	private final CountDownLatch inSyncLatch = new CountDownLatch(1);
+	private volatile boolean running = true;
+	private volatile boolean connected;
+	private volatile Exception failure;
+	private volatile Socket socket;
+
+	public ReplicationFollower(UniversalDB universalDB, ReplicationConfig config) {
+		this.universalDB = universalDB;
+		this.config = config;
+		Thread thread = new Thread(this::run, "udb-replication-follower-" + universalDB.getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void run() {
+		while (running) {
+			try (Socket socket = new Socket(config.getLeaderHost(), config.getPort())) {
+				this.socket = socket;
+				socket.setTcpNoDelay(true);
+				DataInputStream dis = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64_000));
+				DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				long lastTransactionId = universalDB.getTransactionIndex().getLastTransactionId();
+				dos.writeLong(lastTransactionId);
+				dos.flush();
+				connected = true;
+				logger.info("Connected to replication leader {}:{}, last transaction id: {}", config.getLeaderHost(), config.getPort(), lastTransactionId);
+				while (running) {
+					int length = dis.readInt();
+					if (length == ReplicationLeader.IN_SYNC_MARKER) {
+						inSyncLatch.countDown();
+						continue;
+					}
+					byte[] bytes = new byte[length];
+					dis.readFully(bytes);
+					long transactionId = ResolvedTransaction.readTransactionId(bytes);
+					if (transactionId <= universalDB.getTransactionIndex().getLastTransactionId()) {
+						continue;
+					}
+					try {
+						universalDB.handleTransaction(bytes);
+					} catch (Exception e) {
+						//reconnecting would receive the same transaction again
+						fail(transactionId, e);
+						return;
+					}
+				}
+			} catch (Exception e) {
+				if (running) {
+					logger.warn("Replication connection to {}:{} lost: {}", config.getLeaderHost(), config.getPort(), e.getMessage());
+				}
+			} finally {
+				connected = false;
+			}
+			if (running) {
+				try {
+					Thread.sleep(config.getReconnectDelayMillis());
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	private void fail(long transactionId, Exception e) {
+		logger.error("Stopping replication from {}:{}, cannot apply transaction {}", config.getLeaderHost(), config.getPort(), transactionId, e);
+		failure = e;
+		running = false;
+		inSyncLatch.countDown();
+	}
+
+	/**
+	 * Returns false if the follower is not in sync after the timeout or replication stopped with a failure.
+	 */
+	public boolean awaitInSync(long timeout, TimeUnit unit) throws InterruptedException {
+		return inSyncLatch.await(timeout, unit) && failure == null;
+	}
+
+	public boolean isFailed() {
+		return failure != null;
+	}
+
+	public Exception getFailure() {
+		return failure;
+	}
+
+	public boolean isConnected() {
+		return connected;
+	}
+
+	public long getLastTransactionId() {
+		return universalDB.getTransactionIndex().getLastTransactionId();
+	}
+
+	public void close() {
+		running = false;
+		Socket socket = this.socket;
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.index.log.LogIterator;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class ReplicationLeader {
+
+	public static final int IN_SYNC_MARKER = 0;
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final UniversalDB universalDB;
+	private final ReplicationConfig config;
+	private final ServerSocket serverSocket;
+	private final List<FollowerSession> sessions = new CopyOnWriteArrayList<>();
+	private volatile boolean running = true;
+
+	public ReplicationLeader(UniversalDB universalDB, ReplicationConfig config) throws IOException {
+		this.universalDB = universalDB;
+		this.config = config;
+		this.serverSocket = new ServerSocket(config.getPort());
+		Thread thread = new Thread(this::acceptFollowers, "udb-replication-leader-" + universalDB.getName());
+		thread.setDaemon(true);
+		thread.start();
+		logger.info("Replication leader for {} listening on port {}", universalDB.getName(), getPort());
+	}
+
+	private void acceptFollowers() {
+		while (running) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				FollowerSession session = new FollowerSession(socket);
+				Thread thread = new Thread(session::run, "udb-replication-session-" + socket.getRemoteSocketAddress());
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) {
+				if (running) {
+					logger.warn("Error accepting replication follower: {}", e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Called by the writer after a transaction has been written to the transaction log.
+	 * Never blocks: a follower that cannot keep up is disconnected and catches up from the log when it reconnects.
+	 */
+	public void publishTransaction(ResolvedTransaction transaction) throws IOException {
+		if (sessions.isEmpty()) {
+			return;
+		}
+		byte[] bytes = transaction.getBytes();
+		for (FollowerSession session : sessions) {
+			session.offer(bytes);
+		}
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public int getFollowerCount() {
+		return sessions.size();
+	}
+
+	public void close() {
+		running = false;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		sessions.forEach(FollowerSession::close);
+	}
+
+	private class FollowerSession {
+		private final Socket socket;
+		private final BlockingQueue<byte[]> pendingTransactions;
+		private volatile boolean overflow;
+		private long lastTransactionId;
+
+		private FollowerSession(Socket socket) {
+			this.socket = socket;
+			this.pendingTransactions = new ArrayBlockingQueue<>(config.getMaxPendingTransactions());
+		}
+
+		private void offer(byte[] bytes) {
+			if (!pendingTransactions.offer(bytes)) {
+				overflow = true;
+			}
+		}
+
+		private void run() {
+			try {
+				DataInputStream dis = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64_000));
+				lastTransactionId = dis.readLong();
+				logger.info("Replication follower {} connected, last transaction id: {}", socket.getRemoteSocketAddress(), lastTransactionId);
+
+				//register before reading the log so that no transaction committed in between gets lost
+				sessions.add(this);
+				LogIterator logIterator = universalDB.getTransactionIndex().getLogIterator(lastTransactionId);
+				try {
+					while (logIterator.hasNext()) {
+						sendTransaction(dos, logIterator.next());
+					}
+				} finally {
+					logIterator.closeSave();
+				}
+				dos.writeInt(IN_SYNC_MARKER);
+				dos.flush();
+				logger.info("Replication follower {} caught up to transaction id: {}", socket.getRemoteSocketAddress(), lastTransactionId);
+
+				while (running && !overflow) {
+					byte[] bytes = pendingTransactions.poll(1, TimeUnit.SECONDS);
+					if (bytes == null) {
+						dos.writeInt(IN_SYNC_MARKER);
+					} else {
+						sendTransaction(dos, bytes);
+					}
+					if (pendingTransactions.isEmpty()) {
+						dos.flush();
+					}
+				}
+				if (overflow) {
+					logger.warn("Replication follower {} is too slow, disconnecting", socket.getRemoteSocketAddress());
+				}
+			} catch (SocketException | EOFException e) {
+				logger.info("Replication follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+			} catch (Exception e) {
+				logger.warn("Error in replication session of follower {}", socket.getRemoteSocketAddress(), e);
+			} finally {
+				sessions.remove(this);
+				close();
+			}
+		}
+
+		private void sendTransaction(DataOutputStream dos, byte[] bytes) throws IOException {
+			long transactionId = ResolvedTransaction.readTransactionId(bytes);
+			if (transactionId <= lastTransactionId) {
+				return;
+			}
+			if (transactionId != lastTransactionId + 1) {
+				throw new IOException("Missing transactions between " + lastTransactionId + " and " + transactionId);
+			}
+			dos.writeInt(bytes.length);
+			dos.write(bytes);
+			lastTransactionId = transactionId;
+		}
+
+		private void close() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
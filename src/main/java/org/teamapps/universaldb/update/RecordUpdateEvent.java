@@ -19,18 +19,38 @@
  */
 package org.teamapps.universaldb.update;
 
+import java.util.Arrays;
+
 public class RecordUpdateEvent {
 
+	private final long transactionId;
+	private final long timestamp;
 	private final int tableId;
 	private final int recordId;
 	private final int userId;
 	private final RecordUpdateType type;
+	private final int[] changedFieldIds;
 
 	public RecordUpdateEvent(int tableId, int recordId, int userId, RecordUpdateType type) {
+		this(0, 0, tableId, recordId, userId, type, new int[0]);
+	}
+
+	public RecordUpdateEvent(long transactionId, long timestamp, int tableId, int recordId, int userId, RecordUpdateType type, int[] changedFieldIds) {
+		this.transactionId = transactionId;
+		this.timestamp = timestamp;
 		this.tableId = tableId;
 		this.recordId = recordId;
 		this.userId = userId;
 		this.type = type;
+		this.changedFieldIds = changedFieldIds;
+	}
+
+	public long getTransactionId() {
+		return transactionId;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
 	}
 
 	public int getTableId() {
@@ -48,4 +68,29 @@ public class RecordUpdateEvent {
 	public RecordUpdateType getType() {
 		return type;
 	}
+
+	public int[] getChangedFieldIds() {
+		return changedFieldIds;
+	}
+
+	public boolean isFieldChanged(int fieldId) {
+		for (int changedFieldId : changedFieldIds) {
+			if (changedFieldId == fieldId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "RecordUpdateEvent{" +
+				"transactionId=" + transactionId +
+				", tableId=" + tableId +
+				", recordId=" + recordId +
+				", userId=" + userId +
+				", type=" + type +
+				", changedFieldIds=" + Arrays.toString(changedFieldIds) +
+				'}';
+	}
 }
@@ -0,0 +1,254 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.update;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastBufferDescriptor;
+import org.agrona.concurrent.broadcast.BroadcastTransmitter;
+import org.teamapps.universaldb.index.transaction.TransactionIndex;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+import org.teamapps.universaldb.index.transaction.resolved.BulkLoadMarker;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionDecoder;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionRecord;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionRecordValue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Change data capture stream of all record updates.
+ * Events are written into a broadcast ring buffer: the writer never blocks and every subscriber reads with its own cursor.
+ * A subscriber that falls behind by more than the buffer capacity recovers the missed events from the transaction log.
+ * A bulk load is published as one create event per loaded record.
+ */
+public class UpdateEventStream {
+
+	public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+	public static final int DEFAULT_MAX_BATCH_SIZE = 1_000;
+	private static final int EVENT_MSG_TYPE_ID = 1;
+	private static final RecordUpdateType[] UPDATE_TYPES = RecordUpdateType.values();
+
+	private final TransactionIndex transactionIndex;
+	private final AtomicBuffer buffer;
+	private final BroadcastTransmitter transmitter;
+	private final MutableDirectBuffer encodeBuffer = new ExpandableArrayBuffer(256);
+	private final List<UpdateEventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	public UpdateEventStream(TransactionIndex transactionIndex) {
+		this(transactionIndex, DEFAULT_CAPACITY);
+	}
+
+	public UpdateEventStream(TransactionIndex transactionIndex, int capacity) {
+		this.transactionIndex = transactionIndex;
+		this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + BroadcastBufferDescriptor.TRAILER_LENGTH));
+		this.transmitter = new BroadcastTransmitter(buffer);
+	}
+
+	/**
+	 * Must only be called by the transaction writer after the transaction has been written to the transaction log.
+	 */
+	public void publish(ResolvedTransaction transaction) {
+		if (transaction.getTransactionType() == TransactionType.BULK_LOAD) {
+			BulkLoadMarker marker = transaction.getBulkLoadMarker();
+			for (int recordId = marker.getFirstRecordId(); recordId > 0 && recordId <= marker.getLastRecordId(); recordId++) {
+				int length = encode(encodeBuffer, transaction, marker, recordId);
+				transmitter.transmit(EVENT_MSG_TYPE_ID, encodeBuffer, 0, length);
+			}
+			return;
+		}
+		if (transaction.getTransactionType() != TransactionType.DATA_UPDATE) {
+			return;
+		}
+		for (ResolvedTransactionRecord record : transaction.getTransactionRecords()) {
+			int length = encode(encodeBuffer, transaction, record);
+			transmitter.transmit(EVENT_MSG_TYPE_ID, encodeBuffer, 0, length);
+		}
+	}
+
+	public void publish(ResolvedTransactionDecoder decoder) {
+		if (decoder.getTransactionType() != TransactionType.DATA_UPDATE) {
+			return;
+		}
+		decoder.rewind();
+		while (decoder.nextRecord()) {
+			int length = encode(encodeBuffer, decoder);
+			transmitter.transmit(EVENT_MSG_TYPE_ID, encodeBuffer, 0, length);
+		}
+	}
+
+	public UpdateEventSubscription subscribe(Consumer<List<RecordUpdateEvent>> handler, int... tableIds) {
+		return subscribe(handler, -1, DEFAULT_MAX_BATCH_SIZE, tableIds);
+	}
+
+	/**
+	 * @param afterTransactionId if not negative, all events of transactions after this id are first read from the transaction log
+	 */
+	public UpdateEventSubscription subscribe(Consumer<List<RecordUpdateEvent>> handler, long afterTransactionId, int maxBatchSize, int... tableIds) {
+		UpdateEventSubscription subscription = new UpdateEventSubscription(this, handler, afterTransactionId, maxBatchSize, tableIds);
+		subscriptions.add(subscription);
+		subscription.start();
+		return subscription;
+	}
+
+	void removeSubscription(UpdateEventSubscription subscription) {
+		subscriptions.remove(subscription);
+	}
+
+	public List<UpdateEventSubscription> getSubscriptions() {
+		return new ArrayList<>(subscriptions);
+	}
+
+	public void close() {
+		subscriptions.forEach(UpdateEventSubscription::close);
+	}
+
+	AtomicBuffer getBuffer() {
+		return buffer;
+	}
+
+	TransactionIndex getTransactionIndex() {
+		return transactionIndex;
+	}
+
+	public static List<RecordUpdateEvent> createEvents(ResolvedTransaction transaction) {
+		List<RecordUpdateEvent> events = new ArrayList<>();
+		if (transaction.getTransactionType() == TransactionType.BULK_LOAD) {
+			BulkLoadMarker marker = transaction.getBulkLoadMarker();
+			for (int recordId = marker.getFirstRecordId(); recordId > 0 && recordId <= marker.getLastRecordId(); recordId++) {
+				events.add(new RecordUpdateEvent(transaction.getTransactionId(), transaction.getTimestamp(), marker.getTableId(), recordId, transaction.getUserId(), RecordUpdateType.CREATE, marker.getFieldIds()));
+			}
+			return events;
+		}
+		if (transaction.getTransactionType() != TransactionType.DATA_UPDATE) {
+			return events;
+		}
+		for (ResolvedTransactionRecord record : transaction.getTransactionRecords()) {
+			List<ResolvedTransactionRecordValue> recordValues = record.getRecordValues();
+			int[] changedFieldIds = new int[recordValues.size()];
+			for (int i = 0; i < changedFieldIds.length; i++) {
+				changedFieldIds[i] = recordValues.get(i).getColumnId();
+			}
+			events.add(new RecordUpdateEvent(transaction.getTransactionId(), transaction.getTimestamp(), record.getTableId(), record.getRecordId(), transaction.getUserId(), record.getRecordType().getUpdateType(), changedFieldIds));
+		}
+		return events;
+	}
+
+	public static List<RecordUpdateEvent> createEvents(ResolvedTransactionDecoder decoder) {
+		List<RecordUpdateEvent> events = new ArrayList<>();
+		if (decoder.getTransactionType() != TransactionType.DATA_UPDATE) {
+			return events;
+		}
+		decoder.rewind();
+		while (decoder.nextRecord()) {
+			int[] changedFieldIds = new int[decoder.getValueCount()];
+			for (int i = 0; decoder.nextValue(); i++) {
+				changedFieldIds[i] = decoder.getColumnId();
+			}
+			events.add(new RecordUpdateEvent(decoder.getTransactionId(), decoder.getTimestamp(), decoder.getTableId(), decoder.getRecordId(), decoder.getUserId(), decoder.getRecordType().getUpdateType(), changedFieldIds));
+		}
+		return events;
+	}
+
+	private static int encode(MutableDirectBuffer buffer, ResolvedTransactionDecoder decoder) {
+		buffer.putLong(0, decoder.getTransactionId());
+		buffer.putLong(8, decoder.getTimestamp());
+		buffer.putInt(16, decoder.getTableId());
+		buffer.putInt(20, decoder.getRecordId());
+		buffer.putInt(24, decoder.getUserId());
+		buffer.putByte(28, (byte) decoder.getRecordType().getUpdateType().ordinal());
+		buffer.putInt(29, decoder.getValueCount());
+		int offset = 33;
+		while (decoder.nextValue()) {
+			buffer.putInt(offset, decoder.getColumnId());
+			offset += 4;
+		}
+		return offset;
+	}
+
+	private static int encode(MutableDirectBuffer buffer, ResolvedTransaction transaction, ResolvedTransactionRecord record) {
+		List<ResolvedTransactionRecordValue> recordValues = record.getRecordValues();
+		buffer.putLong(0, transaction.getTransactionId());
+		buffer.putLong(8, transaction.getTimestamp());
+		buffer.putInt(16, record.getTableId());
+		buffer.putInt(20, record.getRecordId());
+		buffer.putInt(24, transaction.getUserId());
+		buffer.putByte(28, (byte) record.getRecordType().getUpdateType().ordinal());
+		buffer.putInt(29, recordValues.size());
+		int offset = 33;
+		for (ResolvedTransactionRecordValue recordValue : recordValues) {
+			buffer.putInt(offset, recordValue.getColumnId());
+			offset += 4;
+		}
+		return offset;
+	}
+
+	private static int encode(MutableDirectBuffer buffer, ResolvedTransaction transaction, BulkLoadMarker marker, int recordId) {
+		int[] fieldIds = marker.getFieldIds();
+		buffer.putLong(0, transaction.getTransactionId());
+		buffer.putLong(8, transaction.getTimestamp());
+		buffer.putInt(16, marker.getTableId());
+		buffer.putInt(20, recordId);
+		buffer.putInt(24, transaction.getUserId());
+		buffer.putByte(28, (byte) RecordUpdateType.CREATE.ordinal());
+		buffer.putInt(29, fieldIds.length);
+		int offset = 33;
+		for (int fieldId : fieldIds) {
+			buffer.putInt(offset, fieldId);
+			offset += 4;
+		}
+		return offset;
+	}
+
+	static long decodeTransactionId(DirectBuffer buffer, int offset) {
+		return buffer.getLong(offset);
+	}
+
+	static int decodeTableId(DirectBuffer buffer, int offset) {
+		return buffer.getInt(offset + 16);
+	}
+
+	static RecordUpdateEvent decode(DirectBuffer buffer, int offset, int length) {
+		int fieldCount = buffer.getInt(offset + 29);
+		if (fieldCount < 0 || 33 + fieldCount * 4 > length) {
+			return null;
+		}
+		int[] changedFieldIds = new int[fieldCount];
+		for (int i = 0; i < fieldCount; i++) {
+			changedFieldIds[i] = buffer.getInt(offset + 33 + i * 4);
+		}
+		return new RecordUpdateEvent(
+				buffer.getLong(offset),
+				buffer.getLong(offset + 8),
+				buffer.getInt(offset + 16),
+				buffer.getInt(offset + 20),
+				buffer.getInt(offset + 24),
+				UPDATE_TYPES[buffer.getByte(offset + 28)],
+				changedFieldIds
+		);
+	}
+}
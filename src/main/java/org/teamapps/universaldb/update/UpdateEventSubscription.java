@@ -0,0 +1,200 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.update;
+
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.broadcast.BroadcastReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teamapps.universaldb.index.log.LogIterator;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransactionDecoder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class UpdateEventSubscription {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private final UpdateEventStream stream;
+	private final Consumer<List<RecordUpdateEvent>> handler;
+	private final int maxBatchSize;
+	private final BitSet tableFilter;
+	private final BroadcastReceiver receiver;
+	private final Thread thread;
+	private volatile boolean running = true;
+	private long replayAfterTransactionId;
+	private long replayedTransactionId;
+	private long currentTransactionId;
+	private long completedTransactionId;
+	private long lappedCount;
+	private volatile long deliveredEvents;
+	private volatile long recoveries;
+
+	protected UpdateEventSubscription(UpdateEventStream stream, Consumer<List<RecordUpdateEvent>> handler, long afterTransactionId, int maxBatchSize, int... tableIds) {
+		this.stream = stream;
+		this.handler = handler;
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.tableFilter = tableIds == null || tableIds.length == 0 ? null : new BitSet();
+		if (tableFilter != null) {
+			for (int tableId : tableIds) {
+				tableFilter.set(tableId);
+			}
+		}
+		this.receiver = new BroadcastReceiver(stream.getBuffer());
+		this.lappedCount = receiver.lappedCount();
+		this.replayAfterTransactionId = afterTransactionId;
+		if (afterTransactionId < 0) {
+			long lastTransactionId = stream.getTransactionIndex().getLastTransactionId();
+			this.replayedTransactionId = lastTransactionId;
+			this.currentTransactionId = lastTransactionId;
+			this.completedTransactionId = lastTransactionId;
+		}
+		this.thread = new Thread(this::run, "udb-update-event-subscription");
+		this.thread.setDaemon(true);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	private void run() {
+		IdleStrategy idleStrategy = new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(10));
+		List<RecordUpdateEvent> batch = new ArrayList<>();
+		while (running) {
+			if (replayAfterTransactionId >= 0) {
+				replayFromLog(replayAfterTransactionId);
+				replayAfterTransactionId = -1;
+			}
+			while (batch.size() < maxBatchSize && receiver.receiveNext()) {
+				if (receiver.lappedCount() != lappedCount) {
+					lappedCount = receiver.lappedCount();
+					scheduleRecovery();
+					break;
+				}
+				int offset = receiver.offset();
+				long transactionId = UpdateEventStream.decodeTransactionId(receiver.buffer(), offset);
+				int tableId = UpdateEventStream.decodeTableId(receiver.buffer(), offset);
+				RecordUpdateEvent event = acceptTable(tableId) ? UpdateEventStream.decode(receiver.buffer(), offset, receiver.length()) : null;
+				if (!receiver.validate()) {
+					scheduleRecovery();
+					break;
+				}
+				if (transactionId <= replayedTransactionId) {
+					continue;
+				}
+				if (transactionId > currentTransactionId) {
+					completedTransactionId = currentTransactionId;
+					currentTransactionId = transactionId;
+				}
+				if (event != null) {
+					batch.add(event);
+				}
+			}
+			if (!batch.isEmpty()) {
+				deliver(batch);
+				batch = new ArrayList<>();
+				idleStrategy.reset();
+			} else {
+				idleStrategy.idle();
+			}
+		}
+	}
+
+	private boolean acceptTable(int tableId) {
+		return tableFilter == null || tableFilter.get(tableId);
+	}
+
+	private void scheduleRecovery() {
+		recoveries++;
+		logger.warn("Update event subscriber fell behind, recovering events after transaction {} from transaction log", completedTransactionId);
+		replayAfterTransactionId = completedTransactionId;
+	}
+
+	private void replayFromLog(long afterTransactionId) {
+		List<RecordUpdateEvent> batch = new ArrayList<>();
+		ResolvedTransactionDecoder decoder = new ResolvedTransactionDecoder();
+		long lastTransactionId = afterTransactionId;
+		stream.getTransactionIndex().flush();
+		LogIterator logIterator = stream.getTransactionIndex().getLogIterator(afterTransactionId);
+		try {
+			while (running && logIterator.hasNext()) {
+				byte[] bytes = logIterator.next();
+				long transactionId = ResolvedTransaction.readTransactionId(bytes);
+				if (transactionId <= afterTransactionId) {
+					continue;
+				}
+				List<RecordUpdateEvent> events = decoder.wrap(bytes).getTransactionType() == TransactionType.BULK_LOAD ?
+						UpdateEventStream.createEvents(ResolvedTransaction.createResolvedTransaction(bytes)) :
+						UpdateEventStream.createEvents(decoder);
+				for (RecordUpdateEvent event : events) {
+					if (acceptTable(event.getTableId())) {
+						batch.add(event);
+					}
+					if (batch.size() >= maxBatchSize) {
+						deliver(batch);
+						batch = new ArrayList<>();
+					}
+				}
+				lastTransactionId = transactionId;
+			}
+		} finally {
+			logIterator.closeSave();
+		}
+		if (!batch.isEmpty()) {
+			deliver(batch);
+		}
+		replayedTransactionId = Math.max(replayedTransactionId, lastTransactionId);
+		currentTransactionId = Math.max(currentTransactionId, lastTransactionId);
+		completedTransactionId = Math.max(completedTransactionId, lastTransactionId);
+	}
+
+	private void deliver(List<RecordUpdateEvent> batch) {
+		try {
+			handler.accept(batch);
+		} catch (Throwable e) {
+			logger.error("Error in update event handler", e);
+		}
+		deliveredEvents += batch.size();
+	}
+
+	public long getDeliveredEvents() {
+		return deliveredEvents;
+	}
+
+	public long getRecoveries() {
+		return recoveries;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public void close() {
+		running = false;
+		stream.removeSubscription(this);
+	}
+}
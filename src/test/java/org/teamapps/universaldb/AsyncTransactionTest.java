@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.testdb1.Person;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.pojo.AbstractUdbEntity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncTransactionTest {
+
+	private static UniversalDB universalDB;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		TestBase.init();
+		universalDB = DatabaseManager.getBaseInstance().getDatabase("testDb1");
+	}
+
+	@Test
+	public void testSaveRecordAsyncFromVirtualThreads() throws Exception {
+		int personCount = Person.getCount();
+		List<CompletableFuture<Person>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 500; i++) {
+				String lastName = "async" + i;
+				CompletableFuture<Person> future = new CompletableFuture<>();
+				futures.add(future);
+				executor.submit(() -> {
+					AbstractUdbEntity<Person> person = (AbstractUdbEntity<Person>) Person.create().setLastName(lastName);
+					person.saveRecordAsync(universalDB).whenComplete((saved, e) -> {
+						if (e != null) {
+							future.completeExceptionally(e);
+						} else {
+							future.complete(saved);
+						}
+					});
+				});
+			}
+		}
+		Set<Integer> ids = new HashSet<>();
+		for (CompletableFuture<Person> future : futures) {
+			Person person = future.get(30, TimeUnit.SECONDS);
+			assertTrue(person.getId() > 0);
+			assertTrue(person.isStored());
+			assertTrue(person.getLastName().startsWith("async"));
+			ids.add(person.getId());
+		}
+		assertEquals(500, ids.size());
+		assertEquals(personCount + 500, Person.getCount());
+	}
+
+	@Test
+	public void testTransactionOrder() throws Exception {
+		List<CompletableFuture<ResolvedTransaction>> futures = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			TransactionRequest request = universalDB.createTransactionRequest();
+			AbstractUdbEntity<Person> person = (AbstractUdbEntity<Person>) Person.create().setLastName("ordered" + i);
+			person.saveRecord(request, universalDB);
+			futures.add(universalDB.executeTransactionAsync(request));
+		}
+		Person.create().setLastName("sync").save();
+		long previousTransactionId = 0;
+		for (CompletableFuture<ResolvedTransaction> future : futures) {
+			ResolvedTransaction transaction = future.get(30, TimeUnit.SECONDS);
+			assertTrue(transaction.getTransactionId() > previousTransactionId);
+			previousTransactionId = transaction.getTransactionId();
+		}
+		assertTrue(universalDB.getTransactionIndex().getLastTransactionId() >= previousTransactionId);
+	}
+
+	@Test
+	public void testUnchangedEntityCompletesImmediately() throws Exception {
+		Person saved = Person.create().setLastName("unchanged").save();
+		CompletableFuture<Person> future = ((AbstractUdbEntity<Person>) saved).saveRecordAsync(universalDB);
+		assertTrue(future.isDone());
+		assertEquals(saved.getId(), future.get().getId());
+	}
+}
@@ -24,7 +24,12 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.teamapps.datamodel.testdb1.FieldTest;
 import org.teamapps.universaldb.context.UserContext;
+import org.teamapps.universaldb.index.translation.TranslatableText;
+import org.teamapps.universaldb.query.SortCursor;
+import org.teamapps.universaldb.query.SortDirection;
+import org.teamapps.universaldb.query.Sorting;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -71,4 +76,59 @@ public class SortTest {
 		values = FieldTest.filter().execute(FieldTest.FIELD_SHORT_FIELD, false, UserContext.create(Locale.ENGLISH));
 		assertEquals(1, values.get(0).getIntField());
 	}
+
+	@Test
+	public void sortPageTest() {
+		for (int i = 1; i <= 1000; i++) {
+			FieldTest.create().setIntField(i % 10).setTextField("Test" + i).save();
+		}
+		UserContext userContext = UserContext.create(Locale.ENGLISH);
+		for (boolean ascending : new boolean[]{true, false}) {
+			List<FieldTest> sorted = FieldTest.filter().execute(FieldTest.FIELD_INT_FIELD, ascending, userContext);
+			Sorting sorting = new Sorting(FieldTest.FIELD_INT_FIELD, ascending);
+			assertEquals(sorted.subList(0, 25), FieldTest.filter().execute(0, 25, sorting, userContext));
+			assertEquals(sorted.subList(480, 530), FieldTest.filter().execute(480, 50, sorting, userContext));
+			assertEquals(sorted.subList(990, 1000), FieldTest.filter().execute(990, 50, sorting, userContext));
+		}
+	}
+
+	@Test
+	public void sortCursorTest() {
+		for (int i = 1; i <= 1000; i++) {
+			FieldTest.create().setIntField(i % 7).save();
+		}
+		UserContext userContext = UserContext.create(Locale.ENGLISH);
+		List<FieldTest> sorted = FieldTest.filter().execute(FieldTest.FIELD_INT_FIELD, false, userContext);
+		SortCursor cursor = SortCursor.create(new Sorting(FieldTest.FIELD_INT_FIELD, SortDirection.DESCENDING));
+		List<FieldTest> pages = new ArrayList<>();
+		List<FieldTest> page;
+		while (!(page = FieldTest.filter().execute(cursor, 64, userContext)).isEmpty()) {
+			pages.addAll(page);
+		}
+		assertEquals(sorted, pages);
+		assertEquals(1000, cursor.getPosition());
+
+		cursor.reset();
+		pages = new ArrayList<>(FieldTest.filter().execute(cursor, 100, userContext));
+		pages.get(pages.size() - 1).setIntField(-1).save();
+		pages.addAll(FieldTest.filter().execute(cursor, 100, userContext));
+		assertEquals(200, pages.size());
+		assertEquals(200, cursor.getPosition());
+	}
+
+	@Test
+	public void sortCursorTranslatableTextTest() {
+		for (int i = 1; i <= 300; i++) {
+			FieldTest.create().setTranslatableText(TranslatableText.create("Text" + (i % 10), "en")).save();
+		}
+		UserContext userContext = UserContext.create(Locale.ENGLISH);
+		List<FieldTest> sorted = FieldTest.filter().execute(FieldTest.FIELD_TRANSLATABLE_TEXT, true, userContext);
+		SortCursor cursor = SortCursor.create(new Sorting(FieldTest.FIELD_TRANSLATABLE_TEXT, SortDirection.ASCENDING));
+		List<FieldTest> page = FieldTest.filter().execute(cursor, 100, userContext);
+		assertEquals(sorted.subList(0, 100), page);
+		assertEquals(sorted.get(99).getTranslatableText().getText("en"), cursor.getSortValue());
+
+		page.get(0).delete();
+		assertEquals(sorted.subList(100, 200), FieldTest.filter().execute(cursor, 100, userContext));
+	}
 }
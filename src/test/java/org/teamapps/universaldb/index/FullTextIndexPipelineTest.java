@@ -0,0 +1,154 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.TestDb1Model;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.UniversalDbBuilder;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+import org.teamapps.universaldb.index.text.TextFieldFilter;
+import org.teamapps.universaldb.index.text.TextFilterType;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class FullTextIndexPipelineTest {
+
+	private static UniversalDB db;
+	private static TableIndex person;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		db = UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.fullTextIndexConfig(FullTextIndexConfig.create().asyncIndexing(true).indexingBatchSize(10))
+				.build();
+		person = db.getDatabaseIndex().getTable("person");
+	}
+
+	private static int savePerson(int recordId, String lastName) {
+		TransactionRequest request = db.createTransactionRequest();
+		TransactionRequestRecordType type = recordId == 0 ? TransactionRequestRecordType.CREATE : TransactionRequestRecordType.UPDATE;
+		TransactionRequestRecord record = new TransactionRequestRecord(type, person.getMappingId(), recordId, 1);
+		record.addRecordValue(person.getFieldIndex("lastName"), lastName);
+		request.addRecord(record);
+		db.executeTransaction(request);
+		return recordId == 0 ? request.getResolvedRecordIdByCorrelationId(1) : recordId;
+	}
+
+	private static BitSet search(String lastName) {
+		List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "lastName", lastName));
+		return person.getCollectionTextSearchIndex().filter(person.getRecords(), filters, true);
+	}
+
+	@Test
+	public void testReadYourWrites() {
+		int id = savePerson(0, "pipelinealpha");
+		assertTrue(search("pipelinealpha").get(id));
+		assertTrue(db.getFullTextIndexPipeline().getIndexedTransactionId(person) >= db.getTransactionIndex().getLastTransactionId());
+
+		savePerson(id, "pipelinebeta");
+		assertFalse(search("pipelinealpha").get(id));
+		assertTrue(search("pipelinebeta").get(id));
+	}
+
+	@Test
+	public void testBatches() {
+		int count = 250;
+		int[] ids = new int[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = savePerson(0, "pipelinebatch");
+		}
+		assertTrue(db.getFullTextIndexPipeline().awaitIndexed(person, 10_000));
+		assertEquals(0, db.getFullTextIndexPipeline().getPendingCount(person));
+		BitSet result = search("pipelinebatch");
+		for (int id : ids) {
+			assertTrue(result.get(id));
+		}
+	}
+
+	@Test
+	public void testTransactionLargerThanBatch() {
+		int count = 35;
+		TransactionRequest request = db.createTransactionRequest();
+		for (int i = 0; i < count; i++) {
+			TransactionRequestRecord record = new TransactionRequestRecord(TransactionRequestRecordType.CREATE, person.getMappingId(), 0, i + 1);
+			record.addRecordValue(person.getFieldIndex("lastName"), "pipelinetransaction");
+			request.addRecord(record);
+		}
+		db.executeTransaction(request);
+		BitSet result = search("pipelinetransaction");
+		assertEquals(count, result.cardinality());
+		for (int i = 0; i < count; i++) {
+			assertTrue(result.get(request.getResolvedRecordIdByCorrelationId(i + 1)));
+		}
+	}
+
+	@Test
+	public void testBackgroundUpdateDoesNotResurrectDeletedRecord() throws Exception {
+		int count = 200;
+		int[] ids = new int[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = savePerson(0, "pipelineresurrect");
+		}
+		assertTrue(db.getFullTextIndexPipeline().awaitIndexed(person, 10_000));
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread indexer = new Thread(() -> {
+			while (running.get()) {
+				for (int id : ids) {
+					person.updateFullTextIndex(Collections.singletonMap(id, true));
+				}
+			}
+		});
+		indexer.start();
+		for (int id : ids) {
+			TransactionRequest request = db.createTransactionRequest();
+			request.addRecord(new TransactionRequestRecord(TransactionRequestRecordType.DELETE, person.getMappingId(), id, 0));
+			db.executeTransaction(request);
+		}
+		running.set(false);
+		indexer.join();
+		person.getCollectionTextSearchIndex().commit(false);
+
+		BitSet allIds = new BitSet();
+		for (int id : ids) {
+			allIds.set(id);
+		}
+		List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "lastName", "pipelineresurrect"));
+		assertEquals(0, person.getCollectionTextSearchIndex().filter(allIds, filters, true).cardinality());
+	}
+}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.TestDb1Model;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.UniversalDbBuilder;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+import org.teamapps.universaldb.index.text.FullTextRebuildProgress;
+import org.teamapps.universaldb.index.text.TextFieldFilter;
+import org.teamapps.universaldb.index.text.TextFilterType;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class FullTextRebuildTest {
+
+	private static UniversalDB db;
+	private static TableIndex person;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		db = UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.fullTextIndexConfig(FullTextIndexConfig.create().rebuildThreads(4))
+				.build();
+		person = db.getDatabaseIndex().getTable("person");
+	}
+
+	@Test
+	public void testParallelRebuild() {
+		int count = 40_000;
+		TransactionRequest request = db.createTransactionRequest();
+		for (int i = 1; i <= count; i++) {
+			TransactionRequestRecord record = new TransactionRequestRecord(TransactionRequestRecordType.CREATE, person.getMappingId(), 0, i);
+			record.addRecordValue(person.getFieldIndex("lastName"), i % 2 == 0 ? "rebuildeven" : "rebuildodd");
+			request.addRecord(record);
+		}
+		db.executeTransaction(request);
+
+		person.forceFullTextIndexRecreation();
+		FullTextRebuildProgress progress = person.getFullTextRebuildProgress();
+		assertTrue(progress.isFinished());
+		assertEquals(person.getCount(), progress.getIndexedRecords());
+		assertTrue(progress.getThreads() > 1);
+		assertEquals(db.getTransactionIndex().getLastTransactionId(), person.getCollectionTextSearchIndex().getIndexedTransactionId());
+
+		BitSet result = person.getCollectionTextSearchIndex().filter(person.getRecords(), Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "lastName", "rebuildeven")), true);
+		assertEquals(count / 2, result.cardinality());
+	}
+}
@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RecordSorterTest {
+
+	private static final int RECORDS = 10_000;
+
+	@Test
+	public void testSortByIntKeys() {
+		Random random = new Random(1);
+		int[] ids = createIds();
+		int[] keys = new int[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			keys[i] = random.nextInt(100) - 50 + (random.nextInt(10) == 0 ? Integer.MIN_VALUE : 0);
+		}
+		for (boolean ascending : new boolean[]{true, false}) {
+			int order = ascending ? 1 : -1;
+			assertArrayEquals(sortStable(ids, (i1, i2) -> Integer.compare(keys[i1], keys[i2]) * order), RecordSorter.sortByIntKeys(ids, keys, ascending));
+		}
+	}
+
+	@Test
+	public void testSortByLongKeys() {
+		Random random = new Random(2);
+		int[] ids = createIds();
+		long[] keys = new long[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			keys[i] = random.nextLong() >> random.nextInt(64);
+		}
+		for (boolean ascending : new boolean[]{true, false}) {
+			int order = ascending ? 1 : -1;
+			assertArrayEquals(sortStable(ids, (i1, i2) -> Long.compare(keys[i1], keys[i2]) * order), RecordSorter.sortByLongKeys(ids, keys, ascending));
+		}
+	}
+
+	@Test
+	public void testSortByDoubleKeys() {
+		Random random = new Random(3);
+		double[] specialValues = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE};
+		int[] ids = createIds();
+		double[] keys = new double[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			keys[i] = random.nextInt(5) == 0 ? specialValues[random.nextInt(specialValues.length)] : random.nextGaussian() * 1000;
+		}
+		for (boolean ascending : new boolean[]{true, false}) {
+			int order = ascending ? 1 : -1;
+			assertArrayEquals(sortStable(ids, (i1, i2) -> Double.compare(keys[i1], keys[i2]) * order), RecordSorter.sortByDoubleKeys(ids, keys, ascending));
+		}
+	}
+
+	@Test
+	public void testEmptyAndSingleRecord() {
+		assertArrayEquals(new int[0], RecordSorter.sortByLongKeys(new int[0], new long[0], true));
+		assertArrayEquals(new int[]{7}, RecordSorter.sortByDoubleKeys(new int[]{7}, new double[]{1.5}, false));
+		assertArrayEquals(new int[]{7}, RecordSorter.sortByIntKeys(new int[]{7}, new int[]{-3}, true));
+	}
+
+	private static int[] createIds() {
+		int[] ids = new int[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			ids[i] = i * 3 + 1;
+		}
+		return ids;
+	}
+
+	private static int[] sortStable(int[] ids, Comparator<Integer> comparator) {
+		Integer[] positions = new Integer[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			positions[i] = i;
+		}
+		Arrays.sort(positions, comparator);
+		return Arrays.stream(positions).mapToInt(position -> ids[position]).toArray();
+	}
+}
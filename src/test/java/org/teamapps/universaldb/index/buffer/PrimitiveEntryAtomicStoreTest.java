@@ -168,4 +168,35 @@ public class PrimitiveEntryAtomicStoreTest {
 			assertEquals(id, store.getDouble(id), 0.1d);
 		}
 	}
+
+	@Test
+	public void setSequences() throws IOException {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		PrimitiveEntryAtomicStore sequenceStore = new PrimitiveEntryAtomicStore(tempDir, "sequences");
+		int count = 200_000;
+		int[] ints = new int[count];
+		long[] longs = new long[count];
+		for (int i = 0; i < count; i++) {
+			ints[i] = i * 7;
+			longs[i] = i * 1_000_000_007L;
+		}
+		sequenceStore.setInts(5, ints);
+		for (int i = 0; i < count; i++) {
+			assertEquals(i * 7, sequenceStore.getInt(5 + i));
+		}
+		assertEquals(0, sequenceStore.getInt(4));
+		assertEquals(0, sequenceStore.getInt(5 + count));
+
+		sequenceStore.setLongs(1, longs);
+		for (int i = 0; i < count; i++) {
+			assertEquals(i * 1_000_000_007L, sequenceStore.getLong(1 + i));
+		}
+		sequenceStore.setDoubles(1, new double[]{1.5, 2.5});
+		assertEquals(2.5, sequenceStore.getDouble(2), 0);
+		sequenceStore.setShorts(3, new short[]{11, 12});
+		assertEquals(12, sequenceStore.getShort(4));
+		sequenceStore.setFloats(3, new float[0]);
+		sequenceStore.drop();
+	}
 }
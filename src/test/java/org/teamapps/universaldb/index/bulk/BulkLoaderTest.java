@@ -0,0 +1,149 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.bulk;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.testdb1.Company;
+import org.teamapps.datamodel.testdb1.Person;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.TestBase;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.text.TextFilter;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+import org.teamapps.universaldb.update.RecordUpdateEvent;
+import org.teamapps.universaldb.update.RecordUpdateType;
+import org.teamapps.universaldb.update.UpdateEventSubscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class BulkLoaderTest {
+
+	private static UniversalDB universalDB;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		TestBase.init();
+		universalDB = DatabaseManager.getBaseInstance().getDatabase("testDb1");
+	}
+
+	@Test
+	public void testBulkLoad() {
+		Company company = Company.create().setName("bulk-company").save();
+		int personCount = Person.getCount();
+		List<BulkLoadBatch> batches = new ArrayList<>();
+		for (int batch = 0; batch < 3; batch++) {
+			int size = 100;
+			String[] firstNames = new String[size];
+			String[] lastNames = new String[size];
+			int[] companies = new int[size];
+			for (int i = 0; i < size; i++) {
+				firstNames[i] = "bulkfirst" + batch;
+				lastNames[i] = "bulklast" + (batch * size + i);
+				companies[i] = company.getId();
+			}
+			batches.add(BulkLoadBatch.create(size)
+					.textColumn("firstName", firstNames)
+					.textColumn("lastName", lastNames)
+					.referenceColumn("company", companies));
+		}
+
+		long lastTransactionId = universalDB.getTransactionIndex().getLastTransactionId();
+		ResolvedTransaction transaction = universalDB.bulkLoad("person", batches.iterator());
+
+		assertEquals(TransactionType.BULK_LOAD, transaction.getTransactionType());
+		assertEquals(lastTransactionId + 1, universalDB.getTransactionIndex().getLastTransactionId());
+		assertEquals(300, transaction.getBulkLoadMarker().getRecordCount());
+		assertEquals(personCount + 300, Person.getCount());
+
+		ResolvedTransaction logged = universalDB.getTransactionIndex().getLastTransaction();
+		assertEquals(TransactionType.BULK_LOAD, logged.getTransactionType());
+		assertEquals(300, logged.getBulkLoadMarker().getRecordCount());
+
+		Person person = Person.getById(transaction.getBulkLoadMarker().getFirstRecordId());
+		assertEquals("bulkfirst0", person.getFirstName());
+		assertEquals("bulklast0", person.getLastName());
+		assertEquals(company, person.getCompany());
+		assertEquals(300, Company.getById(company.getId()).getEmployees().size());
+
+		assertEquals(100, Person.filter().parseFullTextFilter("bulkfirst1").execute().size());
+		assertEquals(1, Person.filter().parseFullTextFilter("bulklast250").execute().size());
+	}
+
+	@Test
+	public void testUnknownField() {
+		TableIndex person = universalDB.getDatabaseIndex().getTable("person");
+		BulkLoadBatch batch = BulkLoadBatch.create(1).textColumn("unknownField", new String[]{"x"});
+		assertThrows(RuntimeException.class, () -> universalDB.bulkLoad(person, List.of(batch).iterator()));
+	}
+
+	@Test
+	public void testRollbackOnFailedBatch() {
+		Company company = Company.create().setName("bulk-rollback-company").save();
+		int personCount = Person.getCount();
+		long lastTransactionId = universalDB.getTransactionIndex().getLastTransactionId();
+		int size = 50;
+		String[] lastNames = new String[size];
+		int[] companies = new int[size];
+		Arrays.fill(lastNames, "bulkrollback");
+		Arrays.fill(companies, company.getId());
+		List<BulkLoadBatch> batches = List.of(
+				BulkLoadBatch.create(size).textColumn("lastName", lastNames).referenceColumn("company", companies),
+				BulkLoadBatch.create(1).textColumn("unknownField", new String[]{"x"})
+		);
+		assertThrows(RuntimeException.class, () -> universalDB.bulkLoad("person", batches.iterator()));
+
+		assertEquals(personCount, Person.getCount());
+		assertEquals(lastTransactionId, universalDB.getTransactionIndex().getLastTransactionId());
+		assertEquals(0, Company.getById(company.getId()).getEmployees().size());
+		assertEquals(0, Person.filter().lastName(TextFilter.textEqualsFilter("bulkrollback")).execute().size());
+	}
+
+	@Test
+	public void testUpdateEvents() throws Exception {
+		TableIndex person = universalDB.getDatabaseIndex().getTable("person");
+		List<RecordUpdateEvent> events = new CopyOnWriteArrayList<>();
+		UpdateEventSubscription subscription = universalDB.subscribeUpdateEvents(events::addAll, person);
+		int size = 20;
+		String[] lastNames = new String[size];
+		Arrays.fill(lastNames, "bulkevent");
+		ResolvedTransaction transaction = universalDB.bulkLoad(person, List.of(BulkLoadBatch.create(size).textColumn("lastName", lastNames)).iterator());
+		long maxTime = System.currentTimeMillis() + 10_000;
+		while (events.size() < size && System.currentTimeMillis() < maxTime) {
+			Thread.sleep(5);
+		}
+		subscription.close();
+
+		assertEquals(size, events.size());
+		for (RecordUpdateEvent event : events) {
+			assertEquals(transaction.getTransactionId(), event.getTransactionId());
+			assertEquals(RecordUpdateType.CREATE, event.getType());
+			assertTrue(event.isFieldChanged(person.getFieldIndex("lastName").getMappingId()));
+		}
+		assertEquals(transaction.getBulkLoadMarker().getFirstRecordId(), events.get(0).getRecordId());
+	}
+}
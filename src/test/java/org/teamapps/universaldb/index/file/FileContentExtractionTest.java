@@ -0,0 +1,185 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.TestDb1Model;
+import org.teamapps.udb.model.FileContentData;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.TestBase;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.UniversalDbBuilder;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.text.FullTextIndexConfig;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class FileContentExtractionTest {
+
+	private static UniversalDB db;
+	private static TableIndex table;
+	private static FileIndex fileIndex;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		db = UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.fullTextIndexConfig(FullTextIndexConfig.create().asyncFileContentExtraction(true).fileContentExtractionThreads(2))
+				.build();
+		table = db.getDatabaseIndex().getTable("fieldTest");
+		fileIndex = (FileIndex) table.getFieldIndex("fileField");
+	}
+
+	private static int saveFile(int recordId, FileValue fileValue) {
+		TransactionRequest request = db.createTransactionRequest();
+		TransactionRequestRecordType type = recordId == 0 ? TransactionRequestRecordType.CREATE : TransactionRequestRecordType.UPDATE;
+		TransactionRequestRecord record = new TransactionRequestRecord(type, table.getMappingId(), recordId, 1);
+		record.addRecordValue(fileIndex, fileValue);
+		request.addRecord(record);
+		db.executeTransaction(request);
+		return recordId == 0 ? request.getResolvedRecordIdByCorrelationId(1) : recordId;
+	}
+
+	private static void awaitExtraction(int id) throws InterruptedException {
+		long time = System.currentTimeMillis();
+		while (fileIndex.getContentExtractionStatus(id) == FileContentExtractionStatus.PENDING && System.currentTimeMillis() - time < 30_000) {
+			Thread.sleep(20);
+		}
+	}
+
+	@Test
+	public void testContentIsExtractedAfterCommit() throws Exception {
+		FileValue fileValue = fileIndex.storeFile(TestBase.createResourceFile(), "test-doc.docx");
+		assertNull(fileValue.getFileContentData());
+
+		int id = saveFile(0, fileValue);
+		assertEquals(fileValue.getSize(), fileIndex.getValue(id).getSize());
+		awaitExtraction(id);
+		assertEquals(FileContentExtractionStatus.COMPLETED, fileIndex.getContentExtractionStatus(id));
+		assertEquals("Matthias Bernstein", fileIndex.getValue(id).getContentCreatedBy());
+		assertEquals(FileContentExtractionStatus.NONE, fileIndex.getContentExtractionStatus(id + 1));
+	}
+
+	@Test
+	public void testContentIsSharedByHash() throws Exception {
+		FileValue fileValue = fileIndex.storeFile(TestBase.createResourceFile(), "shared.docx");
+		FileContentDataStore contentDataStore = fileIndex.getContentDataStore();
+		int id1 = saveFile(0, fileValue);
+		awaitExtraction(id1);
+		int references = contentDataStore.getReferenceCount(fileValue.getHash());
+		assertTrue(references > 0);
+
+		int id2 = saveFile(0, fileIndex.storeFile(TestBase.createResourceFile(), "copy.docx"));
+		assertEquals(FileContentExtractionStatus.COMPLETED, fileIndex.getContentExtractionStatus(id2));
+		assertEquals("Matthias Bernstein", fileIndex.getValue(id2).getContentCreatedBy());
+		assertEquals(references + 1, contentDataStore.getReferenceCount(fileValue.getHash()));
+		assertEquals(1, contentDataStore.getContentCount());
+
+		saveFile(id1, null);
+		assertEquals(references, contentDataStore.getReferenceCount(fileValue.getHash()));
+		assertEquals(FileContentExtractionStatus.NONE, fileIndex.getContentExtractionStatus(id1));
+		assertEquals("Matthias Bernstein", fileIndex.getValue(id2).getContentCreatedBy());
+	}
+
+	@Test
+	public void testFullQueueKeepsFilesPending() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		UniversalDB smallQueueDb = UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.fullTextIndexConfig(FullTextIndexConfig.create().asyncFileContentExtraction(true).fileContentExtractionThreads(1).fileContentExtractionQueueSize(1))
+				.build();
+		TableIndex smallQueueTable = smallQueueDb.getDatabaseIndex().getTable("fieldTest");
+		FileIndex smallQueueFileIndex = (FileIndex) smallQueueTable.getFieldIndex("fileField");
+		int count = 8;
+		int[] ids = new int[count];
+		for (int i = 0; i < count; i++) {
+			FileValue fileValue = smallQueueFileIndex.storeFile(TestBase.createResourceFile(), "queued-" + i + ".docx");
+			TransactionRequest request = smallQueueDb.createTransactionRequest();
+			TransactionRequestRecord record = new TransactionRequestRecord(TransactionRequestRecordType.CREATE, smallQueueTable.getMappingId(), 0, 1);
+			record.addRecordValue(smallQueueFileIndex, fileValue);
+			request.addRecord(record);
+			smallQueueDb.executeTransaction(request);
+			ids[i] = request.getResolvedRecordIdByCorrelationId(1);
+		}
+		long time = System.currentTimeMillis();
+		for (int id : ids) {
+			while (smallQueueFileIndex.getContentExtractionStatus(id) == FileContentExtractionStatus.PENDING && System.currentTimeMillis() - time < 30_000) {
+				Thread.sleep(20);
+			}
+			assertEquals(FileContentExtractionStatus.COMPLETED, smallQueueFileIndex.getContentExtractionStatus(id));
+		}
+	}
+
+	@Test
+	public void testStuckParserDoesNotHoldWorker() throws Exception {
+		FileContentExtractor extractor = new FileContentExtractor(FullTextIndexConfig.create().fileContentExtractionThreads(1).fileContentExtractionTimeoutMillis(200));
+		AtomicBoolean stuck = new AtomicBoolean(true);
+		CompletableFuture<Boolean> timedOut = new CompletableFuture<>();
+		CompletableFuture<FileContentData> next = new CompletableFuture<>();
+		try {
+			assertTrue(extractor.submit(() -> {
+				try {
+					extractor.parseWithTimeout("stuck", () -> {
+						while (stuck.get()) {
+							Thread.onSpinWait();
+						}
+						return null;
+					}, () -> {});
+					timedOut.complete(false);
+				} catch (TimeoutException e) {
+					timedOut.complete(true);
+				}
+			}));
+			assertTrue(extractor.submit(() -> {
+				try {
+					next.complete(extractor.parseWithTimeout("next", FileContentData::new, () -> {}));
+				} catch (TimeoutException e) {
+					next.completeExceptionally(e);
+				}
+			}));
+			assertTrue(timedOut.get(10, TimeUnit.SECONDS));
+			assertNotNull(next.get(10, TimeUnit.SECONDS));
+			assertEquals(1, extractor.getAbandonedParsers());
+		} finally {
+			stuck.set(false);
+			extractor.close();
+		}
+	}
+}
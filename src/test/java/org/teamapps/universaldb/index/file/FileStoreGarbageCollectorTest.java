@@ -0,0 +1,196 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file;
+
+import org.junit.Test;
+import org.teamapps.universaldb.index.file.store.LocalDatabaseFileStore;
+import org.teamapps.universaldb.index.file.store.StoredFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FileStoreGarbageCollectorTest {
+
+	@Test
+	public void testCollectUnreferencedFiles() throws Exception {
+		LocalDatabaseFileStore fileStore = new LocalDatabaseFileStore(createTempDir());
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(createTempDir(), "refs");
+		StoredFile referenced = store(fileStore, "referenced");
+		StoredFile released = store(fileStore, "released");
+		StoredFile untracked = store(fileStore, "untracked");
+		referenceIndex.addReference(referenced.getHash(), referenced.getLength(), null);
+		referenceIndex.addReference(released.getHash(), released.getLength(), null);
+		referenceIndex.removeReference(released.getHash(), released.getLength());
+		assertEquals(1, referenceIndex.getReferenceCount(referenced.getHash(), referenced.getLength()));
+		assertEquals(0, referenceIndex.getReferenceCount(released.getHash(), released.getLength()));
+		Thread.sleep(20);
+
+		FileGarbageCollectionReport report = new FileStoreGarbageCollector(fileStore, referenceIndex, 60_000, true).collect(false);
+		assertEquals(0, report.getCollectableFiles());
+
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, referenceIndex, 0, true);
+		report = collector.collect(true);
+		assertEquals(3, report.getScannedFiles());
+		assertEquals(2, report.getCollectableFiles());
+		assertEquals(0, report.getDeletedFiles());
+		assertTrue(exists(fileStore, released));
+		assertTrue(exists(fileStore, untracked));
+
+		report = collector.collect(false);
+		assertEquals(2, report.getDeletedFiles());
+		assertEquals(released.getLength() + untracked.getLength(), report.getDeletedBytes());
+		assertTrue(exists(fileStore, referenced));
+		assertFalse(exists(fileStore, released));
+		assertFalse(exists(fileStore, untracked));
+		assertEquals(1, referenceIndex.getFileCount());
+	}
+
+	@Test
+	public void testTouchKeepsFile() throws Exception {
+		LocalDatabaseFileStore fileStore = new LocalDatabaseFileStore(createTempDir());
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(createTempDir(), "refs");
+		StoredFile file = store(fileStore, "touched");
+		referenceIndex.touch(file.getHash(), file.getLength(), null);
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, referenceIndex, 60_000, true);
+		assertEquals(0, collector.collect(false).getCollectableFiles());
+		assertTrue(exists(fileStore, file));
+	}
+
+	@Test
+	public void testConcurrentStoreAndSweep() throws Exception {
+		LocalDatabaseFileStore fileStore = new LocalDatabaseFileStore(createTempDir());
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(createTempDir(), "refs");
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, referenceIndex, 60_000, true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			for (int i = 0; i < 100; i++) {
+				byte[] content = ("stored while swept " + i).getBytes(StandardCharsets.UTF_8);
+				StoredFile file = fileStore.storeFile(new ByteArrayInputStream(content));
+				fileStore.getLocalFile(file.getHash(), file.getLength(), null).setLastModified(System.currentTimeMillis() - 120_000);
+				Future<StoredFile> storing = executor.submit(() -> fileStore.storeFile(new ByteArrayInputStream(content), stored -> referenceIndex.touch(stored.getHash(), stored.getLength(), null)));
+				collector.collect(false);
+				assertEquals(file.getHash(), storing.get().getHash());
+				assertTrue(exists(fileStore, file));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testReferencesArePersisted() throws Exception {
+		File path = createTempDir();
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(path, "refs");
+		String hash = "8D969EEF6ECAD3C29A3A629280E686CF0C3F5D5A86AFF3CA12020C923ADC6C92";
+		referenceIndex.addReference(hash, 6, null);
+		referenceIndex.addReference(hash, 6, null);
+		referenceIndex.addReference(hash, 7, null);
+		referenceIndex.removeReference(hash, 7);
+		referenceIndex.close();
+
+		referenceIndex = new FileReferenceIndex(path, "refs");
+		assertEquals(2, referenceIndex.getFileCount());
+		assertEquals(2, referenceIndex.getReferenceCount(hash, 6));
+		assertEquals(0, referenceIndex.getReferenceCount(hash, 7));
+		assertEquals(1, referenceIndex.getCollectableFiles(System.currentTimeMillis() + 1).size());
+	}
+
+	@Test
+	public void testIncrementalSweep() throws Exception {
+		LocalDatabaseFileStore fileStore = new LocalDatabaseFileStore(createTempDir());
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(createTempDir(), "refs");
+		StoredFile file = store(fileStore, "swept");
+		referenceIndex.addReference(file.getHash(), file.getLength(), null);
+		referenceIndex.removeReference(file.getHash(), file.getLength());
+		Thread.sleep(20);
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, referenceIndex, 0, false);
+		while (collector.getLastReport() == null) {
+			collector.sweepStep();
+		}
+		assertEquals(1, collector.getLastReport().getDeletedFiles());
+		assertFalse(exists(fileStore, file));
+	}
+
+	@Test
+	public void testDeleteRunsOutsideReferenceLock() throws Exception {
+		CountDownLatch deleting = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		LocalDatabaseFileStore fileStore = new LocalDatabaseFileStore(createTempDir()) {
+			@Override
+			public boolean deleteFile(String hash, long length, String key) {
+				deleting.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				return super.deleteFile(hash, length, key);
+			}
+		};
+		FileReferenceIndex referenceIndex = new FileReferenceIndex(createTempDir(), "refs");
+		StoredFile collected = store(fileStore, "collected");
+		StoredFile other = store(fileStore, "other");
+		referenceIndex.addReference(collected.getHash(), collected.getLength(), null);
+		referenceIndex.removeReference(collected.getHash(), collected.getLength());
+		Thread.sleep(20);
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, referenceIndex, 0, false);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<FileGarbageCollectionReport> collecting = executor.submit(() -> collector.collect(false));
+			assertTrue(deleting.await(10, TimeUnit.SECONDS));
+			referenceIndex.addReference(other.getHash(), other.getLength(), null);
+			assertEquals(1, referenceIndex.getReferenceCount(other.getHash(), other.getLength()));
+
+			Future<StoredFile> storing = executor.submit(() -> fileStore.storeFile(new ByteArrayInputStream("collected".getBytes(StandardCharsets.UTF_8)), stored -> referenceIndex.touch(stored.getHash(), stored.getLength(), null)));
+			Thread.sleep(50);
+			assertFalse(storing.isDone());
+			release.countDown();
+			assertEquals(1, collecting.get(10, TimeUnit.SECONDS).getDeletedFiles());
+			assertEquals(collected.getHash(), storing.get(10, TimeUnit.SECONDS).getHash());
+			assertTrue(exists(fileStore, collected));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	private static boolean exists(LocalDatabaseFileStore fileStore, StoredFile file) {
+		return fileStore.getLocalFile(file.getHash(), file.getLength(), null).exists();
+	}
+
+	private static StoredFile store(LocalDatabaseFileStore fileStore, String content) throws Exception {
+		return fileStore.storeFile(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static File createTempDir() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		return tempDir;
+	}
+}
@@ -0,0 +1,203 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingDatabaseFileStoreTest {
+
+	@Test
+	public void testLoadIsCached() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(0);
+		StoredFile storedFile = remoteStore.store("cached content");
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, createTempDir(), 1_000_000);
+
+		assertNull(cache.getLocalFile(storedFile.getHash(), storedFile.getLength(), null));
+		File file = cache.loadRemoteFile(storedFile.getHash(), storedFile.getLength(), null);
+		assertEquals("cached content", Files.readString(file.toPath()));
+		assertEquals(file, cache.getLocalFile(storedFile.getHash(), storedFile.getLength(), null));
+		cache.loadRemoteFile(storedFile.getHash(), storedFile.getLength(), null);
+		assertEquals(1, remoteStore.getLoadCount());
+		assertEquals(1, cache.getEntryCount());
+		cache.close();
+	}
+
+	@Test
+	public void testConcurrentLoadsShareDownload() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(200);
+		StoredFile storedFile = remoteStore.store("shared content");
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, createTempDir(), 1_000_000);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<File>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(() -> cache.loadRemoteFile(storedFile.getHash(), storedFile.getLength(), null)));
+		}
+		for (Future<File> future : futures) {
+			assertEquals("shared content", Files.readString(future.get().toPath()));
+		}
+		executor.shutdown();
+		assertEquals(1, remoteStore.getLoadCount());
+		cache.close();
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(0);
+		StoredFile first = remoteStore.store("0123456789");
+		StoredFile second = remoteStore.store("abcdefghij");
+		StoredFile third = remoteStore.store("ABCDEFGHIJ");
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, createTempDir(), 25);
+
+		cache.loadRemoteFile(first.getHash(), first.getLength(), null);
+		Thread.sleep(5);
+		cache.loadRemoteFile(second.getHash(), second.getLength(), null);
+		Thread.sleep(5);
+		cache.getLocalFile(first.getHash(), first.getLength(), null);
+		Thread.sleep(5);
+		cache.loadRemoteFile(third.getHash(), third.getLength(), null);
+
+		assertEquals(2, cache.getEntryCount());
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.getCacheSize() <= 25);
+		assertNotNull(cache.getLocalFile(first.getHash(), first.getLength(), null));
+		assertNull(cache.getLocalFile(second.getHash(), second.getLength(), null));
+		cache.close();
+	}
+
+	@Test
+	public void testOpenFileIsNotEvicted() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(0);
+		StoredFile first = remoteStore.store("0123456789");
+		StoredFile second = remoteStore.store("abcdefghij");
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, createTempDir(), 15);
+
+		LocalFileHandle handle = cache.openLocalFile(first.getHash(), first.getLength(), null);
+		Thread.sleep(5);
+		cache.loadRemoteFile(second.getHash(), second.getLength(), null);
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals("0123456789", Files.readString(handle.getFile().toPath()));
+
+		handle.close();
+		assertEquals(1, cache.getEvictionCount());
+		assertFalse(handle.getFile().exists());
+		assertTrue(cache.getCacheSize() <= 15);
+		cache.close();
+	}
+
+	@Test
+	public void testOpenStreamIsNotEvicted() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(0);
+		StoredFile first = remoteStore.store("0123456789");
+		StoredFile second = remoteStore.store("abcdefghij");
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, createTempDir(), 15);
+
+		InputStream inputStream = cache.openInputStream(first.getHash(), first.getLength(), null, 2);
+		Thread.sleep(5);
+		cache.loadRemoteFile(second.getHash(), second.getLength(), null);
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals("23456789", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+
+		inputStream.close();
+		inputStream.close();
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.getCacheSize() <= 15);
+		cache.close();
+	}
+
+	@Test
+	public void testCacheSurvivesRestart() throws Exception {
+		RemoteStandInStore remoteStore = new RemoteStandInStore(0);
+		StoredFile storedFile = remoteStore.store("persistent content");
+		File cachePath = createTempDir();
+		CachingDatabaseFileStore cache = new CachingDatabaseFileStore(remoteStore, cachePath, 1_000_000);
+		cache.prefetch(storedFile.getHash(), storedFile.getLength(), null).get();
+		cache.close();
+
+		cache = new CachingDatabaseFileStore(remoteStore, cachePath, 1_000_000);
+		assertEquals(1, cache.getEntryCount());
+		assertNotNull(cache.getLocalFile(storedFile.getHash(), storedFile.getLength(), null));
+		assertEquals(1, remoteStore.getLoadCount());
+		cache.close();
+	}
+
+	private static File createTempDir() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		return tempDir;
+	}
+
+	private static class RemoteStandInStore implements DatabaseFileStore {
+
+		private final LocalDatabaseFileStore store;
+		private final long latencyMillis;
+		private final AtomicInteger loadCount = new AtomicInteger();
+
+		private RemoteStandInStore(long latencyMillis) throws Exception {
+			this.store = new LocalDatabaseFileStore(createTempDir());
+			this.latencyMillis = latencyMillis;
+		}
+
+		private StoredFile store(String content) throws Exception {
+			return store.storeFile(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		private int getLoadCount() {
+			return loadCount.get();
+		}
+
+		@Override
+		public boolean isEncrypted() {
+			return false;
+		}
+
+		@Override
+		public File getLocalFile(String hash, long length, String key) {
+			return null;
+		}
+
+		@Override
+		public File loadRemoteFile(String hash, long length, String key) {
+			loadCount.incrementAndGet();
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return store.getLocalFile(hash, length, key);
+		}
+
+		@Override
+		public String storeFile(File file, String hash, long length) {
+			return store.storeFile(file, hash, length);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ChunkedFileStoreTest {
+
+	private static File basePath;
+	private static LocalDatabaseFileStore fileStore;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		basePath = Files.createTempDirectory("temp").toFile();
+		basePath.deleteOnExit();
+		fileStore = new LocalDatabaseFileStore(basePath, ChunkingConfig.create().chunkSizes(1024, 4096, 16384));
+	}
+
+	@Test
+	public void testStoreChunkedFile() throws Exception {
+		byte[] bytes = createRandomBytes(200_000, 1);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		assertEquals(bytes.length, storedFile.getLength());
+		assertEquals(hash(bytes), storedFile.getHash());
+		assertTrue(fileStore.isChunked(storedFile.getHash(), storedFile.getLength(), null));
+		assertNull(fileStore.getLocalFile(storedFile.getHash(), storedFile.getLength(), null));
+
+		try (InputStream inputStream = fileStore.openInputStream(storedFile.getHash(), storedFile.getLength(), null, 0)) {
+			assertArrayEquals(bytes, inputStream.readAllBytes());
+		}
+		File file = fileStore.loadRemoteFile(storedFile.getHash(), storedFile.getLength(), null);
+		assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+	}
+
+	@Test
+	public void testOpenLocalFileDeletesReassembledFile() throws Exception {
+		byte[] bytes = createRandomBytes(150_000, 7);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		File file;
+		try (LocalFileHandle handle = fileStore.openLocalFile(storedFile.getHash(), storedFile.getLength(), null)) {
+			file = handle.getFile();
+			assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+		}
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testSmallFileIsNotChunked() throws Exception {
+		byte[] bytes = createRandomBytes(10_000, 2);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		assertFalse(fileStore.isChunked(storedFile.getHash(), storedFile.getLength(), null));
+		File localFile = fileStore.getLocalFile(storedFile.getHash(), storedFile.getLength(), null);
+		assertArrayEquals(bytes, Files.readAllBytes(localFile.toPath()));
+	}
+
+	@Test
+	public void testSimilarFilesShareChunks() throws Exception {
+		byte[] bytes = createRandomBytes(300_000, 3);
+		fileStore.storeFile(new ByteArrayInputStream(bytes));
+		long chunks = countChunks();
+
+		byte[] edited = new byte[bytes.length + 100];
+		System.arraycopy(bytes, 0, edited, 0, 150_000);
+		System.arraycopy(bytes, 150_000, edited, 150_100, bytes.length - 150_000);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(edited));
+		assertTrue(countChunks() - chunks <= 3);
+		try (InputStream inputStream = fileStore.openInputStream(storedFile.getHash(), storedFile.getLength(), null, 0)) {
+			assertArrayEquals(edited, inputStream.readAllBytes());
+		}
+	}
+
+	@Test
+	public void testPartialRead() throws Exception {
+		byte[] bytes = createRandomBytes(100_000, 4);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		for (int offset : new int[]{0, 1, 4095, 50_000, 99_999, 100_000}) {
+			try (InputStream inputStream = fileStore.openInputStream(storedFile.getHash(), storedFile.getLength(), null, offset)) {
+				assertArrayEquals(Arrays.copyOfRange(bytes, offset, bytes.length), inputStream.readAllBytes());
+			}
+		}
+	}
+
+	@Test
+	public void testDeleteUnreferencedChunks() throws Exception {
+		LocalDatabaseFileStore store = new LocalDatabaseFileStore(Files.createTempDirectory("temp").toFile(), ChunkingConfig.create().chunkSizes(1024, 4096, 16384));
+		byte[] bytes = createRandomBytes(100_000, 5);
+		StoredFile first = store.storeFile(new ByteArrayInputStream(bytes));
+		StoredFile second = store.storeFile(new ByteArrayInputStream(createRandomBytes(100_000, 6)));
+		assertEquals(0, store.deleteUnreferencedChunks(System.currentTimeMillis() + 1_000));
+
+		assertTrue(store.deleteFile(second.getHash(), second.getLength(), null));
+		assertTrue(store.deleteUnreferencedChunks(System.currentTimeMillis() + 1_000) > 0);
+		try (InputStream inputStream = store.openInputStream(first.getHash(), first.getLength(), null, 0)) {
+			assertArrayEquals(bytes, inputStream.readAllBytes());
+		}
+		assertEquals(1, store.listFiles(FileStoreUtil.getVirtualPartition("0" + first.getHash().substring(0, 2))).stream()
+				.filter(file -> file.getHash().equals(first.getHash()))
+				.count());
+		store.close();
+	}
+
+	@Test
+	public void testChunkReuseDuringChunkCollection() throws Exception {
+		File path = Files.createTempDirectory("temp").toFile();
+		LocalDatabaseFileStore store = new LocalDatabaseFileStore(path, ChunkingConfig.create().chunkSizes(1024, 4096, 16384));
+		byte[] bytes = createRandomBytes(100_000, 8);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 50; i++) {
+				StoredFile storedFile = store.storeFile(new ByteArrayInputStream(bytes));
+				assertTrue(store.deleteFile(storedFile.getHash(), storedFile.getLength(), null));
+				long oldTime = System.currentTimeMillis() - 60_000;
+				try (Stream<Path> files = Files.walk(new File(path, "chunks").toPath())) {
+					files.filter(Files::isRegularFile).forEach(file -> file.toFile().setLastModified(oldTime));
+				}
+				CountDownLatch start = new CountDownLatch(1);
+				Future<StoredFile> storing = executor.submit(() -> {
+					start.await();
+					return store.storeFile(new ByteArrayInputStream(bytes));
+				});
+				Future<Integer> collecting = executor.submit(() -> {
+					start.await();
+					return store.deleteUnreferencedChunks(System.currentTimeMillis() - 30_000);
+				});
+				start.countDown();
+				collecting.get();
+				storedFile = storing.get();
+				try (InputStream inputStream = store.openInputStream(storedFile.getHash(), storedFile.getLength(), null, 0)) {
+					assertArrayEquals(bytes, inputStream.readAllBytes());
+				}
+			}
+		} finally {
+			executor.shutdown();
+			store.close();
+		}
+	}
+
+	private static long countChunks() throws Exception {
+		try (Stream<Path> files = Files.walk(new File(basePath, "chunks").toPath())) {
+			return files.filter(Files::isRegularFile).count();
+		}
+	}
+
+	private static byte[] createRandomBytes(int length, long seed) {
+		byte[] bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+
+	private static String hash(byte[] bytes) throws Exception {
+		File file = File.createTempFile("temp", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), bytes);
+		return FileStoreUtil.createFileHash(file);
+	}
+}
@@ -0,0 +1,72 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LocalDatabaseFileStoreTest {
+
+	private static File basePath;
+	private static LocalDatabaseFileStore fileStore;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		basePath = Files.createTempDirectory("temp").toFile();
+		basePath.deleteOnExit();
+		fileStore = new LocalDatabaseFileStore(basePath);
+	}
+
+	@Test
+	public void testStoreStream() throws Exception {
+		byte[] bytes = "streamed file content".getBytes(StandardCharsets.UTF_8);
+		StoredFile storedFile = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		assertEquals(bytes.length, storedFile.getLength());
+
+		File tempFile = File.createTempFile("temp", ".txt");
+		Files.write(tempFile.toPath(), bytes);
+		assertEquals(FileStoreUtil.createFileHash(tempFile), storedFile.getHash());
+
+		File localFile = fileStore.getLocalFile(storedFile.getHash(), storedFile.getLength(), storedFile.getKey());
+		assertNotNull(localFile);
+		assertArrayEquals(bytes, Files.readAllBytes(localFile.toPath()));
+	}
+
+	@Test
+	public void testStoreStreamDeduplicates() throws Exception {
+		byte[] bytes = "duplicate file content".getBytes(StandardCharsets.UTF_8);
+		StoredFile first = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		File localFile = fileStore.getLocalFile(first.getHash(), first.getLength(), first.getKey());
+		long lastModified = localFile.lastModified();
+
+		StoredFile second = fileStore.storeFile(new ByteArrayInputStream(bytes));
+		assertEquals(first.getHash(), second.getHash());
+		assertEquals(lastModified, localFile.lastModified());
+		File[] tempFiles = new File(basePath, "tmp").listFiles();
+		assertTrue(tempFiles == null || tempFiles.length == 0);
+	}
+}
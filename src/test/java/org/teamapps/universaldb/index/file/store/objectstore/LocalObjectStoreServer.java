@@ -0,0 +1,306 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store.objectstore;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filesystem backed stand-in for an S3 compatible object store, supporting the requests of {@link ObjectStoreClient}
+ * including multipart uploads and range requests. Signatures are not verified, it is only meant for tests.
+ */
+public class LocalObjectStoreServer implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+	private static final String UPLOADS_FOLDER = ".uploads";
+
+	private final Path basePath;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final AtomicInteger failingRequests = new AtomicInteger();
+	private final AtomicLong requestCount = new AtomicLong();
+
+	public static LocalObjectStoreServer start(File basePath) throws IOException {
+		return new LocalObjectStoreServer(basePath, 0);
+	}
+
+	public LocalObjectStoreServer(File basePath, int port) throws IOException {
+		this.basePath = basePath.toPath().toAbsolutePath().normalize();
+		Files.createDirectories(this.basePath);
+		this.executor = Executors.newFixedThreadPool(16);
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public String getEndpoint() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Let the next requests fail with status 503, e.g. to test retries.
+	 */
+	public void failNextRequests(int count) {
+		failingRequests.set(count);
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		try (exchange) {
+			if (failingRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+				drain(exchange);
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			Path objectPath = resolve(exchange.getRequestURI().getRawPath());
+			if (objectPath == null) {
+				drain(exchange);
+				exchange.sendResponseHeaders(400, -1);
+				return;
+			}
+			Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+			switch (exchange.getRequestMethod()) {
+				case "HEAD" -> handleHead(exchange, objectPath);
+				case "GET" -> handleGet(exchange, objectPath);
+				case "PUT" -> {
+					if (parameters.containsKey("uploadId")) {
+						handleUploadPart(exchange, parameters.get("uploadId"), Integer.parseInt(parameters.get("partNumber")));
+					} else {
+						handlePut(exchange, objectPath);
+					}
+				}
+				case "POST" -> {
+					if (parameters.containsKey("uploads")) {
+						handleCreateUpload(exchange);
+					} else if (parameters.containsKey("uploadId")) {
+						handleCompleteUpload(exchange, objectPath, parameters.get("uploadId"));
+					} else {
+						drain(exchange);
+						exchange.sendResponseHeaders(400, -1);
+					}
+				}
+				case "DELETE" -> {
+					if (parameters.containsKey("uploadId")) {
+						deleteUpload(parameters.get("uploadId"));
+					} else {
+						Files.deleteIfExists(objectPath);
+					}
+					exchange.sendResponseHeaders(204, -1);
+				}
+				default -> exchange.sendResponseHeaders(405, -1);
+			}
+		} catch (Exception e) {
+			logger.warn("Error handling object store request", e);
+		}
+	}
+
+	private void handleHead(HttpExchange exchange, Path objectPath) throws IOException {
+		if (!Files.isRegularFile(objectPath)) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+		exchange.getResponseHeaders().set("Content-Length", String.valueOf(Files.size(objectPath)));
+		exchange.sendResponseHeaders(200, -1);
+	}
+
+	private void handleGet(HttpExchange exchange, Path objectPath) throws IOException {
+		if (!Files.isRegularFile(objectPath)) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+		long size = Files.size(objectPath);
+		long start = 0;
+		long end = size - 1;
+		String range = exchange.getRequestHeaders().getFirst("Range");
+		if (range != null && range.startsWith("bytes=")) {
+			String[] parts = range.substring(6).split("-");
+			start = Long.parseLong(parts[0]);
+			if (parts.length > 1 && !parts[1].isEmpty()) {
+				end = Math.min(end, Long.parseLong(parts[1]));
+			}
+			if (start > end) {
+				exchange.sendResponseHeaders(416, -1);
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+		}
+		long length = end - start + 1;
+		exchange.sendResponseHeaders(range != null ? 206 : 200, length == 0 ? -1 : length);
+		try (RandomAccessFile file = new RandomAccessFile(objectPath.toFile(), "r"); OutputStream outputStream = exchange.getResponseBody()) {
+			file.seek(start);
+			byte[] buffer = new byte[64_000];
+			long remaining = length;
+			int count;
+			while (remaining > 0 && (count = file.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+				outputStream.write(buffer, 0, count);
+				remaining -= count;
+			}
+		}
+	}
+
+	private void handlePut(HttpExchange exchange, Path objectPath) throws IOException {
+		Files.createDirectories(objectPath.getParent());
+		Path tempFile = Files.createTempFile(objectPath.getParent(), "upload", ".tmp");
+		try (InputStream inputStream = exchange.getRequestBody()) {
+			Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(tempFile, objectPath, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		exchange.getResponseHeaders().set("ETag", "\"" + UUID.randomUUID() + "\"");
+		exchange.sendResponseHeaders(200, -1);
+	}
+
+	private void handleCreateUpload(HttpExchange exchange) throws IOException {
+		drain(exchange);
+		String uploadId = UUID.randomUUID().toString();
+		Files.createDirectories(basePath.resolve(UPLOADS_FOLDER).resolve(uploadId));
+		sendXml(exchange, "<InitiateMultipartUploadResult><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+	}
+
+	private void handleUploadPart(HttpExchange exchange, String uploadId, int partNumber) throws IOException {
+		Path uploadPath = getUploadPath(uploadId);
+		if (uploadPath == null || !Files.isDirectory(uploadPath)) {
+			drain(exchange);
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+		try (InputStream inputStream = exchange.getRequestBody()) {
+			Files.copy(inputStream, uploadPath.resolve(String.format("part-%05d", partNumber)), StandardCopyOption.REPLACE_EXISTING);
+		}
+		exchange.getResponseHeaders().set("ETag", "\"" + uploadId + "-" + partNumber + "\"");
+		exchange.sendResponseHeaders(200, -1);
+	}
+
+	private void handleCompleteUpload(HttpExchange exchange, Path objectPath, String uploadId) throws IOException {
+		drain(exchange);
+		Path uploadPath = getUploadPath(uploadId);
+		if (uploadPath == null || !Files.isDirectory(uploadPath)) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+		List<Path> parts;
+		try (var stream = Files.list(uploadPath)) {
+			parts = stream.sorted().toList();
+		}
+		Files.createDirectories(objectPath.getParent());
+		Path tempFile = Files.createTempFile(objectPath.getParent(), "upload", ".tmp");
+		try {
+			try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+				for (Path part : parts) {
+					Files.copy(part, outputStream);
+				}
+			}
+			Files.move(tempFile, objectPath, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		deleteUpload(uploadId);
+		sendXml(exchange, "<CompleteMultipartUploadResult><Key>" + objectPath.getFileName() + "</Key></CompleteMultipartUploadResult>");
+	}
+
+	private void deleteUpload(String uploadId) throws IOException {
+		Path uploadPath = getUploadPath(uploadId);
+		if (uploadPath != null && Files.isDirectory(uploadPath)) {
+			try (var stream = Files.list(uploadPath)) {
+				for (Path part : stream.toList()) {
+					Files.deleteIfExists(part);
+				}
+			}
+			Files.deleteIfExists(uploadPath);
+		}
+	}
+
+	private Path getUploadPath(String uploadId) {
+		Path uploadsPath = basePath.resolve(UPLOADS_FOLDER);
+		Path uploadPath = uploadsPath.resolve(uploadId).normalize();
+		return uploadPath.getParent().equals(uploadsPath) ? uploadPath : null;
+	}
+
+	private Path resolve(String rawPath) {
+		String path = URLDecoder.decode(rawPath, StandardCharsets.UTF_8);
+		while (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		if (path.isEmpty() || path.startsWith(UPLOADS_FOLDER)) {
+			return null;
+		}
+		Path objectPath = basePath.resolve(path).normalize();
+		return objectPath.startsWith(basePath) && !objectPath.equals(basePath) ? objectPath : null;
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> parameters = new HashMap<>();
+		if (query != null && !query.isEmpty()) {
+			for (String parameter : query.split("&")) {
+				int pos = parameter.indexOf('=');
+				String key = URLDecoder.decode(pos >= 0 ? parameter.substring(0, pos) : parameter, StandardCharsets.UTF_8);
+				String value = pos >= 0 ? URLDecoder.decode(parameter.substring(pos + 1), StandardCharsets.UTF_8) : "";
+				parameters.put(key, value);
+			}
+		}
+		return parameters;
+	}
+
+	private static void sendXml(HttpExchange exchange, String xml) throws IOException {
+		byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/xml");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(bytes);
+		}
+	}
+
+	private static void drain(HttpExchange exchange) throws IOException {
+		try (InputStream inputStream = exchange.getRequestBody()) {
+			inputStream.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.file.store.objectstore;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.TestDb1Model;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.UniversalDbBuilder;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.file.FileIndex;
+import org.teamapps.universaldb.index.file.FileStoreGarbageCollector;
+import org.teamapps.universaldb.index.file.FileValue;
+import org.teamapps.universaldb.index.file.store.FileStoreUtil;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ObjectStoreDatabaseFileStoreTest {
+
+	private static LocalObjectStoreServer server;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		server = LocalObjectStoreServer.start(tempDir);
+	}
+
+	@AfterClass
+	public static void shutdown() {
+		server.close();
+	}
+
+	@Test
+	public void testSmallFile() throws Exception {
+		ObjectStoreDatabaseFileStore fileStore = createStore(true);
+		File file = createFile(10_000);
+		String hash = FileStoreUtil.createFileHash(file);
+		String key = fileStore.storeFile(file, hash, file.length());
+		assertNotNull(key);
+
+		File loadedFile = fileStore.loadRemoteFile(hash, file.length(), key);
+		assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(loadedFile.toPath()));
+		fileStore.close();
+	}
+
+	@Test
+	public void testMultipartTransfer() throws Exception {
+		ObjectStoreDatabaseFileStore fileStore = createStore(false);
+		File file = createFile(1_000_000);
+		String hash = FileStoreUtil.createFileHash(file);
+		long requests = server.getRequestCount();
+		assertNull(fileStore.storeFile(file, hash, file.length()));
+		assertTrue(server.getRequestCount() - requests > 16);
+
+		File loadedFile = fileStore.loadRemoteFile(hash, file.length(), null);
+		assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(loadedFile.toPath()));
+
+		requests = server.getRequestCount();
+		fileStore.storeFile(file, hash, file.length());
+		assertEquals(1, server.getRequestCount() - requests);
+		fileStore.close();
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		ObjectStoreDatabaseFileStore fileStore = createStore(true);
+		File file = createFile(200_000);
+		String hash = FileStoreUtil.createFileHash(file);
+		server.failNextRequests(3);
+		String key = fileStore.storeFile(file, hash, file.length());
+		server.failNextRequests(2);
+		File loadedFile = fileStore.loadRemoteFile(hash, file.length(), key);
+		assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(loadedFile.toPath()));
+		fileStore.close();
+	}
+
+	@Test
+	public void testEncryptedFileIndexRoundTrip() throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		ObjectStoreDatabaseFileStore fileStore = createStore(true);
+		UniversalDB db = UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.fileStore(fileStore)
+				.build();
+		TableIndex table = db.getDatabaseIndex().getTable("fieldTest");
+		FileIndex fileIndex = (FileIndex) table.getFieldIndex("fileField");
+		File file = createFile(100_000);
+
+		FileValue storedValue = fileIndex.storeFile(file, "encrypted.bin");
+		assertNotNull(storedValue.getKey());
+		int id = saveFile(db, table, fileIndex, 0, storedValue);
+		FileValue value = fileIndex.getValue(id);
+		assertEquals(storedValue.getHash(), value.getHash());
+		assertEquals(storedValue.getKey(), value.getKey());
+		try (InputStream inputStream = value.getInputStream()) {
+			assertArrayEquals(Files.readAllBytes(file.toPath()), inputStream.readAllBytes());
+		}
+
+		saveFile(db, table, fileIndex, id, null);
+		FileStoreGarbageCollector collector = new FileStoreGarbageCollector(fileStore, db.getDatabaseIndex().getFileReferenceIndex(), 0, false);
+		assertEquals(1, collector.collect(false).getDeletedFiles());
+		assertThrows(Exception.class, () -> fileStore.loadRemoteFile(storedValue.getHash(), storedValue.getSize(), storedValue.getKey()));
+	}
+
+	private static int saveFile(UniversalDB db, TableIndex table, FileIndex fileIndex, int recordId, FileValue fileValue) {
+		TransactionRequest request = db.createTransactionRequest();
+		TransactionRequestRecordType type = recordId == 0 ? TransactionRequestRecordType.CREATE : TransactionRequestRecordType.UPDATE;
+		TransactionRequestRecord record = new TransactionRequestRecord(type, table.getMappingId(), recordId, 1);
+		record.addRecordValue(fileIndex, fileValue);
+		request.addRecord(record);
+		db.executeTransaction(request);
+		return recordId == 0 ? request.getResolvedRecordIdByCorrelationId(1) : recordId;
+	}
+
+	private static ObjectStoreDatabaseFileStore createStore(boolean encrypted) {
+		return new ObjectStoreDatabaseFileStore(ObjectStoreConfig.create(server.getEndpoint(), "test-bucket")
+				.credentials("access", "secret")
+				.encrypted(encrypted)
+				.partSize(64_000)
+				.transferThreads(4)
+				.retryBackoffMillis(10));
+	}
+
+	private static File createFile(int size) throws Exception {
+		byte[] bytes = new byte[size];
+		new Random().nextBytes(bytes);
+		File file = File.createTempFile("temp", ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), bytes);
+		return file;
+	}
+}
@@ -21,6 +21,13 @@ package org.teamapps.universaldb.index.text;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class CollectionTextSearchIndexTest {
@@ -32,4 +39,287 @@ public class CollectionTextSearchIndexTest {
     @Test
     public void deleteAllDocuments() {
     }
+
+    @Test
+    public void testSearcherSeesWritesWithoutStaleness() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "alpha"));
+        BitSet records = new BitSet();
+        records.set(1, 10);
+        assertEquals(0, index.filter(records, filters, true).cardinality());
+
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        assertTrue(index.filter(records, filters, true).get(1));
+
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "beta")), true);
+        assertEquals(0, index.filter(records, filters, true).cardinality());
+        index.drop();
+    }
+
+    @Test
+    public void testStaleSearcherIsRefreshedInBackground() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().maxStalenessMillis(20));
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "gamma"));
+        BitSet records = new BitSet();
+        records.set(1, 10);
+        index.setRecordValues(2, Collections.singletonList(new FullTextIndexValue("name", "gamma")), false);
+        long time = System.currentTimeMillis();
+        while (!index.filter(records, filters, true).get(2) && System.currentTimeMillis() - time < 5_000) {
+            Thread.sleep(10);
+        }
+        assertTrue(index.filter(records, filters, true).get(2));
+        index.drop();
+    }
+
+    @Test
+    public void testSubstringIndex() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().substringIndex(true));
+        assertFalse(index.isRebuildRequired());
+        BitSet records = new BitSet();
+        records.set(1, 10);
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "universal database")), false);
+        index.setRecordValues(2, Collections.singletonList(new FullTextIndexValue("name", "lucene index")), false);
+
+        BitSet result = index.filter(records, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_CONTAINS, "name", "versa")), true);
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(1));
+        result = index.filter(records, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_CONTAINS, "name", "base")), true);
+        assertTrue(result.get(1));
+        result = index.filter(records, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_CONTAINS, "name", "nd")), true);
+        assertTrue(result.get(2));
+        result = index.filter(records, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_CONTAINS_NOT, "name", "dex")), true);
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+        index.commit(true);
+
+        CollectionTextSearchIndex reopened = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().substringIndex(true));
+        assertFalse(reopened.isRebuildRequired());
+        reopened.drop();
+    }
+
+    @Test
+    public void testSubstringIndexOnExistingDocuments() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "universal")), false);
+        index.commit(true);
+
+        index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().substringIndex(true));
+        assertTrue(index.isRebuildRequired());
+        BitSet records = new BitSet();
+        records.set(1, 10);
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_CONTAINS, "name", "versa"));
+        assertTrue(index.filter(records, filters, true).get(1));
+
+        index.deleteAllDocuments();
+        assertFalse(index.isRebuildRequired());
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "universal")), false);
+        assertTrue(index.filter(records, filters, true).get(1));
+        index.drop();
+    }
+
+    @Test
+    public void testSearchRanked() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().scoring(true));
+        index.setRecordValues(1, Arrays.asList(new FullTextIndexValue("title", "other"), new FullTextIndexValue("body", "lucene lucene lucene")), false);
+        index.setRecordValues(2, Arrays.asList(new FullTextIndexValue("title", "lucene"), new FullTextIndexValue("body", "other text")), false);
+        index.setRecordValues(3, Arrays.asList(new FullTextIndexValue("title", "other"), new FullTextIndexValue("body", "lucene and many other words")), false);
+        index.setRecordValues(4, Arrays.asList(new FullTextIndexValue("title", "nothing"), new FullTextIndexValue("body", "nothing")), false);
+        List<List<TextFieldFilter>> clauses = Collections.singletonList(Arrays.asList(
+                new TextFieldFilter(TextFilterType.TERM_EQUALS, "title", "lucene"),
+                new TextFieldFilter(TextFilterType.TERM_EQUALS, "body", "lucene")));
+
+        List<ScoredRecord> result = index.searchRanked(clauses, null, 10, null);
+        assertEquals(3, result.size());
+        assertEquals(3, result.get(2).getRecordId());
+        assertTrue(result.get(0).getScore() >= result.get(1).getScore());
+
+        result = index.searchRanked(clauses, null, 10, SearchBoosts.create().fieldBoost("title", 10));
+        assertEquals(2, result.get(0).getRecordId());
+        result = index.searchRanked(clauses, null, 10, SearchBoosts.create().fieldBoost("body", 10));
+        assertEquals(1, result.get(0).getRecordId());
+
+        result = index.searchRanked(clauses, null, 1, null);
+        assertEquals(1, result.size());
+
+        BitSet records = new BitSet();
+        records.set(3);
+        records.set(4);
+        result = index.searchRanked(clauses, records, 10, null);
+        assertEquals(1, result.size());
+        assertEquals(3, result.get(0).getRecordId());
+        index.drop();
+    }
+
+    @Test
+    public void testScoringChangeRequiresRebuild() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        index.commit(true);
+
+        index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().scoring(true));
+        assertTrue(index.isRebuildRequired());
+        index.setRecordValues(2, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        index.deleteAllDocuments();
+        assertFalse(index.isRebuildRequired());
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "alpha"));
+        BitSet records = new BitSet();
+        records.set(1, 10);
+        assertTrue(index.filter(records, filters, true).get(1));
+        index.drop();
+    }
+
+    @Test
+    public void testFilterWithCandidateRecords() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        for (int id = 1; id <= 100; id++) {
+            index.setRecordValues(id, Collections.singletonList(new FullTextIndexValue("name", id % 2 == 0 ? "even" : "odd")), false);
+        }
+        BitSet candidates = new BitSet();
+        candidates.set(10, 20);
+
+        BitSet result = index.filter(candidates, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "even")), true);
+        assertEquals(5, result.cardinality());
+        assertEquals(10, result.nextSetBit(0));
+        assertTrue(index.getCachedSegmentCount() > 0);
+
+        result = index.filter(candidates, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_NOT_EQUALS, "name", "even")), false);
+        assertEquals(5, result.cardinality());
+        assertEquals(11, result.nextSetBit(0));
+
+        index.setRecordValues(11, Collections.singletonList(new FullTextIndexValue("name", "even")), true);
+        result = index.filter(candidates, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "even")), true);
+        assertEquals(6, result.cardinality());
+        assertTrue(result.get(11));
+        index.drop();
+    }
+
+    @Test
+    public void testTransactionCheckpoint() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        assertEquals(-1, index.getCommittedTransactionId());
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        index.setIndexedTransactionId(42);
+        index.setIndexedTransactionId(41);
+        assertEquals(42, index.getIndexedTransactionId());
+        index.commit(true);
+
+        index = new CollectionTextSearchIndex(path, "test");
+        assertEquals(42, index.getCommittedTransactionId());
+        assertEquals(42, index.getIndexedTransactionId());
+        index.drop();
+    }
+
+    @Test
+    public void testClearedCheckpointIsNotCommitted() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        index.setIndexedTransactionId(42);
+        index.commit(false);
+        index.clearIndexedTransactionId();
+        assertEquals(-1, index.getIndexedTransactionId());
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        index.commit(true);
+
+        index = new CollectionTextSearchIndex(path, "test");
+        assertEquals(-1, index.getCommittedTransactionId());
+        assertEquals(-1, index.getIndexedTransactionId());
+        index.drop();
+    }
+
+    @Test
+    public void testCorruptIndexIsRecreated() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        File dir = new File(path, "test");
+        dir.mkdir();
+        Files.write(new File(dir, "segments_1").toPath(), new byte[]{1, 2, 3, 4});
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        assertEquals(0, index.getMaxDoc());
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        BitSet records = new BitSet();
+        records.set(1);
+        assertTrue(index.filter(records, Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "alpha")), true).get(1));
+        index.drop();
+    }
+
+    @Test
+    public void testLockedIndexIsNotDeleted() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test");
+        index.setRecordValues(1, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+        index.commit(false);
+        assertThrows(RuntimeException.class, () -> new CollectionTextSearchIndex(path, "test"));
+        assertEquals(1, index.getMaxDoc());
+        index.commit(true);
+
+        index = new CollectionTextSearchIndex(path, "test");
+        assertEquals(1, index.getMaxDoc());
+        index.drop();
+    }
+
+    @Test
+    public void testFilterCache() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().filterCacheMaxBytes(1_000_000));
+        for (int id = 1; id <= 20; id++) {
+            index.setRecordValues(id, Collections.singletonList(new FullTextIndexValue("name", id % 2 == 0 ? "even" : "odd")), false);
+        }
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "even"));
+        BitSet all = new BitSet();
+        all.set(1, 21);
+        BitSet firstHalf = new BitSet();
+        firstHalf.set(1, 11);
+        FullTextFilterCache cache = index.getFilterCache();
+
+        assertEquals(10, index.filter(all, filters, true).cardinality());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(5, index.filter(firstHalf, filters, true).cardinality());
+        assertEquals(1, cache.getHitCount());
+
+        index.setRecordValues(3, Collections.singletonList(new FullTextIndexValue("name", "even")), true);
+        BitSet result = index.filter(firstHalf, filters, true);
+        assertEquals(6, result.cardinality());
+        assertTrue(result.get(3));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getInvalidationCount());
+        assertTrue(cache.getSizeInBytes() > 0);
+        index.drop();
+    }
+
+    @Test
+    public void testFilterCacheSkipsSmallCandidateSets() throws Exception {
+        File path = Files.createTempDirectory("temp").toFile();
+        CollectionTextSearchIndex index = new CollectionTextSearchIndex(path, "test", FullTextIndexConfig.create().filterCacheMaxBytes(1_000_000));
+        for (int id = 1; id <= 100; id++) {
+            index.setRecordValues(id, Collections.singletonList(new FullTextIndexValue("name", id % 2 == 0 ? "even" : "odd")), false);
+        }
+        List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "even"));
+        BitSet few = new BitSet();
+        few.set(2);
+        few.set(3);
+        FullTextFilterCache cache = index.getFilterCache();
+
+        BitSet result = index.filter(few, filters, true);
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(2));
+        assertEquals(0, cache.getEntryCount());
+
+        BitSet all = new BitSet();
+        all.set(1, 101);
+        assertEquals(50, index.filter(all, filters, true).cardinality());
+        assertEquals(1, cache.getEntryCount());
+        result = index.filter(few, filters, true);
+        assertEquals(1, result.cardinality());
+        assertEquals(1, cache.getHitCount());
+        index.drop();
+    }
 }
@@ -0,0 +1,112 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.text;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ShardedTextSearchIndexTest {
+
+	@Test
+	public void testRecordsAreRoutedByIdRange() throws Exception {
+		File path = Files.createTempDirectory("temp").toFile();
+		ShardedTextSearchIndex index = new ShardedTextSearchIndex(path, "test", FullTextIndexConfig.create().shards(3).shardRecordCount(10));
+		for (int id = 1; id <= 40; id++) {
+			index.setRecordValues(id, Collections.singletonList(new FullTextIndexValue("name", id % 2 == 0 ? "even" : "odd")), false);
+		}
+		assertEquals(3, index.getShardCount());
+		assertEquals(9, index.getShardByIndex(0).getMaxDoc());
+		assertEquals(10, index.getShardByIndex(1).getMaxDoc());
+		assertEquals(21, index.getShardByIndex(2).getMaxDoc());
+		assertEquals(40, index.getMaxDoc());
+
+		List<TextFieldFilter> filters = Collections.singletonList(new TextFieldFilter(TextFilterType.TERM_EQUALS, "name", "even"));
+		BitSet records = new BitSet();
+		records.set(1, 41);
+		BitSet result = index.filter(records, filters, true);
+		assertEquals(20, result.cardinality());
+		assertTrue(result.get(2));
+		assertTrue(result.get(40));
+
+		BitSet secondShard = new BitSet();
+		secondShard.set(12, 15);
+		assertEquals(2, index.filter(secondShard, filters, true).cardinality());
+
+		index.setRecordValues(15, Collections.singletonList(new FullTextIndexValue("name", "even")), true);
+		assertEquals(3, index.filter(secondShard, filters, true).cardinality());
+		index.delete(40, null);
+		assertFalse(index.filter(records, filters, true).get(40));
+
+		List<ScoredRecord> ranked = index.searchRanked(Collections.singletonList(filters), records, 5, null);
+		assertEquals(5, ranked.size());
+		index.drop();
+	}
+
+	@Test
+	public void testChangedLayoutDeletesIndex() throws Exception {
+		File path = Files.createTempDirectory("temp").toFile();
+		ShardedTextSearchIndex index = new ShardedTextSearchIndex(path, "test", FullTextIndexConfig.create().shards(2).shardRecordCount(10));
+		index.setRecordValues(5, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+		index.setRecordValues(25, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+		index.commit(true);
+
+		index = new ShardedTextSearchIndex(path, "test", FullTextIndexConfig.create().shards(2).shardRecordCount(10));
+		assertEquals(2, index.getMaxDoc());
+		index.commit(true);
+
+		index = new ShardedTextSearchIndex(path, "test", FullTextIndexConfig.create().shards(4).shardRecordCount(10));
+		assertEquals(0, index.getMaxDoc());
+		index.drop();
+	}
+
+	@Test
+	public void testLayoutIsSizedByMaxRecordId() throws Exception {
+		File path = Files.createTempDirectory("temp").toFile();
+		FullTextIndexConfig config = FullTextIndexConfig.create().shards(2).shardRecordCount(10);
+		ShardedTextSearchIndex index = new ShardedTextSearchIndex(path, "test", config, 35);
+		assertEquals(4, index.getShardCount());
+		for (int id = 1; id <= 55; id++) {
+			index.setRecordValues(id, Collections.singletonList(new FullTextIndexValue("name", "alpha")), false);
+		}
+		assertEquals(26, index.getShardByIndex(3).getMaxDoc());
+		index.commit(true);
+
+		index = new ShardedTextSearchIndex(path, "test", config, 49);
+		assertEquals(4, index.getShardCount());
+		assertFalse(index.isRebuildRequired());
+		assertEquals(55, index.getMaxDoc());
+		index.commit(true);
+
+		index = new ShardedTextSearchIndex(path, "test", config, 55);
+		assertEquals(6, index.getShardCount());
+		assertTrue(index.isRebuildRequired());
+		assertEquals(0, index.getMaxDoc());
+		index.deleteAllDocuments();
+		assertFalse(index.isRebuildRequired());
+		index.drop();
+	}
+}
@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.index.transaction.resolved;
+
+import org.junit.Test;
+import org.teamapps.universaldb.index.IndexType;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceType;
+import org.teamapps.universaldb.index.reference.value.ResolvedMultiReferenceUpdate;
+import org.teamapps.universaldb.index.translation.TranslatableText;
+import org.teamapps.universaldb.index.transaction.TransactionType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ResolvedTransactionCodecTest {
+
+	private static ResolvedTransaction createTransaction() {
+		ResolvedTransaction transaction = new ResolvedTransaction(11, 12, 13, 14, 15_000L);
+		ResolvedTransactionRecord created = new ResolvedTransactionRecord(ResolvedTransactionRecordType.CREATE, 1, 5);
+		created.addRecordValue(new ResolvedTransactionRecordValue(1, IndexType.BOOLEAN, true));
+		created.addRecordValue(new ResolvedTransactionRecordValue(2, IndexType.SHORT, (short) 7));
+		created.addRecordValue(new ResolvedTransactionRecordValue(3, IndexType.INT, 42));
+		created.addRecordValue(new ResolvedTransactionRecordValue(4, IndexType.LONG, Long.MAX_VALUE));
+		created.addRecordValue(new ResolvedTransactionRecordValue(5, IndexType.FLOAT, 1.5f));
+		created.addRecordValue(new ResolvedTransactionRecordValue(6, IndexType.DOUBLE, -2.25));
+		created.addRecordValue(new ResolvedTransactionRecordValue(7, IndexType.TEXT, "Gr\u00fc\u00dfe"));
+		created.addRecordValue(new ResolvedTransactionRecordValue(8, IndexType.TEXT, null));
+		created.addRecordValue(new ResolvedTransactionRecordValue(9, IndexType.TRANSLATABLE_TEXT, new TranslatableText("Hello", "en")));
+		created.addRecordValue(new ResolvedTransactionRecordValue(10, IndexType.REFERENCE, 9));
+		created.addRecordValue(new ResolvedTransactionRecordValue(11, IndexType.MULTI_REFERENCE, ResolvedMultiReferenceUpdate.createSetReferences(Arrays.asList(1, 2, 3))));
+		created.addRecordValue(new ResolvedTransactionRecordValue(12, IndexType.BINARY, new byte[]{1, 2, 3, 4}));
+		transaction.addTransactionRecord(created);
+
+		ResolvedTransactionRecord updated = new ResolvedTransactionRecord(ResolvedTransactionRecordType.UPDATE, 2, 6);
+		updated.addRecordValue(new ResolvedTransactionRecordValue(21, IndexType.MULTI_REFERENCE, ResolvedMultiReferenceUpdate.createAddRemoveReferences(Arrays.asList(4, 5), Collections.singletonList(6))));
+		updated.addRecordValue(new ResolvedTransactionRecordValue(22, IndexType.MULTI_REFERENCE, ResolvedMultiReferenceUpdate.createRemoveAllReferences()));
+		updated.addRecordValue(new ResolvedTransactionRecordValue(23, IndexType.INT, -3));
+		transaction.addTransactionRecord(updated);
+
+		Map<Integer, Integer> recordIdByCorrelationId = new HashMap<>();
+		recordIdByCorrelationId.put(-1, 5);
+		transaction.setRecordIdByCorrelationId(recordIdByCorrelationId);
+		return transaction;
+	}
+
+	private static byte[] writeWithStream(ResolvedTransaction transaction, boolean withCorrelationIds) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		transaction.write(new DataOutputStream(bos), withCorrelationIds);
+		return bos.toByteArray();
+	}
+
+	@Test
+	public void testEncoderMatchesStreamFormat() throws IOException {
+		ResolvedTransaction transaction = createTransaction();
+		assertArrayEquals(writeWithStream(transaction, true), transaction.getBytes(true));
+		assertArrayEquals(writeWithStream(transaction, false), transaction.getBytes(false));
+	}
+
+	@Test
+	public void testDecodeInPlace() throws IOException {
+		byte[] bytes = createTransaction().getBytes(true);
+		ResolvedTransactionDecoder decoder = new ResolvedTransactionDecoder().wrap(bytes);
+		assertEquals(11, decoder.getNodeId());
+		assertEquals(12, decoder.getRequestId());
+		assertEquals(13, decoder.getTransactionId());
+		assertEquals(TransactionType.DATA_UPDATE, decoder.getTransactionType());
+		assertEquals(14, decoder.getUserId());
+		assertEquals(15_000L, decoder.getTimestamp());
+		assertEquals(13, ResolvedTransaction.readTransactionId(bytes));
+		assertEquals(2, decoder.getRecordCount());
+
+		assertTrue(decoder.nextRecord());
+		assertEquals(ResolvedTransactionRecordType.CREATE, decoder.getRecordType());
+		assertEquals(1, decoder.getTableId());
+		assertEquals(5, decoder.getRecordId());
+		assertEquals(12, decoder.getValueCount());
+		assertTrue(decoder.nextValue());
+		assertTrue(decoder.getBooleanValue());
+		assertTrue(decoder.nextValue());
+		assertEquals(7, decoder.getShortValue());
+		assertTrue(decoder.nextValue());
+		assertEquals(3, decoder.getColumnId());
+		assertEquals(IndexType.INT, decoder.getIndexType());
+		assertEquals(42, decoder.getIntValue());
+		assertTrue(decoder.nextValue());
+		assertEquals(Long.MAX_VALUE, decoder.getLongValue());
+		assertTrue(decoder.nextValue());
+		assertEquals(1.5f, decoder.getFloatValue(), 0);
+		assertTrue(decoder.nextValue());
+		assertEquals(-2.25, decoder.getDoubleValue(), 0);
+		assertTrue(decoder.nextValue());
+		assertEquals("Gr\u00fc\u00dfe", decoder.getTextValue());
+		assertTrue(decoder.nextValue());
+		assertFalse(decoder.hasValue());
+		assertNull(decoder.getValue());
+		assertTrue(decoder.nextValue());
+		assertEquals("Hello", ((TranslatableText) decoder.getValue()).getText());
+		assertTrue(decoder.nextValue());
+		assertEquals(9, decoder.getIntValue());
+		assertTrue(decoder.nextValue());
+		ResolvedMultiReferenceUpdate setReferences = (ResolvedMultiReferenceUpdate) decoder.getValue();
+		assertEquals(Arrays.asList(1, 2, 3), setReferences.getSetReferences());
+		assertTrue(decoder.nextValue());
+		assertArrayEquals(new byte[]{1, 2, 3, 4}, (byte[]) decoder.getValue());
+		assertFalse(decoder.nextValue());
+
+		assertTrue(decoder.nextRecord());
+		assertEquals(ResolvedTransactionRecordType.UPDATE, decoder.getRecordType());
+		assertEquals(6, decoder.getRecordId());
+		assertTrue(decoder.nextValue());
+		assertTrue(decoder.nextValue());
+		assertEquals(ResolvedMultiReferenceType.REMOVE_ALL_REFERENCES, ((ResolvedMultiReferenceUpdate) decoder.getValue()).getType());
+		assertTrue(decoder.nextValue());
+		assertEquals(-3, decoder.getIntValue());
+		assertFalse(decoder.nextRecord());
+	}
+
+	@Test
+	public void testSkipUnreadValues() throws IOException {
+		ResolvedTransactionDecoder decoder = new ResolvedTransactionDecoder().wrap(createTransaction().getBytes());
+		assertTrue(decoder.nextRecord());
+		assertTrue(decoder.nextRecord());
+		assertEquals(2, decoder.getTableId());
+		assertTrue(decoder.nextValue());
+		assertEquals(21, decoder.getColumnId());
+		assertEquals(Arrays.asList(4, 5), ((ResolvedMultiReferenceUpdate) decoder.getValue()).getAddReferences());
+		assertFalse(decoder.nextRecord());
+
+		decoder.rewind();
+		assertTrue(decoder.nextRecord());
+		assertEquals(1, decoder.getTableId());
+	}
+
+	@Test
+	public void testMaterialize() throws IOException {
+		ResolvedTransaction transaction = createTransaction();
+		ResolvedTransaction decoded = new ResolvedTransactionDecoder().wrap(transaction.getBytes(true)).toResolvedTransaction();
+		assertEquals(transaction.getTransactionRecords().size(), decoded.getTransactionRecords().size());
+		assertEquals(Integer.valueOf(5), decoded.getRecordIdByCorrelationId().get(-1));
+		assertArrayEquals(transaction.getBytes(true), decoded.getBytes(true));
+
+		ResolvedTransactionDecoder decoder = new ResolvedTransactionDecoder().wrap(transaction.getBytes());
+		decoder.nextRecord();
+		for (ResolvedTransactionRecordValue recordValue : decoded.getTransactionRecords().get(0).getRecordValues()) {
+			assertTrue(decoder.nextValue());
+			ResolvedTransactionRecordValue value = decoder.toRecordValue();
+			assertEquals(recordValue.getColumnId(), value.getColumnId());
+			assertEquals(recordValue.getIndexType(), value.getIndexType());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class QueryPlannerTest {
+
+	private static final int RECORDS = 10_000;
+
+	@After
+	public void enablePlanner() {
+		QueryPlanner.setEnabled(true);
+	}
+
+	@Test
+	public void testAndFilterEvaluatesSelectiveFilterFirst() {
+		AtomicInteger evenCalls = new AtomicInteger();
+		AndFilter filter = new AndFilter();
+		filter.and(new CustomEntityFilter(id -> {
+			evenCalls.incrementAndGet();
+			return id % 2 == 0;
+		}));
+		filter.and(new RecordIdFilter(List.of(0, 5, 100, 200, 7)));
+
+		BitSet result = filter.filter(createRecords());
+		assertEquals(createBitSet(0, 100, 200), result);
+		assertTrue(evenCalls.get() < RECORDS / 10);
+	}
+
+	@Test
+	public void testAndFilterOrderDoesNotChangeResult() {
+		QueryPlanner.setEnabled(false);
+		BitSet expected = createAndFilter().filter(createRecords());
+		QueryPlanner.setEnabled(true);
+		assertEquals(expected, createAndFilter().filter(createRecords()));
+		assertEquals(expected, createAndFilter().localFilter(createRecords()));
+	}
+
+	@Test
+	public void testOrFilterSkipsMatchedRecords() {
+		AtomicInteger calls = new AtomicInteger();
+		OrFilter filter = new OrFilter();
+		filter.or(new CustomEntityFilter(id -> {
+			calls.incrementAndGet();
+			return id % 2 == 0;
+		}));
+		filter.or(new CustomEntityFilter(id -> {
+			calls.incrementAndGet();
+			return id % 3 == 0;
+		}));
+
+		BitSet expected = new BitSet();
+		for (int id = 0; id < RECORDS; id++) {
+			if (id % 2 == 0 || id % 3 == 0) {
+				expected.set(id);
+			}
+		}
+		assertEquals(expected, filter.filter(createRecords()));
+		assertTrue(calls.get() < RECORDS * 2 * 0.8);
+		assertEquals(expected, filter.localFilter(createRecords()));
+	}
+
+	@Test
+	public void testEstimate() {
+		BitSet sample = createRecords();
+		FilterEstimate estimate = QueryPlanner.estimate(new CustomEntityFilter(id -> id % 4 == 0), sample, true);
+		assertEquals(0.25, estimate.getSelectivity(), 0.01);
+		FilterEstimate andEstimate = QueryPlanner.estimate(new CustomEntityFilter(id -> id % 4 == 0).and(new CustomEntityFilter(id -> id % 5 == 0)), sample, true);
+		assertEquals(0.05, andEstimate.getSelectivity(), 0.01);
+		FilterEstimate orEstimate = QueryPlanner.estimate(new CustomEntityFilter(id -> id % 2 == 0).or(new CustomEntityFilter(id -> id % 5 == 0)), sample, true);
+		assertEquals(0.6, orEstimate.getSelectivity(), 0.01);
+	}
+
+	private static Filter createAndFilter() {
+		AndFilter filter = new AndFilter();
+		filter.and(new CustomEntityFilter(id -> id % 3 == 0));
+		filter.and(new CustomEntityFilter(id -> id % 7 == 0));
+		filter.and(new CustomEntityFilter(id -> id > 5_000).or(new RecordIdFilter(List.of(21, 42, 63))));
+		return filter;
+	}
+
+	private static BitSet createRecords() {
+		BitSet records = new BitSet();
+		records.set(0, RECORDS);
+		return records;
+	}
+
+	private static BitSet createBitSet(int... ids) {
+		BitSet bitSet = new BitSet();
+		for (int id : ids) {
+			bitSet.set(id);
+		}
+		return bitSet;
+	}
+}
@@ -0,0 +1,115 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.query;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.testdb1.Company;
+import org.teamapps.datamodel.testdb1.Person;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.TestBase;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.text.TextFilter;
+import org.teamapps.universaldb.pojo.Entity;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryResultCacheTest {
+
+	private static UniversalDB universalDB;
+	private static QueryResultCache cache;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		TestBase.init();
+		universalDB = DatabaseManager.getBaseInstance().getDatabase("testDb1");
+		cache = universalDB.enableQueryResultCache(16_000_000);
+	}
+
+	@AfterClass
+	public static void disableCache() {
+		universalDB.getDatabaseIndex().setQueryResultCache(null);
+	}
+
+	@Before
+	public void cleanTables() {
+		Person.getAll().forEach(Entity::delete);
+		Company.getAll().forEach(Entity::delete);
+		cache.clear();
+	}
+
+	@Test
+	public void testRepeatedQueryIsServedFromCache() {
+		for (int i = 0; i < 100; i++) {
+			Person.create().setLastName("cached" + (i % 10)).save();
+		}
+		long hits = cache.getHitCount();
+		List<Person> result = Person.filter().lastName(TextFilter.textEqualsFilter("cached3")).execute();
+		assertEquals(10, result.size());
+		assertEquals(hits, cache.getHitCount());
+
+		assertEquals(result, Person.filter().lastName(TextFilter.textEqualsFilter("cached3")).execute());
+		assertEquals(hits + 1, cache.getHitCount());
+		assertTrue(cache.getStatistics().stream().anyMatch(statistics -> statistics.getHits() == 1 && statistics.getMisses() == 1));
+	}
+
+	@Test
+	public void testWriteInvalidatesCachedResult() {
+		Person.create().setLastName("invalidated").save();
+		assertEquals(1, Person.filter().lastName(TextFilter.textEqualsFilter("invalidated")).execute().size());
+
+		long invalidations = cache.getInvalidationCount();
+		Person.create().setLastName("invalidated").save();
+		assertEquals(2, Person.filter().lastName(TextFilter.textEqualsFilter("invalidated")).execute().size());
+		assertEquals(invalidations + 1, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testWriteToTableOfIndexPathInvalidatesCachedResult() {
+		Company company = Company.create().setName("before").save();
+		Person.create().setLastName("employee").setCompany(company).save();
+		assertEquals(1, Person.filter().filterCompany(Company.filter().name(TextFilter.textEqualsFilter("before"))).execute().size());
+		assertEquals(1, Person.filter().filterCompany(Company.filter().name(TextFilter.textEqualsFilter("before"))).execute().size());
+
+		company.setName("after").save();
+		assertEquals(0, Person.filter().filterCompany(Company.filter().name(TextFilter.textEqualsFilter("before"))).execute().size());
+		assertEquals(1, Person.filter().filterCompany(Company.filter().name(TextFilter.textEqualsFilter("after"))).execute().size());
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		QueryResultCache budgetCache = new QueryResultCache(4_000);
+		BitSet records = new BitSet();
+		records.set(0, 1_000);
+		for (int i = 0; i < 100; i++) {
+			budgetCache.put("query" + i, new TableIndex[0], new long[0], records);
+			assertTrue(budgetCache.getSizeInBytes() <= 4_000);
+		}
+		assertTrue(budgetCache.getEvictionCount() > 0);
+		assertNull(budgetCache.get("query0"));
+		assertEquals(records, budgetCache.get("query99"));
+	}
+}
@@ -0,0 +1,133 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.replication;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.TestDb1Model;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.UniversalDbBuilder;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.log.LogIterator;
+import org.teamapps.universaldb.index.text.TextIndex;
+import org.teamapps.universaldb.index.transaction.TransactionIndex;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequest;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecord;
+import org.teamapps.universaldb.index.transaction.request.TransactionRequestRecordType;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ReplicationTest {
+
+	private static UniversalDB leader;
+	private static UniversalDB follower;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		leader = createDb(ReplicationConfig.leader(0));
+		createPerson(leader, "before-follower-start");
+		follower = createDb(ReplicationConfig.follower("localhost", leader.getReplicationLeader().getPort()));
+	}
+
+	private static UniversalDB createDb(ReplicationConfig replicationConfig) throws Exception {
+		File tempDir = Files.createTempDirectory("temp").toFile();
+		tempDir.deleteOnExit();
+		return UniversalDbBuilder.create()
+				.basePath(tempDir)
+				.modelProvider(new TestDb1Model())
+				.databaseManager(new DatabaseManager())
+				.classLoader(new ClassLoader(null) {})
+				.replication(replicationConfig)
+				.build();
+	}
+
+	private static int createPerson(UniversalDB db, String lastName) {
+		TableIndex person = db.getDatabaseIndex().getTable("person");
+		TransactionRequest request = db.createTransactionRequest();
+		TransactionRequestRecord record = new TransactionRequestRecord(TransactionRequestRecordType.CREATE, person.getMappingId(), 0, 1);
+		record.addRecordValue(person.getFieldIndex("lastName"), lastName);
+		request.addRecord(record);
+		db.executeTransaction(request);
+		return request.getResolvedRecordIdByCorrelationId(1);
+	}
+
+	private static void awaitFollower() throws InterruptedException {
+		long lastTransactionId = leader.getTransactionIndex().getLastTransactionId();
+		long maxTime = System.currentTimeMillis() + 10_000;
+		while (follower.getTransactionIndex().getLastTransactionId() < lastTransactionId && System.currentTimeMillis() < maxTime) {
+			Thread.sleep(10);
+		}
+		assertEquals(lastTransactionId, follower.getTransactionIndex().getLastTransactionId());
+	}
+
+	private static String getLastName(UniversalDB db, int recordId) {
+		TextIndex lastName = (TextIndex) db.getDatabaseIndex().getTable("person").getFieldIndex("lastName");
+		return lastName.getValue(recordId);
+	}
+
+	@Test
+	public void testCatchUp() throws Exception {
+		awaitFollower();
+		assertEquals(leader.getDatabaseIndex().getTable("person").getCount(), follower.getDatabaseIndex().getTable("person").getCount());
+		assertEquals("before-follower-start", getLastName(follower, 1));
+	}
+
+	@Test
+	public void testLiveReplication() throws Exception {
+		int id1 = createPerson(leader, "live-1");
+		int id2 = createPerson(leader, "live-2");
+		awaitFollower();
+		assertEquals("live-1", getLastName(follower, id1));
+		assertEquals("live-2", getLastName(follower, id2));
+	}
+
+	@Test
+	public void testFollowerIsReadOnly() {
+		assertTrue(follower.isReadOnly());
+		assertFalse(leader.isReadOnly());
+		assertThrows(RuntimeException.class, () -> createPerson(follower, "not-allowed"));
+	}
+
+	@Test
+	public void testLogIteratorStartsAfterTransactionId() throws Exception {
+		createPerson(leader, "log-iterator");
+		TransactionIndex transactionIndex = leader.getTransactionIndex();
+		long lastTransactionId = transactionIndex.getLastTransactionId();
+		LogIterator logIterator = transactionIndex.getLogIterator(lastTransactionId - 1);
+		assertTrue(logIterator.hasNext());
+		assertEquals(lastTransactionId, ResolvedTransaction.readTransactionId(logIterator.next()));
+		logIterator.closeSave();
+
+		logIterator = transactionIndex.getLogIterator(lastTransactionId);
+		assertFalse(logIterator.hasNext());
+		logIterator.closeSave();
+	}
+
+	@Test
+	public void testReadTransactionId() throws Exception {
+		ResolvedTransaction transaction = leader.getTransactionIndex().getLastTransaction();
+		assertEquals(transaction.getTransactionId(), ResolvedTransaction.readTransactionId(transaction.getBytes()));
+	}
+}
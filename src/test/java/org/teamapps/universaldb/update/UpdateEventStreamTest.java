@@ -0,0 +1,161 @@
+/*-
+ * ========================LICENSE_START=================================
+ * UniversalDB
+ * ---
+ * Copyright (C) 2014 - 2025 TeamApps.org
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package org.teamapps.universaldb.update;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teamapps.datamodel.testdb1.Company;
+import org.teamapps.datamodel.testdb1.Person;
+import org.teamapps.universaldb.DatabaseManager;
+import org.teamapps.universaldb.TestBase;
+import org.teamapps.universaldb.UniversalDB;
+import org.teamapps.universaldb.index.TableIndex;
+import org.teamapps.universaldb.index.transaction.resolved.ResolvedTransaction;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class UpdateEventStreamTest {
+
+	private static UniversalDB universalDB;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		TestBase.init();
+		universalDB = DatabaseManager.getBaseInstance().getDatabase("testDb1");
+	}
+
+	private static void awaitEvents(Collection<?> events, int count) throws InterruptedException {
+		long maxTime = System.currentTimeMillis() + 10_000;
+		while (events.size() < count && System.currentTimeMillis() < maxTime) {
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void testTableFilterAndFieldChanges() throws Exception {
+		TableIndex personTable = universalDB.getDatabaseIndex().getTable("person");
+		List<RecordUpdateEvent> events = new CopyOnWriteArrayList<>();
+		UpdateEventSubscription subscription = universalDB.subscribeUpdateEvents(events::addAll, personTable);
+
+		Company.create().setName("cdc-company").save();
+		Person person = Person.create().setLastName("cdc-person").save();
+		awaitEvents(events, 1);
+		subscription.close();
+
+		assertEquals(1, events.size());
+		RecordUpdateEvent event = events.get(0);
+		assertEquals(personTable.getMappingId(), event.getTableId());
+		assertEquals(person.getId(), event.getRecordId());
+		assertEquals(RecordUpdateType.CREATE, event.getType());
+		assertTrue(event.isFieldChanged(personTable.getFieldIndex("lastName").getMappingId()));
+		assertFalse(event.isFieldChanged(personTable.getFieldIndex("firstName").getMappingId()));
+	}
+
+	@Test
+	public void testDeprecatedUpdateEventQueue() throws Exception {
+		ArrayBlockingQueue<RecordUpdateEvent> queue = universalDB.getUpdateEventQueue();
+		assertSame(queue, universalDB.getUpdateEventQueue());
+		queue.clear();
+		Person.create().setLastName("cdc-queue-no-user").save();
+		UniversalDB.setUserId(7);
+		Person person;
+		try {
+			person = Person.create().setLastName("cdc-queue").save();
+		} finally {
+			UniversalDB.setUserId(0);
+		}
+		RecordUpdateEvent event = queue.poll(10, TimeUnit.SECONDS);
+		assertNotNull(event);
+		assertEquals(person.getId(), event.getRecordId());
+		assertEquals(7, event.getUserId());
+		assertEquals(RecordUpdateType.CREATE, event.getType());
+	}
+
+	@Test
+	public void testAsyncTransactionEvents() throws Exception {
+		TableIndex companyTable = universalDB.getDatabaseIndex().getTable("company");
+		List<RecordUpdateEvent> events = new CopyOnWriteArrayList<>();
+		UpdateEventSubscription subscription = universalDB.subscribeUpdateEvents(events::addAll, companyTable);
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ids.add(Company.create().setName("cdc-async-" + i).saveRecordAsync(universalDB).get(10, TimeUnit.SECONDS).getId());
+		}
+		awaitEvents(events, 5);
+		subscription.close();
+		assertEquals(ids, events.stream().map(RecordUpdateEvent::getRecordId).collect(Collectors.toList()));
+		for (RecordUpdateEvent event : events) {
+			assertTrue(event.getTransactionId() <= universalDB.getTransactionIndex().getLastTransactionId());
+		}
+	}
+
+	@Test
+	public void testMultipleSubscribers() throws Exception {
+		List<RecordUpdateEvent> events1 = new CopyOnWriteArrayList<>();
+		List<RecordUpdateEvent> events2 = new CopyOnWriteArrayList<>();
+		UpdateEventSubscription subscription1 = universalDB.subscribeUpdateEvents(events1::addAll);
+		UpdateEventSubscription subscription2 = universalDB.subscribeUpdateEvents(events2::addAll);
+		for (int i = 0; i < 10; i++) {
+			Company.create().setName("multi-" + i).save();
+		}
+		awaitEvents(events1, 10);
+		awaitEvents(events2, 10);
+		subscription1.close();
+		subscription2.close();
+		assertEquals(10, events1.size());
+		assertEquals(10, events2.size());
+	}
+
+	@Test
+	public void testRecoveryFromTransactionLog() throws Exception {
+		long startTransactionId = universalDB.getTransactionIndex().getLastTransactionId();
+		UpdateEventStream stream = new UpdateEventStream(universalDB.getTransactionIndex(), 1024);
+		CountDownLatch latch = new CountDownLatch(1);
+		Set<Integer> receivedIds = ConcurrentHashMap.newKeySet();
+		UpdateEventSubscription subscription = stream.subscribe(batch -> {
+			try {
+				latch.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			batch.forEach(event -> receivedIds.add(event.getRecordId()));
+		});
+
+		Set<Integer> createdIds = new HashSet<>();
+		for (int i = 0; i < 500; i++) {
+			createdIds.add(Company.create().setName("lapped-" + i).save().getId());
+		}
+		List<ResolvedTransaction> transactions = universalDB.getTransactionIndex().getTransactions(startTransactionId).collect(Collectors.toList());
+		transactions.forEach(stream::publish);
+		latch.countDown();
+
+		awaitEvents(receivedIds, createdIds.size());
+		subscription.close();
+		assertTrue(subscription.getRecoveries() > 0);
+		assertTrue(receivedIds.containsAll(createdIds));
+	}
+}